@@ -11,6 +11,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.tron.common.utils.Commons;
 import org.tron.common.utils.DecodeUtil;
 import org.tron.core.capsule.AccountCapsule;
+import org.tron.core.capsule.TransactionCapsule;
 import org.tron.core.capsule.TransactionResultCapsule;
 import org.tron.core.exception.BalanceInsufficientException;
 import org.tron.core.exception.ContractExeException;
@@ -51,6 +52,7 @@ public class AccountPermissionUpdateActuator extends AbstractActuator {
           accountPermissionUpdateContract.getWitness(),
           accountPermissionUpdateContract.getActivesList());
       accountStore.put(ownerAddress, account);
+      TransactionCapsule.invalidateSigners(ownerAddress);
 
       Commons.adjustBalance(accountStore, ownerAddress, -fee);
       if (chainBaseManager.getDynamicPropertiesStore().supportBlackHoleOptimization()) {
@@ -2,7 +2,7 @@ package org.tron.core.vm;
 
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
-import java.util.function.Function;
+import java.util.function.ToLongFunction;
 import org.tron.core.vm.program.Program;
 
 public class Operation {
@@ -10,23 +10,36 @@ public class Operation {
   private final int opcode;
   private final int require;
   private final int ret;
-  private final Function<Program, Long> cost;
+  private final ToLongFunction<Program> cost;
   private final Consumer<Program> action;
   private final BooleanSupplier enabled;
+  // resolved once so that the interpreter loop does no lookups per instruction
+  private final String name;
+  private final boolean call;
 
   public Operation(int opcode, int require, int ret,
-                      Function<Program, Long> cost, Consumer<Program> action) {
+                      ToLongFunction<Program> cost, Consumer<Program> action) {
     this(opcode, require, ret, cost, action, () -> true);
   }
 
   public Operation(int opcode, int require, int ret,
-      Function<Program, Long> cost, Consumer<Program> action, BooleanSupplier enabled) {
+      ToLongFunction<Program> cost, Consumer<Program> action, BooleanSupplier enabled) {
     this.opcode = opcode;
     this.require = require;
     this.ret = ret;
     this.cost = cost;
     this.action = action;
     this.enabled = enabled;
+    this.name = opcode >= 0 ? Op.getNameOf(opcode) : null;
+    this.call = isCallOp(opcode);
+  }
+
+  private static boolean isCallOp(int opcode) {
+    return opcode == Op.CALL
+        || opcode == Op.STATICCALL
+        || opcode == Op.DELEGATECALL
+        || opcode == Op.CALLCODE
+        || opcode == Op.CALLTOKEN;
   }
 
   public int getOpcode() {
@@ -41,8 +54,19 @@ public class Operation {
     return ret;
   }
 
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * CALL ops have special calculation on energy.
+   */
+  public boolean isCall() {
+    return call;
+  }
+
   public long getEnergyCost(Program program) {
-    return this.cost.apply(program);
+    return this.cost.applyAsLong(program);
   }
 
   public void execute(Program program) {
@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.List;
 import org.tron.common.runtime.vm.DataWord;
 import org.tron.common.runtime.vm.LogInfo;
+import org.tron.common.runtime.vm.UInt256;
 import org.tron.core.vm.config.VMConfig;
 import org.tron.core.vm.program.Program;
 import org.tron.core.vm.program.Stack;
@@ -25,7 +26,7 @@ public class OperationActions {
     DataWord word1 = program.stackPop();
     DataWord word2 = program.stackPop();
 
-    word1.add(word2);
+    UInt256.add(word1, word2);
     program.stackPush(word1);
     program.step();
   }
@@ -34,7 +35,7 @@ public class OperationActions {
     DataWord word1 = program.stackPop();
     DataWord word2 = program.stackPop();
 
-    word1.mul(word2);
+    UInt256.mul(word1, word2);
     program.stackPush(word1);
     program.step();
   }
@@ -43,7 +44,7 @@ public class OperationActions {
     DataWord word1 = program.stackPop();
     DataWord word2 = program.stackPop();
 
-    word1.sub(word2);
+    UInt256.sub(word1, word2);
     program.stackPush(word1);
     program.step();
   }
@@ -52,7 +53,7 @@ public class OperationActions {
     DataWord word1 = program.stackPop();
     DataWord word2 = program.stackPop();
 
-    word1.div(word2);
+    UInt256.div(word1, word2);
     program.stackPush(word1);
     program.step();
   }
@@ -61,7 +62,7 @@ public class OperationActions {
     DataWord word1 = program.stackPop();
     DataWord word2 = program.stackPop();
 
-    word1.sDiv(word2);
+    UInt256.sDiv(word1, word2);
     program.stackPush(word1);
     program.step();
   }
@@ -70,7 +71,7 @@ public class OperationActions {
     DataWord word1 = program.stackPop();
     DataWord word2 = program.stackPop();
 
-    word1.mod(word2);
+    UInt256.mod(word1, word2);
     program.stackPush(word1);
     program.step();
   }
@@ -79,7 +80,7 @@ public class OperationActions {
     DataWord word1 = program.stackPop();
     DataWord word2 = program.stackPop();
 
-    word1.sMod(word2);
+    UInt256.sMod(word1, word2);
     program.stackPush(word1);
     program.step();
   }
@@ -108,7 +109,7 @@ public class OperationActions {
     DataWord word1 = program.stackPop();
     DataWord word2 = program.stackPop();
 
-    word1.exp(word2);
+    UInt256.exp(word1, word2);
     program.stackPush(word1);
     program.step();
   }
@@ -129,7 +130,7 @@ public class OperationActions {
     DataWord word1 = program.stackPop();
     DataWord word2 = program.stackPop();
 
-    if (word1.value().compareTo(word2.value()) < 0) {
+    if (UInt256.compare(word1, word2) < 0) {
       word1.and(DataWord.ZERO);
       word1.getData()[31] = 1;
     } else {
@@ -143,7 +144,7 @@ public class OperationActions {
     DataWord word1 = program.stackPop();
     DataWord word2 = program.stackPop();
 
-    if (word1.value().compareTo(word2.value()) > 0) {
+    if (UInt256.compare(word1, word2) > 0) {
       word1.and(DataWord.ZERO);
       word1.getData()[31] = 1;
     } else {
@@ -157,7 +158,7 @@ public class OperationActions {
     DataWord word1 = program.stackPop();
     DataWord word2 = program.stackPop();
 
-    if (word1.sValue().compareTo(word2.sValue()) < 0) {
+    if (UInt256.signedCompare(word1, word2) < 0) {
       word1.and(DataWord.ZERO);
       word1.getData()[31] = 1;
     } else {
@@ -171,7 +172,7 @@ public class OperationActions {
     DataWord word1 = program.stackPop();
     DataWord word2 = program.stackPop();
 
-    if (word1.sValue().compareTo(word2.sValue()) > 0) {
+    if (UInt256.signedCompare(word1, word2) > 0) {
       word1.and(DataWord.ZERO);
       word1.getData()[31] = 1;
     } else {
@@ -264,7 +265,7 @@ public class OperationActions {
     DataWord word1 = program.stackPop();
     DataWord word2 = program.stackPop();
 
-    final DataWord result = word2.shiftLeft(word1);
+    final DataWord result = UInt256.shiftLeft(word2, word1);
     program.stackPush(result);
     program.step();
   }
@@ -273,7 +274,7 @@ public class OperationActions {
     DataWord word1 = program.stackPop();
     DataWord word2 = program.stackPop();
 
-    final DataWord result = word2.shiftRight(word1);
+    final DataWord result = UInt256.shiftRight(word2, word1);
     program.stackPush(result);
     program.step();
   }
@@ -282,7 +283,7 @@ public class OperationActions {
     DataWord word1 = program.stackPop();
     DataWord word2 = program.stackPop();
 
-    final DataWord result = word2.shiftRightSigned(word1);
+    final DataWord result = UInt256.shiftRightSigned(word2, word1);
     program.stackPush(result);
     program.step();
   }
@@ -657,11 +658,8 @@ public class OperationActions {
   }
 
   public static void dupAction(Program program) {
-    Stack stack = program.getStack();
     int n = program.getCurrentOpIntValue() - Op.DUP1 + 1;
-    DataWord word_1 = stack.get(stack.size() - n);
-
-    program.stackPush(word_1.clone());
+    program.getStack().dup(n);
     program.step();
   }
 
@@ -19,11 +19,17 @@ public class OperationRegistry {
 
   private static final Map<Version, JumpTable> tableMap = new HashMap<>();
 
+  // the newest table with the changes of allowHigherLimitForMaxCpuTimeOfOneTx applied
+  private static final JumpTable adjustedMemTable;
+
   static {
     tableMap.put(Version.TRON_V1_0, newTronV10OperationSet());
     tableMap.put(Version.TRON_V1_1, newTronV11OperationSet());
     tableMap.put(Version.TRON_V1_2, newTronV12OperationSet());
     tableMap.put(Version.TRON_V1_3, newTronV13OperationSet());
+
+    adjustedMemTable = newTronV13OperationSet();
+    adjustMemOperations(adjustedMemTable);
   }
 
   public static JumpTable newTronV10OperationSet() {
@@ -59,15 +65,17 @@ public class OperationRegistry {
   public static void init() {}
 
   public static JumpTable getTable() {
-    // always get the table which has the newest version
-    JumpTable table = tableMap.get(Version.TRON_V1_3);
-
-    // next make the corresponding changes, exclude activating opcode
+    // the corresponding changes, exclude activating opcode, are built ahead of time
     if (VMConfig.allowHigherLimitForMaxCpuTimeOfOneTx()) {
-      adjustMemOperations(table);
+      return adjustedMemTable;
     }
 
-    return table;
+    // always get the table which has the newest version
+    return tableMap.get(Version.TRON_V1_3);
+  }
+
+  public static JumpTable getTable(Version version) {
+    return tableMap.get(version);
   }
 
   public static JumpTable newBaseOperationSet() {
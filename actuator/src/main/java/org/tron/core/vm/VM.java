@@ -2,11 +2,11 @@ package org.tron.core.vm;
 
 import static org.tron.core.Constant.DYNAMIC_ENERGY_FACTOR_DECIMAL;
 
-import com.google.common.collect.ImmutableSet;
-import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.bouncycastle.util.encoders.Hex;
 import org.springframework.util.StringUtils;
+import org.tron.common.profiler.BlockProfile;
+import org.tron.common.profiler.BlockProfiler;
 import org.tron.core.vm.config.VMConfig;
 import org.tron.core.vm.program.Program;
 import org.tron.core.vm.program.Program.JVMStackOverFlowException;
@@ -16,20 +16,21 @@ import org.tron.core.vm.program.Program.TransferException;
 @Slf4j(topic = "VM")
 public class VM {
 
-  private static final Set<Integer> CALL_OPS = ImmutableSet.of(Op.CALL, Op.STATICCALL,
-      Op.DELEGATECALL, Op.CALLCODE, Op.CALLTOKEN);
-
   public static void play(Program program, JumpTable jumpTable) {
     try {
       long factor = DYNAMIC_ENERGY_FACTOR_DECIMAL;
       long energyUsage = 0L;
+      // both switches are fixed for the whole execution
+      final boolean allowDynamicEnergy = VMConfig.allowDynamicEnergy();
+      final boolean vmTrace = VMConfig.vmTrace();
+      final BlockProfile profile = BlockProfiler.current();
 
-      if (VMConfig.allowDynamicEnergy()) {
+      if (allowDynamicEnergy) {
         factor = program.updateContextContractFactor();
       }
 
       while (!program.isStopped()) {
-        if (VMConfig.vmTrace()) {
+        if (vmTrace) {
           program.saveOpTrace();
         }
 
@@ -44,13 +45,13 @@ public class VM {
           program.verifyStackSize(op.getRequire());
           program.verifyStackOverflow(op.getRequire(), op.getRet());
 
-          String opName = Op.getNameOf(op.getOpcode());
+          String opName = op.getName();
           /* spend energy before execution */
           long energy = op.getEnergyCost(program);
-          if (VMConfig.allowDynamicEnergy()) {
+          if (allowDynamicEnergy) {
             long actualEnergy = energy;
             // CALL Ops have special calculation on energy.
-            if (CALL_OPS.contains(op.getOpcode())) {
+            if (op.isCall()) {
               actualEnergy = energy
                   - program.getAdjustedCallEnergy().longValueSafe()
                   - program.getCallPenaltyEnergy();
@@ -61,7 +62,7 @@ public class VM {
               long penalty;
 
               // CALL Ops have special calculation on energy.
-              if (CALL_OPS.contains(op.getOpcode())) {
+              if (op.isCall()) {
                 penalty = program.getCallPenaltyEnergy();
               } else {
                 penalty = energy * factor / DYNAMIC_ENERGY_FACTOR_DECIMAL - energy;
@@ -85,7 +86,13 @@ public class VM {
           program.checkCPUTimeLimit(opName);
 
           /* exec op action */
-          op.execute(program);
+          if (profile != null) {
+            long start = System.nanoTime();
+            op.execute(program);
+            profile.opcode(op.getOpcode(), opName, System.nanoTime() - start);
+          } else {
+            op.execute(program);
+          }
 
           program.setPreviouslyExecutedOp((byte) op.getOpcode());
         } catch (RuntimeException e) {
@@ -101,7 +108,7 @@ public class VM {
         }
       }
 
-      if (VMConfig.allowDynamicEnergy()) {
+      if (allowDynamicEnergy) {
         program.addContextContractUsage(energyUsage);
       }
 
@@ -13,6 +13,9 @@ public class VMConfig {
   @Setter
   private static boolean vmTrace = false;
 
+  @Setter
+  private static boolean contiguousMemory = false;
+
   private static boolean ALLOW_TVM_TRANSFER_TRC10 = false;
 
   private static boolean ALLOW_TVM_CONSTANTINOPLE = false;
@@ -56,6 +59,10 @@ public class VMConfig {
     return vmTrace;
   }
 
+  public static boolean contiguousMemory() {
+    return contiguousMemory;
+  }
+
   public static boolean vmTraceCompressed() {
     return vmTraceCompressed;
   }
@@ -0,0 +1,151 @@
+package org.tron.core.vm.program;
+
+import static java.lang.Math.ceil;
+import static org.tron.common.utils.ByteUtil.EMPTY_BYTE_ARRAY;
+
+import java.util.LinkedList;
+import java.util.List;
+import org.tron.common.runtime.vm.DataWord;
+
+/**
+ * Memory backed by a single byte array which doubles its capacity on growth. The observable
+ * behaviour (soft size, listener callbacks, limited writes) is identical to the chunked
+ * {@link Memory}, only the storage layout differs, so both can be switched by
+ * {@link org.tron.core.vm.config.VMConfig#contiguousMemory()}.
+ */
+public class ContiguousMemory extends Memory {
+
+  private static final int INITIAL_CAPACITY = 1024;
+  // some VMs reserve header words in an array
+  private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+  private byte[] buffer = EMPTY_BYTE_ARRAY;
+  private int softSize;
+
+  @Override
+  public byte[] read(int address, int size) {
+    if (size <= 0) {
+      return EMPTY_BYTE_ARRAY;
+    }
+
+    extend(address, size);
+    byte[] data = new byte[size];
+    System.arraycopy(buffer, address, data, 0, size);
+    return data;
+  }
+
+  @Override
+  public void write(int address, byte[] data, int dataSize, boolean limited) {
+    if (data.length < dataSize) {
+      dataSize = data.length;
+    }
+
+    if (!limited) {
+      extend(address, dataSize);
+    }
+
+    int toCapture;
+    if (limited) {
+      toCapture = (address + dataSize > softSize) ? softSize - address : dataSize;
+    } else {
+      toCapture = dataSize;
+    }
+
+    if (toCapture > 0) {
+      System.arraycopy(data, 0, buffer, address, toCapture);
+    }
+
+    if (programListener != null) {
+      programListener.onMemoryWrite(address, data, dataSize);
+    }
+  }
+
+  @Override
+  public void extend(int address, int size) {
+    if (size <= 0) {
+      return;
+    }
+
+    final int newSize = Math.addExact(address, size);
+    if (newSize > buffer.length) {
+      grow(newSize);
+    }
+
+    int toAllocate = newSize - softSize;
+    if (toAllocate > 0) {
+      toAllocate = (int) ceil((double) toAllocate / WORD_SIZE) * WORD_SIZE;
+      softSize = Math.addExact(softSize, toAllocate);
+
+      if (programListener != null) {
+        programListener.onMemoryExtend(toAllocate);
+      }
+    }
+  }
+
+  @Override
+  public DataWord readWord(int address) {
+    extend(address, WORD_SIZE);
+    byte[] data = new byte[WORD_SIZE];
+    System.arraycopy(buffer, address, data, 0, WORD_SIZE);
+    return new DataWord(data);
+  }
+
+  @Override
+  public void writeWord(int address, DataWord word) {
+    byte[] data = word.getData();
+    if (data.length != WORD_SIZE) {
+      super.writeWord(address, word);
+      return;
+    }
+
+    extend(address, WORD_SIZE);
+    System.arraycopy(data, 0, buffer, address, WORD_SIZE);
+
+    if (programListener != null) {
+      programListener.onMemoryWrite(address, data, WORD_SIZE);
+    }
+  }
+
+  @Override
+  public byte readByte(int address) {
+    return buffer[address];
+  }
+
+  @Override
+  public int size() {
+    return softSize;
+  }
+
+  @Override
+  public int internalSize() {
+    return buffer.length;
+  }
+
+  /**
+   * Splits the buffer into 1 KB chunks, only kept for compatibility with callers of the chunked
+   * layout.
+   */
+  @Override
+  public List<byte[]> getChunks() {
+    List<byte[]> chunks = new LinkedList<>();
+    for (int i = 0; i < softSize; i += INITIAL_CAPACITY) {
+      byte[] chunk = new byte[INITIAL_CAPACITY];
+      System.arraycopy(buffer, i, chunk, 0, Math.min(INITIAL_CAPACITY, buffer.length - i));
+      chunks.add(chunk);
+    }
+    return chunks;
+  }
+
+  private void grow(int minCapacity) {
+    long capacity = Math.max(INITIAL_CAPACITY, (long) buffer.length << 1);
+    while (capacity < minCapacity) {
+      capacity <<= 1;
+    }
+    if (capacity > MAX_CAPACITY) {
+      capacity = minCapacity;
+    }
+    byte[] newBuffer = new byte[(int) capacity];
+    System.arraycopy(buffer, 0, newBuffer, 0, buffer.length);
+    buffer = newBuffer;
+  }
+}
@@ -15,11 +15,11 @@ import org.tron.core.vm.program.listener.ProgramListenerAware;
 public class Memory implements ProgramListenerAware {
 
   private static final int CHUNK_SIZE = 1024;
-  private static final int WORD_SIZE = 32;
+  protected static final int WORD_SIZE = 32;
 
   private List<byte[]> chunks = new LinkedList<>();
   private int softSize;
-  private ProgramListener programListener;
+  protected ProgramListener programListener;
 
   @Override
   public void setProgramListener(ProgramListener traceListener) {
@@ -125,6 +125,11 @@ public class Memory implements ProgramListenerAware {
     return new DataWord(read(address, 32));
   }
 
+  public void writeWord(int address, DataWord word) {
+    byte[] data = word.getData();
+    write(address, data, data.length, false);
+  }
+
   // just access expecting all data valid
   public byte readByte(int address) {
 
@@ -143,7 +148,8 @@ public class Memory implements ProgramListenerAware {
     StringBuilder firstLine = new StringBuilder();
     StringBuilder secondLine = new StringBuilder();
 
-    for (int i = 0; i < softSize; ++i) {
+    int memorySize = size();
+    for (int i = 0; i < memorySize; ++i) {
 
       byte value = readByte(i);
 
@@ -158,7 +164,7 @@ public class Memory implements ProgramListenerAware {
         memoryData.append("").append(tmp).append(" ");
         memoryData.append(firstLine).append(" ");
         memoryData.append(secondLine);
-        if (i + 1 < softSize) {
+        if (i + 1 < memorySize) {
           memoryData.append("\n");
         }
         firstLine.setLength(0);
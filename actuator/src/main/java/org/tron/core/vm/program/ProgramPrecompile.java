@@ -1,24 +1,42 @@
 package org.tron.core.vm.program;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.BitSet;
 import lombok.extern.slf4j.Slf4j;
+import org.tron.common.cache.CacheManager;
+import org.tron.common.cache.CacheStrategies;
+import org.tron.common.cache.CacheType;
+import org.tron.common.cache.TronCache;
+import org.tron.common.parameter.CommonParameter;
 import org.tron.common.runtime.vm.DataWord;
 import org.tron.core.vm.Op;
 import org.tron.core.vm.config.VMConfig;
+import org.tron.core.vm.repository.Key;
 
 @Slf4j(topic = "VM")
 public class ProgramPrecompile {
 
-  private final Set<Integer> jumpDest = new HashSet<>();
+  private static final TronCache<Key, ProgramPrecompile> CACHE = CacheManager.allocate(
+      CacheType.codeAnalysis, String.format(CacheStrategies.PATTERNS,
+          CommonParameter.getInstance().getSafeLruCacheSize(),
+          CommonParameter.getInstance().getSafeLruCacheSize(), "30s",
+          Runtime.getRuntime().availableProcessors()));
+
+  // the analysed code, compared on every cache hit so that an entry can't be used for other code
+  private final byte[] code;
+  private final BitSet jumpDest = new BitSet();
+
+  private ProgramPrecompile(byte[] code) {
+    this.code = code;
+  }
 
   public static ProgramPrecompile compile(byte[] ops) {
-    ProgramPrecompile ret = new ProgramPrecompile();
+    ProgramPrecompile ret = new ProgramPrecompile(ops);
     for (int i = 0; i < ops.length; ++i) {
       int op = ops[i] & 0xff;
 
       if (op == Op.JUMPDEST) {
-        ret.jumpDest.add(i);
+        ret.jumpDest.set(i);
       }
 
       if (op >= Op.PUSH1 && op <= Op.PUSH32) {
@@ -28,6 +46,24 @@ public class ProgramPrecompile {
     return ret;
   }
 
+  /**
+   * Returns the analysis of code shared by all contracts with the same code hash. A cached entry
+   * is only used if it was built from exactly the same bytes, the stored code hash of a contract
+   * is not trusted on its own.
+   */
+  public static ProgramPrecompile getCached(byte[] codeHash, byte[] ops) {
+    Key key = Key.create(codeHash);
+    ProgramPrecompile cached = CACHE.getIfPresent(key);
+    if (cached != null && Arrays.equals(cached.code, ops)) {
+      return cached;
+    }
+    ProgramPrecompile ret = compile(ops);
+    if (cached == null) {
+      CACHE.put(key, ret);
+    }
+    return ret;
+  }
+
   public static byte[] getCode(byte[] ops) {
     for (int i = 0; i < ops.length; ++i) {
 
@@ -54,6 +90,6 @@ public class ProgramPrecompile {
   }
 
   public boolean hasJumpDest(int pc) {
-    return jumpDest.contains(pc);
+    return pc >= 0 && jumpDest.get(pc);
   }
 }
@@ -1,35 +1,75 @@
 package org.tron.core.vm.program;
 
+import java.util.Arrays;
+import java.util.EmptyStackException;
 import java.util.Objects;
 import org.tron.common.runtime.vm.DataWord;
 import org.tron.core.vm.program.listener.ProgramListener;
 import org.tron.core.vm.program.listener.ProgramListenerAware;
 
-public class Stack extends java.util.Stack<DataWord> implements ProgramListenerAware {
+/**
+ * Operand stack of the TVM. A program is executed by a single thread, so the slots live in a
+ * plain fixed-size array without the locking of {@link java.util.Stack}. Overflow is checked by
+ * {@link Program#verifyStackOverflow(int, int)} before any word is pushed.
+ */
+public class Stack implements ProgramListenerAware {
 
-  private static final long serialVersionUID = 1;
+  public static final int MAX_SIZE = 1024;
 
-  private transient ProgramListener programListener;
+  private final DataWord[] slots = new DataWord[MAX_SIZE];
+  private int size;
+
+  private ProgramListener programListener;
 
   @Override
   public void setProgramListener(ProgramListener listener) {
     this.programListener = listener;
   }
 
-  @Override
-  public synchronized DataWord pop() {
+  public DataWord pop() {
+    if (size == 0) {
+      throw new EmptyStackException();
+    }
     if (programListener != null) {
       programListener.onStackPop();
     }
-    return super.pop();
+    DataWord item = slots[--size];
+    slots[size] = null;
+    return item;
   }
 
-  @Override
   public DataWord push(DataWord item) {
     if (programListener != null) {
       programListener.onStackPush(item);
     }
-    return super.push(item);
+    slots[size++] = item;
+    return item;
+  }
+
+  public DataWord peek() {
+    if (size == 0) {
+      throw new EmptyStackException();
+    }
+    return slots[size - 1];
+  }
+
+  public DataWord get(int index) {
+    checkIndex(index);
+    return slots[index];
+  }
+
+  public DataWord set(int index, DataWord item) {
+    checkIndex(index);
+    DataWord old = slots[index];
+    slots[index] = item;
+    return old;
+  }
+
+  /**
+   * Pushes a copy of the n-th word from the top, the top word is <code>n = 1</code>.
+   */
+  public void dup(int n) {
+    push(get(size - n).clone());
   }
 
   public void swap(int from, int to) {
@@ -37,13 +77,28 @@ public class Stack extends java.util.Stack<DataWord> implements ProgramListenerA
       if (programListener != null) {
         programListener.onStackSwap(from, to);
       }
-      DataWord tmp = get(from);
-      set(from, set(to, tmp));
+      DataWord tmp = slots[from];
+      slots[from] = slots[to];
+      slots[to] = tmp;
     }
   }
 
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
   private boolean isAccessible(int from) {
-    return from >= 0 && from < size();
+    return from >= 0 && from < size;
+  }
+
+  private void checkIndex(int index) {
+    if (!isAccessible(index)) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
   }
 
   @Override
@@ -57,16 +112,29 @@ public class Stack extends java.util.Stack<DataWord> implements ProgramListenerA
     if (o.getClass() != this.getClass()) {
       return false;
     }
-    if (!super.equals(o)) {
+    Stack dataWords = (Stack) o;
+    if (size != dataWords.size) {
       return false;
     }
-    Stack dataWords = (Stack) o;
+    for (int i = 0; i < size; i++) {
+      if (!Objects.equals(slots[i], dataWords.slots[i])) {
+        return false;
+      }
+    }
     return Objects.equals(programListener, dataWords.programListener);
   }
 
-
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), programListener);
+    int result = 1;
+    for (int i = 0; i < size; i++) {
+      result = 31 * result + Objects.hashCode(slots[i]);
+    }
+    return Objects.hash(result, programListener);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(Arrays.copyOf(slots, size));
   }
 }
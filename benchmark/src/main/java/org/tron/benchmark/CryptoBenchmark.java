@@ -0,0 +1,57 @@
+package org.tron.benchmark;
+
+import java.security.SecureRandom;
+import java.security.SignatureException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tron.common.crypto.SignInterface;
+import org.tron.common.crypto.SignUtils;
+import org.tron.common.utils.Sha256Hash;
+
+/**
+ * Signing a transaction hash and recovering its signer, with both crypto engines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptoBenchmark {
+
+  @Param({"ECKey", "SM2"})
+  private String engine;
+
+  private boolean isECKey;
+  private SignInterface key;
+  private byte[] hash;
+  private String signature;
+
+  @Setup
+  public void setup() {
+    isECKey = "ECKey".equals(engine);
+    key = SignUtils.getGeneratedRandomSign(new SecureRandom(), isECKey);
+    hash = Sha256Hash.hash(isECKey, "tron".getBytes());
+    signature = key.signHash(hash);
+  }
+
+  @Benchmark
+  public String sign() {
+    return key.signHash(hash);
+  }
+
+  @Benchmark
+  public byte[] recover() throws SignatureException {
+    return SignUtils.signatureToAddress(hash, signature, isECKey);
+  }
+}
@@ -0,0 +1,148 @@
+package org.tron.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tron.common.runtime.vm.DataWord;
+import org.tron.common.runtime.vm.UInt256;
+
+/**
+ * The 256-bit arithmetic of the VM, the BigInteger based methods of DataWord next to UInt256,
+ * which the opcodes call, on the same operands. Each operation works on a copy of full-width
+ * operands, so the copy is part of the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataWordBenchmark {
+
+  private DataWord a;
+  private DataWord b;
+  private DataWord m;
+  private DataWord exponent;
+
+  @Setup
+  public void setup() {
+    a = new DataWord("f3a1c57e9b0d2468ace13579bdf02468ace13579bdf02468ace13579bdf0246a");
+    b = new DataWord("00000000000000000000000000000000ace13579bdf02468ace13579bdf02469");
+    m = new DataWord("7fffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffed");
+    exponent = new DataWord(255);
+  }
+
+  @Benchmark
+  public DataWord copy() {
+    return a.clone();
+  }
+
+  @Benchmark
+  public DataWord add() {
+    DataWord r = a.clone();
+    r.add(b);
+    return r;
+  }
+
+  @Benchmark
+  public DataWord sub() {
+    DataWord r = a.clone();
+    r.sub(b);
+    return r;
+  }
+
+  @Benchmark
+  public DataWord mul() {
+    DataWord r = a.clone();
+    r.mul(b);
+    return r;
+  }
+
+  @Benchmark
+  public DataWord div() {
+    DataWord r = a.clone();
+    r.div(b);
+    return r;
+  }
+
+  @Benchmark
+  public DataWord sDiv() {
+    DataWord r = a.clone();
+    r.sDiv(b);
+    return r;
+  }
+
+  @Benchmark
+  public DataWord mulmod() {
+    DataWord r = a.clone();
+    r.mulmod(b, m);
+    return r;
+  }
+
+  @Benchmark
+  public DataWord exp() {
+    DataWord r = b.clone();
+    r.exp(exponent);
+    return r;
+  }
+
+  @Benchmark
+  public DataWord addUInt256() {
+    DataWord r = a.clone();
+    UInt256.add(r, b);
+    return r;
+  }
+
+  @Benchmark
+  public DataWord subUInt256() {
+    DataWord r = a.clone();
+    UInt256.sub(r, b);
+    return r;
+  }
+
+  @Benchmark
+  public DataWord mulUInt256() {
+    DataWord r = a.clone();
+    UInt256.mul(r, b);
+    return r;
+  }
+
+  @Benchmark
+  public DataWord divUInt256() {
+    DataWord r = a.clone();
+    UInt256.div(r, b);
+    return r;
+  }
+
+  @Benchmark
+  public DataWord sDivUInt256() {
+    DataWord r = a.clone();
+    UInt256.sDiv(r, b);
+    return r;
+  }
+
+  @Benchmark
+  public DataWord expUInt256() {
+    DataWord r = b.clone();
+    UInt256.exp(r, exponent);
+    return r;
+  }
+
+  @Benchmark
+  public int compare() {
+    return a.compareTo(b);
+  }
+
+  @Benchmark
+  public int compareUInt256() {
+    return UInt256.compare(a, b);
+  }
+}
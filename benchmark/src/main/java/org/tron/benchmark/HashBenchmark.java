@@ -0,0 +1,50 @@
+package org.tron.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tron.common.crypto.Hash;
+import org.tron.common.utils.Sha256Hash;
+
+/**
+ * SHA-256 of ids and merkle leaves and Keccak-256 of the VM and addresses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashBenchmark {
+
+  @Param({"32", "256", "4096"})
+  private int size;
+
+  private byte[] data;
+
+  @Setup
+  public void setup() {
+    data = new byte[size];
+    new Random(size).nextBytes(data);
+  }
+
+  @Benchmark
+  public byte[] sha256() {
+    return Sha256Hash.hash(true, data);
+  }
+
+  @Benchmark
+  public byte[] keccak256() {
+    return Hash.sha3(data);
+  }
+}
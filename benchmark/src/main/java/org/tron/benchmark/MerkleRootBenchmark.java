@@ -0,0 +1,80 @@
+package org.tron.benchmark;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.capsule.utils.MerkleTree;
+import org.tron.core.capsule.utils.TransactionMerkleRoot;
+import org.tron.protos.Protocol.Transaction;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+
+/**
+ * The transaction merkle root of a block of {@code size} transactions, each hashed again: by
+ * the tree (tree), by subtrees in parallel (parallel) and appended one by one (append).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MerkleRootBenchmark {
+
+  @Param({"200", "2000"})
+  private int size;
+
+  private final List<Transaction> transactions = new ArrayList<>();
+
+  @Setup
+  public void setup() {
+    Random random = new Random(size);
+    for (int i = 0; i < size; i++) {
+      byte[] address = new byte[21];
+      random.nextBytes(address);
+      transactions.add(new TransactionCapsule(TransferContract.newBuilder()
+          .setOwnerAddress(ByteString.copyFrom(address)).setToAddress(ByteString.copyFrom(address))
+          .setAmount(random.nextInt(1_000_000)).build(), ContractType.TransferContract)
+          .getInstance());
+    }
+  }
+
+  private List<TransactionCapsule> capsules() {
+    return transactions.stream().map(TransactionCapsule::new).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public Sha256Hash tree() {
+    List<Sha256Hash> ids = capsules().stream().map(TransactionCapsule::getMerkleHash)
+        .collect(Collectors.toList());
+    return MerkleTree.getInstance().createTree(ids).getRoot().getHash();
+  }
+
+  @Benchmark
+  public Sha256Hash parallel() {
+    return TransactionMerkleRoot.of(capsules());
+  }
+
+  @Benchmark
+  public Sha256Hash append() {
+    TransactionMerkleRoot.Appender appender = new TransactionMerkleRoot.Appender();
+    capsules().forEach(appender::append);
+    return appender.root();
+  }
+}
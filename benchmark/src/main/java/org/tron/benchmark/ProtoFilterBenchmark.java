@@ -0,0 +1,160 @@
+package org.tron.benchmark;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.GeneratedMessageV3;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tron.common.overlay.message.Message;
+import org.tron.core.actuator.TransactionFactory;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.protos.Protocol.Block;
+import org.tron.protos.Protocol.BlockHeader;
+import org.tron.protos.Protocol.Transaction;
+import org.tron.protos.Protocol.Transaction.Contract;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+import org.tron.protos.contract.SmartContractOuterClass.TriggerSmartContract;
+
+/**
+ * The proto filter of an inbound block: the block is parsed dropping unknown fields, then checked
+ * by serializing it and every contract again (legacy), or by its serialized size and a scan of
+ * every contract (scan).
+ *
+ * <p>The blocks are recorded blocks when {@code blocks} is a directory of files holding one
+ * block each, as stored in the block database, a synthetic block of {@code size} transactions
+ * otherwise.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProtoFilterBenchmark {
+
+  @Param({""})
+  private String blocks;
+
+  @Param({"2000"})
+  private int size;
+
+  private final List<byte[]> data = new ArrayList<>();
+
+  @Setup
+  public void setup() throws IOException {
+    if (blocks.isEmpty()) {
+      data.add(synthetic(size));
+      return;
+    }
+    File[] files = new File(blocks).listFiles(File::isFile);
+    if (files == null || files.length == 0) {
+      throw new IllegalArgumentException("no block in " + blocks);
+    }
+    Arrays.sort(files);
+    for (File file : files) {
+      data.add(Files.readAllBytes(file.toPath()));
+    }
+  }
+
+  private static byte[] synthetic(int size) {
+    Random random = new Random(size);
+    Block.Builder block = Block.newBuilder().setBlockHeader(BlockHeader.newBuilder()
+        .setRawData(BlockHeader.raw.newBuilder().setNumber(1).setTimestamp(3000))
+        .setWitnessSignature(bytes(random, 65)));
+    for (int i = 0; i < size; i++) {
+      Contract contract;
+      if (i % 2 == 0) {
+        contract = Contract.newBuilder().setType(ContractType.TransferContract)
+            .setParameter(Any.pack(TransferContract.newBuilder()
+                .setOwnerAddress(bytes(random, 21)).setToAddress(bytes(random, 21))
+                .setAmount(random.nextInt(1_000_000)).build())).build();
+      } else {
+        contract = Contract.newBuilder().setType(ContractType.TriggerSmartContract)
+            .setParameter(Any.pack(TriggerSmartContract.newBuilder()
+                .setOwnerAddress(bytes(random, 21)).setContractAddress(bytes(random, 21))
+                .setData(bytes(random, 4 + 32 * 2)).build())).build();
+      }
+      block.addTransactions(Transaction.newBuilder()
+          .setRawData(Transaction.raw.newBuilder().addContract(contract)
+              .setRefBlockBytes(bytes(random, 2)).setRefBlockHash(bytes(random, 8))
+              .setExpiration(60_000).setTimestamp(i).setFeeLimit(100_000_000))
+          .addSignature(bytes(random, 65)));
+    }
+    return block.build().toByteArray();
+  }
+
+  private static ByteString bytes(Random random, int length) {
+    byte[] bytes = new byte[length];
+    random.nextBytes(bytes);
+    return ByteString.copyFrom(bytes);
+  }
+
+  private static Block parse(byte[] data) throws IOException {
+    CodedInputStream input = CodedInputStream.newInstance(data);
+    input.discardUnknownFields();
+    return Block.parseFrom(input);
+  }
+
+  @Benchmark
+  public int parseOnly() throws IOException {
+    int count = 0;
+    for (byte[] block : data) {
+      count += parse(block).getTransactionsCount();
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int legacy() throws Exception {
+    int count = 0;
+    for (byte[] block : data) {
+      Block parsed = parse(block);
+      Message.compareBytes(block, parsed.toByteArray());
+      for (Transaction transaction : parsed.getTransactionsList()) {
+        Contract contract = transaction.getRawData().getContract(0);
+        Class<? extends GeneratedMessageV3> clazz = TransactionFactory
+            .getContract(contract.getType());
+        GeneratedMessageV3 src = contract.getParameter().unpack(clazz);
+        CodedInputStream input = CodedInputStream.newInstance(src.toByteArray());
+        input.discardUnknownFields();
+        com.google.protobuf.Message contractMessage = TransactionCapsule.parse(clazz, input);
+        Message.compareBytes(src.toByteArray(), contractMessage.toByteArray());
+      }
+      count += parsed.getTransactionsCount();
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int scan() throws Exception {
+    int count = 0;
+    for (byte[] block : data) {
+      Block parsed = parse(block);
+      Message.compareBytes(block, parsed);
+      for (Transaction transaction : parsed.getTransactionsList()) {
+        TransactionCapsule.validContractProto(transaction.getRawData().getContract(0));
+      }
+      count += parsed.getTransactionsCount();
+    }
+    return count;
+  }
+}
@@ -0,0 +1,114 @@
+package org.tron.benchmark;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tron.core.services.http.Util;
+import org.tron.protos.Protocol.Block;
+import org.tron.protos.Protocol.BlockHeader;
+import org.tron.protos.Protocol.Transaction;
+import org.tron.protos.Protocol.Transaction.Contract;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+import org.tron.protos.contract.SmartContractOuterClass.TriggerSmartContract;
+
+/**
+ * The JSON of a block of {@code size} transactions, as the block servlets print it: printed by
+ * JsonFormat, parsed into a JSONObject and serialized again (roundTrip), or written in one pass
+ * (streaming).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProtoJsonBenchmark {
+
+  @Param({"300", "2000"})
+  private int size;
+
+  @Param({"false", "true"})
+  private boolean visible;
+
+  private Block block;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(size);
+    Block.Builder builder = Block.newBuilder().setBlockHeader(BlockHeader.newBuilder()
+        .setRawData(BlockHeader.raw.newBuilder().setNumber(1).setTimestamp(3000)
+            .setParentHash(bytes(random, 32)).setTxTrieRoot(bytes(random, 32))
+            .setWitnessAddress(bytes(random, 21)).setVersion(30))
+        .setWitnessSignature(bytes(random, 65)));
+    for (int i = 0; i < size; i++) {
+      Contract contract;
+      if (i % 2 == 0) {
+        contract = Contract.newBuilder().setType(ContractType.TransferContract)
+            .setParameter(Any.pack(TransferContract.newBuilder()
+                .setOwnerAddress(address(random)).setToAddress(address(random))
+                .setAmount(random.nextInt(1_000_000)).build())).build();
+      } else {
+        contract = Contract.newBuilder().setType(ContractType.TriggerSmartContract)
+            .setParameter(Any.pack(TriggerSmartContract.newBuilder()
+                .setOwnerAddress(address(random)).setContractAddress(address(random))
+                .setData(bytes(random, 4 + 32 * 2)).build())).build();
+      }
+      builder.addTransactions(Transaction.newBuilder()
+          .setRawData(Transaction.raw.newBuilder().addContract(contract)
+              .setRefBlockBytes(bytes(random, 2)).setRefBlockHash(bytes(random, 8))
+              .setExpiration(60_000).setTimestamp(i).setFeeLimit(100_000_000))
+          .addSignature(bytes(random, 65))
+          .addRet(Transaction.Result.newBuilder()
+              .setContractRet(Transaction.Result.contractResult.SUCCESS)));
+    }
+    block = builder.build();
+  }
+
+  private static ByteString bytes(Random random, int length) {
+    byte[] bytes = new byte[length];
+    random.nextBytes(bytes);
+    return ByteString.copyFrom(bytes);
+  }
+
+  // a mainnet address, as the visible form prints it in base58
+  private static ByteString address(Random random) {
+    byte[] bytes = new byte[21];
+    random.nextBytes(bytes);
+    bytes[0] = 0x41;
+    return ByteString.copyFrom(bytes);
+  }
+
+  @Benchmark
+  public int roundTrip() {
+    StringWriter text = new StringWriter();
+    PrintWriter writer = new PrintWriter(text);
+    writer.println(Util.printBlock(block, visible));
+    writer.flush();
+    return text.getBuffer().length();
+  }
+
+  @Benchmark
+  public int streaming() throws IOException {
+    StringWriter text = new StringWriter();
+    PrintWriter writer = new PrintWriter(text);
+    Util.printBlock(block, visible, writer);
+    writer.flush();
+    return text.getBuffer().length();
+  }
+}
@@ -0,0 +1,63 @@
+package org.tron.benchmark;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tron.core.capsule.utils.RLP;
+import org.tron.core.capsule.utils.RLPList;
+
+/**
+ * Encoding and decoding lists of transaction-like items: a number, an address, an amount and
+ * call data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RlpBenchmark {
+
+  @Param({"1", "64"})
+  private int items;
+
+  private byte[] address;
+  private byte[] data;
+  private byte[] encoded;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(items);
+    address = new byte[20];
+    random.nextBytes(address);
+    data = new byte[68];
+    random.nextBytes(data);
+    encoded = encode();
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    byte[][] list = new byte[items][];
+    for (int i = 0; i < items; i++) {
+      list[i] = RLP.encodeList(RLP.encodeInt(i), RLP.encode(address),
+          RLP.encodeBigInteger(BigInteger.valueOf(1_000_000L * i)), RLP.encode(data));
+    }
+    return RLP.encodeList(list);
+  }
+
+  @Benchmark
+  public RLPList decode() {
+    return RLP.decode2(encoded);
+  }
+}
@@ -0,0 +1,113 @@
+package org.tron.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tron.common.crypto.ECBatchRecovery;
+import org.tron.common.crypto.ECKey;
+import org.tron.common.crypto.ECKey.ECDSASignature;
+import org.tron.common.utils.Sha256Hash;
+
+/**
+ * Recovering the signers of a block of transactions one by one and in a batch, split over
+ * {@code threads} validate-sign threads as Manager.recoverSigners does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignatureRecoveryBenchmark {
+
+  @Param({"1", "16", "256"})
+  private int size;
+
+  @Param({"1", "4", "16"})
+  private int threads;
+
+  private byte[][] hashes;
+  private byte[][] signatures;
+  private ECDSASignature[] components;
+  private ExecutorService pool;
+
+  @Setup
+  public void setup() {
+    hashes = new byte[size][];
+    signatures = new byte[size][];
+    components = new ECDSASignature[size];
+    for (int i = 0; i < size; i++) {
+      ECKey key = new ECKey();
+      hashes[i] = Sha256Hash.hash(true, Integer.toString(i).getBytes());
+      components[i] = key.sign(hashes[i]);
+      signatures[i] = components[i].toByteArray();
+    }
+    pool = Executors.newFixedThreadPool(threads);
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  @Benchmark
+  public byte[][] oneByOne() throws Exception {
+    byte[][] addresses = new byte[size][];
+    run((from, to) -> {
+      for (int i = from; i < to; i++) {
+        addresses[i] = ECKey.signatureToAddress(hashes[i], components[i]);
+      }
+      return null;
+    });
+    return addresses;
+  }
+
+  @Benchmark
+  public byte[][] batch() throws Exception {
+    byte[][] addresses = new byte[size][];
+    run((from, to) -> {
+      byte[][] part = ECBatchRecovery.recoverAddresses(Arrays.copyOfRange(hashes, from, to),
+          Arrays.copyOfRange(signatures, from, to));
+      System.arraycopy(part, 0, addresses, from, part.length);
+      return null;
+    });
+    return addresses;
+  }
+
+  // one chunk of the block per thread, the chunks of Manager.recoverSigners
+  private void run(Chunk chunk) throws InterruptedException, ExecutionException {
+    int length = (size + threads - 1) / threads;
+    List<Future<Void>> futures = new ArrayList<>(threads);
+    for (int from = 0; from < size; from += length) {
+      int start = from;
+      int end = Math.min(size, from + length);
+      futures.add(pool.submit(() -> chunk.recover(start, end)));
+    }
+    for (Future<Void> future : futures) {
+      future.get();
+    }
+  }
+
+  @FunctionalInterface
+  private interface Chunk {
+
+    Void recover(int from, int to) throws Exception;
+  }
+}
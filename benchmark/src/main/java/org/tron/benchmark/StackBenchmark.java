@@ -0,0 +1,70 @@
+package org.tron.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tron.common.runtime.vm.DataWord;
+import org.tron.core.vm.program.Stack;
+
+/**
+ * The operand stack of the VM, the array backed {@link Stack} next to the synchronized
+ * {@link java.util.Stack} it used to extend, on the same mix of PUSH, DUP2, SWAP2, POP and POP
+ * over a stack of the given depth. The mix leaves the depth unchanged.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StackBenchmark {
+
+  // the mix needs two slots above the depth, Stack.MAX_SIZE is 1024
+  @Param({"16", "1000"})
+  private int depth;
+
+  private DataWord word;
+  private Stack stack;
+  private java.util.Stack<DataWord> baseline;
+
+  @Setup
+  public void setup() {
+    word = new DataWord("f3a1c57e9b0d2468ace13579bdf02468ace13579bdf02468ace13579bdf0246a");
+    stack = new Stack();
+    baseline = new java.util.Stack<>();
+    for (int i = 0; i < depth; i++) {
+      stack.push(new DataWord(i));
+      baseline.push(new DataWord(i));
+    }
+  }
+
+  @Benchmark
+  public DataWord stack() {
+    stack.push(word);
+    stack.dup(2);
+    int top = stack.size() - 1;
+    stack.swap(top, top - 2);
+    stack.pop();
+    return stack.pop();
+  }
+
+  @Benchmark
+  public DataWord javaUtilStack() {
+    baseline.push(word);
+    baseline.push(baseline.get(baseline.size() - 2).clone());
+    int top = baseline.size() - 1;
+    DataWord tmp = baseline.get(top);
+    baseline.set(top, baseline.set(top - 2, tmp));
+    baseline.pop();
+    return baseline.pop();
+  }
+}
@@ -0,0 +1,78 @@
+package org.tron.benchmark;
+
+import com.google.protobuf.ByteString;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tron.common.crypto.ECKey;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.exception.BadItemException;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+import org.tron.protos.contract.SmartContractOuterClass.TriggerSmartContract;
+
+/**
+ * Parsing, serializing and hashing signed transfer and contract call transactions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionBenchmark {
+
+  @Param({"TransferContract", "TriggerSmartContract"})
+  private String type;
+
+  private byte[] data;
+  private TransactionCapsule transaction;
+
+  @Setup
+  public void setup() {
+    ECKey key = new ECKey();
+    ByteString owner = ByteString.copyFrom(key.getAddress());
+    ByteString to = ByteString.copyFrom(new ECKey().getAddress());
+    if ("TriggerSmartContract".equals(type)) {
+      byte[] call = new byte[4 + 32 * 2];
+      new Random(0).nextBytes(call);
+      transaction = new TransactionCapsule(TriggerSmartContract.newBuilder()
+          .setOwnerAddress(owner).setContractAddress(to).setData(ByteString.copyFrom(call))
+          .build(), ContractType.TriggerSmartContract);
+    } else {
+      transaction = new TransactionCapsule(TransferContract.newBuilder()
+          .setOwnerAddress(owner).setToAddress(to).setAmount(1_000_000L).build(),
+          ContractType.TransferContract);
+    }
+    transaction.setReference(1, Sha256Hash.ZERO_HASH.getBytes());
+    transaction.setExpiration(System.currentTimeMillis() + 60_000);
+    transaction.sign(key.getPrivKeyBytes());
+    data = transaction.getData();
+  }
+
+  @Benchmark
+  public TransactionCapsule parse() throws BadItemException {
+    return new TransactionCapsule(data);
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return transaction.getInstance().toByteArray();
+  }
+
+  @Benchmark
+  public Sha256Hash parseAndHash() throws BadItemException {
+    return new TransactionCapsule(data).getTransactionId();
+  }
+}
@@ -0,0 +1,133 @@
+package org.tron.benchmark;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.util.encoders.Hex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tron.common.parameter.CommonParameter;
+import org.tron.common.runtime.InternalTransaction;
+import org.tron.common.runtime.InternalTransaction.TrxType;
+import org.tron.core.vm.JumpTable;
+import org.tron.core.vm.OperationRegistry;
+import org.tron.core.vm.VM;
+import org.tron.core.vm.config.VMConfig;
+import org.tron.core.vm.program.Program;
+import org.tron.core.vm.program.invoke.ProgramInvokeMockImpl;
+import org.tron.protos.Protocol.Transaction;
+
+/**
+ * The opcode loop of {@link VM#play} on synthetic contracts of 1024 iterations, without storage
+ * or calls, on the chunked and the contiguous memory and with the jump table of each
+ * {@link OperationRegistry.Version}. The *copy contracts copy 1 KB per iteration, each time 1 KB
+ * further, so the memory grows to 1 MB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VmBenchmark {
+
+  // PUSH2 1024, JUMPDEST, PUSH1 1, SWAP1, SUB, DUP1, PUSH1 3, JUMPI, STOP
+  private static final String ARITHMETIC = "6104005b600190038060035700";
+  // PUSH2 1024, JUMPDEST, DUP1, PUSH1 0, MSTORE, PUSH1 32, PUSH1 0, SHA3, POP,
+  // PUSH1 1, SWAP1, SUB, DUP1, PUSH1 3, JUMPI, STOP
+  private static final String MEMORY = "6104005b80600052602060002050600190038060035700";
+  // PUSH2 1024, JUMPDEST, PUSH2 1024, PUSH1 0, DUP3, PUSH2 1024, SUB, PUSH2 1024, MUL,
+  // <copy>, PUSH1 1, SWAP1, SUB, DUP1, PUSH1 3, JUMPI, STOP: copies 1 KB from 0 to
+  // (1024 - i) KB
+  private static final String COPY = "6104005b6104006000826104000361040002%s600190038060035700";
+  private static final int COPY_SIZE = 1024;
+
+  // set as a call returning 1 KB would, the mock invoke has no state to call
+  private static final Field RETURN_DATA;
+
+  static {
+    try {
+      RETURN_DATA = Program.class.getDeclaredField("returnDataBuffer");
+      RETURN_DATA.setAccessible(true);
+    } catch (NoSuchFieldException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Param({"arithmetic", "memory", "calldatacopy", "codecopy", "returndatacopy"})
+  private String contract;
+
+  @Param({"chunked", "contiguous"})
+  private String memory;
+
+  @Param({"TRON_V1_0", "TRON_V1_1", "TRON_V1_2", "TRON_V1_3"})
+  private String version;
+
+  private byte[] code;
+  private byte[] returnData;
+  private ProgramInvokeMockImpl invoke;
+  private InternalTransaction transaction;
+  private JumpTable jumpTable;
+
+  @Setup
+  public void setup() {
+    // no cpu time limit
+    CommonParameter.getInstance().setDebug(true);
+    VMConfig.setContiguousMemory("contiguous".equals(memory));
+    byte[] data = new byte[COPY_SIZE];
+    Arrays.fill(data, (byte) 0x5a);
+    switch (contract) {
+      case "memory":
+        code = Hex.decode(MEMORY);
+        break;
+      case "calldatacopy":
+        code = Hex.decode(String.format(COPY, "37"));
+        break;
+      case "codecopy":
+        // the data after STOP is copied, not run
+        code = Arrays.copyOf(Hex.decode(String.format(COPY, "39")), COPY_SIZE);
+        break;
+      case "returndatacopy":
+        code = Hex.decode(String.format(COPY, "3e"));
+        returnData = data;
+        break;
+      default:
+        code = Hex.decode(ARITHMETIC);
+        break;
+    }
+    invoke = new ProgramInvokeMockImpl(data);
+    invoke.setEnergyLimit(Long.MAX_VALUE / 2);
+    transaction = new InternalTransaction(Transaction.getDefaultInstance(),
+        TrxType.TRX_UNKNOWN_TYPE);
+    jumpTable = OperationRegistry.getTable(OperationRegistry.Version.valueOf(version));
+  }
+
+  @TearDown
+  public void tearDown() {
+    CommonParameter.getInstance().setDebug(false);
+    VMConfig.setContiguousMemory(false);
+  }
+
+  @Benchmark
+  public Program play() throws IllegalAccessException {
+    Program program = new Program(code, code, invoke, transaction);
+    if (returnData != null) {
+      RETURN_DATA.set(program, returnData);
+    }
+    VM.play(program, jumpTable);
+    if (program.getResult().getException() != null) {
+      throw program.getResult().getException();
+    }
+    return program;
+  }
+}
@@ -0,0 +1,121 @@
+package org.tron.core.db2.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tron.common.storage.leveldb.LevelDbDataSourceImpl;
+import org.tron.common.utils.FileUtil;
+import org.tron.core.Constant;
+import org.tron.core.config.args.Args;
+import org.tron.core.db2.common.LevelDB;
+
+/**
+ * Reads and writes through a stack of snapshots over a LevelDB root, with and without the
+ * index of dirty keys. It is in the package of the snapshots to turn the index on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+
+  private static final int ROOT_KEYS = 10_000;
+  private static final int LAYER_KEYS = 1_000;
+  private static final byte[] VALUE = new byte[64];
+
+  // up to storage.snapshot.maxFlushCount at its limit of 500
+  @Param({"1", "32", "128", "500"})
+  private int depth;
+
+  @Param({"false", "true"})
+  private boolean indexed;
+
+  private File directory;
+  private LevelDbDataSourceImpl dataSource;
+  private Snapshot head;
+  private int next;
+
+  private static byte[] key(int layer, int i) {
+    return ByteBuffer.allocate(Integer.BYTES * 2).putInt(layer).putInt(i).array();
+  }
+
+  @Setup
+  public void setup() throws IOException {
+    directory = Files.createTempDirectory("snapshot-benchmark").toFile();
+    Args.setParam(new String[] {"--output-directory", directory.toString()},
+        Constant.TESTNET_CONF);
+    dataSource = new LevelDbDataSourceImpl(directory.toString(), "snapshot-benchmark");
+    dataSource.initDB();
+
+    SnapshotRoot root = new SnapshotRoot(new LevelDB(dataSource));
+    if (indexed) {
+      root.enableIndex();
+    }
+    for (int i = 0; i < ROOT_KEYS; i++) {
+      root.put(key(0, i), VALUE);
+    }
+    head = root;
+    for (int layer = 1; layer <= depth; layer++) {
+      head = head.advance();
+      for (int i = 0; i < LAYER_KEYS; i++) {
+        head.put(key(layer, i), VALUE);
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    dataSource.closeDB();
+    Args.clearParam();
+    FileUtil.deleteDir(directory);
+  }
+
+  /**
+   * A key of the root, below every snapshot.
+   */
+  @Benchmark
+  public byte[] getRoot() {
+    next = (next + 1) % ROOT_KEYS;
+    return head.get(key(0, next));
+  }
+
+  /**
+   * A key of the first snapshot above the root.
+   */
+  @Benchmark
+  public byte[] getBottom() {
+    next = (next + 1) % LAYER_KEYS;
+    return head.get(key(1, next));
+  }
+
+  /**
+   * A key in no layer.
+   */
+  @Benchmark
+  public byte[] getMissing() {
+    next = (next + 1) % LAYER_KEYS;
+    return head.get(key(-1, next));
+  }
+
+  @Benchmark
+  public void put() {
+    next = (next + 1) % LAYER_KEYS;
+    head.put(key(depth, next), VALUE);
+  }
+}
@@ -0,0 +1,233 @@
+package org.tron.common.bloom;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * An immutable set of block offsets inside one section of the section bloom, in the layout of
+ * a Roaring bitmap container: a sorted array of offsets while it has at most
+ * {@link #ARRAY_MAX} of them, 32 words otherwise. AND and OR work on both layouts directly,
+ * so a sparse bloom bit costs a few bytes and is never inflated to a full bitmap.
+ */
+public final class SectionBitmap {
+
+  public static final int SIZE = 2048;
+  /**
+   * Above it the array takes more room than the bitmap.
+   */
+  static final int ARRAY_MAX = SIZE / Short.SIZE;
+  private static final int WORDS = SIZE / Long.SIZE;
+
+  public static final SectionBitmap EMPTY = new SectionBitmap(new short[0], null, 0);
+  public static final SectionBitmap FULL;
+
+  static {
+    long[] words = new long[WORDS];
+    Arrays.fill(words, -1L);
+    FULL = new SectionBitmap(null, words, SIZE);
+  }
+
+  // exactly one of them is set
+  private final short[] array;
+  private final long[] words;
+  private final int cardinality;
+
+  private SectionBitmap(short[] array, long[] words, int cardinality) {
+    this.array = array;
+    this.words = words;
+    this.cardinality = cardinality;
+  }
+
+  /**
+   * @param data the bytes of BitSet#toByteArray, offsets from SIZE on are ignored
+   */
+  public static SectionBitmap valueOf(byte[] data) {
+    long[] words = new long[WORDS];
+    for (int i = 0; i < data.length && i < WORDS * Long.BYTES; i++) {
+      words[i >>> 3] |= (data[i] & 0xFFL) << ((i & 7) << 3);
+    }
+    return ofWords(words);
+  }
+
+  public static SectionBitmap valueOf(BitSet bitSet) {
+    return ofWords(Arrays.copyOf(bitSet.get(0, SIZE).toLongArray(), WORDS));
+  }
+
+  private static SectionBitmap ofWords(long[] words) {
+    int cardinality = 0;
+    for (long word : words) {
+      cardinality += Long.bitCount(word);
+    }
+    if (cardinality > ARRAY_MAX) {
+      return new SectionBitmap(null, words, cardinality);
+    }
+    short[] array = new short[cardinality];
+    int n = 0;
+    for (int w = 0; w < WORDS; w++) {
+      for (long word = words[w]; word != 0; word &= word - 1) {
+        array[n++] = (short) ((w << 6) + Long.numberOfTrailingZeros(word));
+      }
+    }
+    return new SectionBitmap(array, null, cardinality);
+  }
+
+  public int cardinality() {
+    return cardinality;
+  }
+
+  public boolean isEmpty() {
+    return cardinality == 0;
+  }
+
+  public boolean contains(int offset) {
+    if (offset < 0 || offset >= SIZE) {
+      return false;
+    }
+    if (array != null) {
+      return Arrays.binarySearch(array, (short) offset) >= 0;
+    }
+    return (words[offset >>> 6] & (1L << offset)) != 0;
+  }
+
+  public SectionBitmap and(SectionBitmap other) {
+    if (isEmpty() || other.isEmpty()) {
+      return EMPTY;
+    }
+    if (array != null && other.array != null) {
+      return andArrays(array, other.array);
+    }
+    if (array != null || other.array != null) {
+      short[] values = array != null ? array : other.array;
+      long[] bits = array != null ? other.words : words;
+      short[] result = new short[values.length];
+      int n = 0;
+      for (short value : values) {
+        if ((bits[value >>> 6] & (1L << value)) != 0) {
+          result[n++] = value;
+        }
+      }
+      if (n == values.length) {
+        return values == array ? this : other;
+      }
+      return n == 0 ? EMPTY : new SectionBitmap(Arrays.copyOf(result, n), null, n);
+    }
+    long[] result = new long[WORDS];
+    for (int w = 0; w < WORDS; w++) {
+      result[w] = words[w] & other.words[w];
+    }
+    return ofWords(result);
+  }
+
+  public SectionBitmap or(SectionBitmap other) {
+    if (isEmpty()) {
+      return other;
+    }
+    if (other.isEmpty()) {
+      return this;
+    }
+    if (array != null && other.array != null
+        && array.length + other.array.length <= ARRAY_MAX) {
+      return orArrays(array, other.array);
+    }
+    long[] result = words != null ? words.clone() : toWords(array);
+    if (other.array != null) {
+      for (short value : other.array) {
+        result[value >>> 6] |= 1L << value;
+      }
+    } else {
+      for (int w = 0; w < WORDS; w++) {
+        result[w] |= other.words[w];
+      }
+    }
+    return ofWords(result);
+  }
+
+  public void forEach(IntConsumer consumer) {
+    if (array != null) {
+      for (short value : array) {
+        consumer.accept(value);
+      }
+      return;
+    }
+    for (int w = 0; w < WORDS; w++) {
+      for (long word = words[w]; word != 0; word &= word - 1) {
+        consumer.accept((w << 6) + Long.numberOfTrailingZeros(word));
+      }
+    }
+  }
+
+  public BitSet toBitSet() {
+    return BitSet.valueOf(words != null ? words : toWords(array));
+  }
+
+  private static long[] toWords(short[] array) {
+    long[] words = new long[WORDS];
+    for (short value : array) {
+      words[value >>> 6] |= 1L << value;
+    }
+    return words;
+  }
+
+  private static SectionBitmap andArrays(short[] a, short[] b) {
+    short[] result = new short[Math.min(a.length, b.length)];
+    int n = 0;
+    for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+      if (a[i] < b[j]) {
+        i++;
+      } else if (a[i] > b[j]) {
+        j++;
+      } else {
+        result[n++] = a[i];
+        i++;
+        j++;
+      }
+    }
+    return n == 0 ? EMPTY : new SectionBitmap(Arrays.copyOf(result, n), null, n);
+  }
+
+  private static SectionBitmap orArrays(short[] a, short[] b) {
+    short[] result = new short[a.length + b.length];
+    int n = 0;
+    int i = 0;
+    int j = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] < b[j]) {
+        result[n++] = a[i++];
+      } else if (a[i] > b[j]) {
+        result[n++] = b[j++];
+      } else {
+        result[n++] = a[i++];
+        j++;
+      }
+    }
+    while (i < a.length) {
+      result[n++] = a[i++];
+    }
+    while (j < b.length) {
+      result[n++] = b[j++];
+    }
+    return new SectionBitmap(Arrays.copyOf(result, n), null, n);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof SectionBitmap)) {
+      return false;
+    }
+    SectionBitmap that = (SectionBitmap) o;
+    if (cardinality != that.cardinality) {
+      return false;
+    }
+    // the layout follows from the cardinality
+    return array != null ? Arrays.equals(array, that.array) : Arrays.equals(words, that.words);
+  }
+
+  @Override
+  public int hashCode() {
+    return array != null ? Arrays.hashCode(array) : Arrays.hashCode(words);
+  }
+}
@@ -3,6 +3,7 @@ package org.tron.common.overlay.message;
 import static org.tron.core.exception.P2pException.TypeEnum.PROTOBUF_ERROR;
 
 import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.MessageLite;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import java.lang.reflect.Field;
@@ -53,6 +54,15 @@ public abstract class Message {
     }
   }
 
+  /**
+   * Same as {@code compareBytes(src, dest.toByteArray())}, without serializing dest.
+   */
+  public static void compareBytes(byte[] src, MessageLite dest) throws P2pException {
+    if (src.length != dest.getSerializedSize()) {
+      throw new P2pException(PROTOBUF_ERROR, PROTOBUF_ERROR.getDesc());
+    }
+  }
+
   public static CodedInputStream getCodedInputStream(byte[] data) {
     CodedInputStream codedInputStream = CodedInputStream.newInstance(data);
     if (isFilter()) {
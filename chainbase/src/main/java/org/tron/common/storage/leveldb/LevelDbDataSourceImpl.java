@@ -52,6 +52,7 @@ import org.iq80.leveldb.WriteOptions;
 import org.slf4j.LoggerFactory;
 import org.tron.common.parameter.CommonParameter;
 import org.tron.common.storage.WriteOptionsWrapper;
+import org.tron.common.storage.metric.DbMetrics;
 import org.tron.common.storage.metric.DbStat;
 import org.tron.common.utils.FileUtil;
 import org.tron.common.utils.StorageUtils;
@@ -196,9 +197,12 @@ public class LevelDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
 
   @Override
   public byte[] getData(byte[] key) {
+    long start = DbMetrics.start();
     resetDbLock.readLock().lock();
     try {
-      return database.get(key);
+      byte[] value = database.get(key);
+      DbMetrics.observe(start, dataBaseName, DbMetrics.ENGINE, DbMetrics.GET, value);
+      return value;
     } finally {
       resetDbLock.readLock().unlock();
     }
@@ -206,9 +210,11 @@ public class LevelDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
 
   @Override
   public void putData(byte[] key, byte[] value) {
+    long start = DbMetrics.start();
     resetDbLock.readLock().lock();
     try {
       database.put(key, value, writeOptions);
+      DbMetrics.observe(start, dataBaseName, DbMetrics.ENGINE, DbMetrics.PUT, value);
     } finally {
       resetDbLock.readLock().unlock();
     }
@@ -216,9 +222,11 @@ public class LevelDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
 
   @Override
   public void deleteData(byte[] key) {
+    long start = DbMetrics.start();
     resetDbLock.readLock().lock();
     try {
       database.delete(key, writeOptions);
+      DbMetrics.observe(start, dataBaseName, DbMetrics.ENGINE, DbMetrics.DELETE);
     } finally {
       resetDbLock.readLock().unlock();
     }
@@ -403,9 +411,11 @@ public class LevelDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
 
   @Override
   public void updateByBatch(Map<byte[], byte[]> rows, WriteOptionsWrapper options) {
+    long start = DbMetrics.start();
     resetDbLock.readLock().lock();
     try {
       updateByBatchInner(rows, options.level);
+      DbMetrics.observe(start, dataBaseName, DbMetrics.ENGINE, DbMetrics.BATCH);
     } catch (Exception e) {
       try {
         updateByBatchInner(rows, options.level);
@@ -0,0 +1,92 @@
+package org.tron.common.storage.metric;
+
+import java.util.Iterator;
+import java.util.Map;
+import org.tron.common.parameter.CommonParameter;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.Metrics;
+
+/**
+ * Per-db metrics of single reads and writes: latency and value size on the chainbase layer,
+ * which includes the snapshots and the cache, and on the engine layer below it. A read of the
+ * chainbase layer also records the snapshot depth and, in a cached db, a hit or a miss. The
+ * latency of an iterator of the chainbase layer runs from its creation until it is exhausted or
+ * closed.
+ *
+ * <p>It can be turned on and off at runtime. While it is off a call costs one volatile read.
+ */
+public final class DbMetrics {
+
+  public static final String CHAINBASE = "chainbase";
+  public static final String ENGINE = "engine";
+
+  public static final String GET = "get";
+  public static final String PUT = "put";
+  public static final String DELETE = "delete";
+  public static final String BATCH = "batch";
+  public static final String ITERATOR = "iterator";
+
+  private static final String HIT = "hit";
+  private static final String MISS = "miss";
+
+  /**
+   * returned by {@link #start()} while metrics are off
+   */
+  private static final long OFF = Long.MIN_VALUE;
+
+  private static volatile boolean enabled = CommonParameter.getInstance().getStorage() != null
+      && CommonParameter.getInstance().getStorage().isMetricsEnable();
+
+  private DbMetrics() {
+    throw new IllegalStateException("DbMetrics");
+  }
+
+  public static boolean enabled() {
+    return enabled && Metrics.enabled();
+  }
+
+  public static void setEnabled(boolean enable) {
+    enabled = enable;
+  }
+
+  public static long start() {
+    return enabled() ? System.nanoTime() : OFF;
+  }
+
+  public static void observe(long start, String db, String layer, String op) {
+    if (start != OFF) {
+      Metrics.histogramObserve(MetricKeys.Histogram.DB_LATENCY,
+          (System.nanoTime() - start) / 1_000_000_000.0, db, layer, op);
+    }
+  }
+
+  public static void observe(long start, String db, String layer, String op, byte[] value) {
+    if (start != OFF) {
+      observe(start, db, layer, op);
+      if (value != null) {
+        Metrics.histogramObserve(MetricKeys.Histogram.DB_VALUE_BYTES, value.length,
+            db, layer, op);
+      }
+    }
+  }
+
+  /**
+   * @return the iterator, observing the time from start until it is exhausted or closed
+   */
+  public static Iterator<Map.Entry<byte[], byte[]>> observe(long start, String db, String layer,
+      String op, Iterator<Map.Entry<byte[], byte[]>> iterator) {
+    return start == OFF ? iterator : ObservedIterator.of(iterator, start, db, layer, op);
+  }
+
+  public static void snapshotDepth(long start, String db, int depth) {
+    if (start != OFF) {
+      Metrics.histogramObserve(MetricKeys.Histogram.DB_SNAPSHOT_DEPTH, depth, db);
+    }
+  }
+
+  public static void cache(String db, boolean hit) {
+    if (enabled()) {
+      Metrics.counterInc(MetricKeys.Counter.DB_CACHE, 1, db, hit ? HIT : MISS);
+    }
+  }
+}
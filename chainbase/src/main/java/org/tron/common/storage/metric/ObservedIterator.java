@@ -0,0 +1,116 @@
+package org.tron.common.storage.metric;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import org.tron.core.db.common.iterator.DBIterator;
+
+/**
+ * Observes the latency of an iteration once, when the iterator is exhausted or closed. An
+ * iterator left before its end is not observed.
+ */
+class ObservedIterator implements Iterator<Entry<byte[], byte[]>> {
+
+  private final Iterator<Entry<byte[], byte[]>> iterator;
+  private final long start;
+  private final String db;
+  private final String layer;
+  private final String op;
+  private boolean observed;
+
+  ObservedIterator(Iterator<Entry<byte[], byte[]>> iterator, long start, String db,
+      String layer, String op) {
+    this.iterator = iterator;
+    this.start = start;
+    this.db = db;
+    this.layer = layer;
+    this.op = op;
+  }
+
+  static Iterator<Entry<byte[], byte[]>> of(Iterator<Entry<byte[], byte[]>> iterator,
+      long start, String db, String layer, String op) {
+    return iterator instanceof DBIterator
+        ? new Db((DBIterator) iterator, start, db, layer, op)
+        : new ObservedIterator(iterator, start, db, layer, op);
+  }
+
+  void observe() {
+    if (!observed) {
+      observed = true;
+      DbMetrics.observe(start, db, layer, op);
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    boolean hasNext = iterator.hasNext();
+    if (!hasNext) {
+      observe();
+    }
+    return hasNext;
+  }
+
+  @Override
+  public Entry<byte[], byte[]> next() {
+    return iterator.next();
+  }
+
+  @Override
+  public void remove() {
+    iterator.remove();
+  }
+
+  /**
+   * Keeps the seek and close of a db iterator, which its callers cast to.
+   */
+  private static final class Db extends ObservedIterator implements DBIterator {
+
+    private final DBIterator iterator;
+
+    private Db(DBIterator iterator, long start, String db, String layer, String op) {
+      super(iterator, start, db, layer, op);
+      this.iterator = iterator;
+    }
+
+    @Override
+    public void seek(byte[] key) {
+      iterator.seek(key);
+    }
+
+    @Override
+    public void seekToFirst() {
+      iterator.seekToFirst();
+    }
+
+    @Override
+    public void seekToLast() {
+      iterator.seekToLast();
+    }
+
+    @Override
+    public boolean valid() {
+      return iterator.valid();
+    }
+
+    @Override
+    public byte[] getKey() {
+      return iterator.getKey();
+    }
+
+    @Override
+    public byte[] getValue() {
+      return iterator.getValue();
+    }
+
+    @Override
+    public void checkState() {
+      iterator.checkState();
+    }
+
+    @Override
+    public void close() throws IOException {
+      observe();
+      iterator.close();
+    }
+  }
+}
@@ -38,6 +38,7 @@ import org.rocksdb.WriteOptions;
 import org.slf4j.LoggerFactory;
 import org.tron.common.setting.RocksDbSettings;
 import org.tron.common.storage.WriteOptionsWrapper;
+import org.tron.common.storage.metric.DbMetrics;
 import org.tron.common.storage.metric.DbStat;
 import org.tron.common.utils.FileUtil;
 import org.tron.common.utils.PropUtil;
@@ -290,12 +291,14 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
 
   @Override
   public void putData(byte[] key, byte[] value) {
+    long start = DbMetrics.start();
     resetDbLock.readLock().lock();
     try {
       if (quitIfNotAlive()) {
         return;
       }
       database.put(key, value);
+      DbMetrics.observe(start, dataBaseName, DbMetrics.ENGINE, DbMetrics.PUT, value);
     } catch (RocksDBException e) {
       throw new RuntimeException(dataBaseName, e);
     } finally {
@@ -305,12 +308,15 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
 
   @Override
   public byte[] getData(byte[] key) {
+    long start = DbMetrics.start();
     resetDbLock.readLock().lock();
     try {
       if (quitIfNotAlive()) {
         return null;
       }
-      return database.get(key);
+      byte[] value = database.get(key);
+      DbMetrics.observe(start, dataBaseName, DbMetrics.ENGINE, DbMetrics.GET, value);
+      return value;
     } catch (RocksDBException e) {
       throw new RuntimeException(dataBaseName, e);
     } finally {
@@ -320,12 +326,14 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
 
   @Override
   public void deleteData(byte[] key) {
+    long start = DbMetrics.start();
     resetDbLock.readLock().lock();
     try {
       if (quitIfNotAlive()) {
         return;
       }
       database.delete(key);
+      DbMetrics.observe(start, dataBaseName, DbMetrics.ENGINE, DbMetrics.DELETE);
     } catch (RocksDBException e) {
       throw new RuntimeException(dataBaseName, e);
     } finally {
@@ -378,12 +386,14 @@ public class RocksDbDataSourceImpl extends DbStat implements DbSourceInter<byte[
 
   @Override
   public void updateByBatch(Map<byte[], byte[]> rows, WriteOptionsWrapper optionsWrapper) {
+    long start = DbMetrics.start();
     resetDbLock.readLock().lock();
     try {
       if (quitIfNotAlive()) {
         return;
       }
       updateByBatchInner(rows, optionsWrapper.rocks);
+      DbMetrics.observe(start, dataBaseName, DbMetrics.ENGINE, DbMetrics.BATCH);
     } catch (Exception e) {
       try {
         updateByBatchInner(rows);
@@ -19,6 +19,7 @@ import com.google.common.primitives.Longs;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
+import java.io.IOException;
 import java.security.SignatureException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -35,7 +36,8 @@ import org.tron.common.parameter.CommonParameter;
 import org.tron.common.utils.ByteArray;
 import org.tron.common.utils.Sha256Hash;
 import org.tron.common.utils.Time;
-import org.tron.core.capsule.utils.MerkleTree;
+import org.tron.core.capsule.utils.ProtoScanner;
+import org.tron.core.capsule.utils.TransactionMerkleRoot;
 import org.tron.core.config.Parameter.ChainConstant;
 import org.tron.core.exception.BadItemException;
 import org.tron.core.exception.ValidateSignatureException;
@@ -48,6 +50,11 @@ import org.tron.protos.Protocol.Transaction;
 @Slf4j(topic = "capsule")
 public class BlockCapsule implements ProtoCapsule<Block> {
 
+  // Block.transactions, Block.block_header and BlockHeader.raw_data
+  private static final int TRANSACTIONS_FIELD = 1;
+  private static final int HEADER_FIELD = 2;
+  private static final int HEADER_RAW_FIELD = 1;
+
   public boolean generatedByMyself = false;
   @Getter
   @Setter
@@ -55,6 +62,11 @@ public class BlockCapsule implements ProtoCapsule<Block> {
   private BlockId blockId = new BlockId(Sha256Hash.ZERO_HASH, 0);
 
   private Block block;
+  // the bytes the block was read from, null once it is changed, see keepEncoding;
+  // its header raw data is data[rawOffset, rawOffset + rawLength)
+  private byte[] data;
+  private int rawOffset;
+  private int rawLength;
   private List<TransactionCapsule> transactions = new ArrayList<>();
   private boolean isSwitch;
   @Getter
@@ -125,6 +137,7 @@ public class BlockCapsule implements ProtoCapsule<Block> {
     } catch (InvalidProtocolBufferException e) {
       throw new BadItemException("Block proto data parse exception");
     }
+    keepEncoding(data);
   }
 
   public BlockCapsule(CodedInputStream codedInputStream) throws BadItemException {
@@ -137,15 +150,49 @@ public class BlockCapsule implements ProtoCapsule<Block> {
     }
   }
 
+  /**
+   * Keeps the bytes the block was parsed from when they are the ones the block serializes to.
+   * The block id, the transaction ids, the merkle hashes and the data are then taken from them,
+   * without serializing the block, until it is changed. The bytes are not copied and must not
+   * be changed.
+   */
+  public void keepEncoding(byte[] data) {
+    if (!ProtoScanner.isCanonical(Block.getDescriptor(), data, 0, data.length)) {
+      return;
+    }
+    try {
+      List<int[]> txs = ProtoScanner.lengthDelimited(data, 0, data.length, TRANSACTIONS_FIELD);
+      List<int[]> header = ProtoScanner.lengthDelimited(data, 0, data.length, HEADER_FIELD);
+      if (txs.size() != transactions.size() || header.size() > 1) {
+        return;
+      }
+      List<int[]> raw = header.isEmpty() ? header : ProtoScanner.lengthDelimited(data,
+          header.get(0)[0], header.get(0)[1], HEADER_RAW_FIELD);
+      for (int i = 0; i < txs.size(); i++) {
+        transactions.get(i).keepCanonicalEncoding(data, txs.get(i)[0], txs.get(i)[1]);
+      }
+      this.data = data;
+      this.rawOffset = raw.isEmpty() ? 0 : raw.get(0)[0];
+      this.rawLength = raw.isEmpty() ? 0 : raw.get(0)[1];
+    } catch (IOException e) {
+      logger.debug("Block encoding is not kept, {}.", e.getMessage());
+    }
+  }
+
+  private void update(Block block) {
+    this.block = block;
+    this.data = null;
+  }
+
   public void addTransaction(TransactionCapsule pendingTrx) {
-    this.block = this.block.toBuilder().addTransactions(pendingTrx.getInstance()).build();
+    update(this.block.toBuilder().addTransactions(pendingTrx.getInstance()).build());
     getTransactions().add(pendingTrx);
   }
 
   public void addAllTransactions(List<TransactionCapsule> pendingTrxs) {
     List<Transaction> list = pendingTrxs.stream().map(TransactionCapsule::getInstance).collect(
         Collectors.toList());
-    this.block = this.block.toBuilder().addAllTransactions(list).build();
+    update(this.block.toBuilder().addAllTransactions(list).build());
     getTransactions().addAll(pendingTrxs);
   }
 
@@ -169,11 +216,15 @@ public class BlockCapsule implements ProtoCapsule<Block> {
     BlockHeader blockHeader = this.block.getBlockHeader().toBuilder().setWitnessSignature(sig)
         .build();
 
-    this.block = this.block.toBuilder().setBlockHeader(blockHeader).build();
+    update(this.block.toBuilder().setBlockHeader(blockHeader).build());
 
   }
 
   private Sha256Hash getRawHash() {
+    if (data != null) {
+      return Sha256Hash.wrap(Sha256Hash.hash(CommonParameter.getInstance()
+          .isECKeyCryptoEngine(), data, rawOffset, rawLength));
+    }
     return Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(),
         this.block.getBlockHeader().getRawData().toByteArray());
   }
@@ -203,9 +254,7 @@ public class BlockCapsule implements ProtoCapsule<Block> {
 
   public BlockId getBlockId() {
     if (blockId.equals(Sha256Hash.ZERO_HASH)) {
-      blockId =
-          new BlockId(Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(),
-              this.block.getBlockHeader().getRawData().toByteArray()), getNum());
+      blockId = new BlockId(getRawHash(), getNum());
     }
     return blockId;
   }
@@ -217,21 +266,37 @@ public class BlockCapsule implements ProtoCapsule<Block> {
       return Sha256Hash.ZERO_HASH;
     }
 
-    ArrayList<Sha256Hash> ids = transactionsList.stream()
-        .map(TransactionCapsule::new)
-        .map(TransactionCapsule::getMerkleHash)
-        .collect(Collectors.toCollection(ArrayList::new));
+    List<TransactionCapsule> capsules = new ArrayList<>(transactionsList.size());
+    for (int i = 0; i < transactionsList.size(); i++) {
+      Transaction trx = transactionsList.get(i);
+      // a capsule still holding the transaction of the block may have kept its bytes or hash
+      capsules.add(i < transactions.size() && transactions.get(i).getInstance() == trx
+          ? transactions.get(i) : new TransactionCapsule(trx));
+    }
 
-    return MerkleTree.getInstance().createTree(ids).getRoot().getHash();
+    return TransactionMerkleRoot.of(capsules);
   }
 
   public void setMerkleRoot() {
+    setTxTrieRoot(calcMerkleRoot());
+  }
+
+  /**
+   * Sets the merkle root built as the transactions were appended, if they are still the
+   * transactions of the block, calculates it otherwise.
+   */
+  public void setMerkleRoot(TransactionMerkleRoot.Appender appender) {
+    setTxTrieRoot(appender.isRootOf(this.block.getTransactionsList())
+        ? appender.root() : calcMerkleRoot());
+  }
+
+  private void setTxTrieRoot(Sha256Hash root) {
     BlockHeader.raw blockHeaderRaw =
         this.block.getBlockHeader().getRawData().toBuilder()
-            .setTxTrieRoot(calcMerkleRoot().getByteString()).build();
+            .setTxTrieRoot(root.getByteString()).build();
 
-    this.block = this.block.toBuilder().setBlockHeader(
-        this.block.getBlockHeader().toBuilder().setRawData(blockHeaderRaw)).build();
+    update(this.block.toBuilder().setBlockHeader(
+        this.block.getBlockHeader().toBuilder().setRawData(blockHeaderRaw)).build());
   }
 
   public void setAccountStateRoot(byte[] root) {
@@ -239,8 +304,8 @@ public class BlockCapsule implements ProtoCapsule<Block> {
         this.block.getBlockHeader().getRawData().toBuilder()
             .setAccountStateRoot(ByteString.copyFrom(root)).build();
 
-    this.block = this.block.toBuilder().setBlockHeader(
-        this.block.getBlockHeader().toBuilder().setRawData(blockHeaderRaw)).build();
+    update(this.block.toBuilder().setBlockHeader(
+        this.block.getBlockHeader().toBuilder().setRawData(blockHeaderRaw)).build());
   }
 
   /* only for genesis */
@@ -249,8 +314,8 @@ public class BlockCapsule implements ProtoCapsule<Block> {
         this.block.getBlockHeader().getRawData().toBuilder().setWitnessAddress(
             ByteString.copyFrom(witness.getBytes())).build();
 
-    this.block = this.block.toBuilder().setBlockHeader(
-        this.block.getBlockHeader().toBuilder().setRawData(blockHeaderRaw)).build();
+    update(this.block.toBuilder().setBlockHeader(
+        this.block.getBlockHeader().toBuilder().setRawData(blockHeaderRaw)).build());
   }
 
   public Sha256Hash getMerkleRoot() {
@@ -275,6 +340,9 @@ public class BlockCapsule implements ProtoCapsule<Block> {
 
   @Override
   public byte[] getData() {
+    if (data != null) {
+      return Arrays.copyOf(data, data.length);
+    }
     return this.block.toByteArray();
   }
 
@@ -24,12 +24,14 @@ import com.google.protobuf.Any;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Descriptors.Descriptor;
 import com.google.protobuf.GeneratedMessageV3;
 import com.google.protobuf.Internal;
 import com.google.protobuf.InvalidProtocolBufferException;
 import java.io.IOException;
 import java.security.SignatureException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
@@ -39,6 +41,11 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
+import org.tron.common.cache.CacheManager;
+import org.tron.common.cache.CacheStrategies;
+import org.tron.common.cache.CacheType;
+import org.tron.common.cache.TronCache;
+import org.tron.common.crypto.ECBatchRecovery;
 import org.tron.common.crypto.ECKey.ECDSASignature;
 import org.tron.common.crypto.SignInterface;
 import org.tron.common.crypto.SignUtils;
@@ -50,9 +57,11 @@ import org.tron.common.utils.ForkController;
 import org.tron.common.utils.ReflectUtils;
 import org.tron.common.utils.Sha256Hash;
 import org.tron.core.actuator.TransactionFactory;
+import org.tron.core.capsule.utils.ProtoScanner;
 import org.tron.core.config.Parameter;
 import org.tron.core.db.TransactionContext;
 import org.tron.core.db.TransactionTrace;
+import org.tron.core.db2.core.ReadWriteSet;
 import org.tron.core.exception.BadItemException;
 import org.tron.core.exception.ContractValidateException;
 import org.tron.core.exception.P2pException;
@@ -90,9 +99,22 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   private static final ExecutorService executorService = ExecutorServiceManager
       .newFixedThreadPool(esName, CommonParameter.getInstance()
           .getValidContractProtoThreadNum());
+  // the fewest transactions checked by a valid-contract-proto task
+  private static final int MIN_VALID_CONTRACT_PROTO_BATCH = 64;
+  // Transaction.raw_data
+  private static final int RAW_DATA_FIELD = 1;
   private static final String OWNER_ADDRESS = "ownerAddress_";
+  // transactions whose signatures passed the permission check, keyed by hash and signatures,
+  // so that a transaction checked in the pending pool is not recovered again in its block
+  private static final TronCache<Sha256Hash, SignerEntry> SIGNER_CACHE = CacheManager.allocate(
+      CacheType.recoveredSigner, String.format(CacheStrategies.PATTERNS,
+          CommonParameter.getInstance().getMaxTransactionPendingSize(),
+          Math.max(10000, CommonParameter.getInstance().getMaxTransactionPendingSize() * 2),
+          "3m", Runtime.getRuntime().availableProcessors()));
 
   private Transaction transaction;
+  // the bytes the transaction was read from, null once it is changed, see keepEncoding
+  private Encoding encoding;
   @Setter
   private boolean isVerified = false;
   @Setter
@@ -101,6 +123,10 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   @Getter
   @Setter
   private TransactionTrace trxTrace;
+  // the state read and written when it was pushed into the pending pool, see ReadWriteSet
+  @Getter
+  @Setter
+  private ReadWriteSet readWriteSet;
 
   @Getter
   @Setter
@@ -110,6 +136,12 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   private long order;
   private byte[] ownerAddress;
   private Sha256Hash id;
+  // the hash of the transaction as a merkle leaf, null once it is changed
+  private Sha256Hash merkleHash;
+  // signer addresses recovered by recoverSigners, only valid for this hash and signature list
+  private byte[] signersHash;
+  private List<ByteString> signersSigs;
+  private byte[][] signers;
 
   @Getter
   @Setter
@@ -139,6 +171,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     } catch (Exception e) {
       throw new BadItemException("Transaction proto data parse exception");
     }
+    keepEncoding(data, 0, data.length);
   }
 
   public TransactionCapsule(CodedInputStream codedInputStream) throws BadItemException {
@@ -223,6 +256,16 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   public static long checkWeight(Permission permission, List<ByteString> sigs, byte[] hash,
       List<ByteString> approveList)
       throws SignatureException, PermissionException, SignatureFormatException {
+    return checkWeight(permission, sigs, hash, approveList, null);
+  }
+
+  /**
+   * @param signers the addresses recovered from sigs in advance, null entries and a null
+   *     array are recovered here
+   */
+  public static long checkWeight(Permission permission, List<ByteString> sigs, byte[] hash,
+      List<ByteString> approveList, byte[][] signers)
+      throws SignatureException, PermissionException, SignatureFormatException {
     long currentWeight = 0;
     if (sigs.size() > permission.getKeysCount()) {
       throw new PermissionException(
@@ -230,14 +273,18 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
               + permission.getKeysCount());
     }
     HashMap addMap = new HashMap();
-    for (ByteString sig : sigs) {
+    for (int i = 0; i < sigs.size(); i++) {
+      ByteString sig = sigs.get(i);
       if (sig.size() < 65) {
         throw new SignatureFormatException(
             "Signature size is " + sig.size());
       }
       String base64 = TransactionCapsule.getBase64FromByteString(sig);
-      byte[] address = SignUtils
-          .signatureToAddress(hash, base64, CommonParameter.getInstance().isECKeyCryptoEngine());
+      byte[] address = signers == null ? null : signers[i];
+      if (address == null) {
+        address = SignUtils
+            .signatureToAddress(hash, base64, CommonParameter.getInstance().isECKeyCryptoEngine());
+      }
       long weight = getWeight(permission, address);
       if (weight == 0) {
         throw new PermissionException(
@@ -362,20 +409,28 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     return (T) defaultInstance.getParserForType().parseFrom(codedInputStream);
   }
 
+  /**
+   * Checks the contracts of the transactions, in batches of at least
+   * {@link #MIN_VALID_CONTRACT_PROTO_BATCH} on the valid-contract-proto threads.
+   */
   public static void validContractProto(List<Transaction> transactionList) throws P2pException {
+    int size = transactionList.size();
+    int batches = Math.min(CommonParameter.getInstance().getValidContractProtoThreadNum(),
+        (size + MIN_VALID_CONTRACT_PROTO_BATCH - 1) / MIN_VALID_CONTRACT_PROTO_BATCH);
+    if (batches <= 1) {
+      if (!validContractProto(transactionList, 0, size)) {
+        throw new P2pException(PROTOBUF_ERROR, PROTOBUF_ERROR.getDesc());
+      }
+      return;
+    }
     List<Future<Boolean>> futureList = new ArrayList<>();
-    transactionList.forEach(transaction -> {
-      Future<Boolean> future = executorService.submit(() -> {
-        try {
-          validContractProto(transaction.getRawData().getContract(0));
-          return true;
-        } catch (Exception e) {
-          logger.error("{}", e.getMessage());
-        }
-        return false;
-      });
-      futureList.add(future);
-    });
+    int batchSize = (size + batches - 1) / batches;
+    for (int from = 0; from < size; from += batchSize) {
+      int start = from;
+      int end = Math.min(size, from + batchSize);
+      futureList.add(executorService.submit(
+          () -> validContractProto(transactionList, start, end)));
+    }
     for (Future<Boolean> future : futureList) {
       try {
         if (!future.get()) {
@@ -390,6 +445,23 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     }
   }
 
+  private static boolean validContractProto(List<Transaction> transactionList, int from,
+      int to) {
+    for (int i = from; i < to; i++) {
+      try {
+        validContractProto(transactionList.get(i).getRawData().getContract(0));
+      } catch (Exception e) {
+        logger.error("{}", e.getMessage());
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Rejects a contract whose parameter is not of its type, or has fields the parser of its type
+   * does not know. The parameter is scanned once, it is not parsed nor serialized.
+   */
   public static void validContractProto(Transaction.Contract contract)
       throws InvalidProtocolBufferException, P2pException {
     Any contractParameter = contract.getParameter();
@@ -397,11 +469,21 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     if (clazz == null) {
       throw new P2pException(PROTOBUF_ERROR, PROTOBUF_ERROR.getDesc());
     }
-    com.google.protobuf.Message src = contractParameter.unpack(clazz);
-    com.google.protobuf.Message contractMessage = parse(clazz,
-        Message.getCodedInputStream(src.toByteArray()));
-
-    Message.compareBytes(src.toByteArray(), contractMessage.toByteArray());
+    if (!contractParameter.is(clazz)) {
+      throw new InvalidProtocolBufferException(
+          "Type of the Any message does not match the given class.");
+    }
+    try {
+      Descriptor type = Internal.getDefaultInstance((Class<? extends GeneratedMessageV3>) clazz)
+          .getDescriptorForType();
+      if (ProtoScanner.hasUnknownFields(type, contractParameter.getValue())) {
+        throw new P2pException(PROTOBUF_ERROR, PROTOBUF_ERROR.getDesc());
+      }
+    } catch (InvalidProtocolBufferException e) {
+      throw e;
+    } catch (IOException e) {
+      throw new InvalidProtocolBufferException(e.getMessage());
+    }
   }
 
   // todo mv this static function to capsule util
@@ -464,6 +546,13 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   public static boolean validateSignature(Transaction transaction,
       byte[] hash, AccountStore accountStore, DynamicPropertiesStore dynamicPropertiesStore)
       throws PermissionException, SignatureException, SignatureFormatException {
+    return validateSignature(transaction, hash, accountStore, dynamicPropertiesStore, null);
+  }
+
+  private static boolean validateSignature(Transaction transaction,
+      byte[] hash, AccountStore accountStore, DynamicPropertiesStore dynamicPropertiesStore,
+      byte[][] signers)
+      throws PermissionException, SignatureException, SignatureFormatException {
     Transaction.Contract contract = transaction.getRawData().getContractList().get(0);
     int permissionId = contract.getPermissionId();
     byte[] owner = getOwner(contract);
@@ -484,22 +573,66 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       throw new PermissionException("permission isn't exit");
     }
     checkPermission(permissionId, permission, contract);
-    long weight = checkWeight(permission, transaction.getSignatureList(), hash, null);
+
+    Sha256Hash key = signerCacheKey(hash, transaction.getSignatureList());
+    boolean dedupByAddress = ForkController.instance()
+        .pass(Parameter.ForkBlockVersionEnum.VERSION_4_7_1);
+    SignerEntry cached = SIGNER_CACHE.getIfPresent(key);
+    if (cached != null) {
+      // the permission is read again, the cached result only holds if it is unchanged
+      if (cached.permission.equals(permission) && cached.dedupByAddress == dedupByAddress) {
+        return true;
+      }
+      if (signers == null) {
+        signers = cached.signers;
+      }
+    }
+
+    List<ByteString> approveList = new ArrayList<>();
+    long weight = checkWeight(permission, transaction.getSignatureList(), hash, approveList,
+        signers);
     if (weight >= permission.getThreshold()) {
+      byte[][] addresses = new byte[approveList.size()][];
+      for (int i = 0; i < addresses.length; i++) {
+        addresses[i] = approveList.get(i).toByteArray();
+      }
+      SIGNER_CACHE.put(key, new SignerEntry(owner, permission, dedupByAddress, addresses));
       return true;
     }
     return false;
   }
 
+  private static Sha256Hash signerCacheKey(byte[] hash, List<ByteString> sigs) {
+    ByteString.Output output = ByteString.newOutput(hash.length + sigs.size() * 65);
+    try {
+      output.write(hash);
+      for (ByteString sig : sigs) {
+        sig.writeTo(output);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(),
+        output.toByteString().toByteArray());
+  }
+
+  /**
+   * Drops the cached signature checks of transactions owned by the account, called when the
+   * permissions of the account are updated.
+   */
+  public static void invalidateSigners(byte[] owner) {
+    SIGNER_CACHE.invalidateIf(entry -> Arrays.equals(entry.owner, owner));
+  }
+
   public void resetResult() {
     if (this.getInstance().getRetCount() > 0) {
-      this.transaction = this.getInstance().toBuilder().clearRet().build();
+      update(this.getInstance().toBuilder().clearRet().build());
     }
   }
 
   public void setResult(TransactionResultCapsule transactionResultCapsule) {
-    this.transaction = this.getInstance().toBuilder().addRet(transactionResultCapsule.getInstance())
-        .build();
+    update(this.getInstance().toBuilder().addRet(transactionResultCapsule.getInstance())
+        .build());
   }
 
   public void setReference(long blockNum, byte[] blockHash) {
@@ -558,26 +691,72 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     Transaction.raw.Builder transactionBuilder = Transaction.raw.newBuilder().addContract(
         Transaction.Contract.newBuilder().setType(contractType).setParameter(
             Any.pack(message)).build());
-    transaction = Transaction.newBuilder().setRawData(transactionBuilder.build()).build();
+    update(Transaction.newBuilder().setRawData(transactionBuilder.build()).build());
   }
 
   public Sha256Hash getMerkleHash() {
-    byte[] transBytes = this.transaction.toByteArray();
-    return Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(),
-        transBytes);
+    Sha256Hash hash = merkleHash;
+    if (hash != null) {
+      return hash;
+    }
+    if (encoding != null) {
+      hash = Sha256Hash.wrap(Sha256Hash.hash(CommonParameter.getInstance()
+          .isECKeyCryptoEngine(), encoding.data, encoding.offset, encoding.length));
+    } else {
+      byte[] transBytes = this.transaction.toByteArray();
+      hash = Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(),
+          transBytes);
+    }
+    merkleHash = hash;
+    return hash;
   }
 
   private Sha256Hash getRawHash() {
+    if (encoding != null) {
+      return Sha256Hash.wrap(Sha256Hash.hash(CommonParameter.getInstance()
+          .isECKeyCryptoEngine(), encoding.data, encoding.rawOffset, encoding.rawLength));
+    }
     return Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(),
         this.transaction.getRawData().toByteArray());
   }
 
+  /**
+   * Keeps the bytes the transaction was parsed from, a transaction or a slice of a block, when
+   * they are the ones the transaction serializes to. The id, the merkle hash and the data are
+   * then taken from them, without serializing the transaction, until it is changed. The bytes
+   * are not copied and must not be changed.
+   */
+  public void keepEncoding(byte[] data, int offset, int length) {
+    if (ProtoScanner.isCanonical(Transaction.getDescriptor(), data, offset, length)) {
+      keepCanonicalEncoding(data, offset, length);
+    }
+  }
+
+  /**
+   * Same as keepEncoding for bytes known to be canonical, a slice of a canonical block.
+   */
+  void keepCanonicalEncoding(byte[] data, int offset, int length) {
+    try {
+      List<int[]> raw = ProtoScanner.lengthDelimited(data, offset, length, RAW_DATA_FIELD);
+      this.encoding = raw.isEmpty() ? new Encoding(data, offset, length, offset, 0)
+          : new Encoding(data, offset, length, raw.get(0)[0], raw.get(0)[1]);
+    } catch (IOException e) {
+      logger.debug("Transaction encoding is not kept, {}.", e.getMessage());
+    }
+  }
+
+  private void update(Transaction transaction) {
+    this.transaction = transaction;
+    this.encoding = null;
+    this.merkleHash = null;
+  }
+
   public void sign(byte[] privateKey) {
     SignInterface cryptoEngine = SignUtils
         .fromPrivate(privateKey, CommonParameter.getInstance().isECKeyCryptoEngine());
     ByteString sig = ByteString.copyFrom(cryptoEngine.Base64toBytes(cryptoEngine
         .signHash(getTransactionId().getBytes())));
-    this.transaction = this.transaction.toBuilder().addSignature(sig).build();
+    update(this.transaction.toBuilder().addSignature(sig).build());
   }
 
   public void addSign(byte[] privateKey, AccountStore accountStore)
@@ -615,7 +794,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     }
     ByteString sig = ByteString.copyFrom(cryptoEngine.Base64toBytes(cryptoEngine
         .signHash(getTransactionId().getBytes())));
-    this.transaction = this.transaction.toBuilder().addSignature(sig).build();
+    update(this.transaction.toBuilder().addSignature(sig).build());
   }
   
   private static void checkPermission(int permissionId, Permission permission, Transaction.Contract contract) throws PermissionException {
@@ -630,6 +809,62 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     }
   }
 
+  /**
+   * Recovers the signer addresses of the unverified transactions in one batch, so that the
+   * following validatePubSignature calls only check the permissions. Only the ECKey engine
+   * supports batch recovery, nothing is done for SM2.
+   */
+  public static void recoverSigners(List<TransactionCapsule> trxs) {
+    if (!CommonParameter.getInstance().isECKeyCryptoEngine()) {
+      return;
+    }
+    List<TransactionCapsule> pending = new ArrayList<>();
+    int count = 0;
+    for (TransactionCapsule trx : trxs) {
+      if (!trx.isVerified && trx.transaction.getSignatureCount() > 0
+          && SIGNER_CACHE.getIfPresent(signerCacheKey(trx.getTransactionId().getBytes(),
+          trx.transaction.getSignatureList())) == null) {
+        pending.add(trx);
+        count += trx.transaction.getSignatureCount();
+      }
+    }
+    if (count == 0) {
+      return;
+    }
+
+    byte[][] hashes = new byte[count][];
+    byte[][] sigs = new byte[count][];
+    int i = 0;
+    for (TransactionCapsule trx : pending) {
+      byte[] hash = trx.getTransactionId().getBytes();
+      for (ByteString sig : trx.transaction.getSignatureList()) {
+        hashes[i] = hash;
+        sigs[i++] = sig.toByteArray();
+      }
+    }
+    byte[][] addresses = ECBatchRecovery.recoverAddresses(hashes, sigs);
+
+    i = 0;
+    for (TransactionCapsule trx : pending) {
+      List<ByteString> sigList = trx.transaction.getSignatureList();
+      byte[][] signers = new byte[sigList.size()][];
+      System.arraycopy(addresses, i, signers, 0, signers.length);
+      i += signers.length;
+      trx.signersHash = hashes[i - 1];
+      trx.signersSigs = sigList;
+      trx.signers = signers;
+    }
+  }
+
+  private byte[][] recoveredSigners(byte[] hash) {
+    byte[][] recovered = signers;
+    if (recovered == null || !Arrays.equals(hash, signersHash)
+        || signersSigs != this.transaction.getSignatureList()) {
+      return null;
+    }
+    return recovered;
+  }
+
   /**
    * validate signature
    */
@@ -649,7 +884,8 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       byte[] hash = getTransactionId().getBytes();
 
       try {
-        if (!validateSignature(this.transaction, hash, accountStore, dynamicPropertiesStore)) {
+        if (!validateSignature(this.transaction, hash, accountStore, dynamicPropertiesStore,
+            recoveredSigners(hash))) {
           isVerified = false;
           throw new ValidateSignatureException("sig error");
         }
@@ -696,13 +932,17 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   }
 
   private void setRawData(Transaction.raw rawData) {
-    this.transaction = this.transaction.toBuilder().setRawData(rawData).build();
+    update(this.transaction.toBuilder().setRawData(rawData).build());
     // invalidate trxId
     this.id = null;
   }
 
   @Override
   public byte[] getData() {
+    if (encoding != null) {
+      return Arrays.copyOfRange(encoding.data, encoding.offset,
+          encoding.offset + encoding.length);
+    }
     return this.transaction.toByteArray();
   }
 
@@ -795,11 +1035,11 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     if (this.transaction.getRetCount() > 0) {
       ret = this.transaction.getRet(0).toBuilder().setContractRet(code).build();
 
-      this.transaction = transaction.toBuilder().setRet(0, ret).build();
+      update(transaction.toBuilder().setRet(0, ret).build());
       return;
     }
     ret = Result.newBuilder().setContractRet(code).build();
-    this.transaction = transaction.toBuilder().addRet(ret).build();
+    update(transaction.toBuilder().addRet(ret).build());
   }
 
   public Transaction.Result.contractResult getContractResult() {
@@ -842,4 +1082,37 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       return null;
     }
   }
+
+  private static final class Encoding {
+
+    private final byte[] data;
+    private final int offset;
+    private final int length;
+    private final int rawOffset;
+    private final int rawLength;
+
+    private Encoding(byte[] data, int offset, int length, int rawOffset, int rawLength) {
+      this.data = data;
+      this.offset = offset;
+      this.length = length;
+      this.rawOffset = rawOffset;
+      this.rawLength = rawLength;
+    }
+  }
+
+  private static final class SignerEntry {
+
+    private final byte[] owner;
+    private final Permission permission;
+    private final boolean dedupByAddress;
+    private final byte[][] signers;
+
+    private SignerEntry(byte[] owner, Permission permission, boolean dedupByAddress,
+        byte[][] signers) {
+      this.owner = owner;
+      this.permission = permission;
+      this.dedupByAddress = dedupByAddress;
+      this.signers = signers;
+    }
+  }
 }
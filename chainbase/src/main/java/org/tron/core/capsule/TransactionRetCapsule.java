@@ -1,6 +1,10 @@
 package org.tron.core.capsule;
 
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
 import lombok.extern.slf4j.Slf4j;
@@ -11,6 +15,11 @@ import org.tron.protos.Protocol.TransactionRet;
 @Slf4j(topic = "capsule")
 public class TransactionRetCapsule implements ProtoCapsule<TransactionRet> {
 
+  private static final int INFO_TAG = TransactionRet.TRANSACTIONINFO_FIELD_NUMBER << 3
+      | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+  private static final int ID_TAG = TransactionInfo.ID_FIELD_NUMBER << 3
+      | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
   private TransactionRet transactionRet;
 
   public TransactionRetCapsule(BlockCapsule blockCapsule) {
@@ -56,4 +65,53 @@ public class TransactionRetCapsule implements ProtoCapsule<TransactionRet> {
   public TransactionRet getInstance() {
     return transactionRet;
   }
-}
\ No newline at end of file
+
+  /**
+   * Visits the id, offset and length of every TransactionInfo in a serialized TransactionRet
+   * without decoding the infos.
+   */
+  public static void forEachInfo(byte[] data, InfoVisitor visitor) throws BadItemException {
+    try {
+      CodedInputStream input = CodedInputStream.newInstance(data);
+      int tag;
+      while ((tag = input.readTag()) != 0) {
+        if (tag != INFO_TAG) {
+          input.skipField(tag);
+          continue;
+        }
+        int length = input.readRawVarint32();
+        int offset = input.getTotalBytesRead();
+        if (length < 0 || length > data.length - offset) {
+          throw new BadItemException("TransactionRet proto data truncated");
+        }
+        if (!visitor.visit(readId(data, offset, length), offset, length)) {
+          return;
+        }
+        input.skipRawBytes(length);
+      }
+    } catch (IOException e) {
+      throw new BadItemException("TransactionRet proto data parse exception");
+    }
+  }
+
+  private static ByteString readId(byte[] data, int offset, int length) throws IOException {
+    CodedInputStream input = CodedInputStream.newInstance(data, offset, length);
+    int tag;
+    while ((tag = input.readTag()) != 0) {
+      if (tag == ID_TAG) {
+        return input.readBytes();
+      }
+      input.skipField(tag);
+    }
+    return ByteString.EMPTY;
+  }
+
+  @FunctionalInterface
+  public interface InfoVisitor {
+
+    /**
+     * @return false to stop visiting
+     */
+    boolean visit(ByteString id, int offset, int length);
+  }
+}
@@ -0,0 +1,309 @@
+package org.tron.core.capsule.utils;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Descriptors.OneofDescriptor;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scans the encoding of a message without building it, the bytes are read once and not copied.
+ */
+public final class ProtoScanner {
+
+  // the recursion limit of CodedInputStream
+  private static final int MAX_DEPTH = 100;
+
+  private ProtoScanner() {
+    throw new IllegalStateException("ProtoScanner");
+  }
+
+  /**
+   * Finds the fields a parser of the type keeps as unknown fields: the field numbers the type
+   * does not have and the known fields in another wire type, in the message and in the messages
+   * it holds.
+   *
+   * @throws InvalidProtocolBufferException if the parser of the type fails on the data
+   */
+  public static boolean hasUnknownFields(Descriptor type, ByteString data) throws IOException {
+    CodedInputStream input = data.newCodedInput();
+    input.enableAliasing(true);
+    return hasUnknownFields(type, input, 0);
+  }
+
+  private static boolean hasUnknownFields(Descriptor type, CodedInputStream input, int depth)
+      throws IOException {
+    if (depth > MAX_DEPTH) {
+      throw new InvalidProtocolBufferException("message is nested too deep");
+    }
+    int tag;
+    while ((tag = input.readTag()) != 0) {
+      FieldDescriptor field = type.findFieldByNumber(WireFormat.getTagFieldNumber(tag));
+      if (field == null) {
+        return true;
+      }
+      int wireType = WireFormat.getTagWireType(tag);
+      if (wireType == field.getLiteType().getWireType()) {
+        if (field.isMapField()) {
+          int limit = input.pushLimit(input.readRawVarint32());
+          boolean unknown = hasUnknownMapFields(field.getMessageType(), input, depth + 1);
+          input.popLimit(limit);
+          if (unknown) {
+            return true;
+          }
+        } else if (field.getType() == FieldDescriptor.Type.MESSAGE) {
+          int limit = input.pushLimit(input.readRawVarint32());
+          boolean unknown = hasUnknownFields(field.getMessageType(), input, depth + 1);
+          input.popLimit(limit);
+          if (unknown) {
+            return true;
+          }
+        } else if (field.getType() == FieldDescriptor.Type.STRING) {
+          // proto3 strings are utf-8
+          if (!input.readBytes().isValidUtf8()) {
+            throw new InvalidProtocolBufferException("string is not utf-8");
+          }
+        } else {
+          input.skipField(tag);
+        }
+      } else if (field.isPackable() && wireType == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+        int limit = input.pushLimit(input.readRawVarint32());
+        while (input.getBytesUntilLimit() > 0) {
+          skipPacked(field, input);
+        }
+        input.popLimit(limit);
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * A map entry is parsed apart from its message: its unknown fields and a key or value in
+   * another wire type are dropped, not kept, so only a message value can keep unknown fields.
+   */
+  private static boolean hasUnknownMapFields(Descriptor entry, CodedInputStream input, int depth)
+      throws IOException {
+    int tag;
+    while ((tag = input.readTag()) != 0) {
+      FieldDescriptor field = entry.findFieldByNumber(WireFormat.getTagFieldNumber(tag));
+      if (field == null || WireFormat.getTagWireType(tag) != field.getLiteType().getWireType()) {
+        if (!input.skipField(tag)) {
+          throw new InvalidProtocolBufferException("map entry ends with a group end tag");
+        }
+      } else if (field.getType() == FieldDescriptor.Type.MESSAGE) {
+        int limit = input.pushLimit(input.readRawVarint32());
+        boolean unknown = hasUnknownFields(field.getMessageType(), input, depth + 1);
+        input.popLimit(limit);
+        if (unknown) {
+          return true;
+        }
+      } else if (field.getType() == FieldDescriptor.Type.STRING) {
+        if (!input.readBytes().isValidUtf8()) {
+          throw new InvalidProtocolBufferException("string is not utf-8");
+        }
+      } else {
+        input.skipField(tag);
+      }
+    }
+    return false;
+  }
+
+  private static void skipPacked(FieldDescriptor field, CodedInputStream input)
+      throws IOException {
+    switch (field.getLiteType().getWireType()) {
+      case WireFormat.WIRETYPE_FIXED32:
+        input.readRawLittleEndian32();
+        break;
+      case WireFormat.WIRETYPE_FIXED64:
+        input.readRawLittleEndian64();
+        break;
+      default:
+        input.readRawVarint64();
+        break;
+    }
+  }
+
+  /**
+   * Checks that a message of the type is encoded as protobuf-java serializes it once parsed:
+   * the fields in field number order, each once but the repeated ones, the repeated scalars
+   * packed, no field of a default value, no unknown field and every varint, tag and length in
+   * the fewest bytes, in the message and in the messages it holds.
+   *
+   * @return false if the data is not canonical or not a message of the type
+   */
+  public static boolean isCanonical(Descriptor type, byte[] data, int offset, int length) {
+    try {
+      CodedInputStream input = CodedInputStream.newInstance(data, offset, length);
+      input.enableAliasing(true);
+      return isCanonical(type, input, 0);
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @return {offset, length} of the values of a length delimited field of the message in
+   *     data[offset, offset + length), in their order
+   */
+  public static List<int[]> lengthDelimited(byte[] data, int offset, int length, int number)
+      throws IOException {
+    List<int[]> values = new ArrayList<>();
+    CodedInputStream input = CodedInputStream.newInstance(data, offset, length);
+    int tag;
+    while ((tag = input.readTag()) != 0) {
+      if (WireFormat.getTagFieldNumber(tag) == number
+          && WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+        int size = input.readRawVarint32();
+        values.add(new int[] {offset + input.getTotalBytesRead(), size});
+        input.skipRawBytes(size);
+      } else {
+        input.skipField(tag);
+      }
+    }
+    return values;
+  }
+
+  private static boolean isCanonical(Descriptor type, CodedInputStream input, int depth)
+      throws IOException {
+    if (depth > MAX_DEPTH) {
+      return false;
+    }
+    int last = 0;
+    List<OneofDescriptor> oneofs = null;
+    while (true) {
+      int start = input.getTotalBytesRead();
+      int tag = input.readTag();
+      if (tag == 0) {
+        return true;
+      }
+      if (input.getTotalBytesRead() - start != CodedOutputStream.computeUInt32SizeNoTag(tag)) {
+        return false;
+      }
+      int number = WireFormat.getTagFieldNumber(tag);
+      FieldDescriptor field = type.findFieldByNumber(number);
+      if (field == null || field.isMapField() || number < last
+          || (number == last && (!field.isRepeated() || field.isPacked()))) {
+        return false;
+      }
+      OneofDescriptor oneof = field.getRealContainingOneof();
+      if (oneof != null) {
+        if (oneofs == null) {
+          oneofs = new ArrayList<>();
+        } else if (oneofs.contains(oneof)) {
+          return false;
+        }
+        oneofs.add(oneof);
+      }
+      last = number;
+      if (!isCanonical(field, tag, input, depth)) {
+        return false;
+      }
+    }
+  }
+
+  private static boolean isCanonical(FieldDescriptor field, int tag, CodedInputStream input,
+      int depth) throws IOException {
+    int wireType = WireFormat.getTagWireType(tag);
+    if (field.isPacked()) {
+      if (wireType != WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+        return false;
+      }
+      int length = readLength(input);
+      // an empty list is not written
+      if (length <= 0) {
+        return false;
+      }
+      int limit = input.pushLimit(length);
+      while (input.getBytesUntilLimit() > 0) {
+        if (!isCanonicalScalar(field, input, true)) {
+          return false;
+        }
+      }
+      input.popLimit(limit);
+      return true;
+    }
+    if (wireType != field.getLiteType().getWireType()) {
+      return false;
+    }
+    boolean defaultWritten = field.isRepeated() || field.hasPresence();
+    switch (field.getJavaType()) {
+      case MESSAGE: {
+        int length = readLength(input);
+        if (length < 0) {
+          return false;
+        }
+        int limit = input.pushLimit(length);
+        boolean canonical = isCanonical(field.getMessageType(), input, depth + 1);
+        input.popLimit(limit);
+        return canonical;
+      }
+      case STRING:
+      case BYTE_STRING: {
+        int start = input.getTotalBytesRead();
+        ByteString value = input.readBytes();
+        return input.getTotalBytesRead() - start
+            == CodedOutputStream.computeUInt32SizeNoTag(value.size()) + value.size()
+            && (defaultWritten || !value.isEmpty())
+            && (field.getType() != FieldDescriptor.Type.STRING || value.isValidUtf8());
+      }
+      default:
+        return isCanonicalScalar(field, input, defaultWritten);
+    }
+  }
+
+  private static boolean isCanonicalScalar(FieldDescriptor field, CodedInputStream input,
+      boolean defaultWritten) throws IOException {
+    switch (field.getLiteType().getWireType()) {
+      case WireFormat.WIRETYPE_FIXED32:
+        return input.readRawLittleEndian32() != 0 || defaultWritten;
+      case WireFormat.WIRETYPE_FIXED64:
+        return input.readRawLittleEndian64() != 0 || defaultWritten;
+      default:
+        break;
+    }
+    int start = input.getTotalBytesRead();
+    long raw = input.readRawVarint64();
+    if (input.getTotalBytesRead() - start != CodedOutputStream.computeUInt64SizeNoTag(raw)) {
+      return false;
+    }
+    long value;
+    switch (field.getType()) {
+      case INT32:
+      case ENUM:
+        // negative values are sign extended to 64 bits
+        value = (int) raw;
+        break;
+      case UINT32:
+      case SINT32:
+        value = raw & 0xFFFFFFFFL;
+        break;
+      case BOOL:
+        value = raw == 0 ? 0 : 1;
+        break;
+      default:
+        value = raw;
+        break;
+    }
+    return value == raw && (raw != 0 || defaultWritten);
+  }
+
+  /**
+   * @return the length prefix, -1 if it is not in the fewest bytes
+   */
+  private static int readLength(CodedInputStream input) throws IOException {
+    int start = input.getTotalBytesRead();
+    int length = input.readRawVarint32();
+    if (input.getTotalBytesRead() - start != CodedOutputStream.computeUInt32SizeNoTag(length)) {
+      return -1;
+    }
+    return length;
+  }
+}
@@ -0,0 +1,156 @@
+package org.tron.core.capsule.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import org.tron.common.parameter.CommonParameter;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.protos.Protocol.Transaction;
+
+/**
+ * The transaction merkle root of a block, the root of {@link MerkleTree} over the merkle hashes
+ * of its transactions, computed without building the tree.
+ *
+ * <p>The tree pairs the nodes of a level from the left and moves an odd last node up as is,
+ * so the root of n leaves is the hash of the root of the first 2^k leaves, 2^k the largest power
+ * of two below n, and the root of the rest. The subtrees of a large block are hashed in
+ * parallel, and {@link Appender} keeps the roots of the complete subtrees of the transactions
+ * appended so far, as a block is filled.
+ */
+public final class TransactionMerkleRoot {
+
+  // the fewest transactions hashed in parallel, and the most hashed by one task
+  private static final int PARALLEL_THRESHOLD = 512;
+  private static final int TASK_SIZE = 128;
+
+  private static final ForkJoinPool POOL = new ForkJoinPool(
+      Runtime.getRuntime().availableProcessors(), pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory
+            .newThread(pool);
+        thread.setName("merkle-root-" + thread.getPoolIndex());
+        return thread;
+      }, null, false);
+
+  private TransactionMerkleRoot() {
+    throw new IllegalStateException("TransactionMerkleRoot");
+  }
+
+  /**
+   * @return the merkle root of the transactions, ZERO_HASH if there is none
+   */
+  public static Sha256Hash of(List<TransactionCapsule> transactions) {
+    if (transactions.isEmpty()) {
+      return Sha256Hash.ZERO_HASH;
+    }
+    if (transactions.size() < PARALLEL_THRESHOLD) {
+      return root(transactions, 0, transactions.size());
+    }
+    return POOL.invoke(new SubtreeTask(transactions, 0, transactions.size()));
+  }
+
+  private static Sha256Hash root(List<TransactionCapsule> transactions, int from, int to) {
+    Appender appender = new Appender();
+    for (int i = from; i < to; i++) {
+      appender.append(transactions.get(i).getMerkleHash());
+    }
+    return appender.root();
+  }
+
+  private static Sha256Hash hash(Sha256Hash left, Sha256Hash right) {
+    byte[] data = new byte[Sha256Hash.LENGTH * 2];
+    System.arraycopy(left.getBytes(), 0, data, 0, Sha256Hash.LENGTH);
+    System.arraycopy(right.getBytes(), 0, data, Sha256Hash.LENGTH, Sha256Hash.LENGTH);
+    return Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(), data);
+  }
+
+  private static final class SubtreeTask extends RecursiveTask<Sha256Hash> {
+
+    private final List<TransactionCapsule> transactions;
+    private final int from;
+    private final int to;
+
+    private SubtreeTask(List<TransactionCapsule> transactions, int from, int to) {
+      this.transactions = transactions;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Sha256Hash compute() {
+      if (to - from <= TASK_SIZE) {
+        return root(transactions, from, to);
+      }
+      // the first 2^k leaves are a complete subtree, 2^k < to - from
+      int middle = from + Integer.highestOneBit(to - from - 1);
+      SubtreeTask left = new SubtreeTask(transactions, from, middle);
+      left.fork();
+      Sha256Hash right = new SubtreeTask(transactions, middle, to).compute();
+      return hash(left.join(), right);
+    }
+  }
+
+  /**
+   * Builds the merkle root as transactions are appended, hashing each node once: it keeps the
+   * roots of the complete subtrees, one per bit of the count, so the root is log(n) hashes away.
+   * Not thread safe.
+   */
+  public static final class Appender {
+
+    // peaks.get(i) is the root of the i-th complete subtree from the left, of 2^heights.get(i)
+    // leaves, the heights decreasing
+    private final List<Sha256Hash> peaks = new ArrayList<>();
+    private final List<Integer> heights = new ArrayList<>();
+    private final List<Transaction> transactions = new ArrayList<>();
+
+    /**
+     * Appends a transaction as it is now, see {@link #isRootOf(List)}.
+     */
+    public void append(TransactionCapsule transaction) {
+      append(transaction.getMerkleHash());
+      transactions.add(transaction.getInstance());
+    }
+
+    private void append(Sha256Hash leaf) {
+      int height = 0;
+      while (!peaks.isEmpty() && heights.get(heights.size() - 1) == height) {
+        heights.remove(heights.size() - 1);
+        leaf = hash(peaks.remove(peaks.size() - 1), leaf);
+        height++;
+      }
+      peaks.add(leaf);
+      heights.add(height);
+    }
+
+    /**
+     * @return true if the appended transactions are the ones, unchanged, in the same order
+     */
+    public boolean isRootOf(List<Transaction> transactions) {
+      if (transactions.size() != this.transactions.size()) {
+        return false;
+      }
+      for (int i = 0; i < transactions.size(); i++) {
+        if (transactions.get(i) != this.transactions.get(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * @return the merkle root of the appended transactions, ZERO_HASH if there is none
+     */
+    public Sha256Hash root() {
+      if (peaks.isEmpty()) {
+        return Sha256Hash.ZERO_HASH;
+      }
+      Sha256Hash root = peaks.get(peaks.size() - 1);
+      for (int i = peaks.size() - 2; i >= 0; i--) {
+        root = hash(peaks.get(i), root);
+      }
+      return root;
+    }
+  }
+}
@@ -22,4 +22,11 @@ public class TransactionCache extends TronStoreWithRevoking<BytesCapsule> {
   public void initCache() {
     ((TxCacheDB) getDb()).init();
   }
+
+  /**
+   * @return true if has answers exactly for the recent transactions, see TxCacheDB.isExact
+   */
+  public boolean isExact() {
+    return ((TxCacheDB) getDb()).isExact();
+  }
 }
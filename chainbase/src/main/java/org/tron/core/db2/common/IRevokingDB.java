@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.tron.core.db2.core.Chainbase;
+import org.tron.core.db2.core.SnapshotMergeIterator;
 import org.tron.core.exception.ItemNotFoundException;
 
 public interface IRevokingDB extends Iterable<Map.Entry<byte[], byte[]>> {
@@ -41,6 +42,11 @@ public interface IRevokingDB extends Iterable<Map.Entry<byte[], byte[]>> {
 
   Map<WrappedByteArray, byte[]> prefixQuery(byte[] key);
 
+  // sorted keys in [start, end), a null bound is open
+  SnapshotMergeIterator rangeIterator(byte[] start, byte[] end);
+
+  SnapshotMergeIterator prefixIterator(byte[] prefix);
+
   default Map<byte[], byte[]> getNext(byte[] key, long limit) {
     return Collections.emptyMap();
   }
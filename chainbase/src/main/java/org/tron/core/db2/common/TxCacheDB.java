@@ -91,6 +91,12 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
   private AtomicBoolean isValid = new AtomicBoolean(false);
   private boolean txCacheInitOptimization;
 
+  // an exact set of the recent transactions replaces the bloom filters, see TxIdSet
+  private final boolean exact;
+  private final Path txIdFile;
+  // null until init
+  private volatile TxIdSet txIds;
+
   @Getter
   @Setter
   private volatile boolean alive;
@@ -121,14 +127,18 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
     } else {
       throw new RuntimeException(String.format("db type: %s is not supported", dbEngine));
     }
-    this.bloomFilters[0] = BloomFilter.create(Funnels.byteArrayFunnel(),
-        MAX_BLOCK_SIZE * TRANSACTION_COUNT);
-    this.bloomFilters[1] = BloomFilter.create(Funnels.byteArrayFunnel(),
-        MAX_BLOCK_SIZE * TRANSACTION_COUNT);
+    this.exact = CommonParameter.getInstance().getStorage().isTxCacheExact();
+    if (!exact) {
+      this.bloomFilters[0] = BloomFilter.create(Funnels.byteArrayFunnel(),
+          MAX_BLOCK_SIZE * TRANSACTION_COUNT);
+      this.bloomFilters[1] = BloomFilter.create(Funnels.byteArrayFunnel(),
+          MAX_BLOCK_SIZE * TRANSACTION_COUNT);
+    }
     cacheDir = Paths.get(CommonParameter.getInstance().getOutputDirectory(), ".cache");
     this.cacheFile0 = Paths.get(cacheDir.toString(), "bloomFilters_0");
     this.cacheFile1 = Paths.get(cacheDir.toString(), "bloomFilters_1");
     this.cacheProperties = Paths.get(cacheDir.toString(), "txCache.properties");
+    this.txIdFile = Paths.get(cacheDir.toString(), "txIds");
     this.txCacheInitOptimization = CommonParameter.getInstance()
         .getStorage().isTxCacheInitOptimization();
 
@@ -156,6 +166,12 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
   }
 
   public void init() {
+    if (exact) {
+      txIds = loadTxIds();
+      isValid.set(true);
+      setAlive(true);
+      return;
+    }
     if (recovery()) {
       isValid.set(true);
       setAlive(true);
@@ -184,8 +200,62 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
     setAlive(true);
   }
 
+  /**
+   * Reopens the set closed cleanly at the head block, or rebuilds it from the recent
+   * transactions.
+   */
+  private TxIdSet loadTxIds() {
+    FileUtil.createDirIfNotExists(this.cacheDir.toString());
+    long head = dynamicPropertiesStore.getLatestBlockHeaderNumberFromDB();
+    TxIdSet set = TxIdSet.open(txIdFile, MAX_BLOCK_SIZE, head);
+    if (set != null) {
+      return set;
+    }
+    long start = System.currentTimeMillis();
+    try {
+      set = TxIdSet.create(txIdFile, MAX_BLOCK_SIZE);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    if (recentTransactionStore.size() != MAX_BLOCK_SIZE) {
+      DBIterator iterator = (DBIterator) persistentStore.iterator();
+      while (iterator.hasNext()) {
+        Entry<byte[], byte[]> entry = iterator.next();
+        if (ArrayUtils.isEmpty(entry.getKey()) || entry.getValue() == null
+            || entry.getValue().length != Long.BYTES) {
+          break;
+        }
+        set.put(entry.getKey(), Longs.fromByteArray(entry.getValue()));
+      }
+    }
+    for (Entry<byte[], BytesCapsule> bytesCapsuleEntry : recentTransactionStore) {
+      byte[] data = bytesCapsuleEntry.getValue().getData();
+      RecentTransactionItem trx =
+          JsonUtil.json2Obj(new String(data), RecentTransactionItem.class);
+      for (String tid : trx.getTransactionIds()) {
+        set.put(Hex.decode(tid), trx.getNum());
+      }
+    }
+    logger.info("Rebuild tx id set, size: {}, cost: {} ms.", set.size(),
+        System.currentTimeMillis() - start);
+    return set;
+  }
+
+  /**
+   * @return true if the cache holds exactly the recent transactions, a transaction it does not
+   *     hold is not a recent one and one it holds is
+   */
+  public boolean isExact() {
+    return txIds != null;
+  }
+
   @Override
   public byte[] get(byte[] key) {
+    if (exact) {
+      TxIdSet set = txIds;
+      // not loaded yet, it might exist
+      return set == null || set.contains(key) ? FAKE_TRANSACTION : null;
+    }
     if (!bloomFilters[0].mightContain(key) && !bloomFilters[1].mightContain(key)) {
       return null;
     }
@@ -200,6 +270,18 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
     }
 
     long blockNum = Longs.fromByteArray(value);
+    if (exact) {
+      TxIdSet set = txIds;
+      if (set != null) {
+        set.put(key, blockNum);
+        if (lastMetricBlock != blockNum) {
+          lastMetricBlock = blockNum;
+          Metrics.gaugeSet(MetricKeys.Gauge.TX_CACHE, set.size(), "count");
+          Metrics.gaugeSet(MetricKeys.Gauge.TX_CACHE, 0, "fpp");
+        }
+      }
+      return;
+    }
     if (filterStartBlock == INVALID_BLOCK) {
       // init active filter start block
       filterStartBlock = blockNum;
@@ -271,6 +353,21 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
     if (!isAlive()) {
       return;
     }
+    if (exact) {
+      // detached first, so later lookups answer as before the set was loaded; a lookup holding
+      // the set already is waited for by its lock, and finds it closed after
+      TxIdSet set = txIds;
+      txIds = null;
+      if (isValid.get()) {
+        set.close(dynamicPropertiesStore.getLatestBlockHeaderNumberFromDB());
+      } else {
+        // a batch is half written, rebuilt at the next start
+        set.close();
+      }
+      persistentStore.close();
+      setAlive(false);
+      return;
+    }
     dump();
     bloomFilters[0] = null;
     bloomFilters[1] = null;
@@ -0,0 +1,464 @@
+package org.tron.core.db2.common;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An exact set of transaction ids with block number expiry, in an open addressing hash table
+ * mapped from a file, off the java heap.
+ *
+ * <p>A slot is 16 bytes: the first 12 bytes of the id and the block number plus one, an all zero
+ * slot is empty. An id is in the set while its block is at most {@code window} blocks below the
+ * highest block put. Expired ids are dropped when the table is rebuilt, that is when 3/4 of the
+ * slots are used, into a table of at least twice the live ids.
+ *
+ * <p>The table is written in place, the OS writes the pages back. The header records whether the
+ * file was closed cleanly and the head block of the databases then, a file not closed cleanly is
+ * not opened again and has to be rebuilt by the caller.
+ */
+@Slf4j(topic = "DB")
+public class TxIdSet implements Closeable {
+
+  // "TXIDSET1"
+  private static final long MAGIC = 0x5458494453455431L;
+  private static final int VERSION = 1;
+
+  private static final int HEADER = 4096;
+  private static final int MAGIC_OFFSET = 0;
+  private static final int VERSION_OFFSET = 8;
+  private static final int STATE_OFFSET = 12;
+  private static final int BITS_OFFSET = 16;
+  private static final int USED_OFFSET = 24;
+  private static final int MAX_BLOCK_OFFSET = 32;
+  private static final int HEAD_OFFSET = 40;
+  private static final int DIRTY = 0;
+  private static final int CLEAN = 1;
+
+  private static final int SLOT = 16;
+  static final int KEY_BYTES = 12;
+  // a MappedByteBuffer holds at most 2 GB, a segment maps 2^26 slots, 1 GB
+  private static final int SEGMENT_BITS = 26;
+  private static final int MIN_BITS = 20;
+  private static final int MAX_BITS = 32;
+
+  private final Path file;
+  private final long window;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  // guarded by lock
+  private Table table;
+  private long maxBlock;
+
+  private TxIdSet(Path file, long window, Table table, long maxBlock) {
+    this.file = file;
+    this.window = window;
+    this.table = table;
+    this.maxBlock = maxBlock;
+  }
+
+  /**
+   * Opens a set closed cleanly at the head block.
+   *
+   * @return null if the file does not exist, is not a set, was not closed cleanly or was closed
+   *     at another head block
+   */
+  public static TxIdSet open(Path file, long window, long head) {
+    if (!Files.exists(file)) {
+      return null;
+    }
+    Table table = null;
+    try {
+      table = Table.open(file);
+      if (table == null) {
+        logger.info("Tx id set {} is not valid.", file);
+        return null;
+      }
+      if (table.state() != CLEAN || table.head() != head) {
+        logger.info("Tx id set {} is not closed cleanly at {}, state: {}, head: {}.",
+            file, head, table.state(), table.head());
+        table.close();
+        return null;
+      }
+      table.setState(DIRTY);
+      logger.info("Open tx id set {}, slots: {}, used: {}, max block: {}.",
+          file, table.capacity(), table.used, table.maxBlock());
+      return new TxIdSet(file, window, table, table.maxBlock());
+    } catch (IOException e) {
+      logger.warn("Open tx id set {} failed.", file, e);
+      if (table != null) {
+        table.closeQuietly();
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Creates an empty set, replacing the file.
+   */
+  public static TxIdSet create(Path file, long window) throws IOException {
+    Files.deleteIfExists(file);
+    Table table = Table.create(file, MIN_BITS);
+    return new TxIdSet(file, window, table, 0);
+  }
+
+  /**
+   * @return true if the id is in the set, or if the set is closed, which can't tell
+   */
+  public boolean contains(byte[] id) {
+    long k0 = k0(id);
+    int k1 = k1(id);
+    lock.readLock().lock();
+    try {
+      if (table == null) {
+        return true;
+      }
+      long slot = table.find(k0, k1);
+      return slot >= 0 && live(table.block(slot));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Adds the id, nothing when the set is closed.
+   */
+  public void put(byte[] id, long block) {
+    long k0 = k0(id);
+    int k1 = k1(id);
+    lock.writeLock().lock();
+    try {
+      if (table == null) {
+        return;
+      }
+      if ((table.used + 1) * 4 > table.capacity() * 3) {
+        rebuild();
+      }
+      table.put(k0, k1, block);
+      if (block > maxBlock) {
+        maxBlock = block;
+        table.setMaxBlock(block);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return the used slots, the live ids and the expired ids not dropped yet
+   */
+  public long size() {
+    lock.readLock().lock();
+    try {
+      return table == null ? 0 : table.used;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Writes the table back and marks the file clean.
+   *
+   * @param head the head block of the databases the set is consistent with
+   */
+  public void close(long head) {
+    lock.writeLock().lock();
+    try {
+      if (table == null) {
+        return;
+      }
+      table.force();
+      table.setHead(head);
+      table.setState(CLEAN);
+      table.force();
+      table.close();
+      logger.info("Close tx id set {}, used: {}, max block: {}, head: {}.",
+          file, table.used, maxBlock, head);
+    } catch (IOException e) {
+      logger.warn("Close tx id set {} failed.", file, e);
+    } finally {
+      table = null;
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Closes without marking the file clean, it is not opened again.
+   */
+  @Override
+  public void close() {
+    lock.writeLock().lock();
+    try {
+      if (table != null) {
+        table.closeQuietly();
+        table = null;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private boolean live(long block) {
+    return maxBlock - block <= window;
+  }
+
+  private void rebuild() {
+    long start = System.currentTimeMillis();
+    long live = 0;
+    for (long slot = 0; slot < table.capacity(); slot++) {
+      if (!table.empty(slot) && live(table.block(slot))) {
+        live++;
+      }
+    }
+    int bits = Math.max(MIN_BITS, 64 - Long.numberOfLeadingZeros(Math.max(1, live * 2 - 1)));
+    if (bits > MAX_BITS) {
+      throw new IllegalStateException("tx id set is full, live: " + live);
+    }
+    Path tmp = Paths.get(file.toString() + ".tmp");
+    try {
+      Files.deleteIfExists(tmp);
+      Table rebuilt = Table.create(tmp, bits);
+      for (long slot = 0; slot < table.capacity(); slot++) {
+        if (!table.empty(slot) && live(table.block(slot))) {
+          rebuilt.put(table.k0(slot), table.k1(slot), table.block(slot));
+        }
+      }
+      rebuilt.setMaxBlock(maxBlock);
+      long used = table.used;
+      long capacity = table.capacity();
+      // the old mapping is released when collected
+      table.closeQuietly();
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      table = rebuilt;
+      logger.info("Rebuild tx id set, slots: {} -> {}, used: {} -> {}, cost: {} ms.",
+          capacity, table.capacity(), used, table.used, System.currentTimeMillis() - start);
+    } catch (IOException e) {
+      throw new IllegalStateException("rebuild tx id set failed", e);
+    }
+  }
+
+  private static long k0(byte[] id) {
+    long k = 0;
+    for (int i = 0; i < Long.BYTES; i++) {
+      k = (k << 8) | (i < id.length ? id[i] & 0xFF : 0);
+    }
+    return k;
+  }
+
+  private static int k1(byte[] id) {
+    int k = 0;
+    for (int i = Long.BYTES; i < KEY_BYTES; i++) {
+      k = (k << 8) | (i < id.length ? id[i] & 0xFF : 0);
+    }
+    return k;
+  }
+
+  private static final class Table {
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] segments;
+    private final int bits;
+    private final long mask;
+    private final int segmentBits;
+    private final int segmentMask;
+    private long used;
+
+    private Table(FileChannel channel, int bits) throws IOException {
+      this.channel = channel;
+      this.bits = bits;
+      this.mask = (1L << bits) - 1;
+      this.segmentBits = Math.min(bits, SEGMENT_BITS);
+      this.segmentMask = (1 << segmentBits) - 1;
+      this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+      long segmentBytes = (long) SLOT << segmentBits;
+      this.segments = new MappedByteBuffer[1 << (bits - segmentBits)];
+      for (int i = 0; i < segments.length; i++) {
+        segments[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+            HEADER + i * segmentBytes, segmentBytes);
+      }
+    }
+
+    static Table create(Path file, int bits) throws IOException {
+      FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+          StandardOpenOption.READ, StandardOpenOption.WRITE);
+      try {
+        Table table = new Table(channel, bits);
+        table.header.putLong(MAGIC_OFFSET, MAGIC);
+        table.header.putInt(VERSION_OFFSET, VERSION);
+        table.header.putInt(STATE_OFFSET, DIRTY);
+        table.header.putLong(BITS_OFFSET, bits);
+        table.header.putLong(USED_OFFSET, 0);
+        table.header.putLong(MAX_BLOCK_OFFSET, 0);
+        table.header.putLong(HEAD_OFFSET, -1);
+        return table;
+      } catch (IOException e) {
+        channel.close();
+        throw e;
+      }
+    }
+
+    /**
+     * @return null if the file is not a set
+     */
+    static Table open(Path file) throws IOException {
+      int bits;
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        if (channel.size() < HEADER) {
+          return null;
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+        long value = header.getLong(BITS_OFFSET);
+        if (header.getLong(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION
+            || value < MIN_BITS || value > MAX_BITS
+            || channel.size() != HEADER + ((long) SLOT << value)) {
+          return null;
+        }
+        bits = (int) value;
+      }
+      FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+          StandardOpenOption.WRITE);
+      try {
+        Table table = new Table(channel, bits);
+        table.used = table.header.getLong(USED_OFFSET);
+        return table;
+      } catch (IOException e) {
+        channel.close();
+        throw e;
+      }
+    }
+
+    long capacity() {
+      return 1L << bits;
+    }
+
+    int state() {
+      return header.getInt(STATE_OFFSET);
+    }
+
+    void setState(int state) {
+      header.putInt(STATE_OFFSET, state);
+      header.force();
+    }
+
+    long head() {
+      return header.getLong(HEAD_OFFSET);
+    }
+
+    void setHead(long head) {
+      header.putLong(HEAD_OFFSET, head);
+    }
+
+    long maxBlock() {
+      return header.getLong(MAX_BLOCK_OFFSET);
+    }
+
+    void setMaxBlock(long block) {
+      header.putLong(MAX_BLOCK_OFFSET, block);
+    }
+
+    /**
+     * @return the slot of the id, -1 if it is not in the table
+     */
+    long find(long k0, int k1) {
+      for (long slot = index(k0, k1); ; slot = (slot + 1) & mask) {
+        MappedByteBuffer segment = segment(slot);
+        int offset = offset(slot);
+        long high = segment.getLong(offset);
+        long low = segment.getLong(offset + Long.BYTES);
+        if (high == 0 && low == 0) {
+          return -1;
+        }
+        if (high == k0 && (int) (low >>> 32) == k1) {
+          return slot;
+        }
+      }
+    }
+
+    /**
+     * Adds the id, or moves it to the block if it is higher.
+     */
+    void put(long k0, int k1, long block) {
+      for (long slot = index(k0, k1); ; slot = (slot + 1) & mask) {
+        MappedByteBuffer segment = segment(slot);
+        int offset = offset(slot);
+        long high = segment.getLong(offset);
+        long low = segment.getLong(offset + Long.BYTES);
+        if (high == 0 && low == 0) {
+          segment.putLong(offset, k0);
+          segment.putInt(offset + Long.BYTES, k1);
+          segment.putInt(offset + Long.BYTES + Integer.BYTES, (int) (block + 1));
+          used++;
+          header.putLong(USED_OFFSET, used);
+          return;
+        }
+        if (high == k0 && (int) (low >>> 32) == k1) {
+          if (block > block(slot)) {
+            segment.putInt(offset + Long.BYTES + Integer.BYTES, (int) (block + 1));
+          }
+          return;
+        }
+      }
+    }
+
+    boolean empty(long slot) {
+      MappedByteBuffer segment = segment(slot);
+      int offset = offset(slot);
+      return segment.getLong(offset) == 0 && segment.getLong(offset + Long.BYTES) == 0;
+    }
+
+    long k0(long slot) {
+      return segment(slot).getLong(offset(slot));
+    }
+
+    int k1(long slot) {
+      return segment(slot).getInt(offset(slot) + Long.BYTES);
+    }
+
+    long block(long slot) {
+      return Integer.toUnsignedLong(
+          segment(slot).getInt(offset(slot) + Long.BYTES + Integer.BYTES)) - 1;
+    }
+
+    private long index(long k0, int k1) {
+      long h = (k0 ^ ((long) k1 << 16)) * 0x9E3779B97F4A7C15L;
+      return h >>> (64 - bits);
+    }
+
+    private MappedByteBuffer segment(long slot) {
+      return segments[(int) (slot >>> segmentBits)];
+    }
+
+    private int offset(long slot) {
+      return ((int) slot & segmentMask) * SLOT;
+    }
+
+    void force() {
+      for (MappedByteBuffer segment : segments) {
+        segment.force();
+      }
+      header.force();
+    }
+
+    void close() throws IOException {
+      channel.close();
+    }
+
+    void closeQuietly() {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        logger.warn("Close tx id set failed.", e);
+      }
+    }
+  }
+}
@@ -1,18 +1,18 @@
 package org.tron.core.db2.core;
 
-import com.google.common.collect.Maps;
 import com.google.common.collect.Streams;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import org.tron.common.utils.ByteUtil;
+import org.tron.common.storage.metric.DbMetrics;
 import org.tron.common.utils.Pair;
 import org.tron.core.capsule.utils.MarketUtils;
 import org.tron.core.db2.common.IRevokingDB;
@@ -121,12 +121,18 @@ public class Chainbase implements IRevokingDB {
 
   @Override
   public synchronized void put(byte[] key, byte[] value) {
+    long start = DbMetrics.start();
     head().put(key, value);
+    ReadWriteSet.write(this, key, value);
+    DbMetrics.observe(start, getDbName(), DbMetrics.CHAINBASE, DbMetrics.PUT, value);
   }
 
   @Override
   public synchronized void delete(byte[] key) {
+    long start = DbMetrics.start();
     head().remove(key);
+    ReadWriteSet.write(this, key, null);
+    DbMetrics.observe(start, getDbName(), DbMetrics.CHAINBASE, DbMetrics.DELETE);
   }
 
   @Override
@@ -141,6 +147,7 @@ public class Chainbase implements IRevokingDB {
 
   @Override
   public byte[] getFromRoot(byte[] key) throws ItemNotFoundException {
+    ReadWriteSet.unchecked();
     byte[] value = head().getRoot().get(key);
     if (value == null) {
       throw new ItemNotFoundException();
@@ -150,7 +157,14 @@ public class Chainbase implements IRevokingDB {
 
   @Override
   public byte[] getUnchecked(byte[] key) {
-    return head().get(key);
+    long start = DbMetrics.start();
+    Snapshot snapshot = head();
+    byte[] value = snapshot.get(key);
+    ReadWriteSet.read(this, key, value);
+    DbMetrics.observe(start, getDbName(), DbMetrics.CHAINBASE, DbMetrics.GET, value);
+    DbMetrics.snapshotDepth(start, getDbName(),
+        Snapshot.isImpl(snapshot) ? ((SnapshotImpl) snapshot).getDepth() : 0);
+    return value;
   }
 
   @Override
@@ -160,11 +174,15 @@ public class Chainbase implements IRevokingDB {
 
   @Override
   public synchronized Iterator<Map.Entry<byte[], byte[]>> iterator() {
-    return head().iterator();
+    long start = DbMetrics.start();
+    ReadWriteSet.unchecked();
+    return DbMetrics.observe(start, getDbName(), DbMetrics.CHAINBASE, DbMetrics.ITERATOR,
+        head().iterator());
   }
 
   @Override
   public Set<byte[]> getValuesNext(byte[] key, long limit) {
+    ReadWriteSet.unchecked();
     return getValuesNext(head(), key, limit);
   }
 
@@ -174,38 +192,18 @@ public class Chainbase implements IRevokingDB {
       return Collections.emptySet();
     }
 
-    Map<WrappedByteArray, WrappedByteArray> collection = new HashMap<>();
-    if (head.getPrevious() != null) {
-      ((SnapshotImpl) head).collect(collection);
-    }
-
-    Map<WrappedByteArray, WrappedByteArray> levelDBMap = new HashMap<>();
-
-    if (((SnapshotRoot) head.getRoot()).db.getClass() == LevelDB.class) {
-      ((LevelDB) ((SnapshotRoot) head.getRoot()).db).getDb().getNext(key, limit).entrySet().stream()
-          .map(e -> Maps
-              .immutableEntry(WrappedByteArray.of(e.getKey()), WrappedByteArray.of(e.getValue())))
-          .forEach(e -> levelDBMap.put(e.getKey(), e.getValue()));
-    } else if (((SnapshotRoot) head.getRoot()).db.getClass() == RocksDB.class) {
-      ((RocksDB) ((SnapshotRoot) head.getRoot()).db).getDb().getNext(key, limit).entrySet().stream()
-          .map(e -> Maps
-              .immutableEntry(WrappedByteArray.of(e.getKey()), WrappedByteArray.of(e.getValue())))
-          .forEach(e -> levelDBMap.put(e.getKey(), e.getValue()));
+    Set<byte[]> result = new HashSet<>();
+    try (SnapshotMergeIterator iterator = new SnapshotMergeIterator(head, key, null)) {
+      while (result.size() < limit && iterator.hasNext()) {
+        result.add(iterator.next().getValue());
+      }
     }
-
-    levelDBMap.putAll(collection);
-
-    return levelDBMap.entrySet().stream()
-        .sorted((e1, e2) -> ByteUtil.compare(e1.getKey().getBytes(), e2.getKey().getBytes()))
-        .filter(e -> ByteUtil.greaterOrEquals(e.getKey().getBytes(), key))
-        .limit(limit)
-        .map(Map.Entry::getValue)
-        .map(WrappedByteArray::getBytes)
-        .collect(Collectors.toSet());
+    return result;
   }
 
   @Override
   public List<byte[]> getKeysNext(byte[] key, long limit) {
+    ReadWriteSet.unchecked();
     return getKeysNext(head(), key, limit);
   }
 
@@ -275,6 +273,7 @@ public class Chainbase implements IRevokingDB {
   // for blockstore
   @Override
   public Set<byte[]> getlatestValues(long limit) {
+    ReadWriteSet.unchecked();
     return getlatestValues(head(), limit);
   }
 
@@ -311,6 +310,7 @@ public class Chainbase implements IRevokingDB {
   // for accout-trace
   @Override
   public Map<byte[], byte[]> getNext(byte[] key, long limit) {
+    ReadWriteSet.unchecked();
     return getNext(head(), key, limit);
   }
 
@@ -320,62 +320,33 @@ public class Chainbase implements IRevokingDB {
       return Collections.emptyMap();
     }
 
-    Map<WrappedByteArray, WrappedByteArray> collection = new HashMap<>();
-    if (head.getPrevious() != null) {
-      ((SnapshotImpl) head).collect(collection);
-    }
-
-    Map<WrappedByteArray, WrappedByteArray> levelDBMap = new HashMap<>();
-
-    if (((SnapshotRoot) head.getRoot()).db.getClass() == LevelDB.class) {
-      ((LevelDB) ((SnapshotRoot) head.getRoot()).db).getDb().getNext(key, limit).entrySet().stream()
-          .map(e -> Maps
-              .immutableEntry(WrappedByteArray.of(e.getKey()), WrappedByteArray.of(e.getValue())))
-          .forEach(e -> levelDBMap.put(e.getKey(), e.getValue()));
-    } else if (((SnapshotRoot) head.getRoot()).db.getClass() == RocksDB.class) {
-      ((RocksDB) ((SnapshotRoot) head.getRoot()).db).getDb().getNext(key, limit).entrySet().stream()
-          .map(e -> Maps
-              .immutableEntry(WrappedByteArray.of(e.getKey()), WrappedByteArray.of(e.getValue())))
-          .forEach(e -> levelDBMap.put(e.getKey(), e.getValue()));
+    Map<byte[], byte[]> result = new LinkedHashMap<>();
+    try (SnapshotMergeIterator iterator = new SnapshotMergeIterator(head, key, null)) {
+      while (result.size() < limit && iterator.hasNext()) {
+        Map.Entry<byte[], byte[]> entry = iterator.next();
+        result.put(entry.getKey(), entry.getValue());
+      }
     }
-
-    levelDBMap.putAll(collection);
-
-    return levelDBMap.entrySet().stream()
-        .map(e -> Maps.immutableEntry(e.getKey().getBytes(), e.getValue().getBytes()))
-        .sorted((e1, e2) -> ByteUtil.compare(e1.getKey(), e2.getKey()))
-        .filter(e -> ByteUtil.greaterOrEquals(e.getKey(), key))
-        .limit(limit)
-        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-  }
-
-  public Map<WrappedByteArray, byte[]> prefixQuery(byte[] key) {
-    Map<WrappedByteArray, byte[]> result = prefixQueryRoot(key);
-    Map<WrappedByteArray, byte[]>  snapshot = prefixQuerySnapshot(key);
-    result.putAll(snapshot);
-    result.entrySet().removeIf(e -> e.getValue() == null);
     return result;
   }
 
-  private Map<WrappedByteArray, byte[]> prefixQueryRoot(byte[] key) {
+  public Map<WrappedByteArray, byte[]> prefixQuery(byte[] key) {
     Map<WrappedByteArray, byte[]> result = new HashMap<>();
-    if (((SnapshotRoot) head.getRoot()).db.getClass() == LevelDB.class) {
-      result = ((LevelDB) ((SnapshotRoot) head.getRoot()).db).getDb().prefixQuery(key);
-    } else if (((SnapshotRoot) head.getRoot()).db.getClass() == RocksDB.class) {
-      result = ((RocksDB) ((SnapshotRoot) head.getRoot()).db).getDb().prefixQuery(key);
+    try (SnapshotMergeIterator iterator = prefixIterator(key)) {
+      iterator.forEachRemaining(e -> result.put(WrappedByteArray.of(e.getKey()), e.getValue()));
     }
     return result;
   }
 
-  private Map<WrappedByteArray, byte[]> prefixQuerySnapshot(byte[] key) {
-    Map<WrappedByteArray, byte[]> result = new HashMap<>();
-    Snapshot snapshot = head();
-    if (!snapshot.equals(head.getRoot())) {
-      Map<WrappedByteArray, WrappedByteArray> all = new HashMap<>();
-      ((SnapshotImpl) snapshot).collect(all, key);
-      all.forEach((k, v) -> result.put(k, v.getBytes()));
-    }
-    return result;
+  @Override
+  public SnapshotMergeIterator rangeIterator(byte[] start, byte[] end) {
+    ReadWriteSet.unchecked();
+    return new SnapshotMergeIterator(head(), start, end);
+  }
+
+  @Override
+  public SnapshotMergeIterator prefixIterator(byte[] prefix) {
+    return rangeIterator(prefix, SnapshotMergeIterator.prefixEnd(prefix));
   }
 
 }
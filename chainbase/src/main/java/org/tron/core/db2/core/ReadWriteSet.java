@@ -0,0 +1,137 @@
+package org.tron.core.db2.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.tron.core.db2.common.WrappedByteArray;
+
+/**
+ * The keys a transaction read and wrote through the revoking databases, recorded on the thread
+ * running it. While the keys it read hold the values it read, running it again writes the same
+ * values, so they can be applied without running it.
+ *
+ * <p>Only reads of single keys at the head can be checked again, a scan, a read of the root or
+ * of another cursor makes the set not replayable, and so does touching more than
+ * {@link #MAX_KEYS} keys.
+ */
+public final class ReadWriteSet {
+
+  private static final ThreadLocal<ReadWriteSet> RECORDING = new ThreadLocal<>();
+
+  private static final int MAX_KEYS = 4096;
+
+  // the values first read from each database, null for an absent key, before it was written
+  private final Map<Chainbase, Map<WrappedByteArray, byte[]>> reads = new HashMap<>();
+  // the values last written to each database, null for a deleted key
+  private final Map<Chainbase, Map<WrappedByteArray, byte[]>> writes = new LinkedHashMap<>();
+  private int keys;
+  private boolean replayable = true;
+
+  private ReadWriteSet() {
+  }
+
+  /**
+   * Records the reads and writes of the current thread into a new set until {@link #stop()}.
+   */
+  public static ReadWriteSet record() {
+    ReadWriteSet set = new ReadWriteSet();
+    RECORDING.set(set);
+    return set;
+  }
+
+  public static void stop() {
+    RECORDING.remove();
+  }
+
+  /**
+   * Marks the set being recorded, if any, as not replayable, for a read it cannot check again.
+   */
+  public static void unchecked() {
+    ReadWriteSet set = RECORDING.get();
+    if (set != null) {
+      set.clear();
+    }
+  }
+
+  static void read(Chainbase db, byte[] key, byte[] value) {
+    ReadWriteSet set = RECORDING.get();
+    if (set == null || !set.replayable) {
+      return;
+    }
+    if (db.getCursor() != Chainbase.Cursor.HEAD) {
+      set.clear();
+      return;
+    }
+    WrappedByteArray k = WrappedByteArray.of(key);
+    Map<WrappedByteArray, byte[]> written = set.writes.get(db);
+    if (written != null && written.containsKey(k)) {
+      return;
+    }
+    Map<WrappedByteArray, byte[]> read = set.reads.computeIfAbsent(db, d -> new HashMap<>());
+    if (!read.containsKey(k)) {
+      read.put(WrappedByteArray.copyOf(key), value == null ? null : value.clone());
+      set.count();
+    }
+  }
+
+  static void write(Chainbase db, byte[] key, byte[] value) {
+    ReadWriteSet set = RECORDING.get();
+    if (set == null || !set.replayable) {
+      return;
+    }
+    Map<WrappedByteArray, byte[]> written = set.writes
+        .computeIfAbsent(db, d -> new LinkedHashMap<>());
+    WrappedByteArray k = WrappedByteArray.copyOf(key);
+    if (!written.containsKey(k)) {
+      set.count();
+    }
+    written.put(k, value == null ? null : value.clone());
+  }
+
+  private void count() {
+    if (++keys > MAX_KEYS) {
+      clear();
+    }
+  }
+
+  private void clear() {
+    replayable = false;
+    reads.clear();
+    writes.clear();
+  }
+
+  public boolean isReplayable() {
+    return replayable;
+  }
+
+  /**
+   * @return true if every key read holds the value read, at the head of its database
+   */
+  public boolean isUnchanged() {
+    if (!replayable) {
+      return false;
+    }
+    for (Map.Entry<Chainbase, Map<WrappedByteArray, byte[]>> db : reads.entrySet()) {
+      for (Map.Entry<WrappedByteArray, byte[]> read : db.getValue().entrySet()) {
+        if (!Arrays.equals(read.getValue(), db.getKey().getHead().get(read.getKey().getBytes()))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Writes the values written, at the head of their databases.
+   */
+  public void apply() {
+    writes.forEach((db, written) -> written.forEach((key, value) -> {
+      if (value == null) {
+        db.delete(key.getBytes());
+      } else {
+        db.put(key.getBytes(), value);
+      }
+    }));
+  }
+}
@@ -4,12 +4,10 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Streams;
-import com.google.common.primitives.Bytes;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import lombok.Getter;
 import org.tron.core.db2.common.HashDB;
@@ -23,11 +21,22 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
   @Getter
   protected Snapshot root;
 
+  // distance from the root, a newer layer is always deeper than the layers below it
+  @Getter
+  private final int depth;
+
+  private final SnapshotIndex index;
+
+  // set once the layer is no longer part of the chain
+  private volatile boolean detached;
+
   SnapshotImpl(Snapshot snapshot) {
     root = snapshot.getRoot();
     synchronized (this) {
       db = new HashDB(SnapshotImpl.class.getSimpleName() + ":" + root.getDbName());
     }
+    depth = Snapshot.isImpl(snapshot) ? ((SnapshotImpl) snapshot).depth + 1 : 1;
+    index = ((SnapshotRoot) root).getIndex();
     previous = snapshot;
     snapshot.setNext(this);
     isOptimized = snapshot.isOptimized();
@@ -42,6 +51,21 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
   }
 
   private byte[] get(Snapshot head, byte[] key) {
+    if (index != null && !detached) {
+      Key k = Key.of(key);
+      SnapshotImpl layer = index.get(k);
+      if (layer == null) {
+        return root.get(key);
+      }
+      // the newest holder of the key is visible from this layer unless it is above it
+      if (layer.depth <= depth && !layer.detached) {
+        Value value = layer.db.get(k);
+        if (value != null) {
+          return value.getBytes();
+        }
+      }
+    }
+
     Snapshot snapshot = head;
     Value value;
 
@@ -61,13 +85,27 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
     Preconditions.checkNotNull(key, "key in db is not null.");
     Preconditions.checkNotNull(value, "value in db is not null.");
 
-    db.put(Key.copyOf(key), Value.copyOf(Value.Operator.PUT, value));
+    Key k = Key.copyOf(key);
+    db.put(k, Value.copyOf(Value.Operator.PUT, value));
+    index(k);
   }
 
   @Override
   public void remove(byte[] key) {
     Preconditions.checkNotNull(key, "key in db is not null.");
-    db.put(Key.of(key), Value.of(Value.Operator.DELETE, null));
+    Key k = Key.copyOf(key);
+    db.put(k, Value.of(Value.Operator.DELETE, null));
+    index(k);
+  }
+
+  private void index(Key key) {
+    if (index != null) {
+      index.put(key, this);
+    }
+  }
+
+  void detach() {
+    detached = true;
   }
 
   // we have a 3x3 matrix of all possibilities when merging previous snapshot and current snapshot :
@@ -86,6 +124,9 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
   public void merge(Snapshot from) {
     SnapshotImpl fromImpl = (SnapshotImpl) from;
     Streams.stream(fromImpl.db).forEach(e -> db.put(e.getKey(), e.getValue()));
+    if (index != null) {
+      index.merged(fromImpl, this);
+    }
   }
 
   public void mergeAhead(Snapshot from) {
@@ -96,6 +137,7 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
     Streams.stream(fromImpl.db).forEach(e -> {
       if (db.get(e.getKey()) == null) {
         db.put(e.getKey(), e.getValue());
+        index(e.getKey());
       }
     }
     );
@@ -135,17 +177,6 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
     }
   }
 
-  synchronized void collect(Map<WrappedByteArray, WrappedByteArray> all, byte[] prefix) {
-    Snapshot next = getRoot().getNext();
-    while (next != null) {
-      Streams.stream(((SnapshotImpl) next).db).filter(e -> Bytes.indexOf(
-              Objects.requireNonNull(e.getKey().getBytes()), prefix) == 0)
-          .forEach(e -> all.put(WrappedByteArray.of(e.getKey().getBytes()),
-              WrappedByteArray.of(e.getValue().getBytes())));
-      next = next.getNext();
-    }
-  }
-
   /**
    * Note: old --> new
    * In the snapshot, there may be same keys.
@@ -0,0 +1,82 @@
+package org.tron.core.db2.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.tron.core.db2.common.Key;
+import org.tron.core.db2.common.Value;
+
+/**
+ * Maps every key held by the SnapshotImpl layers of one chain to the newest layer holding it,
+ * so that a read costs one lookup however many layers sit above the root.
+ * A key that is not in the index is only held by the root.
+ */
+final class SnapshotIndex {
+
+  private final Map<Key, SnapshotImpl> latest = new ConcurrentHashMap<>();
+
+  SnapshotImpl get(Key key) {
+    return latest.get(key);
+  }
+
+  void put(Key key, SnapshotImpl layer) {
+    latest.merge(key, layer, (old, now) -> old.getDepth() > now.getDepth() ? old : now);
+  }
+
+  /**
+   * The keys of {@code from} have been copied into {@code into}, its previous layer.
+   */
+  void merged(SnapshotImpl from, SnapshotImpl into) {
+    for (Map.Entry<Key, Value> e : from.getDb()) {
+      latest.replace(e.getKey(), from, into);
+    }
+  }
+
+  /**
+   * The head layer is dropped by a revoke, a pop or a merge into its previous layer.
+   * Keys it was the newest holder of now point to the next older layer holding them.
+   */
+  void dropped(SnapshotImpl layer) {
+    for (Map.Entry<Key, Value> e : layer.getDb()) {
+      Key key = e.getKey();
+      if (latest.get(key) != layer) {
+        continue;
+      }
+      SnapshotImpl older = findOlder(layer, key);
+      if (older == null) {
+        latest.remove(key, layer);
+      } else {
+        latest.replace(key, layer, older);
+      }
+    }
+  }
+
+  /**
+   * The layer has been written to the root. Keys it was the newest holder of are now
+   * only held by the root.
+   */
+  void flushed(SnapshotImpl layer) {
+    for (Map.Entry<Key, Value> e : layer.getDb()) {
+      latest.remove(e.getKey(), layer);
+    }
+  }
+
+  int size() {
+    return latest.size();
+  }
+
+  void clear() {
+    latest.clear();
+  }
+
+  private static SnapshotImpl findOlder(SnapshotImpl layer, Key key) {
+    Snapshot snapshot = layer.getPrevious();
+    while (Snapshot.isImpl(snapshot)) {
+      SnapshotImpl impl = (SnapshotImpl) snapshot;
+      if (impl.getDb().get(key) != null) {
+        return impl;
+      }
+      snapshot = snapshot.getPrevious();
+    }
+    return null;
+  }
+}
@@ -7,6 +7,7 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import io.prometheus.client.Histogram;
 import java.io.File;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -30,13 +31,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.tron.common.error.TronDBException;
 import org.tron.common.es.ExecutorServiceManager;
 import org.tron.common.parameter.CommonParameter;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.Metrics;
 import org.tron.common.storage.WriteOptionsWrapper;
 import org.tron.common.utils.FileUtil;
 import org.tron.common.utils.StorageUtils;
 import org.tron.core.db.RevokingDatabase;
 import org.tron.core.db.TronDatabase;
 import org.tron.core.db2.ISession;
-import org.tron.core.db2.common.DB;
 import org.tron.core.db2.common.IRevokingDB;
 import org.tron.core.db2.common.Key;
 import org.tron.core.db2.common.Value;
@@ -86,12 +88,23 @@ public class SnapshotManager implements RevokingDatabase {
 
   private int checkpointVersion = 1;   // default v1
 
+  @Setter
+  private boolean snapshotIndex;
+
+  // commit flushed layers in the background while new blocks are processed
+  @Setter
+  private boolean asyncFlush;
+
+  private volatile PendingFlush pendingFlush;
+
   public SnapshotManager(String checkpointPath) {
   }
 
   @PostConstruct
   public void init() {
     checkpointVersion = CommonParameter.getInstance().getStorage().getCheckpointVersion();
+    snapshotIndex = CommonParameter.getInstance().getStorage().isSnapshotIndex();
+    asyncFlush = CommonParameter.getInstance().getStorage().isSnapshotAsyncFlush();
     // prune checkpoint
     if (isV2Open()) {
       pruneCheckpointThread = ExecutorServiceManager.newSingleThreadScheduledExecutor(pruneName);
@@ -162,6 +175,9 @@ public class SnapshotManager implements RevokingDatabase {
   @Override
   public void add(IRevokingDB db) {
     Chainbase revokingDB = (Chainbase) db;
+    if (snapshotIndex && Snapshot.isRoot(revokingDB.getHead())) {
+      ((SnapshotRoot) revokingDB.getHead()).enableIndex();
+    }
     dbs.add(revokingDB);
     flushServices.put(revokingDB.getDbName(),
         MoreExecutors.listeningDecorator(ExecutorServiceManager.newSingleThreadExecutor(
@@ -174,7 +190,18 @@ public class SnapshotManager implements RevokingDatabase {
   }
 
   private void retreat() {
-    dbs.forEach(db -> db.setHead(db.getHead().retreat()));
+    dbs.forEach(db -> {
+      Snapshot head = db.getHead();
+      if (Snapshot.isImpl(head)) {
+        SnapshotImpl impl = (SnapshotImpl) head;
+        impl.detach();
+        SnapshotIndex index = ((SnapshotRoot) impl.getRoot()).getIndex();
+        if (index != null) {
+          index.dropped(impl);
+        }
+      }
+      db.setHead(head.retreat());
+    });
     --size;
   }
 
@@ -278,6 +305,13 @@ public class SnapshotManager implements RevokingDatabase {
 
   @Override
   public void shutdown() {
+    synchronized (this) {
+      try {
+        awaitFlush();
+      } catch (TronDBException e) {
+        logger.error("Wait for the last flush failed.", e);
+      }
+    }
     ExecutorServiceManager.shutdownAndAwaitTermination(pruneCheckpointThread, pruneName);
     flushServices.forEach((key, value) -> ExecutorServiceManager.shutdownAndAwaitTermination(value,
         "flush-service-" + key));
@@ -302,12 +336,91 @@ public class SnapshotManager implements RevokingDatabase {
     return flushCount >= maxFlushCount;
   }
 
-  private void refresh() {
+  /**
+   * Stage one, reads the layers to flush of every store in parallel into a root batch and
+   * the checkpoint rows of the store.
+   */
+  private List<StoreBatch> buildBatches() {
+    List<StoreBatch> batches = new ArrayList<>(dbs.size());
     List<ListenableFuture<?>> futures = new ArrayList<>(dbs.size());
     for (Chainbase db : dbs) {
-      futures.add(flushServices.get(db.getDbName()).submit(() -> refreshOne(db)));
+      if (Snapshot.isRoot(db.getHead())) {
+        continue;
+      }
+      StoreBatch batch = new StoreBatch(db);
+      batches.add(batch);
+      futures.add(flushServices.get(db.getDbName()).submit(() -> buildBatch(batch)));
+    }
+    waitFor(Futures.allAsList(futures));
+    return batches;
+  }
+
+  private void buildBatch(StoreBatch batch) {
+    String dbName = batch.db.getDbName();
+    Histogram.Timer timer = Metrics.histogramStartTimer(
+        MetricKeys.Histogram.SNAPSHOT_FLUSH_STORE_LATENCY, "build", dbName);
+    // trans-cache is deprecated
+    boolean checkpoint = !Objects.equals(dbName, "trans-cache");
+    byte[] prefix = simpleEncode(dbName);
+    Snapshot next = batch.db.getHead().getRoot();
+    for (int i = 0; i < flushCount; ++i) {
+      next = next.getNext();
+      SnapshotImpl snapshot = (SnapshotImpl) next;
+      batch.snapshots.add(snapshot);
+      for (Map.Entry<Key, Value> e : snapshot.getDb()) {
+        byte[] k = e.getKey().getBytes();
+        Value v = e.getValue();
+        batch.rows.put(WrappedByteArray.of(k), WrappedByteArray.of(v.getBytes()));
+        if (checkpoint) {
+          batch.checkpoint.put(WrappedByteArray.of(Bytes.concat(prefix, k)),
+              WrappedByteArray.of(v.encode()));
+        }
+      }
+    }
+    Metrics.histogramObserve(timer);
+  }
+
+  /**
+   * Stage three, writes the batch of every store to its root concurrently.
+   * The flushed layers stay linked, and readable, until {@link #awaitFlush()} unlinks them.
+   */
+  private PendingFlush commit(List<StoreBatch> batches) {
+    Histogram.Timer stageTimer = Metrics.histogramStartTimer(
+        MetricKeys.Histogram.SNAPSHOT_FLUSH_LATENCY, "commit");
+    List<ListenableFuture<?>> futures = new ArrayList<>(batches.size());
+    for (StoreBatch batch : batches) {
+      String dbName = batch.db.getDbName();
+      futures.add(flushServices.get(dbName).submit(() -> {
+        Histogram.Timer timer = Metrics.histogramStartTimer(
+            MetricKeys.Histogram.SNAPSHOT_FLUSH_STORE_LATENCY, "commit", dbName);
+        ((SnapshotRoot) batch.db.getHead().getRoot()).write(batch.rows);
+        Metrics.histogramObserve(timer);
+      }));
+    }
+    ListenableFuture<?> future = Futures.allAsList(futures);
+    future.addListener(() -> Metrics.histogramObserve(stageTimer),
+        MoreExecutors.directExecutor());
+    return new PendingFlush(batches, future);
+  }
+
+  /**
+   * Waits for the commit of the previous flush, then unlinks its layers from every chain.
+   * A new flush always waits here first, so at most one flush is committing at a time.
+   */
+  private void awaitFlush() {
+    PendingFlush flush = pendingFlush;
+    if (flush == null) {
+      return;
     }
-    Future<?> future = Futures.allAsList(futures);
+    pendingFlush = null;
+    Histogram.Timer timer = Metrics.histogramStartTimer(
+        MetricKeys.Histogram.SNAPSHOT_FLUSH_LATENCY, "wait");
+    waitFor(flush.future);
+    Metrics.histogramObserve(timer);
+    flush.batches.forEach(this::unlink);
+  }
+
+  private void waitFor(Future<?> future) {
     try {
       future.get();
     } catch (InterruptedException e) {
@@ -318,29 +431,32 @@ public class SnapshotManager implements RevokingDatabase {
     }
   }
 
-  private void refreshOne(Chainbase db) {
-    if (Snapshot.isRoot(db.getHead())) {
+  private void unlink(StoreBatch batch) {
+    if (batch.snapshots.isEmpty()) {
       return;
     }
-
-    List<Snapshot> snapshots = new ArrayList<>();
-
+    Chainbase db = batch.db;
     SnapshotRoot root = (SnapshotRoot) db.getHead().getRoot();
-    Snapshot next = root;
-    for (int i = 0; i < flushCount; ++i) {
-      next = next.getNext();
-      snapshots.add(next);
-    }
-
-    root.merge(snapshots);
+    Snapshot next = batch.snapshots.get(batch.snapshots.size() - 1);
 
-    root.resetSolidity();
+    // the solidity may have moved past the flushed layers while they were committed
+    if (batch.snapshots.contains(root.getSolidity())) {
+      root.resetSolidity();
+    }
     if (db.getHead() == next) {
       db.setHead(root);
     } else {
       next.getNext().setPrevious(root);
       root.setNext(next.getNext());
     }
+
+    SnapshotIndex index = root.getIndex();
+    for (SnapshotImpl snapshot : batch.snapshots) {
+      snapshot.detach();
+      if (index != null) {
+        index.flushed(snapshot);
+      }
+    }
   }
 
   public void flush() {
@@ -351,17 +467,35 @@ public class SnapshotManager implements RevokingDatabase {
     if (shouldBeRefreshed()) {
       try {
         long start = System.currentTimeMillis();
+        awaitFlush();
+        long waitEnd = System.currentTimeMillis();
+
+        Histogram.Timer timer = Metrics.histogramStartTimer(
+            MetricKeys.Histogram.SNAPSHOT_FLUSH_LATENCY, "build");
+        List<StoreBatch> batches = buildBatches();
+        Metrics.histogramObserve(timer);
+        long buildEnd = System.currentTimeMillis();
+
+        timer = Metrics.histogramStartTimer(
+            MetricKeys.Histogram.SNAPSHOT_FLUSH_LATENCY, "checkpoint");
         if (!isV2Open()) {
           deleteCheckpoint();
         }
-        createCheckpoint();
-
+        createCheckpoint(batches);
+        Metrics.histogramObserve(timer);
         long checkPointEnd = System.currentTimeMillis();
-        refresh();
+
+        pendingFlush = commit(batches);
         flushCount = 0;
-        logger.info("Flush cost: {} ms, create checkpoint cost: {} ms, refresh cost: {} ms.",
+        if (!asyncFlush) {
+          awaitFlush();
+        }
+        logger.info("Flush cost: {} ms, wait previous flush cost: {} ms, build batch cost: {} ms,"
+                + " create checkpoint cost: {} ms, refresh cost: {} ms.",
             System.currentTimeMillis() - start,
-            checkPointEnd - start,
+            waitEnd - start,
+            buildEnd - waitEnd,
+            checkPointEnd - buildEnd,
             System.currentTimeMillis() - checkPointEnd
         );
       } catch (TronDBException e) {
@@ -372,36 +506,20 @@ public class SnapshotManager implements RevokingDatabase {
     }
   }
 
-  private void createCheckpoint() {
+  /**
+   * Stage two, writes the checkpoint rows of all stores in one batch.
+   */
+  private void createCheckpoint(List<StoreBatch> batches) {
+    // no checkpoint unless every store has layers to flush
+    if (batches.size() != dbs.size()) {
+      return;
+    }
     TronDatabase<byte[]> checkPointStore = null;
     boolean syncFlag;
     try {
-      Map<WrappedByteArray, WrappedByteArray> batch = new HashMap<>();
-      for (Chainbase db : dbs) {
-        Snapshot head = db.getHead();
-        if (Snapshot.isRoot(head)) {
-          return;
-        }
-
-        String dbName = db.getDbName();
-
-        if (Objects.equals(dbName, "trans-cache")) {
-          // trans-cache is deprecated
-          continue;
-        }
-
-        Snapshot next = head.getRoot();
-        for (int i = 0; i < flushCount; ++i) {
-          next = next.getNext();
-          SnapshotImpl snapshot = (SnapshotImpl) next;
-          DB<Key, Value> keyValueDB = snapshot.getDb();
-          for (Map.Entry<Key, Value> e : keyValueDB) {
-            Key k = e.getKey();
-            Value v = e.getValue();
-            batch.put(WrappedByteArray.of(Bytes.concat(simpleEncode(dbName), k.getBytes())),
-                WrappedByteArray.of(v.encode()));
-          }
-        }
+      Map<byte[], byte[]> rows = new HashMap<>();
+      for (StoreBatch batch : batches) {
+        batch.checkpoint.forEach((k, v) -> rows.put(k.getBytes(), v.getBytes()));
       }
       if (isV2Open()) {
         String dbName = String.valueOf(System.currentTimeMillis());
@@ -412,9 +530,7 @@ public class SnapshotManager implements RevokingDatabase {
         syncFlag = CommonParameter.getInstance().getStorage().isDbSync();
       }
 
-      checkPointStore.getDbSource().updateByBatch(batch.entrySet().stream()
-              .map(e -> Maps.immutableEntry(e.getKey().getBytes(), e.getValue().getBytes()))
-              .collect(HashMap::new, (m, k) -> m.put(k.getKey(), k.getValue()), HashMap::putAll),
+      checkPointStore.getDbSource().updateByBatch(rows,
           WriteOptionsWrapper.getInstance().sync(syncFlag));
 
     } catch (Exception e) {
@@ -580,6 +696,30 @@ public class SnapshotManager implements RevokingDatabase {
     return r;
   }
 
+  private static class StoreBatch {
+
+    private final Chainbase db;
+    private final List<SnapshotImpl> snapshots = new ArrayList<>();
+    // merged values for the root, a null value deletes the key
+    private final Map<WrappedByteArray, WrappedByteArray> rows = new HashMap<>();
+    private final Map<WrappedByteArray, WrappedByteArray> checkpoint = new HashMap<>();
+
+    private StoreBatch(Chainbase db) {
+      this.db = db;
+    }
+  }
+
+  private static class PendingFlush {
+
+    private final List<StoreBatch> batches;
+    private final Future<?> future;
+
+    private PendingFlush(List<StoreBatch> batches, Future<?> future) {
+      this.batches = batches;
+      this.future = future;
+    }
+  }
+
   @Slf4j(topic = "DB")
   @Getter // only for unit test
   public static class Session implements ISession {
@@ -0,0 +1,237 @@
+package org.tron.core.db2.core;
+
+import com.google.common.collect.Maps;
+import com.google.common.primitives.UnsignedBytes;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.core.db.common.iterator.DBIterator;
+import org.tron.core.db2.common.Key;
+import org.tron.core.db2.common.Value;
+
+/**
+ * Iterates the keys of a snapshot chain within [start, end) in ascending unsigned byte order.
+ * Every SnapshotImpl layer and the root database get one cursor each, and the cursors are
+ * merged on the fly. The newest layer wins on equal keys, and a DELETE hides older values.
+ * Only the in-range keys of the dirty layers are copied. The root is streamed from its
+ * database iterator.
+ *
+ * <p>Only valid for stores using the default bytewise comparator.
+ * Close the iterator when it is not consumed to the end.
+ */
+@Slf4j(topic = "DB")
+public final class SnapshotMergeIterator implements Iterator<Map.Entry<byte[], byte[]>>,
+    Closeable {
+
+  private static final Comparator<byte[]> KEY_ORDER = UnsignedBytes.lexicographicalComparator();
+
+  // smallest key first, the newest source first on equal keys
+  private final PriorityQueue<Source> queue = new PriorityQueue<>((a, b) -> {
+    int c = KEY_ORDER.compare(a.key, b.key);
+    return c != 0 ? c : Integer.compare(b.priority, a.priority);
+  });
+  private final List<Source> sources = new ArrayList<>();
+  private final byte[] start;
+  private final byte[] end;
+  private Map.Entry<byte[], byte[]> next;
+
+  /**
+   * @param head the newest snapshot to read
+   * @param start the first key, inclusive, null for the first key of the store
+   * @param end the last key, exclusive, null for no upper bound
+   */
+  SnapshotMergeIterator(Snapshot head, byte[] start, byte[] end) {
+    this.start = start;
+    this.end = end;
+    int priority = 0;
+    Snapshot snapshot = head;
+    List<Source> layers = new ArrayList<>();
+    while (Snapshot.isImpl(snapshot)) {
+      layers.add(new LayerSource(((SnapshotImpl) snapshot).getDb()));
+      snapshot = snapshot.getPrevious();
+    }
+    sources.add(new RootSource((SnapshotRoot) head.getRoot()));
+    for (int i = layers.size() - 1; i >= 0; i--) {
+      sources.add(layers.get(i));
+    }
+    for (Source source : sources) {
+      source.priority = priority++;
+      if (source.advance()) {
+        queue.add(source);
+      }
+    }
+  }
+
+  /**
+   * Returns an exclusive upper bound of the keys starting with the prefix,
+   * null when there is none.
+   */
+  public static byte[] prefixEnd(byte[] prefix) {
+    for (int i = prefix.length - 1; i >= 0; i--) {
+      if (prefix[i] != (byte) 0xff) {
+        byte[] end = Arrays.copyOf(prefix, i + 1);
+        end[i]++;
+        return end;
+      }
+    }
+    return null;
+  }
+
+  private boolean inRange(byte[] key) {
+    return (start == null || KEY_ORDER.compare(key, start) >= 0)
+        && (end == null || KEY_ORDER.compare(key, end) < 0);
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (next == null && !queue.isEmpty()) {
+      Source top = queue.poll();
+      byte[] key = top.key;
+      byte[] value = top.value;
+      while (!queue.isEmpty() && Arrays.equals(queue.peek().key, key)) {
+        Source shadowed = queue.poll();
+        if (shadowed.advance()) {
+          queue.add(shadowed);
+        }
+      }
+      if (top.advance()) {
+        queue.add(top);
+      }
+      if (value != null) {
+        next = Maps.immutableEntry(key, value);
+      }
+    }
+    if (next == null) {
+      close();
+    }
+    return next != null;
+  }
+
+  @Override
+  public Map.Entry<byte[], byte[]> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    Map.Entry<byte[], byte[]> entry = next;
+    next = null;
+    return entry;
+  }
+
+  @Override
+  public void close() {
+    queue.clear();
+    for (Source source : sources) {
+      source.close();
+    }
+  }
+
+  private abstract static class Source {
+
+    private int priority;
+    byte[] key;
+    // null for a DELETE tombstone
+    byte[] value;
+
+    /**
+     * Moves to the next key in range, returns false when there is none.
+     */
+    abstract boolean advance();
+
+    void close() {
+    }
+  }
+
+  private final class LayerSource extends Source {
+
+    private final Iterator<Map.Entry<byte[], Value>> entries;
+
+    private LayerSource(Iterable<Map.Entry<Key, Value>> db) {
+      // the layer is a hash table, only its in-range keys are sorted
+      List<Map.Entry<byte[], Value>> sorted = new ArrayList<>();
+      for (Map.Entry<Key, Value> e : db) {
+        byte[] k = e.getKey().getBytes();
+        if (inRange(k)) {
+          sorted.add(Maps.immutableEntry(k, e.getValue()));
+        }
+      }
+      sorted.sort((a, b) -> KEY_ORDER.compare(a.getKey(), b.getKey()));
+      entries = sorted.iterator();
+    }
+
+    @Override
+    boolean advance() {
+      if (!entries.hasNext()) {
+        return false;
+      }
+      Map.Entry<byte[], Value> e = entries.next();
+      key = e.getKey();
+      value = e.getValue().getBytes();
+      return true;
+    }
+  }
+
+  private final class RootSource extends Source {
+
+    private final Iterator<Map.Entry<byte[], byte[]>> entries;
+    private final DBIterator dbIterator;
+
+    private RootSource(SnapshotRoot root) {
+      Iterator<Map.Entry<byte[], byte[]>> iterator = root.getDb().iterator();
+      if (iterator instanceof DBIterator) {
+        dbIterator = (DBIterator) iterator;
+        if (start == null) {
+          dbIterator.seekToFirst();
+        } else {
+          dbIterator.seek(start);
+        }
+        entries = dbIterator;
+      } else {
+        // a database without seek support is sorted here, as the layers are
+        dbIterator = null;
+        List<Map.Entry<byte[], byte[]>> sorted = new ArrayList<>();
+        iterator.forEachRemaining(e -> {
+          if (inRange(e.getKey())) {
+            sorted.add(e);
+          }
+        });
+        sorted.sort((a, b) -> KEY_ORDER.compare(a.getKey(), b.getKey()));
+        entries = sorted.iterator();
+      }
+    }
+
+    @Override
+    boolean advance() {
+      if (!entries.hasNext()) {
+        close();
+        return false;
+      }
+      Map.Entry<byte[], byte[]> e = entries.next();
+      if (end != null && KEY_ORDER.compare(e.getKey(), end) >= 0) {
+        close();
+        return false;
+      }
+      key = e.getKey();
+      value = e.getValue();
+      return true;
+    }
+
+    @Override
+    void close() {
+      if (dbIterator != null) {
+        try {
+          dbIterator.close();
+        } catch (IOException e) {
+          logger.warn("Close db iterator failed.", e);
+        }
+      }
+    }
+  }
+}
@@ -13,6 +13,7 @@ import org.tron.common.cache.CacheManager;
 import org.tron.common.cache.CacheType;
 import org.tron.common.cache.TronCache;
 import org.tron.common.parameter.CommonParameter;
+import org.tron.common.storage.metric.DbMetrics;
 import org.tron.common.utils.ByteArray;
 import org.tron.core.ChainBaseManager;
 import org.tron.core.capsule.AccountCapsule;
@@ -28,6 +29,7 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
   private boolean isAccountDB;
 
   private TronCache<WrappedByteArray, WrappedByteArray> cache;
+  private SnapshotIndex index;
   private static final List<String> CACHE_DBS = CommonParameter.getInstance()
       .getStorage().getCacheDbs();
 
@@ -113,6 +115,13 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
               WrappedByteArray.of(e.getValue().getBytes())))
           .forEach(e -> batch.put(e.getKey(), e.getValue()));
     }
+    write(batch);
+  }
+
+  /**
+   * Writes a batch of merged snapshot values, a null value deletes the key.
+   */
+  void write(Map<WrappedByteArray, WrappedByteArray> batch) {
     if (needOptAsset()) {
       processAccount(batch);
     } else {
@@ -165,13 +174,25 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
 
   private WrappedByteArray getCache(byte[] key) {
     if (cached()) {
-      return cache.getIfPresent(WrappedByteArray.of(key));
+      WrappedByteArray value = cache.getIfPresent(WrappedByteArray.of(key));
+      DbMetrics.cache(getDbName(), value != null);
+      return value;
     }
     return null;
   }
 
   // second cache
 
+  SnapshotIndex getIndex() {
+    return index;
+  }
+
+  void enableIndex() {
+    if (index == null) {
+      index = new SnapshotIndex();
+    }
+  }
+
   @Override
   public Snapshot retreat() {
     return this;
@@ -220,7 +241,11 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
 
   @Override
   public Snapshot newInstance() {
-    return new SnapshotRoot(db.newInstance());
+    SnapshotRoot root = new SnapshotRoot(db.newInstance());
+    if (index != null) {
+      root.enableIndex();
+    }
+    return root;
   }
 
   @Override
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Component;
 import org.tron.common.utils.ByteArray;
 import org.tron.core.db.TronDatabase;
 import org.tron.core.db2.common.WrappedByteArray;
+import org.tron.core.db2.core.ReadWriteSet;
 import org.tron.protos.Protocol;
 
 import java.util.HashMap;
@@ -34,11 +35,14 @@ public class AccountAssetStore extends TronDatabase<byte[]> {
 
   @Override
   public byte[] get(byte[] key) {
+    // the flushed assets, out of the revoking state
+    ReadWriteSet.unchecked();
     return dbSource.getData(key);
   }
 
   @Override
   public boolean has(byte[] key) {
+    ReadWriteSet.unchecked();
     return dbSource.getData(key) != null;
   }
 
@@ -97,6 +101,7 @@ public class AccountAssetStore extends TronDatabase<byte[]> {
   public Map<String, Long> getAllAssets(Protocol.Account account) {
     Map<String, Long> assets = new HashMap<>();
     if (account.getAssetOptimized()) {
+      ReadWriteSet.unchecked();
       Map<WrappedByteArray, byte[]> map = prefixQuery(account.getAddress().toByteArray());
       map.forEach((k, v) -> {
         byte[] assetID = ByteArray.subArray(k.getBytes(),
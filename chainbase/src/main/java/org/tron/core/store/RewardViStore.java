@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.tron.core.db.TronDatabase;
 import org.tron.core.db.common.iterator.DBIterator;
+import org.tron.core.db2.core.ReadWriteSet;
 
 @Slf4j(topic = "DB")
 @Component
@@ -18,6 +19,8 @@ public class RewardViStore extends TronDatabase<byte[]> {
 
   @Override
   public byte[] get(byte[] key) {
+    // built in the background, out of the revoking state
+    ReadWriteSet.unchecked();
     return dbSource.getData(key);
   }
 
@@ -33,6 +36,7 @@ public class RewardViStore extends TronDatabase<byte[]> {
 
   @Override
   public boolean has(byte[] key) {
+    ReadWriteSet.unchecked();
     return dbSource.getData(key) != null;
   }
 
@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.ArrayUtils;
@@ -11,6 +13,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.tron.common.bloom.Bloom;
+import org.tron.common.bloom.SectionBitmap;
+import org.tron.common.cache.CacheManager;
+import org.tron.common.cache.CacheStrategies;
+import org.tron.common.cache.CacheType;
+import org.tron.common.cache.TronCache;
 import org.tron.common.utils.ByteUtil;
 import org.tron.core.capsule.BytesCapsule;
 import org.tron.core.capsule.TransactionRetCapsule;
@@ -21,9 +28,20 @@ import org.tron.core.exception.EventBloomException;
 @Component
 public class SectionBloomStore extends TronStoreWithRevoking<BytesCapsule> {
 
-  public static final int BLOCK_PER_SECTION = 2048;
+  public static final int BLOCK_PER_SECTION = SectionBitmap.SIZE;
   private List<Integer> bitList;
 
+  /**
+   * Hot tier: the decoded bits of the sections whose blocks are all solidified. These never
+   * change again, so the cache is never stale.
+   */
+  private final TronCache<Long, SectionBitmap> hotSections = CacheManager.allocate(
+      CacheType.sectionBloom, String.format(CacheStrategies.PATTERNS, 1024, 65536, "10m",
+          Runtime.getRuntime().availableProcessors()));
+
+  @Autowired
+  private DynamicPropertiesStore dynamicPropertiesStore;
+
   @Autowired
   public SectionBloomStore(@Value("section-bloom") String dbName) {
     super(dbName);
@@ -65,6 +83,44 @@ public class SectionBloomStore extends TronStoreWithRevoking<BytesCapsule> {
     return BitSet.valueOf(data);
   }
 
+  /**
+   * Same as {@link #get(int, int)}, as a SectionBitmap, from the hot tier when the section is
+   * solidified.
+   *
+   * @return null when no block of the section has the bit
+   */
+  public SectionBitmap getBitmap(int section, int bitIndex, Reads reads)
+      throws EventBloomException {
+    long keyLong = combineKey(section, bitIndex);
+    boolean solidified = (section + 1L) * BLOCK_PER_SECTION - 1
+        <= dynamicPropertiesStore.getLatestSolidifiedBlockNum();
+    if (solidified) {
+      SectionBitmap bitmap = hotSections.getIfPresent(keyLong);
+      if (bitmap != null) {
+        reads.cached.incrementAndGet();
+        return bitmap == SectionBitmap.EMPTY ? null : bitmap;
+      }
+    }
+
+    reads.loaded.incrementAndGet();
+    BytesCapsule bytesCapsule = get(Long.toHexString(keyLong).getBytes());
+    SectionBitmap bitmap;
+    if (bytesCapsule == null) {
+      bitmap = SectionBitmap.EMPTY;
+    } else {
+      try {
+        bitmap = SectionBitmap.valueOf(ByteUtil.decompress(bytesCapsule.getData()));
+      } catch (Exception e) {
+        throw new EventBloomException("decompress byte failed");
+      }
+    }
+    if (solidified) {
+      // a missing bit is cached too, as EMPTY
+      hotSections.put(keyLong, bitmap);
+    }
+    return bitmap == SectionBitmap.EMPTY ? null : bitmap;
+  }
+
   public void put(int section, int bitIndex, BitSet bitSet) throws EventBloomException {
     long keyLong = combineKey(section, bitIndex);
     byte[] key = Long.toHexString(keyLong).getBytes();
@@ -112,4 +168,14 @@ public class SectionBloomStore extends TronStoreWithRevoking<BytesCapsule> {
       put(section, bitIndex, bitSet);
     }
   }
+
+  /**
+   * Counts the bits a query reads from the hot tier and from the database.
+   */
+  @Getter
+  public static class Reads {
+
+    private final AtomicInteger cached = new AtomicInteger();
+    private final AtomicInteger loaded = new AtomicInteger();
+  }
 }
@@ -0,0 +1,17 @@
+package org.tron.core.store;
+
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.tron.common.parameter.CommonParameter;
+
+/**
+ * TransactionRetIndexStore is created only when storage.transHistory.index is on.
+ */
+public class TransactionRetIndexCondition implements Condition {
+
+  @Override
+  public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+    return CommonParameter.getInstance().getStorage().isTransactionHistoryIndex();
+  }
+}
@@ -0,0 +1,59 @@
+package org.tron.core.store;
+
+import java.nio.ByteBuffer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ArrayUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.stereotype.Component;
+import org.tron.core.capsule.BytesCapsule;
+import org.tron.core.db.TronStoreWithRevoking;
+
+/**
+ * Maps a transaction id to the block number, offset and length of its TransactionInfo inside
+ * the block result stored in TransactionRetStore. It exists only when storage.transHistory.index
+ * is on.
+ */
+@Slf4j(topic = "DB")
+@Component
+@Conditional(TransactionRetIndexCondition.class)
+public class TransactionRetIndexStore extends TronStoreWithRevoking<BytesCapsule> {
+
+  private static final int POSITION_SIZE = Long.BYTES + Integer.BYTES * 2;
+
+  @Autowired
+  public TransactionRetIndexStore(@Value("transactionRetIndex") String dbName) {
+    super(dbName);
+  }
+
+  public void put(byte[] id, long blockNum, int offset, int length) {
+    put(id, new BytesCapsule(position(blockNum, offset, length)));
+  }
+
+  /**
+   * @return the stored value of a position, also written by the toolkit's trans-index
+   */
+  public static byte[] position(long blockNum, int offset, int length) {
+    return ByteBuffer.allocate(POSITION_SIZE)
+        .putLong(blockNum).putInt(offset).putInt(length).array();
+  }
+
+  /**
+   * @return blockNum, offset and length, null when the transaction is not indexed
+   */
+  public long[] getPosition(byte[] id) {
+    byte[] value = revokingDB.getUnchecked(id);
+    if (ArrayUtils.isEmpty(value) || value.length != POSITION_SIZE) {
+      return null;
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(value);
+    return new long[] {buffer.getLong(), buffer.getInt(), buffer.getInt()};
+  }
+
+  @Override
+  public BytesCapsule get(byte[] key) {
+    byte[] value = revokingDB.getUnchecked(key);
+    return ArrayUtils.isEmpty(value) ? null : new BytesCapsule(value);
+  }
+}
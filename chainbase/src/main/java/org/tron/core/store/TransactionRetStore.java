@@ -1,6 +1,8 @@
 package org.tron.core.store;
 
 import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.Arrays;
 import java.util.Objects;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.BooleanUtils;
@@ -24,6 +26,10 @@ public class TransactionRetStore extends TronStoreWithRevoking<TransactionRetCap
   @Autowired
   private TransactionStore transactionStore;
 
+  // null when storage.transHistory.index is off
+  @Autowired(required = false)
+  private TransactionRetIndexStore transactionRetIndexStore;
+
   @Autowired
   public TransactionRetStore(@Value("transactionRetStore") String dbName) {
     super(dbName);
@@ -33,11 +39,33 @@ public class TransactionRetStore extends TronStoreWithRevoking<TransactionRetCap
   public void put(byte[] key, TransactionRetCapsule item) {
     if (BooleanUtils.toBoolean(CommonParameter.getInstance()
         .getStorage().getTransactionHistorySwitch())) {
-      super.put(key, item);
+      if (Objects.isNull(item) || Objects.isNull(transactionRetIndexStore)) {
+        super.put(key, item);
+        return;
+      }
+      // serialized once, so that the indexed offsets match the stored bytes
+      byte[] data = item.getData();
+      revokingDB.put(key, data);
+      long blockNum = ByteArray.toLong(key);
+      try {
+        TransactionRetCapsule.forEachInfo(data, (id, offset, length) -> {
+          transactionRetIndexStore.put(id.toByteArray(), blockNum, offset, length);
+          return true;
+        });
+      } catch (BadItemException e) {
+        logger.warn("Index transaction infos of block {} failed.", blockNum, e);
+      }
     }
   }
 
   public TransactionInfoCapsule getTransactionInfo(byte[] key) throws BadItemException {
+    if (Objects.nonNull(transactionRetIndexStore)) {
+      TransactionInfo info = getIndexedTransactionInfo(key);
+      if (info != null) {
+        return new TransactionInfoCapsule(resetDirtyReceipt(info));
+      }
+    }
+
     long blockNumber = transactionStore.getBlockNumber(key);
     if (blockNumber == -1) {
       return null;
@@ -47,29 +75,65 @@ public class TransactionRetStore extends TronStoreWithRevoking<TransactionRetCap
       return null;
     }
 
-    TransactionRetCapsule result = new TransactionRetCapsule(value);
-    if (Objects.isNull(result.getInstance())) {
+    // only the info with this id is decoded
+    ByteString id = ByteString.copyFrom(key);
+    int[] position = new int[2];
+    TransactionRetCapsule.forEachInfo(value, (infoId, offset, length) -> {
+      if (!infoId.equals(id)) {
+        return true;
+      }
+      position[0] = offset;
+      position[1] = length;
+      return false;
+    });
+    if (position[1] == 0) {
       return null;
     }
+    return new TransactionInfoCapsule(resetDirtyReceipt(parseInfo(value, position[0],
+        position[1])));
+  }
 
-    ByteString id = ByteString.copyFrom(key);
-    for (TransactionInfo transactionResultInfo : result.getInstance().getTransactioninfoList()) {
-      if (transactionResultInfo.getId().equals(id)) {
-        Protocol.ResourceReceipt receipt = transactionResultInfo.getReceipt();
-        // If query a result with dirty origin usage in receipt, we just reset it.
-        if (receipt.getEnergyUsageTotal() == 0 && receipt.getOriginEnergyUsage() > 0) {
-          transactionResultInfo =
-              transactionResultInfo.toBuilder()
-                  .setReceipt(
-                      receipt.toBuilder()
-                          .clearOriginEnergyUsage()
-                          .build())
-                  .build();
-        }
-        return new TransactionInfoCapsule(transactionResultInfo);
-      }
+  /**
+   * Reads the info through TransactionRetIndexStore, null when it is not indexed or the index
+   * no longer matches the block result, e.g. after a fork.
+   */
+  private TransactionInfo getIndexedTransactionInfo(byte[] key) throws BadItemException {
+    long[] position = transactionRetIndexStore.getPosition(key);
+    if (position == null) {
+      return null;
+    }
+    byte[] value = revokingDB.getUnchecked(ByteArray.fromLong(position[0]));
+    int offset = (int) position[1];
+    int length = (int) position[2];
+    if (Objects.isNull(value) || offset < 0 || length <= 0 || offset > value.length - length) {
+      return null;
+    }
+    TransactionInfo info = parseInfo(value, offset, length);
+    return Arrays.equals(info.getId().toByteArray(), key) ? info : null;
+  }
+
+  private static TransactionInfo parseInfo(byte[] value, int offset, int length)
+      throws BadItemException {
+    try {
+      return TransactionInfo.parser().parseFrom(value, offset, length);
+    } catch (InvalidProtocolBufferException e) {
+      throw new BadItemException("TransactionInfoCapsule proto data parse exception");
+    }
+  }
+
+  private static TransactionInfo resetDirtyReceipt(TransactionInfo transactionResultInfo) {
+    Protocol.ResourceReceipt receipt = transactionResultInfo.getReceipt();
+    // If query a result with dirty origin usage in receipt, we just reset it.
+    if (receipt.getEnergyUsageTotal() == 0 && receipt.getOriginEnergyUsage() > 0) {
+      transactionResultInfo =
+          transactionResultInfo.toBuilder()
+              .setReceipt(
+                  receipt.toBuilder()
+                      .clearOriginEnergyUsage()
+                      .build())
+              .build();
     }
-    return null;
+    return transactionResultInfo;
   }
 
   public TransactionRetCapsule getTransactionInfoByBlockNum(byte[] key) throws BadItemException {
@@ -0,0 +1,182 @@
+package org.tron.core.store;
+
+import com.google.common.primitives.Bytes;
+import com.google.protobuf.ByteString;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ArrayUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.tron.common.utils.ByteArray;
+import org.tron.core.capsule.BytesCapsule;
+import org.tron.core.capsule.VotesCapsule;
+import org.tron.core.db.TronStoreWithRevoking;
+import org.tron.protos.Protocol.Vote;
+
+/**
+ * Keeps, for every witness, the vote change that the entries of VotesStore add up to in the
+ * current maintenance period, so the maintenance does not have to scan VotesStore.
+ *
+ * <p>A witness is stored with the sum of its new votes minus its old votes over all entries,
+ * and the number of times it appears in them. These are exactly the witnesses and the counts
+ * the full scan of the maintenance finds, overflow included. The keys of the VotesStore entries
+ * of the period are kept as well, so the maintenance deletes them without a scan. The store is
+ * disabled, and VotesStore works as before, while the epoch is 0.
+ *
+ * <p>The epoch is read on every put and get of VotesStore, so it is cached. It only changes at
+ * a maintenance, which reloads it with {@link #loadEpoch()}; when a maintenance is revoked, the
+ * next block runs it again before any other tally.
+ */
+@Slf4j(topic = "DB")
+@Component
+public class VotesDeltaStore extends TronStoreWithRevoking<BytesCapsule> {
+
+  private static final byte[] EPOCH = "EPOCH".getBytes();
+  // prefix of the keys of the VotesStore entries of the period
+  private static final byte[] VOTER = "VOTER".getBytes();
+  private static final byte[] MARK = {1};
+
+  // -1 until read
+  private volatile long epoch = -1;
+
+  @Autowired
+  public VotesDeltaStore(@Value("votes-delta") String dbName) {
+    super(dbName);
+  }
+
+  @Override
+  public BytesCapsule get(byte[] key) {
+    byte[] value = revokingDB.getUnchecked(key);
+    return ArrayUtils.isEmpty(value) ? null : new BytesCapsule(value);
+  }
+
+  /**
+   * @return the current maintenance period, 0 when votes are counted by the full scan
+   */
+  public long getEpoch() {
+    long current = epoch;
+    return current < 0 ? loadEpoch() : current;
+  }
+
+  /**
+   * Reads the epoch from the database into the cache.
+   */
+  public long loadEpoch() {
+    byte[] value = revokingDB.getUnchecked(EPOCH);
+    long current = ArrayUtils.isEmpty(value) ? 0 : ByteArray.toLong(value);
+    epoch = current;
+    return current;
+  }
+
+  public void setEpoch(long epoch) {
+    if (epoch == 0) {
+      delete(EPOCH);
+    } else {
+      put(EPOCH, new BytesCapsule(ByteArray.fromLong(epoch)));
+    }
+    this.epoch = epoch;
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    epoch = -1;
+  }
+
+  public boolean isEnabled() {
+    return getEpoch() > 0;
+  }
+
+  /**
+   * Replaces the votes of one entry of VotesStore.
+   *
+   * @param voter the key of the entry
+   * @param before the entry of the current period, null when there is none
+   * @param after the new entry, null when it is deleted
+   */
+  public void update(byte[] voter, VotesCapsule before, VotesCapsule after) {
+    if (after == null) {
+      delete(Bytes.concat(VOTER, voter));
+    } else if (before == null) {
+      put(Bytes.concat(VOTER, voter), new BytesCapsule(MARK));
+    }
+
+    Map<ByteString, long[]> changes = new HashMap<>();
+    if (before != null) {
+      add(changes, before.getNewVotes(), -1, -1);
+      add(changes, before.getOldVotes(), 1, -1);
+    }
+    if (after != null) {
+      add(changes, after.getNewVotes(), 1, 1);
+      add(changes, after.getOldVotes(), -1, 1);
+    }
+
+    changes.forEach((witness, change) -> {
+      if (change[0] == 0 && change[1] == 0) {
+        return;
+      }
+      byte[] key = witness.toByteArray();
+      long voteCount = change[0];
+      long references = change[1];
+      byte[] value = revokingDB.getUnchecked(key);
+      if (!ArrayUtils.isEmpty(value)) {
+        ByteBuffer buffer = ByteBuffer.wrap(value);
+        voteCount += buffer.getLong();
+        references += buffer.getLong();
+      }
+      if (references == 0) {
+        delete(key);
+      } else {
+        put(key, new BytesCapsule(ByteBuffer.allocate(Long.BYTES * 2)
+            .putLong(voteCount).putLong(references).array()));
+      }
+    });
+  }
+
+  private static void add(Map<ByteString, long[]> changes, List<Vote> votes, int sign,
+      int reference) {
+    for (Vote vote : votes) {
+      long[] change = changes.computeIfAbsent(vote.getVoteAddress(), k -> new long[2]);
+      change[0] += sign * vote.getVoteCount();
+      // a witness found only in old votes, or with votes that cancel out, is still counted
+      change[1] += reference;
+    }
+  }
+
+  /**
+   * Removes the vote changes of the current period.
+   *
+   * @param voters receives the keys of the VotesStore entries of the period
+   * @return the vote change of every witness, as counted by the full scan of VotesStore
+   */
+  public Map<ByteString, Long> drain(Collection<byte[]> voters) {
+    Map<ByteString, Long> countWitness = new HashMap<>();
+    List<byte[]> keys = new ArrayList<>();
+    Iterator<Map.Entry<byte[], BytesCapsule>> iterator = iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<byte[], BytesCapsule> entry = iterator.next();
+      byte[] key = entry.getKey();
+      if (Arrays.equals(EPOCH, key)) {
+        continue;
+      }
+      keys.add(key);
+      if (key.length > VOTER.length
+          && Arrays.equals(VOTER, Arrays.copyOf(key, VOTER.length))) {
+        voters.add(Arrays.copyOfRange(key, VOTER.length, key.length));
+        continue;
+      }
+      countWitness.put(ByteString.copyFrom(key),
+          ByteBuffer.wrap(entry.getValue().getData()).getLong());
+    }
+    keys.forEach(this::delete);
+    return countWitness;
+  }
+}
@@ -1,5 +1,6 @@
 package org.tron.core.store;
 
+import java.util.Collection;
 import org.apache.commons.lang3.ArrayUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,14 +11,56 @@ import org.tron.core.db.TronStoreWithRevoking;
 @Component
 public class VotesStore extends TronStoreWithRevoking<VotesCapsule> {
 
+  @Autowired
+  private VotesDeltaStore votesDeltaStore;
+
   @Autowired
   public VotesStore(@Value("votes") String dbName) {
     super(dbName);
   }
 
+  /**
+   * When votes are tallied incrementally, an entry of another maintenance period, as one brought
+   * back by revoking a maintenance, is read as missing.
+   */
   @Override
   public VotesCapsule get(byte[] key) {
     byte[] value = revokingDB.getUnchecked(key);
-    return ArrayUtils.isEmpty(value) ? null : new VotesCapsule(value);
+    if (ArrayUtils.isEmpty(value)) {
+      return null;
+    }
+    VotesCapsule votesCapsule = new VotesCapsule(value);
+    long epoch = votesDeltaStore.getEpoch();
+    return epoch > 0 && votesCapsule.getEpoch() != epoch ? null : votesCapsule;
+  }
+
+  @Override
+  public boolean has(byte[] key) {
+    return votesDeltaStore.isEnabled() ? get(key) != null : super.has(key);
+  }
+
+  @Override
+  public void put(byte[] key, VotesCapsule item) {
+    long epoch = votesDeltaStore.getEpoch();
+    if (epoch > 0) {
+      votesDeltaStore.update(key, get(key), item);
+      item.setEpoch(epoch);
+    }
+    super.put(key, item);
+  }
+
+  /**
+   * Deletes the entries of a tallied period, without counting them out of the tally.
+   */
+  public void prune(Collection<byte[]> keys) {
+    keys.forEach(super::delete);
+  }
+
+  @Override
+  public void delete(byte[] key) {
+    if (votesDeltaStore.isEnabled()) {
+      votesDeltaStore.update(key, get(key), null);
+    }
+    super.delete(key);
   }
-}
\ No newline at end of file
+}
@@ -19,8 +19,13 @@ public enum CacheType {
   properties("properties"),
   delegation("delegation"),
   storageRow("storage-row"),
-  account("account");
-  // for leveldb or rocksdb cache
+  account("account"),
+  // for analysed contract code in the vm
+  codeAnalysis("code-analysis"),
+  // for signer addresses recovered from transaction signatures
+  recoveredSigner("recovered-signer"),
+  // for the decoded bits of solidified sections of the section bloom
+  sectionBloom("section-bloom");
 
   public final String type;
 
@@ -7,6 +7,7 @@ import com.google.common.cache.CacheLoader;
 import com.google.common.cache.CacheStats;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
 import lombok.Getter;
 
 public class TronCache<K, V> {
@@ -45,6 +46,10 @@ public class TronCache<K, V> {
     this.cache.invalidateAll();
   }
 
+  public void invalidateIf(Predicate<? super V> predicate) {
+    this.cache.asMap().values().removeIf(predicate);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
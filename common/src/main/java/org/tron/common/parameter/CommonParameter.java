@@ -315,6 +315,9 @@ public class CommonParameter {
   public int estimateEnergyMaxRetry;
   @Getter
   @Setter
+  public boolean vmContiguousMemory;
+  @Getter
+  @Setter
   public int backupPriority;
   @Getter
   @Setter
@@ -642,6 +645,18 @@ public class CommonParameter {
   @Setter
   public boolean dynamicConfigEnable;
 
+  @Getter
+  @Setter
+  public boolean blockProfilerEnable;
+
+  @Getter
+  @Setter
+  public int blockProfilerBlocks = 100;
+
+  @Getter
+  @Setter
+  public boolean reuseExecution;
+
   @Getter
   @Setter
   public long dynamicConfigCheckInterval;
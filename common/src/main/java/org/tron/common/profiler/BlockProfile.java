@@ -0,0 +1,135 @@
+package org.tron.common.profiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * The wall time of one block, split by phase, with the phases of each of its transactions and
+ * the time spent in each opcode. Times are in microseconds.
+ *
+ * <p>It is written only by the thread that processes the block.
+ */
+public class BlockProfile {
+
+  static final int OPCODES = 256;
+
+  @Getter
+  private final long num;
+  @Getter
+  private final int transactionCount;
+  private final long start = System.nanoTime();
+  private long nanos;
+  private final Map<String, Long> phases = new LinkedHashMap<>();
+  private final List<TransactionProfile> transactions = new ArrayList<>();
+  // the transaction being processed
+  private TransactionProfile transaction;
+
+  final long[] opcodeNanos = new long[OPCODES];
+  final long[] opcodeCounts = new long[OPCODES];
+  final String[] opcodeNames = new String[OPCODES];
+
+  BlockProfile(long num, int transactionCount) {
+    this.num = num;
+    this.transactionCount = transactionCount;
+  }
+
+  public long getTotalUs() {
+    return nanos / 1000;
+  }
+
+  public Map<String, Long> getPhasesUs() {
+    return micros(phases);
+  }
+
+  public List<TransactionProfile> getTransactions() {
+    return Collections.unmodifiableList(transactions);
+  }
+
+  /**
+   * The time of an opcode includes the frames it calls, as for CALL and CREATE.
+   */
+  public void opcode(int opcode, String name, long nanos) {
+    opcodeNanos[opcode] += nanos;
+    opcodeCounts[opcode]++;
+    opcodeNames[opcode] = name;
+  }
+
+  void phase(String phase, long nanos) {
+    Map<String, Long> target = transaction != null ? transaction.phases : phases;
+    target.merge(phase, nanos, Long::sum);
+  }
+
+  void beginTransaction(String id, String contract) {
+    transaction = new TransactionProfile(id, contract);
+  }
+
+  void endTransaction() {
+    if (transaction != null) {
+      transaction.nanos = System.nanoTime() - transaction.start;
+      transactions.add(transaction);
+      transaction = null;
+    }
+  }
+
+  void finish() {
+    transaction = null;
+    nanos = System.nanoTime() - start;
+  }
+
+  long nanos() {
+    return nanos;
+  }
+
+  Map<String, Long> phaseNanos() {
+    return phases;
+  }
+
+  List<TransactionProfile> transactionList() {
+    return transactions;
+  }
+
+  private static Map<String, Long> micros(Map<String, Long> nanos) {
+    Map<String, Long> micros = new LinkedHashMap<>();
+    nanos.forEach((k, v) -> micros.put(k, v / 1000));
+    return micros;
+  }
+
+  public static class TransactionProfile {
+
+    @Getter
+    private final String id;
+    /**
+     * the called contract of a TriggerSmartContract, the contract type otherwise
+     */
+    @Getter
+    private final String contract;
+    private final long start = System.nanoTime();
+    private long nanos;
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    TransactionProfile(String id, String contract) {
+      this.id = id;
+      this.contract = contract;
+    }
+
+    public long getTotalUs() {
+      return nanos / 1000;
+    }
+
+    public Map<String, Long> getPhasesUs() {
+      return micros(phases);
+    }
+
+    long nanos() {
+      return nanos;
+    }
+
+    Map<String, Long> phaseNanos() {
+      return phases;
+    }
+  }
+}
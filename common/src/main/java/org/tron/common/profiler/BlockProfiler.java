@@ -0,0 +1,289 @@
+package org.tron.common.profiler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.common.parameter.CommonParameter;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.Metrics;
+import org.tron.common.profiler.BlockProfile.TransactionProfile;
+
+/**
+ * Opt-in profiler of block execution. While it is on, every block pushed on a thread gets a
+ * {@link BlockProfile}; the last blocks are kept, with the time of every contract and opcode
+ * summed over them. The profiles are exported as Prometheus metrics and read by
+ * {@link #report(int)} and {@link #get(long)}, by the HTTP api or by a block replay.
+ *
+ * <p>While it is off a call costs one volatile read.
+ */
+@Slf4j(topic = "profiler")
+public final class BlockProfiler {
+
+  // block phases
+  public static final String SIGN = "sign";
+  public static final String TRANSACTIONS = "transactions";
+  public static final String REWARD = "reward";
+  public static final String CONSENSUS = "consensus";
+  public static final String BLOOM = "bloom";
+  public static final String SNAPSHOT = "snapshot";
+  private static final String TOTAL = "total";
+
+  // transaction phases
+  public static final String VALIDATE = "validate";
+  public static final String BANDWIDTH = "bandwidth";
+  public static final String ACTUATOR = "actuator";
+  public static final String VM = "vm";
+  public static final String ENERGY = "energy";
+
+  /**
+   * contracts exported as metrics
+   */
+  private static final int METRIC_TOP = 10;
+  /**
+   * returned by {@link #time()} while no block is profiled
+   */
+  private static final long OFF = Long.MIN_VALUE;
+
+  private static volatile boolean enabled = CommonParameter.getInstance()
+      .isBlockProfilerEnable();
+  private static volatile int maxBlocks = Math.max(1, CommonParameter.getInstance()
+      .getBlockProfilerBlocks());
+  private static final ThreadLocal<BlockProfile> current = new ThreadLocal<>();
+
+  // guarded by BlockProfiler.class
+  private static final Deque<BlockProfile> blocks = new ArrayDeque<>();
+  private static final Map<String, Long> phases = new HashMap<>();
+  // contract -> {nanos, count}
+  private static final Map<String, long[]> contracts = new HashMap<>();
+  private static final long[] opcodeNanos = new long[BlockProfile.OPCODES];
+  private static final long[] opcodeCounts = new long[BlockProfile.OPCODES];
+  private static final String[] opcodeNames = new String[BlockProfile.OPCODES];
+
+  private BlockProfiler() {
+    throw new IllegalStateException("BlockProfiler");
+  }
+
+  public static boolean enabled() {
+    return enabled;
+  }
+
+  public static void setEnabled(boolean enable) {
+    enabled = enable;
+  }
+
+  /**
+   * @param blocks the number of last blocks kept
+   */
+  public static void setMaxBlocks(int blocks) {
+    maxBlocks = Math.max(1, blocks);
+  }
+
+  /**
+   * Starts the profile of a block on this thread.
+   *
+   * @return null if the profiler is off or a block is already profiled on this thread
+   */
+  public static BlockProfile begin(long num, int transactionCount) {
+    if (!enabled || current.get() != null) {
+      return null;
+    }
+    BlockProfile profile = new BlockProfile(num, transactionCount);
+    current.set(profile);
+    return profile;
+  }
+
+  /**
+   * Ends and keeps the profile returned by {@link #begin}, does nothing for null.
+   */
+  public static void end(BlockProfile profile) {
+    if (profile == null) {
+      return;
+    }
+    current.remove();
+    profile.finish();
+    record(profile);
+  }
+
+  /**
+   * @return the block profiled on this thread, null if none
+   */
+  public static BlockProfile current() {
+    return enabled ? current.get() : null;
+  }
+
+  public static long time() {
+    return current() != null ? System.nanoTime() : OFF;
+  }
+
+  /**
+   * Adds the time from start to a phase of the transaction being processed, or of the block
+   * if there is none.
+   *
+   * @param start returned by {@link #time()}
+   */
+  public static void phase(String phase, long start) {
+    if (start == OFF) {
+      return;
+    }
+    BlockProfile profile = current.get();
+    if (profile != null) {
+      profile.phase(phase, System.nanoTime() - start);
+    }
+  }
+
+  public static void beginTransaction(String id, String contract) {
+    BlockProfile profile = current();
+    if (profile != null) {
+      profile.beginTransaction(id, contract);
+    }
+  }
+
+  public static void endTransaction() {
+    BlockProfile profile = current.get();
+    if (profile != null) {
+      profile.endTransaction();
+    }
+  }
+
+  private static void record(BlockProfile profile) {
+    synchronized (BlockProfiler.class) {
+      blocks.addLast(profile);
+      add(profile, 1);
+      while (blocks.size() > maxBlocks) {
+        add(blocks.removeFirst(), -1);
+      }
+    }
+    if (Metrics.enabled()) {
+      export(profile);
+    }
+  }
+
+  private static void add(BlockProfile profile, int sign) {
+    profile.phaseNanos().forEach((phase, nanos) -> phases.merge(phase, sign * nanos, Long::sum));
+    phases.merge(TOTAL, sign * profile.nanos(), Long::sum);
+    for (TransactionProfile transaction : profile.transactionList()) {
+      long[] sum = contracts.computeIfAbsent(transaction.getContract(), k -> new long[2]);
+      sum[0] += sign * transaction.nanos();
+      sum[1] += sign;
+      if (sum[1] == 0) {
+        contracts.remove(transaction.getContract());
+      }
+    }
+    for (int i = 0; i < BlockProfile.OPCODES; i++) {
+      if (profile.opcodeCounts[i] > 0) {
+        opcodeNanos[i] += sign * profile.opcodeNanos[i];
+        opcodeCounts[i] += sign * profile.opcodeCounts[i];
+        opcodeNames[i] = profile.opcodeNames[i];
+      }
+    }
+  }
+
+  private static void export(BlockProfile profile) {
+    profile.phaseNanos().forEach((phase, nanos) -> Metrics.histogramObserve(
+        MetricKeys.Histogram.BLOCK_PHASE_LATENCY, seconds(nanos), phase));
+    Metrics.histogramObserve(MetricKeys.Histogram.BLOCK_PHASE_LATENCY,
+        seconds(profile.nanos()), TOTAL);
+    for (TransactionProfile transaction : profile.transactionList()) {
+      transaction.phaseNanos().forEach((phase, nanos) -> Metrics.histogramObserve(
+          MetricKeys.Histogram.TRANSACTION_PHASE_LATENCY, seconds(nanos), phase));
+    }
+    for (int i = 0; i < BlockProfile.OPCODES; i++) {
+      if (profile.opcodeCounts[i] > 0) {
+        Metrics.counterInc(MetricKeys.Counter.VM_OPCODE_SECONDS,
+            seconds(profile.opcodeNanos[i]), profile.opcodeNames[i]);
+      }
+    }
+    List<Entry> top = report(METRIC_TOP).getContracts();
+    Metrics.gaugeClear(MetricKeys.Gauge.PROFILER_TOP_CONTRACT);
+    for (Entry entry : top) {
+      Metrics.gaugeSet(MetricKeys.Gauge.PROFILER_TOP_CONTRACT, entry.getTotalUs() / 1e6,
+          entry.getName());
+    }
+  }
+
+  private static double seconds(long nanos) {
+    return nanos / 1_000_000_000.0;
+  }
+
+  /**
+   * @return the profile of a kept block, null if it is not kept
+   */
+  public static synchronized BlockProfile get(long num) {
+    for (BlockProfile profile : blocks) {
+      if (profile.getNum() == num) {
+        return profile;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param top the number of slowest blocks, contracts and opcodes reported
+   */
+  public static synchronized Report report(int top) {
+    Map<String, Long> phasesUs = new LinkedHashMap<>();
+    phases.forEach((phase, nanos) -> phasesUs.put(phase, nanos / 1000));
+
+    List<Entry> slowestBlocks = new ArrayList<>();
+    blocks.stream().sorted(Comparator.comparingLong(BlockProfile::nanos).reversed()).limit(top)
+        .forEach(b -> slowestBlocks.add(new Entry(Long.toString(b.getNum()),
+            b.getTransactionCount(), b.getTotalUs())));
+
+    List<Entry> slowestContracts = new ArrayList<>();
+    contracts.entrySet().stream()
+        .sorted((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0])).limit(top)
+        .forEach(e -> slowestContracts.add(new Entry(e.getKey(), e.getValue()[1],
+            e.getValue()[0] / 1000)));
+
+    List<Entry> slowestOpcodes = new ArrayList<>();
+    for (int i = 0; i < BlockProfile.OPCODES; i++) {
+      if (opcodeCounts[i] > 0) {
+        slowestOpcodes.add(new Entry(opcodeNames[i], opcodeCounts[i], opcodeNanos[i] / 1000));
+      }
+    }
+    slowestOpcodes.sort(Comparator.comparingLong(Entry::getTotalUs).reversed());
+    return new Report(blocks.size(), phasesUs, slowestBlocks, slowestContracts,
+        new ArrayList<>(slowestOpcodes.subList(0, Math.min(top, slowestOpcodes.size()))));
+  }
+
+  public static synchronized void clear() {
+    blocks.clear();
+    phases.clear();
+    contracts.clear();
+    for (int i = 0; i < BlockProfile.OPCODES; i++) {
+      opcodeNanos[i] = 0;
+      opcodeCounts[i] = 0;
+    }
+  }
+
+  /**
+   * The kept blocks summed up.
+   */
+  @Getter
+  @AllArgsConstructor
+  public static class Report {
+
+    private final int blocks;
+    private final Map<String, Long> phasesUs;
+    private final List<Entry> slowestBlocks;
+    private final List<Entry> contracts;
+    private final List<Entry> opcodes;
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static class Entry {
+
+    private final String name;
+    private final long count;
+    private final long totalUs;
+  }
+}
@@ -17,6 +17,9 @@ public class MetricKeys {
     public static final String P2P_ERROR = "tron:p2p_error";
     public static final String P2P_DISCONNECT = "tron:p2p_disconnect";
     public static final String INTERNAL_SERVICE_FAIL = "tron:internal_service_fail";
+    public static final String DB_CACHE = "tron:db_cache";
+    public static final String VM_OPCODE_SECONDS = "tron:vm_opcode_seconds";
+    public static final String PACKED_TXS = "tron:packed_txs";
 
     private Counter() {
       throw new IllegalStateException("Counter");
@@ -33,6 +36,8 @@ public class MetricKeys {
     public static final String DB_SST_LEVEL = "tron:db_sst_level";
     public static final String MANAGER_QUEUE = "tron:manager_queue_size";
     public static final String TX_CACHE = "tron:tx_cache";
+    public static final String TX_POOL = "tron:tx_pool_size";
+    public static final String PROFILER_TOP_CONTRACT = "tron:profiler_top_contract_seconds";
 
     private Gauge() {
       throw new IllegalStateException("Gauge");
@@ -62,6 +67,16 @@ public class MetricKeys {
     public static final String MESSAGE_PROCESS_LATENCY = "tron:message_process_latency_seconds";
     public static final String BLOCK_FETCH_LATENCY = "tron:block_fetch_latency_seconds";
     public static final String BLOCK_RECEIVE_DELAY = "tron:block_receive_delay_seconds";
+    public static final String SNAPSHOT_FLUSH_LATENCY = "tron:snapshot_flush_latency_seconds";
+    public static final String SNAPSHOT_FLUSH_STORE_LATENCY =
+        "tron:snapshot_flush_store_latency_seconds";
+    public static final String JSONRPC_BLOOM_BITS = "tron:jsonrpc_bloom_bits_read";
+    public static final String DB_LATENCY = "tron:db_latency_seconds";
+    public static final String DB_VALUE_BYTES = "tron:db_value_bytes";
+    public static final String DB_SNAPSHOT_DEPTH = "tron:db_snapshot_depth";
+    public static final String BLOCK_PHASE_LATENCY = "tron:block_phase_latency_seconds";
+    public static final String TRANSACTION_PHASE_LATENCY =
+        "tron:transaction_phase_latency_seconds";
 
     private Histogram() {
       throw new IllegalStateException("Histogram");
@@ -31,6 +31,10 @@ public class MetricLabels {
     public static final String TXS_FAIL_SIG = "sig";
     public static final String TXS_FAIL_TAPOS = "tapos";
     public static final String TXS_FAIL_DUP = "dup";
+    public static final String TXS_FAIL_EVICTED = "evicted";
+    // a packed transaction applied from its read-write set, or run as its reads changed
+    public static final String PACKED_REUSED = "reused";
+    public static final String PACKED_CHANGED = "changed";
 
     private Counter() {
       throw new IllegalStateException("Counter");
@@ -49,6 +53,13 @@ public class MetricLabels {
 
     public static final String QUEUE_QUEUED = "queued";
 
+    // the fee tiers of a transaction pool, see TransactionPool
+    public static final String TIER_FREE = "free";
+
+    public static final String TIER_LOW = "low";
+
+    public static final String TIER_HIGH = "high";
+
     public static final String PEERS_ACTIVE = "active";
 
     public static final String PEERS_PASSIVE = "passive";
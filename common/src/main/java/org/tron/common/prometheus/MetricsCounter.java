@@ -18,6 +18,10 @@ class MetricsCounter {
     init(MetricKeys.Counter.P2P_DISCONNECT, "tron p2p disconnect .", "type");
     init(MetricKeys.Counter.INTERNAL_SERVICE_FAIL, "internal Service fail.",
         "class", "method");
+    init(MetricKeys.Counter.DB_CACHE, "db cache hits and misses of reads.", "db", "result");
+    init(MetricKeys.Counter.VM_OPCODE_SECONDS, "time of profiled blocks spent in an opcode.",
+        "opcode");
+    init(MetricKeys.Counter.PACKED_TXS, "transactions packed into produced blocks.", "type");
   }
 
   private MetricsCounter() {
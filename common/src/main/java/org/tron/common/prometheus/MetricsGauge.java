@@ -19,6 +19,9 @@ class MetricsGauge {
     init(MetricKeys.Gauge.DB_SIZE_BYTES, "tron  db  size .", "type", "db", "level");
     init(MetricKeys.Gauge.DB_SST_LEVEL, "tron  db  files .", "type", "db", "level");
     init(MetricKeys.Gauge.TX_CACHE, "tron tx cache info.", "type");
+    init(MetricKeys.Gauge.TX_POOL, "tron tx pool size by fee tier.", "type", "tier");
+    init(MetricKeys.Gauge.PROFILER_TOP_CONTRACT,
+        "slowest contracts of the profiled blocks kept.", "contract");
   }
 
   private MetricsGauge() {
@@ -56,5 +59,16 @@ class MetricsGauge {
     }
   }
 
+  static void clear(String key) {
+    if (Metrics.enabled()) {
+      Gauge gauge = container.get(key);
+      if (gauge == null) {
+        logger.info("{} not exist", key);
+        return;
+      }
+      gauge.clear();
+    }
+  }
+
 }
 
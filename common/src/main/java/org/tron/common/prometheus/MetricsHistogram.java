@@ -48,6 +48,27 @@ public class MetricsHistogram {
     init(MetricKeys.Histogram.BLOCK_FETCH_LATENCY, "fetch block latency.");
     init(MetricKeys.Histogram.BLOCK_RECEIVE_DELAY,
         "receive block delay time, receiveTime - blockTime.");
+    init(MetricKeys.Histogram.SNAPSHOT_FLUSH_LATENCY, "snapshot flush latency per stage.",
+        "stage");
+    init(MetricKeys.Histogram.SNAPSHOT_FLUSH_STORE_LATENCY,
+        "snapshot flush latency per stage and store.",
+        "stage", "db");
+    init(MetricKeys.Histogram.JSONRPC_BLOOM_BITS,
+        "section bloom bits read per eth_getLogs query, from the hot tier or the db.",
+        new double[] {1, 10, 100, 1000, 10_000, 100_000}, "source");
+    init(MetricKeys.Histogram.DB_LATENCY, "db operation latency per layer.",
+        new double[] {0.000_005, 0.000_01, 0.000_025, 0.000_05, 0.000_1, 0.000_25, 0.000_5,
+            0.001, 0.002_5, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1},
+        "db", "layer", "op");
+    init(MetricKeys.Histogram.DB_VALUE_BYTES, "db value size per layer.",
+        new double[] {16, 64, 256, 1024, 4096, 16_384, 65_536, 262_144, 1_048_576},
+        "db", "layer", "op");
+    init(MetricKeys.Histogram.BLOCK_PHASE_LATENCY, "profiled block latency per phase.",
+        "phase");
+    init(MetricKeys.Histogram.TRANSACTION_PHASE_LATENCY,
+        "profiled transaction latency per phase.", "phase");
+    init(MetricKeys.Histogram.DB_SNAPSHOT_DEPTH, "snapshot layers above the root at a read.",
+        new double[] {0, 1, 2, 4, 8, 16, 32, 64, 128, 256}, "db");
   }
 
   private MetricsHistogram() {
@@ -62,6 +83,15 @@ public class MetricsHistogram {
         .register());
   }
 
+  private static void init(String name, String help, double[] buckets, String... labels) {
+    container.put(name, Histogram.build()
+        .name(name)
+        .help(help)
+        .buckets(buckets)
+        .labelNames(labels)
+        .register());
+  }
+
   static Histogram.Timer startTimer(String key, String... labels) {
     if (Metrics.enabled()) {
       Histogram histogram = container.get(key);
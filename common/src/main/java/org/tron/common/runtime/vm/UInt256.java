@@ -0,0 +1,587 @@
+package org.tron.common.runtime.vm;
+
+import static org.tron.common.runtime.vm.DataWord.WORD_SIZE;
+
+import java.util.Arrays;
+
+/**
+ * 256-bit arithmetic on the 32-byte big-endian array of a {@link DataWord}. The word is handled
+ * as four 64-bit limbs kept in local variables and the result is written back into the array of
+ * the first operand, so ADD/SUB/MUL/EXP, the shifts and the comparisons need no
+ * {@link java.math.BigInteger}. Results are bit-identical to the BigInteger based methods of
+ * {@link DataWord}, which are still used for words that are not exactly 32 bytes long.
+ */
+public final class UInt256 {
+
+  private static final long INT_MASK = 0xffffffffL;
+  private static final int LIMBS = 4;
+  private static final int DIGITS = 8;
+
+  private UInt256() {
+  }
+
+  /**
+   * a = a + b
+   */
+  public static void add(DataWord a, DataWord b) {
+    byte[] x = a.getData();
+    byte[] y = b.getData();
+    if (!isWord(x) || !isWord(y)) {
+      a.add(b);
+      return;
+    }
+    long carry = 0;
+    for (int off = WORD_SIZE - 8; off >= 0; off -= 8) {
+      long u = getLong(x, off);
+      long s = u + getLong(y, off);
+      long c = Long.compareUnsigned(s, u) < 0 ? 1 : 0;
+      long r = s + carry;
+      c |= Long.compareUnsigned(r, s) < 0 ? 1 : 0;
+      putLong(x, off, r);
+      carry = c;
+    }
+  }
+
+  /**
+   * a = a - b
+   */
+  public static void sub(DataWord a, DataWord b) {
+    byte[] x = a.getData();
+    byte[] y = b.getData();
+    if (!isWord(x) || !isWord(y)) {
+      a.sub(b);
+      return;
+    }
+    long borrow = 0;
+    for (int off = WORD_SIZE - 8; off >= 0; off -= 8) {
+      long u = getLong(x, off);
+      long v = getLong(y, off);
+      long d = u - v;
+      long c = Long.compareUnsigned(u, v) < 0 ? 1 : 0;
+      long r = d - borrow;
+      c |= Long.compareUnsigned(d, borrow) < 0 ? 1 : 0;
+      putLong(x, off, r);
+      borrow = c;
+    }
+  }
+
+  /**
+   * a = a * b, both operands may be the same word.
+   */
+  public static void mul(DataWord a, DataWord b) {
+    byte[] x = a.getData();
+    byte[] y = b.getData();
+    if (!isWord(x) || !isWord(y)) {
+      a.mul(b);
+      return;
+    }
+    mul(x, y);
+  }
+
+  /**
+   * a = a ^ b mod 2^256
+   */
+  public static void exp(DataWord a, DataWord b) {
+    byte[] x = a.getData();
+    byte[] y = b.getData();
+    if (!isWord(x) || !isWord(y)) {
+      a.exp(b);
+      return;
+    }
+    if (x == y) {
+      y = y.clone();
+    }
+    int bits = bitLength(y);
+    byte[] base = x.clone();
+    Arrays.fill(x, (byte) 0);
+    x[WORD_SIZE - 1] = 1;
+    for (int i = 0; i < bits; i++) {
+      if (testBit(y, i)) {
+        mul(x, base);
+      }
+      if (i + 1 < bits) {
+        mul(base, base);
+      }
+    }
+  }
+
+  /**
+   * a = a / b, unsigned, zero when b is zero.
+   */
+  public static void div(DataWord a, DataWord b) {
+    byte[] x = a.getData();
+    byte[] y = b.getData();
+    if (!isWord(x) || !isWord(y)) {
+      a.div(b);
+      return;
+    }
+    divMod(x, y, true);
+  }
+
+  /**
+   * a = a % b, unsigned, zero when b is zero.
+   */
+  public static void mod(DataWord a, DataWord b) {
+    byte[] x = a.getData();
+    byte[] y = b.getData();
+    if (!isWord(x) || !isWord(y)) {
+      a.mod(b);
+      return;
+    }
+    divMod(x, y, false);
+  }
+
+  /**
+   * a = a / b, signed and truncated towards zero, zero when b is zero.
+   */
+  public static void sDiv(DataWord a, DataWord b) {
+    byte[] x = a.getData();
+    byte[] y = b.getData();
+    if (!isWord(x) || !isWord(y)) {
+      a.sDiv(b);
+      return;
+    }
+    boolean negativeA = a.isNegative();
+    boolean negativeB = b.isNegative();
+    byte[] divisor = negativeB ? negate(y.clone()) : y;
+    if (negativeA) {
+      negate(x);
+    }
+    divMod(x, divisor, true);
+    if (negativeA != negativeB) {
+      negate(x);
+    }
+  }
+
+  /**
+   * a = a % b, the result takes the sign of a, zero when b is zero.
+   */
+  public static void sMod(DataWord a, DataWord b) {
+    byte[] x = a.getData();
+    byte[] y = b.getData();
+    if (!isWord(x) || !isWord(y)) {
+      a.sMod(b);
+      return;
+    }
+    boolean negativeA = a.isNegative();
+    byte[] divisor = b.isNegative() ? negate(y.clone()) : y;
+    if (negativeA) {
+      negate(x);
+    }
+    divMod(x, divisor, false);
+    if (negativeA) {
+      negate(x);
+    }
+  }
+
+  /**
+   * a = a << n, with n treated as unsigned.
+   *
+   * @return a, or a new word if a is not 32 bytes long
+   */
+  public static DataWord shiftLeft(DataWord a, DataWord n) {
+    byte[] x = a.getData();
+    if (!isWord(x)) {
+      return a.shiftLeft(n);
+    }
+    int shift = shiftAmount(n);
+    if (shift >= DataWord.MAX_POW) {
+      Arrays.fill(x, (byte) 0);
+      return a;
+    }
+    long l0 = getLong(x, 24);
+    long l1 = getLong(x, 16);
+    long l2 = getLong(x, 8);
+    long l3 = getLong(x, 0);
+    int limbShift = shift >>> 6;
+    int bitShift = shift & 63;
+    for (int i = LIMBS - 1; i >= 0; i--) {
+      int src = i - limbShift;
+      long hi = src >= 0 ? limb(l0, l1, l2, l3, src) : 0;
+      long lo = src - 1 >= 0 ? limb(l0, l1, l2, l3, src - 1) : 0;
+      long r = bitShift == 0 ? hi : (hi << bitShift) | (lo >>> (64 - bitShift));
+      putLong(x, WORD_SIZE - 8 - i * 8, r);
+    }
+    return a;
+  }
+
+  /**
+   * a = a >>> n, with n treated as unsigned.
+   *
+   * @return a, or a new word if a is not 32 bytes long
+   */
+  public static DataWord shiftRight(DataWord a, DataWord n) {
+    if (!isWord(a.getData())) {
+      return a.shiftRight(n);
+    }
+    shiftRight(a.getData(), shiftAmount(n), 0L);
+    return a;
+  }
+
+  /**
+   * a = a >> n, a is signed while n is treated as unsigned.
+   *
+   * @return a, or a new word if a is not 32 bytes long
+   */
+  public static DataWord shiftRightSigned(DataWord a, DataWord n) {
+    if (!isWord(a.getData())) {
+      return a.shiftRightSigned(n);
+    }
+    shiftRight(a.getData(), shiftAmount(n), a.isNegative() ? -1L : 0L);
+    return a;
+  }
+
+  /**
+   * Unsigned comparison, returns -1, 0 or 1.
+   */
+  public static int compare(DataWord a, DataWord b) {
+    byte[] x = a.getData();
+    byte[] y = b.getData();
+    if (!isWord(x) || !isWord(y)) {
+      return Integer.signum(a.value().compareTo(b.value()));
+    }
+    for (int off = 0; off < WORD_SIZE; off += 8) {
+      int c = Long.compareUnsigned(getLong(x, off), getLong(y, off));
+      if (c != 0) {
+        return Integer.signum(c);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Signed comparison, returns -1, 0 or 1.
+   */
+  public static int signedCompare(DataWord a, DataWord b) {
+    byte[] x = a.getData();
+    byte[] y = b.getData();
+    if (!isWord(x) || !isWord(y)) {
+      return Integer.signum(a.sValue().compareTo(b.sValue()));
+    }
+    int c = Long.compare(getLong(x, 0), getLong(y, 0));
+    if (c != 0) {
+      return Integer.signum(c);
+    }
+    return compare(a, b);
+  }
+
+  private static void shiftRight(byte[] x, int shift, long fill) {
+    if (shift >= DataWord.MAX_POW) {
+      Arrays.fill(x, (byte) fill);
+      return;
+    }
+    long l0 = getLong(x, 24);
+    long l1 = getLong(x, 16);
+    long l2 = getLong(x, 8);
+    long l3 = getLong(x, 0);
+    int limbShift = shift >>> 6;
+    int bitShift = shift & 63;
+    for (int i = 0; i < LIMBS; i++) {
+      int src = i + limbShift;
+      long lo = src < LIMBS ? limb(l0, l1, l2, l3, src) : fill;
+      long hi = src + 1 < LIMBS ? limb(l0, l1, l2, l3, src + 1) : fill;
+      long r = bitShift == 0 ? lo : (lo >>> bitShift) | (hi << (64 - bitShift));
+      putLong(x, WORD_SIZE - 8 - i * 8, r);
+    }
+  }
+
+  private static int shiftAmount(DataWord n) {
+    byte[] data = n.getData();
+    for (int i = 0; i < data.length - 2; i++) {
+      if (data[i] != 0) {
+        return DataWord.MAX_POW;
+      }
+    }
+    return n.intValueSafe();
+  }
+
+  private static long limb(long l0, long l1, long l2, long l3, int index) {
+    switch (index) {
+      case 0:
+        return l0;
+      case 1:
+        return l1;
+      case 2:
+        return l2;
+      default:
+        return l3;
+    }
+  }
+
+  /**
+   * x = x * y mod 2^256, limbs are loaded before anything is written so x and y may alias.
+   */
+  private static void mul(byte[] x, byte[] y) {
+    long a0 = getLong(x, 24);
+    long a1 = getLong(x, 16);
+    long a2 = getLong(x, 8);
+    long a3 = getLong(x, 0);
+    long b0 = getLong(y, 24);
+    long b1 = getLong(y, 16);
+    long b2 = getLong(y, 8);
+    long b3 = getLong(y, 0);
+
+    // column 0
+    long r0 = a0 * b0;
+    long col1 = multiplyHigh(a0, b0);
+
+    // column 1
+    long carry2 = 0;
+    long t = a0 * b1;
+    col1 += t;
+    carry2 += Long.compareUnsigned(col1, t) < 0 ? 1 : 0;
+    t = a1 * b0;
+    col1 += t;
+    carry2 += Long.compareUnsigned(col1, t) < 0 ? 1 : 0;
+    long r1 = col1;
+
+    // column 2
+    long col2 = carry2;
+    long carry3 = 0;
+    t = multiplyHigh(a0, b1);
+    col2 += t;
+    carry3 += Long.compareUnsigned(col2, t) < 0 ? 1 : 0;
+    t = multiplyHigh(a1, b0);
+    col2 += t;
+    carry3 += Long.compareUnsigned(col2, t) < 0 ? 1 : 0;
+    t = a0 * b2;
+    col2 += t;
+    carry3 += Long.compareUnsigned(col2, t) < 0 ? 1 : 0;
+    t = a1 * b1;
+    col2 += t;
+    carry3 += Long.compareUnsigned(col2, t) < 0 ? 1 : 0;
+    t = a2 * b0;
+    col2 += t;
+    carry3 += Long.compareUnsigned(col2, t) < 0 ? 1 : 0;
+    long r2 = col2;
+
+    // column 3, carries out of the word are dropped
+    long r3 = carry3
+        + multiplyHigh(a0, b2) + multiplyHigh(a1, b1) + multiplyHigh(a2, b0)
+        + a0 * b3 + a1 * b2 + a2 * b1 + a3 * b0;
+
+    putLong(x, 24, r0);
+    putLong(x, 16, r1);
+    putLong(x, 8, r2);
+    putLong(x, 0, r3);
+  }
+
+  /**
+   * High 64 bits of the unsigned 128-bit product.
+   */
+  static long multiplyHigh(long x, long y) {
+    long x0 = x & INT_MASK;
+    long x1 = x >>> 32;
+    long y0 = y & INT_MASK;
+    long y1 = y >>> 32;
+    long p00 = x0 * y0;
+    long p01 = x0 * y1;
+    long p10 = x1 * y0;
+    long p11 = x1 * y1;
+    long middle = (p00 >>> 32) + (p01 & INT_MASK) + (p10 & INT_MASK);
+    return p11 + (p01 >>> 32) + (p10 >>> 32) + (middle >>> 32);
+  }
+
+  /**
+   * Replaces x with the quotient or the remainder of x / y, both unsigned.
+   */
+  private static void divMod(byte[] x, byte[] y, boolean quotient) {
+    int n = significantDigits(y);
+    if (n == 0) {
+      Arrays.fill(x, (byte) 0);
+      return;
+    }
+    int m = significantDigits(x);
+    if (m < n || compareUnsigned(x, y) < 0) {
+      if (quotient) {
+        Arrays.fill(x, (byte) 0);
+      }
+      return;
+    }
+
+    if (m <= 2) {
+      long u = getLong(x, 24);
+      long v = getLong(y, 24);
+      putLong(x, 24, quotient ? Long.divideUnsigned(u, v) : Long.remainderUnsigned(u, v));
+      return;
+    }
+
+    int[] u = new int[DIGITS];
+    int[] v = new int[DIGITS];
+    for (int i = 0; i < DIGITS; i++) {
+      u[i] = getInt(x, WORD_SIZE - 4 - i * 4);
+      v[i] = getInt(y, WORD_SIZE - 4 - i * 4);
+    }
+    int[] q = new int[DIGITS];
+    int[] r = new int[DIGITS];
+    divide(q, r, u, v, m, n);
+
+    int[] result = quotient ? q : r;
+    for (int i = 0; i < DIGITS; i++) {
+      putInt(x, WORD_SIZE - 4 - i * 4, result[i]);
+    }
+  }
+
+  /**
+   * Knuth's algorithm D on little-endian 32-bit digits, see Hacker's Delight 9-2. Requires
+   * m >= n, v[n - 1] != 0 and m >= 1.
+   */
+  private static void divide(int[] q, int[] r, int[] u, int[] v, int m, int n) {
+    if (n == 1) {
+      long divisor = v[0] & INT_MASK;
+      long k = 0;
+      for (int j = m - 1; j >= 0; j--) {
+        long current = (k << 32) | (u[j] & INT_MASK);
+        q[j] = (int) Long.divideUnsigned(current, divisor);
+        k = Long.remainderUnsigned(current, divisor);
+      }
+      r[0] = (int) k;
+      return;
+    }
+
+    int s = Integer.numberOfLeadingZeros(v[n - 1]);
+    int[] vn = new int[n];
+    for (int i = n - 1; i > 0; i--) {
+      vn[i] = (v[i] << s) | (s == 0 ? 0 : v[i - 1] >>> (32 - s));
+    }
+    vn[0] = v[0] << s;
+    int[] un = new int[m + 1];
+    un[m] = s == 0 ? 0 : u[m - 1] >>> (32 - s);
+    for (int i = m - 1; i > 0; i--) {
+      un[i] = (u[i] << s) | (s == 0 ? 0 : u[i - 1] >>> (32 - s));
+    }
+    un[0] = u[0] << s;
+
+    long base = 1L << 32;
+    long vTop = vn[n - 1] & INT_MASK;
+    long vNext = vn[n - 2] & INT_MASK;
+    for (int j = m - n; j >= 0; j--) {
+      long numerator = ((un[j + n] & INT_MASK) << 32) | (un[j + n - 1] & INT_MASK);
+      long qhat = Long.divideUnsigned(numerator, vTop);
+      long rhat = Long.remainderUnsigned(numerator, vTop);
+      while (qhat >= base || Long.compareUnsigned(qhat * vNext,
+          (rhat << 32) | (un[j + n - 2] & INT_MASK)) > 0) {
+        qhat--;
+        rhat += vTop;
+        if (rhat >= base) {
+          break;
+        }
+      }
+
+      // multiply and subtract
+      long borrow = 0;
+      long t;
+      for (int i = 0; i < n; i++) {
+        long p = qhat * (vn[i] & INT_MASK);
+        t = (un[i + j] & INT_MASK) - borrow - (p & INT_MASK);
+        un[i + j] = (int) t;
+        borrow = (p >>> 32) - (t >> 32);
+      }
+      t = (un[j + n] & INT_MASK) - borrow;
+      un[j + n] = (int) t;
+
+      q[j] = (int) qhat;
+      if (t < 0) {
+        // add back
+        q[j]--;
+        long carry = 0;
+        for (int i = 0; i < n; i++) {
+          t = (un[i + j] & INT_MASK) + (vn[i] & INT_MASK) + carry;
+          un[i + j] = (int) t;
+          carry = t >>> 32;
+        }
+        un[j + n] += (int) carry;
+      }
+    }
+
+    for (int i = 0; i < n - 1; i++) {
+      r[i] = (un[i] >>> s) | (s == 0 ? 0 : un[i + 1] << (32 - s));
+    }
+    r[n - 1] = un[n - 1] >>> s;
+  }
+
+  private static int significantDigits(byte[] data) {
+    for (int i = 0; i < WORD_SIZE; i++) {
+      if (data[i] != 0) {
+        return (WORD_SIZE - i + 3) / 4;
+      }
+    }
+    return 0;
+  }
+
+  private static int compareUnsigned(byte[] x, byte[] y) {
+    for (int off = 0; off < WORD_SIZE; off += 8) {
+      int c = Long.compareUnsigned(getLong(x, off), getLong(y, off));
+      if (c != 0) {
+        return c;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Two's complement negation in place.
+   */
+  private static byte[] negate(byte[] x) {
+    long carry = 1;
+    for (int off = WORD_SIZE - 8; off >= 0; off -= 8) {
+      long r = ~getLong(x, off) + carry;
+      carry = (carry == 1 && r == 0) ? 1 : 0;
+      putLong(x, off, r);
+    }
+    return x;
+  }
+
+  private static int bitLength(byte[] data) {
+    for (int i = 0; i < WORD_SIZE; i++) {
+      if (data[i] != 0) {
+        return (WORD_SIZE - i) * 8 - Integer.numberOfLeadingZeros(data[i] & 0xff) + 24;
+      }
+    }
+    return 0;
+  }
+
+  private static boolean testBit(byte[] data, int bit) {
+    return (data[WORD_SIZE - 1 - (bit >>> 3)] & (1 << (bit & 7))) != 0;
+  }
+
+  private static boolean isWord(byte[] data) {
+    return data.length == WORD_SIZE;
+  }
+
+  private static long getLong(byte[] data, int off) {
+    return ((data[off] & 0xffL) << 56)
+        | ((data[off + 1] & 0xffL) << 48)
+        | ((data[off + 2] & 0xffL) << 40)
+        | ((data[off + 3] & 0xffL) << 32)
+        | ((data[off + 4] & 0xffL) << 24)
+        | ((data[off + 5] & 0xffL) << 16)
+        | ((data[off + 6] & 0xffL) << 8)
+        | (data[off + 7] & 0xffL);
+  }
+
+  private static void putLong(byte[] data, int off, long value) {
+    data[off] = (byte) (value >>> 56);
+    data[off + 1] = (byte) (value >>> 48);
+    data[off + 2] = (byte) (value >>> 40);
+    data[off + 3] = (byte) (value >>> 32);
+    data[off + 4] = (byte) (value >>> 24);
+    data[off + 5] = (byte) (value >>> 16);
+    data[off + 6] = (byte) (value >>> 8);
+    data[off + 7] = (byte) value;
+  }
+
+  private static int getInt(byte[] data, int off) {
+    return ((data[off] & 0xff) << 24)
+        | ((data[off + 1] & 0xff) << 16)
+        | ((data[off + 2] & 0xff) << 8)
+        | (data[off + 3] & 0xff);
+  }
+
+  private static void putInt(byte[] data, int off, int value) {
+    data[off] = (byte) (value >>> 24);
+    data[off + 1] = (byte) (value >>> 16);
+    data[off + 2] = (byte) (value >>> 8);
+    data[off + 3] = (byte) value;
+  }
+}
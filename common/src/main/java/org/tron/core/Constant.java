@@ -72,6 +72,8 @@ public class Constant {
 
   public static final String VM_ESTIMATE_ENERGY_MAX_RETRY = "vm.estimateEnergyMaxRetry";
 
+  public static final String VM_CONTIGUOUS_MEMORY = "vm.contiguousMemory";
+
   public static final String ROCKSDB = "ROCKSDB";
 
   public static final String GENESIS_BLOCK = "genesis.block";
@@ -370,6 +372,11 @@ public class Constant {
   public static final String DYNAMIC_CONFIG_ENABLE = "node.dynamicConfig.enable";
   public static final String DYNAMIC_CONFIG_CHECK_INTERVAL = "node.dynamicConfig.checkInterval";
 
+  public static final String BLOCK_PROFILER_ENABLE = "node.blockProfiler.enable";
+  public static final String BLOCK_PROFILER_BLOCKS = "node.blockProfiler.blocks";
+
+  public static final String REUSE_EXECUTION = "node.reuseExecution";
+
   public static final String COMMITTEE_ALLOW_TVM_SHANGHAI = "committee.allowTvmShangHai";
 
   public static final String UNSOLIDIFIED_BLOCK_CHECK = "node.unsolidifiedBlockCheck";
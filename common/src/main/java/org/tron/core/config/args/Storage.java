@@ -53,9 +53,14 @@ public class Storage {
   private static final String INDEX_DIRECTORY_CONFIG_KEY = "storage.index.directory";
   private static final String INDEX_SWITCH_CONFIG_KEY = "storage.index.switch";
   private static final String TRANSACTIONHISTORY_SWITCH_CONFIG_KEY = "storage.transHistory.switch";
+  private static final String TRANSACTIONHISTORY_INDEX_CONFIG_KEY = "storage.transHistory.index";
+  private static final String VOTES_INCREMENTAL_CONFIG_KEY = "storage.votes.incremental";
+  private static final String METRICS_ENABLE_CONFIG_KEY = "storage.metrics.enable";
   private static final String ESTIMATED_TRANSACTIONS_CONFIG_KEY =
       "storage.txCache.estimatedTransactions";
   private static final String SNAPSHOT_MAX_FLUSH_COUNT_CONFIG_KEY = "storage.snapshot.maxFlushCount";
+  private static final String SNAPSHOT_INDEX_CONFIG_KEY = "storage.snapshot.index";
+  private static final String SNAPSHOT_ASYNC_FLUSH_CONFIG_KEY = "storage.snapshot.asyncFlush";
   private static final String PROPERTIES_CONFIG_KEY = "storage.properties";
   private static final String PROPERTIES_CONFIG_DB_KEY = "storage";
   private static final String PROPERTIES_CONFIG_DEFAULT_KEY = "default";
@@ -80,6 +85,7 @@ public class Storage {
 
   private static final String CACHE_STRATEGIES = "storage.cache.strategies";
   public static final String TX_CACHE_INIT_OPTIMIZATION = "storage.txCache.initOptimization";
+  private static final String TX_CACHE_EXACT = "storage.txCache.exact";
 
   private static final String MERKLE_ROOT = "storage.merkleRoot";
 
@@ -117,6 +123,14 @@ public class Storage {
   @Setter
   private int maxFlushCount;
 
+  @Getter
+  @Setter
+  private boolean snapshotIndex;
+
+  @Getter
+  @Setter
+  private boolean snapshotAsyncFlush;
+
   /**
    * Index storage directory: /path/to/{indexDirectory}
    */
@@ -136,6 +150,18 @@ public class Storage {
   @Setter
   private String transactionHistorySwitch;
 
+  @Getter
+  @Setter
+  private boolean transactionHistoryIndex;
+
+  @Getter
+  @Setter
+  private boolean votesIncremental;
+
+  @Getter
+  @Setter
+  private boolean metricsEnable;
+
   @Getter
   @Setter
   private int checkpointVersion;
@@ -154,6 +180,10 @@ public class Storage {
   @Setter
   private boolean txCacheInitOptimization = false;
 
+  @Getter
+  @Setter
+  private boolean txCacheExact;
+
   // second cache
   private final Map<CacheType, String> cacheStrategies = Maps.newConcurrentMap();
 
@@ -222,6 +252,21 @@ public class Storage {
         : DEFAULT_TRANSACTIONHISTORY_SWITCH;
   }
 
+  public static boolean getTransactionHistoryIndexFromConfig(final Config config) {
+    return config.hasPath(TRANSACTIONHISTORY_INDEX_CONFIG_KEY)
+        && config.getBoolean(TRANSACTIONHISTORY_INDEX_CONFIG_KEY);
+  }
+
+  public static boolean getVotesIncrementalFromConfig(final Config config) {
+    return config.hasPath(VOTES_INCREMENTAL_CONFIG_KEY)
+        && config.getBoolean(VOTES_INCREMENTAL_CONFIG_KEY);
+  }
+
+  public static boolean getMetricsEnableFromConfig(final Config config) {
+    return config.hasPath(METRICS_ENABLE_CONFIG_KEY)
+        && config.getBoolean(METRICS_ENABLE_CONFIG_KEY);
+  }
+
   public static int getCheckpointVersionFromConfig(final Config config) {
     return config.hasPath(CHECKPOINT_VERSION_KEY)
         ? config.getInt(CHECKPOINT_VERSION_KEY)
@@ -247,11 +292,25 @@ public class Storage {
     return estimatedTransactions;
   }
 
+  public static boolean getSnapshotIndexFromConfig(final Config config) {
+    return config.hasPath(SNAPSHOT_INDEX_CONFIG_KEY)
+        && config.getBoolean(SNAPSHOT_INDEX_CONFIG_KEY);
+  }
+
+  public static boolean getSnapshotAsyncFlushFromConfig(final Config config) {
+    return config.hasPath(SNAPSHOT_ASYNC_FLUSH_CONFIG_KEY)
+        && config.getBoolean(SNAPSHOT_ASYNC_FLUSH_CONFIG_KEY);
+  }
+
   public static boolean getTxCacheInitOptimizationFromConfig(final Config config) {
     return config.hasPath(TX_CACHE_INIT_OPTIMIZATION)
         && config.getBoolean(TX_CACHE_INIT_OPTIMIZATION);
   }
 
+  public static boolean getTxCacheExactFromConfig(final Config config) {
+    return config.hasPath(TX_CACHE_EXACT) && config.getBoolean(TX_CACHE_EXACT);
+  }
+
 
   public  void setCacheStrategies(Config config) {
     if (config.hasPath(CACHE_STRATEGIES)) {
@@ -10,6 +10,7 @@ import org.tron.core.capsule.WitnessCapsule;
 import org.tron.core.store.AccountStore;
 import org.tron.core.store.DelegationStore;
 import org.tron.core.store.DynamicPropertiesStore;
+import org.tron.core.store.VotesDeltaStore;
 import org.tron.core.store.VotesStore;
 import org.tron.core.store.WitnessScheduleStore;
 import org.tron.core.store.WitnessStore;
@@ -36,6 +37,9 @@ public class ConsensusDelegate {
   @Autowired
   private VotesStore votesStore;
 
+  @Autowired
+  private VotesDeltaStore votesDeltaStore;
+
   public DynamicPropertiesStore getDynamicPropertiesStore() {
     return dynamicPropertiesStore;
   }
@@ -48,6 +52,10 @@ public class ConsensusDelegate {
     return votesStore;
   }
 
+  public VotesDeltaStore getVotesDeltaStore() {
+    return votesDeltaStore;
+  }
+
   public int calculateFilledSlotsCount() {
     return dynamicPropertiesStore.calculateFilledSlotsCount();
   }
@@ -16,6 +16,7 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.bouncycastle.util.encoders.Hex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.tron.common.parameter.CommonParameter;
 import org.tron.consensus.ConsensusDelegate;
 import org.tron.consensus.pbft.PbftManager;
 import org.tron.core.capsule.AccountCapsule;
@@ -24,6 +25,7 @@ import org.tron.core.capsule.VotesCapsule;
 import org.tron.core.capsule.WitnessCapsule;
 import org.tron.core.store.DelegationStore;
 import org.tron.core.store.DynamicPropertiesStore;
+import org.tron.core.store.VotesDeltaStore;
 import org.tron.core.store.VotesStore;
 
 @Slf4j(topic = "consensus")
@@ -99,7 +101,7 @@ public class MaintenanceManager {
       });
     }
 
-    Map<ByteString, Long> countWitness = countVote(votesStore);
+    Map<ByteString, Long> countWitness = tallyVote(votesStore);
     if (!countWitness.isEmpty()) {
       List<ByteString> currentWits = consensusDelegate.getActiveWitnesses();
 
@@ -159,6 +161,41 @@ public class MaintenanceManager {
     }
   }
 
+  /**
+   * Takes the vote changes of the period from VotesDeltaStore when it is enabled, and scans
+   * VotesStore otherwise. The store is enabled and disabled here, following
+   * storage.votes.incremental, so that a period is always counted by one way only. Either way
+   * the entries of the period are deleted, so VotesStore only ever holds the current period.
+   */
+  private Map<ByteString, Long> tallyVote(VotesStore votesStore) {
+    VotesDeltaStore votesDeltaStore = consensusDelegate.getVotesDeltaStore();
+    boolean incremental = CommonParameter.getInstance().getStorage().isVotesIncremental();
+    // the cached epoch may be the one of a revoked maintenance
+    long epoch = votesDeltaStore.loadEpoch();
+    if (epoch == 0 || !incremental) {
+      if (epoch > 0) {
+        votesDeltaStore.setEpoch(0);
+      }
+      Map<ByteString, Long> countWitness = countVote(votesStore);
+      if (epoch > 0 || incremental) {
+        // the tally is not used, it may hold what a revoked maintenance left
+        votesDeltaStore.drain(new ArrayList<>());
+      }
+      if (incremental) {
+        votesDeltaStore.setEpoch(1);
+      }
+      return countWitness;
+    }
+
+    List<byte[]> voters = new ArrayList<>();
+    Map<ByteString, Long> countWitness = votesDeltaStore.drain(voters);
+    logger.info("There are {} voted witnesses and {} new votes in this epoch",
+        countWitness.size(), voters.size());
+    votesDeltaStore.setEpoch(epoch + 1);
+    votesStore.prune(voters);
+    return countWitness;
+  }
+
   private Map<ByteString, Long> countVote(VotesStore votesStore) {
     final Map<ByteString, Long> countWitness = Maps.newHashMap();
     Iterator<Entry<byte[], VotesCapsule>> dbIterator = votesStore.iterator();
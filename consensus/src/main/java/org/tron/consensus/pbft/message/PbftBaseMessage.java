@@ -31,7 +31,7 @@ public abstract class PbftBaseMessage extends Message {
     super(type, data);
     this.pbftMessage = PBFTMessage.parseFrom(getCodedInputStream(data));
     if (isFilter()) {
-      compareBytes(data, pbftMessage.toByteArray());
+      compareBytes(data, pbftMessage);
     }
   }
 
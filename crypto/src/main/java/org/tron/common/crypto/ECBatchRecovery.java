@@ -0,0 +1,139 @@
+package org.tron.common.crypto;
+
+import java.math.BigInteger;
+import org.bouncycastle.math.ec.ECAlgorithms;
+import org.bouncycastle.math.ec.ECPoint;
+
+/**
+ * Recovers the signer addresses of many secp256k1 signatures at once.
+ *
+ * <p>The result of every signature is the address {@link ECKey#signatureToAddress} computes.
+ * The work shared by a batch is done once:
+ * <ul>
+ *   <li>the inverses of all r values modulo n take one modular inversion
+ *   (Montgomery's trick);</li>
+ *   <li>the recovered points are converted to affine coordinates together, with one field
+ *   inversion for the whole batch;</li>
+ *   <li>the wNAF table of the generator is computed once and shared by every
+ *   multiplication.</li>
+ * </ul>
+ * The nR == infinity check of {@link ECKey#recoverPubBytesFromSignature} is skipped, because
+ * secp256k1 has cofactor 1 and every point on the curve has order n.
+ *
+ * <p>An entry that cannot be recovered is left null. Callers recover it again through
+ * {@link SignUtils#signatureToAddress} to get the error. Calls share no state, so large
+ * batches can be split and recovered on several threads.
+ */
+public class ECBatchRecovery {
+
+  private static final BigInteger N = ECKey.CURVE.getN();
+  private static final BigInteger P = ECKey.CURVE.getCurve().getField().getCharacteristic();
+
+  private ECBatchRecovery() {
+  }
+
+  /**
+   * @param hashes 32-byte message hashes
+   * @param signatures 65-byte signatures, r || s || v with v in 0..3 or 27..34
+   * @return the 20-byte signer address of each signature, null when it is invalid
+   */
+  public static byte[][] recoverAddresses(byte[][] hashes, byte[][] signatures) {
+    int size = hashes.length;
+    byte[][] addresses = new byte[size][];
+    BigInteger[] r = new BigInteger[size];
+    BigInteger[] s = new BigInteger[size];
+    ECPoint[] points = new ECPoint[size];
+
+    // indexes of the signatures that parse, the rest stays null
+    int[] index = new int[size];
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      if (parse(hashes[i], signatures[i], i, r, s, points)) {
+        index[count++] = i;
+      }
+    }
+    if (count == 0) {
+      return addresses;
+    }
+
+    BigInteger[] rInv = new BigInteger[count];
+    for (int k = 0; k < count; k++) {
+      rInv[k] = r[index[k]];
+    }
+    invertAll(rInv);
+
+    ECPoint[] q = new ECPoint[count];
+    for (int k = 0; k < count; k++) {
+      int i = index[k];
+      BigInteger e = new BigInteger(1, hashes[i]);
+      BigInteger eInv = BigInteger.ZERO.subtract(e).mod(N);
+      BigInteger srInv = rInv[k].multiply(s[i]).mod(N);
+      BigInteger eInvrInv = rInv[k].multiply(eInv).mod(N);
+      q[k] = ECAlgorithms.sumOfTwoMultiplies(ECKey.CURVE.getG(), eInvrInv, points[i], srInv);
+    }
+
+    ECKey.CURVE.getCurve().normalizeAll(q);
+    for (int k = 0; k < count; k++) {
+      addresses[index[k]] = Hash.computeAddress(q[k].getEncoded(false));
+    }
+    return addresses;
+  }
+
+  private static boolean parse(byte[] hash, byte[] signature, int i, BigInteger[] r,
+      BigInteger[] s, ECPoint[] points) {
+    if (hash == null || hash.length != 32 || signature == null || signature.length < 65) {
+      return false;
+    }
+    int header = signature[64];
+    if (header < 27) {
+      header += 27;
+    }
+    if (header < 27 || header > 34) {
+      return false;
+    }
+    if (header >= 31) {
+      header -= 4;
+    }
+    int recId = header - 27;
+
+    r[i] = new BigInteger(1, copyOfRange(signature, 0, 32));
+    s[i] = new BigInteger(1, copyOfRange(signature, 32, 64));
+    BigInteger x = r[i].add(BigInteger.valueOf((long) recId / 2).multiply(N));
+    if (x.compareTo(P) >= 0 || r[i].mod(N).signum() == 0) {
+      return false;
+    }
+    try {
+      points[i] = ECKey.decompressKey(x, (recId & 1) == 1);
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Replaces every value by its inverse modulo n, with a single modular inversion.
+   */
+  private static void invertAll(BigInteger[] values) {
+    int size = values.length;
+    BigInteger[] prefix = new BigInteger[size];
+    BigInteger product = BigInteger.ONE;
+    for (int i = 0; i < size; i++) {
+      product = product.multiply(values[i]).mod(N);
+      prefix[i] = product;
+    }
+
+    BigInteger inverse = product.modInverse(N);
+    for (int i = size - 1; i > 0; i--) {
+      BigInteger value = values[i];
+      values[i] = inverse.multiply(prefix[i - 1]).mod(N);
+      inverse = inverse.multiply(value).mod(N);
+    }
+    values[0] = inverse;
+  }
+
+  private static byte[] copyOfRange(byte[] bytes, int from, int to) {
+    byte[] result = new byte[to - from];
+    System.arraycopy(bytes, from, result, 0, result.length);
+    return result;
+  }
+}
@@ -628,7 +628,7 @@ public class ECKey implements Serializable, SignInterface {
    * @return -
    */
 
-  private static ECPoint decompressKey(BigInteger xBN, boolean yBit) {
+  static ECPoint decompressKey(BigInteger xBN, boolean yBit) {
     X9IntegerConverter x9 = new X9IntegerConverter();
     byte[] compEnc = x9.integerToBytes(xBN, 1 + x9.getByteLength(CURVE
         .getCurve()));
@@ -170,6 +170,7 @@ public class Args extends CommonParameter {
     PARAMETER.walletExtensionApi = false;
     PARAMETER.estimateEnergy = false;
     PARAMETER.estimateEnergyMaxRetry = 3;
+    PARAMETER.vmContiguousMemory = false;
     PARAMETER.receiveTcpMinDataLength = 2048;
     PARAMETER.isOpenFullTcpDisconnect = false;
     PARAMETER.nodeDetectEnable = false;
@@ -228,6 +229,9 @@ public class Args extends CommonParameter {
     PARAMETER.p2pDisable = false;
     PARAMETER.dynamicConfigEnable = false;
     PARAMETER.dynamicConfigCheckInterval = 600;
+    PARAMETER.blockProfilerEnable = false;
+    PARAMETER.blockProfilerBlocks = 100;
+    PARAMETER.reuseExecution = false;
     PARAMETER.allowTvmShangHai = 0;
     PARAMETER.unsolidifiedBlockCheck = false;
     PARAMETER.maxUnsolidifiedBlocks = 54;
@@ -515,6 +519,10 @@ public class Args extends CommonParameter {
             Optional.ofNullable(PARAMETER.storageTransactionHistorySwitch)
                 .filter(StringUtils::isNotEmpty)
                 .orElse(Storage.getTransactionHistorySwitchFromConfig(config)));
+    PARAMETER.storage.setTransactionHistoryIndex(
+        Storage.getTransactionHistoryIndexFromConfig(config));
+    PARAMETER.storage.setVotesIncremental(Storage.getVotesIncrementalFromConfig(config));
+    PARAMETER.storage.setMetricsEnable(Storage.getMetricsEnableFromConfig(config));
 
     PARAMETER.storage
         .setCheckpointVersion(Storage.getCheckpointVersionFromConfig(config));
@@ -525,7 +533,10 @@ public class Args extends CommonParameter {
         Storage.getEstimatedTransactionsFromConfig(config));
     PARAMETER.storage.setTxCacheInitOptimization(
         Storage.getTxCacheInitOptimizationFromConfig(config));
+    PARAMETER.storage.setTxCacheExact(Storage.getTxCacheExactFromConfig(config));
     PARAMETER.storage.setMaxFlushCount(Storage.getSnapshotMaxFlushCountFromConfig(config));
+    PARAMETER.storage.setSnapshotIndex(Storage.getSnapshotIndexFromConfig(config));
+    PARAMETER.storage.setSnapshotAsyncFlush(Storage.getSnapshotAsyncFlushFromConfig(config));
 
     PARAMETER.storage.setDefaultDbOptions(config);
     PARAMETER.storage.setPropertyMapFromConfig(config);
@@ -874,6 +885,10 @@ public class Args extends CommonParameter {
     PARAMETER.vmTrace =
         config.hasPath(Constant.VM_TRACE) && config.getBoolean(Constant.VM_TRACE);
 
+    PARAMETER.vmContiguousMemory =
+        config.hasPath(Constant.VM_CONTIGUOUS_MEMORY)
+            && config.getBoolean(Constant.VM_CONTIGUOUS_MEMORY);
+
     PARAMETER.saveInternalTx =
         config.hasPath(Constant.VM_SAVE_INTERNAL_TX)
             && config.getBoolean(Constant.VM_SAVE_INTERNAL_TX);
@@ -1181,6 +1196,14 @@ public class Args extends CommonParameter {
       PARAMETER.dynamicConfigCheckInterval = 600;
     }
 
+    PARAMETER.blockProfilerEnable = getBlockProfilerEnable(config);
+    if (config.hasPath(Constant.BLOCK_PROFILER_BLOCKS)) {
+      PARAMETER.blockProfilerBlocks = config.getInt(Constant.BLOCK_PROFILER_BLOCKS);
+    }
+
+    PARAMETER.reuseExecution = config.hasPath(Constant.REUSE_EXECUTION)
+        && config.getBoolean(Constant.REUSE_EXECUTION);
+
     PARAMETER.allowTvmShangHai =
         config.hasPath(Constant.COMMITTEE_ALLOW_TVM_SHANGHAI) ? config
             .getInt(Constant.COMMITTEE_ALLOW_TVM_SHANGHAI) : 0;
@@ -1297,6 +1320,11 @@ public class Args extends CommonParameter {
     return ret;
   }
 
+  public static boolean getBlockProfilerEnable(final com.typesafe.config.Config config) {
+    return config.hasPath(Constant.BLOCK_PROFILER_ENABLE)
+        && config.getBoolean(Constant.BLOCK_PROFILER_ENABLE);
+  }
+
   private static EventPluginConfig getEventPluginConfig(
           final com.typesafe.config.Config config) {
     EventPluginConfig eventPluginConfig = new EventPluginConfig();
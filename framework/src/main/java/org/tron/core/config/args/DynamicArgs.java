@@ -15,6 +15,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.tron.common.es.ExecutorServiceManager;
 import org.tron.common.parameter.CommonParameter;
+import org.tron.common.profiler.BlockProfiler;
+import org.tron.common.storage.metric.DbMetrics;
 import org.tron.core.Constant;
 import org.tron.core.config.Configuration;
 import org.tron.core.net.TronNetService;
@@ -86,6 +88,10 @@ public class DynamicArgs {
     updateActiveNodes(config);
 
     updateTrustNodes(config);
+
+    updateDbMetrics(config);
+
+    updateBlockProfiler(config);
   }
 
   private void updateActiveNodes(Config config) {
@@ -111,6 +117,20 @@ public class DynamicArgs {
         TronNetService.getP2pConfig().getTrustNodes().toString());
   }
 
+  private void updateDbMetrics(Config config) {
+    boolean enable = Storage.getMetricsEnableFromConfig(config);
+    parameter.getStorage().setMetricsEnable(enable);
+    DbMetrics.setEnabled(enable);
+    logger.debug("db metrics : {}", enable);
+  }
+
+  private void updateBlockProfiler(Config config) {
+    boolean enable = Args.getBlockProfilerEnable(config);
+    parameter.setBlockProfilerEnable(enable);
+    BlockProfiler.setEnabled(enable);
+    logger.debug("block profiler : {}", enable);
+  }
+
   @PreDestroy
   public void close() {
     ExecutorServiceManager.shutdownAndAwaitTermination(reloadExecutor, esName);
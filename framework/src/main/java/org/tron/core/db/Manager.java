@@ -15,7 +15,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -31,10 +30,8 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
 import lombok.Getter;
@@ -65,6 +62,8 @@ import org.tron.common.logsfilter.trigger.ContractTrigger;
 import org.tron.common.logsfilter.trigger.Trigger;
 import org.tron.common.overlay.message.Message;
 import org.tron.common.parameter.CommonParameter;
+import org.tron.common.profiler.BlockProfile;
+import org.tron.common.profiler.BlockProfiler;
 import org.tron.common.prometheus.MetricKeys;
 import org.tron.common.prometheus.MetricLabels;
 import org.tron.common.prometheus.Metrics;
@@ -87,10 +86,12 @@ import org.tron.core.capsule.BlockBalanceTraceCapsule;
 import org.tron.core.capsule.BlockCapsule;
 import org.tron.core.capsule.BlockCapsule.BlockId;
 import org.tron.core.capsule.BytesCapsule;
+import org.tron.core.capsule.ContractCapsule;
 import org.tron.core.capsule.TransactionCapsule;
 import org.tron.core.capsule.TransactionInfoCapsule;
 import org.tron.core.capsule.TransactionRetCapsule;
 import org.tron.core.capsule.WitnessCapsule;
+import org.tron.core.capsule.utils.TransactionMerkleRoot;
 import org.tron.core.capsule.utils.TransactionUtil;
 import org.tron.core.config.Parameter.ChainConstant;
 import org.tron.core.config.args.Args;
@@ -104,6 +105,7 @@ import org.tron.core.db.api.EnergyPriceHistoryLoader;
 import org.tron.core.db.api.MoveAbiHelper;
 import org.tron.core.db2.ISession;
 import org.tron.core.db2.core.Chainbase;
+import org.tron.core.db2.core.ReadWriteSet;
 import org.tron.core.db2.core.SnapshotManager;
 import org.tron.core.exception.AccountResourceInsufficientException;
 import org.tron.core.exception.BadBlockException;
@@ -160,8 +162,10 @@ import org.tron.protos.Protocol.AccountType;
 import org.tron.protos.Protocol.Permission;
 import org.tron.protos.Protocol.Transaction;
 import org.tron.protos.Protocol.Transaction.Contract;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
 import org.tron.protos.Protocol.TransactionInfo;
 import org.tron.protos.contract.BalanceContract;
+import org.tron.protos.contract.SmartContractOuterClass.TriggerSmartContract;
 
 
 @Slf4j(topic = "DB")
@@ -228,14 +232,14 @@ public class Manager {
   @Getter
   private ChainBaseManager chainBaseManager;
   // transactions cache
-  private BlockingQueue<TransactionCapsule> pendingTransactions;
+  private TransactionPool pendingTransactions;
   @Getter
   private AtomicInteger shieldedTransInPendingCounts = new AtomicInteger(0);
   // transactions popped
   private List<TransactionCapsule> poppedTransactions =
       Collections.synchronizedList(Lists.newArrayList());
-  // the capacity is equal to Integer.MAX_VALUE default
-  private BlockingQueue<TransactionCapsule> rePushTransactions;
+  // the capacity is equal to Integer.MAX_VALUE default, maxTransactionPendingSize if sorted
+  private TransactionPool rePushTransactions;
   private BlockingQueue<TriggerCapsule> triggerCapsuleQueue;
   // log filter
   private boolean isRunFilterProcessThread = true;
@@ -330,9 +334,6 @@ public class Manager {
         }
       };
 
-  private Comparator downComparator = (Comparator<TransactionCapsule>) (o1, o2) -> Long
-      .compare(o2.getOrder(), o1.getOrder());
-
   public WitnessStore getWitnessStore() {
     return chainBaseManager.getWitnessStore();
   }
@@ -426,7 +427,7 @@ public class Manager {
     return chainBaseManager.getBlockIndexStore();
   }
 
-  public BlockingQueue<TransactionCapsule> getPendingTransactions() {
+  public TransactionPool getPendingTransactions() {
     return this.pendingTransactions;
   }
 
@@ -434,7 +435,7 @@ public class Manager {
     return this.poppedTransactions;
   }
 
-  public BlockingQueue<TransactionCapsule> getRePushTransactions() {
+  public TransactionPool getRePushTransactions() {
     return rePushTransactions;
   }
 
@@ -474,13 +475,15 @@ public class Manager {
     this.setMerkleContainer(
         merkleContainer.createInstance(chainBaseManager.getMerkleTreeStore(),
             chainBaseManager.getMerkleTreeIndexStore()));
-    if (Args.getInstance().isOpenTransactionSort()) {
-      this.pendingTransactions = new PriorityBlockingQueue(2000, downComparator);
-      this.rePushTransactions = new PriorityBlockingQueue<>(2000, downComparator);
-    } else {
-      this.pendingTransactions = new LinkedBlockingQueue<>();
-      this.rePushTransactions = new LinkedBlockingQueue<>();
-    }
+    // the pending transactions ran on the pending session, evicting one would leave its writes
+    // there, so the pending pool does not evict and is bounded by isTooManyPending. Sorted, the
+    // re-push pool, run again as it is re-pushed, evicts its lowest paying transactions for
+    // higher paying ones when full.
+    boolean isSort = Args.getInstance().isOpenTransactionSort();
+    this.pendingTransactions = new TransactionPool(MetricLabels.Gauge.QUEUE_PENDING,
+        Integer.MAX_VALUE, isSort);
+    this.rePushTransactions = new TransactionPool(MetricLabels.Gauge.QUEUE_REPUSH,
+        isSort ? Math.max(1, maxTransactionPendingSize) : Integer.MAX_VALUE, isSort);
     this.triggerCapsuleQueue = new LinkedBlockingQueue<>();
     this.filterCapsuleQueue = new LinkedBlockingQueue<>();
     chainBaseManager.setMerkleContainer(getMerkleContainer());
@@ -821,9 +824,14 @@ public class Manager {
 
 
   private boolean containsTransaction(byte[] transactionId) {
-    if (transactionCache != null && !transactionCache.has(transactionId)) {
-      // using the bloom filter only determines non-existent transaction
-      return false;
+    if (transactionCache != null) {
+      if (!transactionCache.has(transactionId)) {
+        // using the bloom filter only determines non-existent transaction
+        return false;
+      }
+      if (transactionCache.isExact()) {
+        return true;
+      }
     }
 
     return chainBaseManager.getTransactionStore()
@@ -877,10 +885,22 @@ public class Manager {
           }
 
           try (ISession tmpSession = revokingStore.buildSession()) {
-            processTransaction(trx, null);
+            ReadWriteSet readWriteSet = isReusable(trx) ? ReadWriteSet.record() : null;
+            try {
+              processTransaction(trx, null);
+            } finally {
+              if (readWriteSet != null) {
+                ReadWriteSet.stop();
+              }
+            }
+            trx.setReadWriteSet(readWriteSet != null && readWriteSet.isReplayable()
+                ? readWriteSet : null);
             trx.setTrxTrace(null);
-            pendingTransactions.add(trx);
-            Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, 1,
+            if (!pendingTransactions.offer(trx)) {
+              // pending already
+              return false;
+            }
+            Metrics.gaugeSet(MetricKeys.Gauge.MANAGER_QUEUE, pendingTransactions.size(),
                     MetricLabels.Gauge.QUEUE_PENDING);
             tmpSession.merge();
           }
@@ -1312,8 +1332,17 @@ public class Manager {
               long oldSolidNum =
                       chainBaseManager.getDynamicPropertiesStore().getLatestSolidifiedBlockNum();
 
-              applyBlock(newBlock, txs);
-              tmpSession.commit();
+              // blocks applied by a fork switch are not profiled
+              BlockProfile profile = BlockProfiler.begin(newBlock.getNum(),
+                  newBlock.getTransactions().size());
+              try {
+                applyBlock(newBlock, txs);
+                long commit = BlockProfiler.time();
+                tmpSession.commit();
+                BlockProfiler.phase(BlockProfiler.SNAPSHOT, commit);
+              } finally {
+                BlockProfiler.end(profile);
+              }
               // if event subscribe is enabled, post block trigger to queue
               postBlockTrigger(newBlock);
               // if event subscribe is enabled, post solidity trigger to queue
@@ -1422,8 +1451,12 @@ public class Manager {
 
     if (Objects.nonNull(blockCap)) {
       chainBaseManager.getBalanceTraceStore().initCurrentTransactionBalanceTrace(trxCap);
+      if (BlockProfiler.current() != null) {
+        BlockProfiler.beginTransaction(txId.toString(), profiledContract(trxCap, contract));
+      }
     }
 
+    long phase = BlockProfiler.time();
     validateTapos(trxCap);
     validateCommon(trxCap);
 
@@ -1441,15 +1474,19 @@ public class Manager {
       throw new ValidateSignatureException(
           String.format(" %s transaction signature validate failed", txId));
     }
+    BlockProfiler.phase(BlockProfiler.VALIDATE, phase);
 
     TransactionTrace trace = new TransactionTrace(trxCap, StoreFactory.getInstance(),
         new RuntimeImpl());
     trxCap.setTrxTrace(trace);
 
+    phase = BlockProfiler.time();
     consumeBandwidth(trxCap, trace);
     consumeMultiSignFee(trxCap, trace);
     consumeMemoFee(trxCap, trace);
+    BlockProfiler.phase(BlockProfiler.BANDWIDTH, phase);
 
+    phase = BlockProfiler.time();
     trace.init(blockCap, eventPluginLoaded);
     trace.checkIsConstant();
     trace.exec();
@@ -1468,8 +1505,12 @@ public class Manager {
         trace.check();
       }
     }
+    BlockProfiler.phase(isContractCall(contract) ? BlockProfiler.VM : BlockProfiler.ACTUATOR,
+        phase);
 
+    phase = BlockProfiler.time();
     trace.finalization();
+    BlockProfiler.phase(BlockProfiler.ENERGY, phase);
     if (getDynamicPropertiesStore().supportVM()) {
       trxCap.setResult(trace.getTransactionContext());
     }
@@ -1514,10 +1555,32 @@ public class Manager {
       logger.info("Process transaction {} cost {} ms during {}, {}",
              Hex.toHexString(transactionInfo.getId()), cost, type, contract.getType().name());
     }
+    if (Objects.nonNull(blockCap)) {
+      BlockProfiler.endTransaction();
+    }
     Metrics.histogramObserve(requestTimer);
     return transactionInfo.getInstance();
   }
 
+  private static boolean isContractCall(Contract contract) {
+    return contract.getType() == ContractType.TriggerSmartContract
+        || contract.getType() == ContractType.CreateSmartContract;
+  }
+
+  /**
+   * The called contract of a TriggerSmartContract, the contract type otherwise.
+   */
+  private static String profiledContract(TransactionCapsule trxCap, Contract contract) {
+    if (contract.getType() == ContractType.TriggerSmartContract) {
+      TriggerSmartContract trigger = ContractCapsule
+          .getTriggerContractFromTransaction(trxCap.getInstance());
+      if (trigger != null) {
+        return StringUtil.encode58Check(trigger.getContractAddress().toByteArray());
+      }
+    }
+    return contract.getType().name();
+  }
+
   /**
    * Generate a block.
    */
@@ -1552,6 +1615,8 @@ public class Manager {
     Set<String> accountSet = new HashSet<>();
     AtomicInteger shieldedTransCounts = new AtomicInteger(0);
     List<TransactionCapsule> toBePacked = new ArrayList<>();
+    // the merkle root of toBePacked, built as transactions are packed
+    TransactionMerkleRoot.Appender merkleRoot = new TransactionMerkleRoot.Appender();
     long currentSize = blockCapsule.getInstance().getSerializedSize();
     boolean isSort = Args.getInstance().isOpenTransactionSort();
     while (pendingTransactions.size() > 0 || rePushTransactions.size() > 0) {
@@ -1559,17 +1624,18 @@ public class Manager {
       TransactionCapsule trx;
       if (pendingTransactions.size() > 0) {
         trx = pendingTransactions.peek();
-        if (isSort) {
-          TransactionCapsule trxRepush = rePushTransactions.peek();
-          if (trxRepush == null || trx.getOrder() >= trxRepush.getOrder()) {
-            fromPending = true;
-          } else {
-            trx = rePushTransactions.poll();
-            Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, -1,
-                MetricLabels.Gauge.QUEUE_REPUSH);
-          }
-        } else {
+        TransactionCapsule trxRepush = rePushTransactions.peek();
+        // the re-push pool holds transactions pushed before the pending ones, so a pending
+        // transaction waits until its owner has none left there
+        if (trxRepush == null
+            || !rePushTransactions.hasOwner(trx.getOwnerAddress())
+            && (!isSort
+            || TransactionPool.feeRate(trx) >= TransactionPool.feeRate(trxRepush))) {
           fromPending = true;
+        } else {
+          trx = rePushTransactions.poll();
+          Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, -1,
+              MetricLabels.Gauge.QUEUE_REPUSH);
         }
       } else {
         trx = rePushTransactions.poll();
@@ -1624,10 +1690,11 @@ public class Manager {
       // apply transaction
       try (ISession tmpSession = revokingStore.buildSession()) {
         accountStateCallBack.preExeTrans();
-        processTransaction(trx, blockCapsule);
+        packTransaction(trx, blockCapsule);
         accountStateCallBack.exeTransFinish();
         tmpSession.merge();
         toBePacked.add(trx);
+        merkleRoot.append(trx);
         currentSize += trxPackSize;
       } catch (Exception e) {
         logger.warn("Process trx {} failed when generating block {}, {}.", trx.getTransactionId(),
@@ -1639,7 +1706,7 @@ public class Manager {
 
     session.reset();
 
-    blockCapsule.setMerkleRoot();
+    blockCapsule.setMerkleRoot(merkleRoot);
     blockCapsule.sign(miner.getPrivateKey());
 
     BlockCapsule capsule = new BlockCapsule(blockCapsule.getInstance());
@@ -1653,6 +1720,47 @@ public class Manager {
     return capsule;
   }
 
+  /**
+   * Whether the state a transaction reads and writes when it is pushed can be applied for it
+   * when a block is produced: not for a smart contract, as it runs on the block, nor a shielded
+   * transaction, nor while accounts are traced outside of the state.
+   */
+  private boolean isReusable(TransactionCapsule trx) {
+    return Args.getInstance().isReuseExecution()
+        && !isContractCall(trx.getInstance().getRawData().getContract(0))
+        && !isShieldedTransaction(trx.getInstance())
+        && !CommonParameter.getInstance().isHistoryBalanceLookup()
+        && !getDynamicPropertiesStore().allowAccountStateRoot();
+  }
+
+  /**
+   * Applies the state a pending transaction wrote when it was pushed if the state it read then
+   * is unchanged, runs it otherwise.
+   */
+  private void packTransaction(TransactionCapsule trx, BlockCapsule blockCapsule)
+      throws ValidateSignatureException, ContractValidateException, ContractExeException,
+      AccountResourceInsufficientException, TransactionExpirationException,
+      TooBigTransactionException, TooBigTransactionResultException,
+      DupTransactionException, TaposException, ReceiptCheckErrException, VMIllegalException {
+    ReadWriteSet readWriteSet = trx.getReadWriteSet();
+    trx.setReadWriteSet(null);
+    if (readWriteSet != null && isReusable(trx)) {
+      // the signature is checked again, a cached check reads no permission
+      if (readWriteSet.isUnchanged() && trx.validateSignature(
+          chainBaseManager.getAccountStore(), chainBaseManager.getDynamicPropertiesStore())) {
+        readWriteSet.apply();
+        if (isMultiSignTransaction(trx.getInstance())) {
+          ownerAddressSet.add(ByteArray.toHexString(trx.getOwnerAddress()));
+        }
+        Metrics.counterInc(MetricKeys.Counter.PACKED_TXS, 1,
+            MetricLabels.Counter.PACKED_REUSED);
+        return;
+      }
+      Metrics.counterInc(MetricKeys.Counter.PACKED_TXS, 1, MetricLabels.Counter.PACKED_CHANGED);
+    }
+    processTransaction(trx, blockCapsule);
+  }
+
   private void filterOwnerAddress(TransactionCapsule transactionCapsule, Set<String> result) {
     byte[] owner = transactionCapsule.getOwnerAddress();
     String ownerAddress = ByteArray.toHexString(owner);
@@ -1721,16 +1829,19 @@ public class Manager {
     chainBaseManager.getDynamicPropertiesStore().saveBlockEnergyUsage(0);
     //parallel check sign
     if (!block.generatedByMyself) {
+      long sign = BlockProfiler.time();
       try {
         preValidateTransactionSign(txs);
       } catch (InterruptedException e) {
         logger.error("Parallel check sign interrupted exception! block info: {}.", block, e);
         Thread.currentThread().interrupt();
       }
+      BlockProfiler.phase(BlockProfiler.SIGN, sign);
     }
 
     TransactionRetCapsule transactionRetCapsule =
         new TransactionRetCapsule(block);
+    long transactions = BlockProfiler.time();
     try {
       merkleContainer.resetCurrentMerkleTree();
       accountStateCallBack.preExecute(block);
@@ -1753,6 +1864,7 @@ public class Manager {
     } finally {
       accountStateCallBack.exceptionFinish();
     }
+    BlockProfiler.phase(BlockProfiler.TRANSACTIONS, transactions);
     merkleContainer.saveCurrentMerkleTreeAsBestMerkleTree(block.getNum());
     block.setResult(transactionRetCapsule);
     if (getDynamicPropertiesStore().getAllowAdaptiveEnergy() == 1) {
@@ -1762,7 +1874,9 @@ public class Manager {
       energyProcessor.updateAdaptiveTotalEnergyLimit();
     }
 
+    long reward = BlockProfiler.time();
     payReward(block);
+    BlockProfiler.phase(BlockProfiler.REWARD, reward);
 
     boolean flag = chainBaseManager.getDynamicPropertiesStore().getNextMaintenanceTime()
         <= block.getTimeStamp();
@@ -1770,9 +1884,11 @@ public class Manager {
       proposalController.processProposals();
     }
 
+    long apply = BlockProfiler.time();
     if (!consensus.applyBlock(block)) {
       throw new BadBlockException("consensus apply block failed");
     }
+    BlockProfiler.phase(BlockProfiler.CONSENSUS, apply);
 
     if (flag) {
       chainBaseManager.getForkController().reset();
@@ -1786,10 +1902,12 @@ public class Manager {
     chainBaseManager.getBalanceTraceStore().resetCurrentBlockTrace();
 
     if (CommonParameter.getInstance().isJsonRpcFilterEnabled()) {
+      long bloom = BlockProfiler.time();
       Bloom blockBloom = chainBaseManager.getSectionBloomStore()
           .initBlockSection(transactionRetCapsule);
       chainBaseManager.getSectionBloomStore().write(block.getNum());
       block.setBloom(blockBloom);
+      BlockProfiler.phase(BlockProfiler.BLOOM, bloom);
     }
   }
 
@@ -1940,6 +2058,10 @@ public class Manager {
   }
 
   public boolean isTooManyPending() {
+    if (Args.getInstance().isOpenTransactionSort()) {
+      // the re-push pool has its own capacity, it makes room for higher paying transactions
+      return getPendingTransactions().size() > maxTransactionPendingSize;
+    }
     return getPendingTransactions().size() + getRePushTransactions().size()
         > maxTransactionPendingSize;
   }
@@ -1953,6 +2075,7 @@ public class Manager {
     Histogram.Timer requestTimer = Metrics.histogramStartTimer(
         MetricKeys.Histogram.VERIFY_SIGN_LATENCY, MetricLabels.TRX);
     try {
+      recoverSigners(txs);
       CountDownLatch countDownLatch = new CountDownLatch(transSize);
       List<Future<Boolean>> futures = new ArrayList<>(transSize);
 
@@ -1975,6 +2098,30 @@ public class Manager {
     }
   }
 
+  /**
+   * Recovers the signers of the block in one batch per validate-sign thread, the
+   * ValidateSignTasks then only check the permissions.
+   */
+  private void recoverSigners(List<TransactionCapsule> txs) throws InterruptedException {
+    if (!CommonParameter.getInstance().isECKeyCryptoEngine()) {
+      return;
+    }
+    int threads = Math.max(1, Args.getInstance().getValidateSignThreadNum());
+    int chunk = (txs.size() + threads - 1) / threads;
+    List<Future<?>> futures = new ArrayList<>(threads);
+    for (List<TransactionCapsule> part : Lists.partition(txs, chunk)) {
+      futures.add(validateSignService.submit(() -> TransactionCapsule.recoverSigners(part)));
+    }
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        // the per transaction validation recovers the signers and reports the error
+        logger.warn("Batch signature recovery failed.", e.getCause());
+      }
+    }
+  }
+
   public void rePush(TransactionCapsule tx) {
     if (containsTransaction(tx)) {
       return;
@@ -2328,24 +2475,9 @@ public class Manager {
   }
 
   public TransactionCapsule getTxFromPending(String txId) {
-    AtomicReference<TransactionCapsule> transactionCapsule = new AtomicReference<>();
     Sha256Hash txHash = Sha256Hash.wrap(ByteArray.fromHexString(txId));
-    pendingTransactions.forEach(tx -> {
-      if (tx.getTransactionId().equals(txHash)) {
-        transactionCapsule.set(tx);
-        return;
-      }
-    });
-    if (transactionCapsule.get() != null) {
-      return transactionCapsule.get();
-    }
-    rePushTransactions.forEach(tx -> {
-      if (tx.getTransactionId().equals(txHash)) {
-        transactionCapsule.set(tx);
-        return;
-      }
-    });
-    return transactionCapsule.get();
+    TransactionCapsule transactionCapsule = pendingTransactions.get(txHash);
+    return transactionCapsule != null ? transactionCapsule : rePushTransactions.get(txHash);
   }
 
   public Collection<String> getTxListFromPending() {
@@ -53,6 +53,17 @@ public class PendingManager implements AutoCloseable {
     dbManager.getPoppedTransactions().clear();
     Metrics.gaugeSet(MetricKeys.Gauge.MANAGER_QUEUE, 0,
         MetricLabels.Gauge.QUEUE_POPPED);
+
+    long headBlockTime = dbManager.getDynamicPropertiesStore().getLatestBlockHeaderTimestamp();
+    for (TransactionCapsule tx : dbManager.getRePushTransactions().removeExpired(headBlockTime)) {
+      Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, -1,
+          MetricLabels.Gauge.QUEUE_REPUSH);
+      Metrics.counterInc(MetricKeys.Counter.TXS, 1,
+          MetricLabels.Counter.TXS_FAIL, MetricLabels.Counter.TXS_FAIL_EXPIRED);
+      if (Args.getInstance().isOpenPrintLog()) {
+        logger.warn("Expired remove tx from repush, txId: {}.", tx.getTransactionId());
+      }
+    }
     if (Args.getInstance().isOpenPrintLog()) {
       logger.info("Pending tx size: {}.", dbManager.getRePushTransactions().size());
     }
@@ -60,21 +71,18 @@ public class PendingManager implements AutoCloseable {
   }
 
   private void txIteration(TransactionCapsule tx) {
-    try {
-      if (System.currentTimeMillis() - tx.getTime() < timeout) {
-        dbManager.getRePushTransactions().put(tx);
-        Metrics.gaugeInc(MetricKeys.Gauge.MANAGER_QUEUE, 1,
-            MetricLabels.Gauge.QUEUE_REPUSH);
-      } else {
-        Metrics.counterInc(MetricKeys.Counter.TXS, 1,
-            MetricLabels.Counter.TXS_FAIL, MetricLabels.Counter.TXS_FAIL_TIMEOUT);
-        if (Args.getInstance().isOpenPrintLog()) {
-          logger.warn("Timeout remove tx from pending, txId: {}.", tx.getTransactionId());
-        }
+    if (System.currentTimeMillis() - tx.getTime() < timeout) {
+      // a popped transaction may be waiting to be re-pushed already, and adding one may evict
+      // another
+      dbManager.getRePushTransactions().offer(tx);
+      Metrics.gaugeSet(MetricKeys.Gauge.MANAGER_QUEUE, dbManager.getRePushTransactions().size(),
+          MetricLabels.Gauge.QUEUE_REPUSH);
+    } else {
+      Metrics.counterInc(MetricKeys.Counter.TXS, 1,
+          MetricLabels.Counter.TXS_FAIL, MetricLabels.Counter.TXS_FAIL_TIMEOUT);
+      if (Args.getInstance().isOpenPrintLog()) {
+        logger.warn("Timeout remove tx from pending, txId: {}.", tx.getTransactionId());
       }
-    } catch (InterruptedException e) {
-      logger.error(e.getMessage());
-      Thread.currentThread().interrupt();
     }
   }
 }
@@ -0,0 +1,388 @@
+package org.tron.core.db;
+
+import com.google.protobuf.ByteString;
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.MetricLabels;
+import org.tron.common.prometheus.Metrics;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.TransactionCapsule;
+
+/**
+ * Transactions waiting to be packed into a block, taken by fee rate within the order of their
+ * owners.
+ *
+ * <p>The transactions of an owner form a lane, in the order they were added, as a later one
+ * may depend on an earlier one. Only the first transaction of a lane can be taken, the one
+ * paying the highest {@link #feeRate} first, the earliest on a tie. When the pool is full, the
+ * lowest paying last transaction of a lane is evicted, which may be the one being added.
+ * An unsorted pool ranks all transactions the same, so they are taken in the order they were
+ * added and a full pool rejects new ones. Evicting a transaction does not undo what running it
+ * wrote, so a pool of transactions run on a state kept for later ones, as the pending state,
+ * is not to be bounded.
+ *
+ * <p>Transactions are indexed by id, by rank of the first and last of their lanes and by
+ * expiration, so adding, taking, finding, evicting and expiring one costs O(log n), and
+ * removing one from the middle of its lane is linear in the lane. The size of each fee tier is
+ * kept in the {@link MetricKeys.Gauge#TX_POOL} gauge.
+ */
+@Slf4j(topic = "DB")
+public class TransactionPool extends AbstractQueue<TransactionCapsule>
+    implements BlockingQueue<TransactionCapsule> {
+
+  // the fee rate, in sun per byte, of a transaction burning its bandwidth at the default price,
+  // from which it is in the high tier
+  static final long HIGH_FEE_RATE = 1000;
+
+  private static final String[] TIERS = {MetricLabels.Gauge.TIER_FREE,
+      MetricLabels.Gauge.TIER_LOW, MetricLabels.Gauge.TIER_HIGH};
+
+  private static final Comparator<Entry> BY_EXPIRATION = Comparator
+      .comparingLong((Entry entry) -> entry.expiration)
+      .thenComparingLong(entry -> entry.sequence);
+
+  private final String type;
+  private final int capacity;
+  private final boolean sorted;
+
+  // in the order they were added
+  private final Map<Sha256Hash, Entry> entries = new LinkedHashMap<>();
+  private final Map<ByteString, Deque<Entry>> lanes = new HashMap<>();
+  // the first and the last transaction of each lane, the highest ranked first
+  private final NavigableSet<Entry> heads = new TreeSet<>();
+  private final NavigableSet<Entry> tails = new TreeSet<>();
+  private final NavigableSet<Entry> expirations = new TreeSet<>(BY_EXPIRATION);
+  private final int[] tierSizes = new int[TIERS.length];
+  private long sequence;
+
+  /**
+   * @param type the label of the pool in the metrics, a MetricLabels.Gauge.QUEUE_* value
+   * @param capacity the most transactions kept
+   * @param sorted whether transactions are ranked by fee rate, or all the same
+   */
+  public TransactionPool(String type, int capacity, boolean sorted) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    }
+    this.type = type;
+    this.capacity = capacity;
+    this.sorted = sorted;
+  }
+
+  /**
+   * @return the fee of the last run of the transaction per byte of it, in sun
+   */
+  public static long feeRate(TransactionCapsule trx) {
+    return trx.getOrder() / Math.max(1, trx.getSerializedSize());
+  }
+
+  private static int tier(long feeRate) {
+    if (feeRate <= 0) {
+      return 0;
+    }
+    return feeRate < HIGH_FEE_RATE ? 1 : 2;
+  }
+
+  /**
+   * Adds the transaction, evicting the lowest paying last transaction of a lane if the pool is
+   * full.
+   *
+   * @return false if the transaction is in the pool already, or is the one evicted
+   */
+  @Override
+  public synchronized boolean offer(TransactionCapsule trx) {
+    if (trx == null) {
+      throw new NullPointerException();
+    }
+    Sha256Hash id = trx.getTransactionId();
+    if (entries.containsKey(id)) {
+      return false;
+    }
+    Entry entry = new Entry(trx, id, sorted, sequence++);
+    link(entry);
+    if (entries.size() > capacity) {
+      Entry lowest = tails.last();
+      unlink(lowest);
+      if (lowest == entry) {
+        return false;
+      }
+      Metrics.counterInc(MetricKeys.Counter.TXS, 1,
+          MetricLabels.Counter.TXS_FAIL, MetricLabels.Counter.TXS_FAIL_EVICTED);
+      logger.debug("Evict tx {} from {}, fee rate: {}.", lowest.id, type, lowest.feeRate);
+    }
+    notifyAll();
+    return true;
+  }
+
+  /**
+   * Same as {@link #offer(TransactionCapsule)}, a full pool does not wait for room.
+   */
+  @Override
+  public void put(TransactionCapsule trx) {
+    offer(trx);
+  }
+
+  @Override
+  public boolean offer(TransactionCapsule trx, long timeout, TimeUnit unit) {
+    return offer(trx);
+  }
+
+  @Override
+  public synchronized TransactionCapsule poll() {
+    if (heads.isEmpty()) {
+      return null;
+    }
+    Entry head = heads.first();
+    unlink(head);
+    return head.trx;
+  }
+
+  @Override
+  public synchronized TransactionCapsule peek() {
+    return heads.isEmpty() ? null : heads.first().trx;
+  }
+
+  @Override
+  public synchronized TransactionCapsule take() throws InterruptedException {
+    while (entries.isEmpty()) {
+      wait();
+    }
+    return poll();
+  }
+
+  @Override
+  public synchronized TransactionCapsule poll(long timeout, TimeUnit unit)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    while (entries.isEmpty()) {
+      long left = deadline - System.nanoTime();
+      if (left <= 0) {
+        return null;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, left);
+    }
+    return poll();
+  }
+
+  @Override
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  @Override
+  public synchronized int remainingCapacity() {
+    return capacity - entries.size();
+  }
+
+  /**
+   * @return the transaction of the id in the pool, null if there is none
+   */
+  public synchronized TransactionCapsule get(Sha256Hash id) {
+    Entry entry = entries.get(id);
+    return entry == null ? null : entry.trx;
+  }
+
+  /**
+   * @return whether a transaction of the owner is in the pool
+   */
+  public synchronized boolean hasOwner(byte[] owner) {
+    return lanes.containsKey(owner == null ? ByteString.EMPTY : ByteString.copyFrom(owner));
+  }
+
+  @Override
+  public synchronized boolean contains(Object o) {
+    return find(o) != null;
+  }
+
+  @Override
+  public synchronized boolean remove(Object o) {
+    Entry entry = find(o);
+    if (entry == null) {
+      return false;
+    }
+    unlink(entry);
+    return true;
+  }
+
+  /**
+   * Removes the transactions expiring at or before the time, as they can no longer be packed.
+   *
+   * @return the transactions removed
+   */
+  public synchronized List<TransactionCapsule> removeExpired(long time) {
+    List<TransactionCapsule> expired = new ArrayList<>();
+    while (!expirations.isEmpty() && expirations.first().expiration <= time) {
+      Entry entry = expirations.first();
+      unlink(entry);
+      expired.add(entry.trx);
+    }
+    return expired;
+  }
+
+  @Override
+  public synchronized void clear() {
+    entries.clear();
+    lanes.clear();
+    heads.clear();
+    tails.clear();
+    expirations.clear();
+    for (int i = 0; i < tierSizes.length; i++) {
+      tierSizes[i] = 0;
+      Metrics.gaugeSet(MetricKeys.Gauge.TX_POOL, 0, type, TIERS[i]);
+    }
+  }
+
+  @Override
+  public int drainTo(Collection<? super TransactionCapsule> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public synchronized int drainTo(Collection<? super TransactionCapsule> c, int maxElements) {
+    if (c == this) {
+      throw new IllegalArgumentException();
+    }
+    int count = 0;
+    while (count < maxElements && !heads.isEmpty()) {
+      c.add(poll());
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * @return an iterator over a snapshot of the pool, in the order the transactions were added;
+   *     removing through it removes from the pool
+   */
+  @Override
+  public synchronized Iterator<TransactionCapsule> iterator() {
+    List<TransactionCapsule> snapshot = new ArrayList<>(entries.size());
+    entries.values().forEach(entry -> snapshot.add(entry.trx));
+    Iterator<TransactionCapsule> iterator = snapshot.iterator();
+    return new Iterator<TransactionCapsule>() {
+      private TransactionCapsule last;
+
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public TransactionCapsule next() {
+        last = iterator.next();
+        return last;
+      }
+
+      @Override
+      public void remove() {
+        if (last == null) {
+          throw new IllegalStateException();
+        }
+        TransactionPool.this.remove(last);
+        last = null;
+      }
+    };
+  }
+
+  private Entry find(Object o) {
+    if (!(o instanceof TransactionCapsule)) {
+      return null;
+    }
+    Entry entry = entries.get(((TransactionCapsule) o).getTransactionId());
+    return entry != null && entry.trx.equals(o) ? entry : null;
+  }
+
+  private void link(Entry entry) {
+    entries.put(entry.id, entry);
+    Deque<Entry> lane = lanes.computeIfAbsent(entry.owner, owner -> new ArrayDeque<>());
+    if (lane.isEmpty()) {
+      heads.add(entry);
+    } else {
+      tails.remove(lane.peekLast());
+    }
+    lane.addLast(entry);
+    tails.add(entry);
+    expirations.add(entry);
+    count(entry, 1);
+  }
+
+  private void unlink(Entry entry) {
+    entries.remove(entry.id);
+    Deque<Entry> lane = lanes.get(entry.owner);
+    boolean head = lane.peekFirst() == entry;
+    boolean tail = lane.peekLast() == entry;
+    if (head) {
+      lane.pollFirst();
+      heads.remove(entry);
+      if (!lane.isEmpty()) {
+        heads.add(lane.peekFirst());
+      }
+    } else if (tail) {
+      lane.pollLast();
+    } else {
+      lane.remove(entry);
+    }
+    if (tail) {
+      tails.remove(entry);
+      if (!lane.isEmpty()) {
+        tails.add(lane.peekLast());
+      }
+    }
+    if (lane.isEmpty()) {
+      lanes.remove(entry.owner);
+    }
+    expirations.remove(entry);
+    count(entry, -1);
+  }
+
+  private void count(Entry entry, int delta) {
+    int tier = tier(entry.feeRate);
+    tierSizes[tier] += delta;
+    Metrics.gaugeSet(MetricKeys.Gauge.TX_POOL, tierSizes[tier], type, TIERS[tier]);
+  }
+
+  private static final class Entry implements Comparable<Entry> {
+
+    private final TransactionCapsule trx;
+    private final Sha256Hash id;
+    private final ByteString owner;
+    private final long feeRate;
+    // the fee rate if sorted, the same for every transaction otherwise
+    private final long rank;
+    private final long expiration;
+    private final long sequence;
+
+    private Entry(TransactionCapsule trx, Sha256Hash id, boolean sorted, long sequence) {
+      this.trx = trx;
+      this.id = id;
+      byte[] address = trx.getOwnerAddress();
+      this.owner = address == null ? ByteString.EMPTY : ByteString.copyFrom(address);
+      this.feeRate = feeRate(trx);
+      this.rank = sorted ? feeRate : 0;
+      this.expiration = trx.getExpiration();
+      this.sequence = sequence;
+    }
+
+    // the highest ranked first, then the earliest added
+    @Override
+    public int compareTo(Entry o) {
+      int c = Long.compare(o.rank, rank);
+      return c != 0 ? c : Long.compare(sequence, o.sequence);
+    }
+  }
+}
@@ -16,8 +16,9 @@ public class BlockMessage extends TronMessage {
     super(data);
     this.type = MessageTypes.BLOCK.asByte();
     this.block = new BlockCapsule(getCodedInputStream(data));
+    this.block.keepEncoding(data);
     if (Message.isFilter()) {
-      Message.compareBytes(data, block.getInstance().toByteArray());
+      Message.compareBytes(data, block.getInstance());
       TransactionCapsule.validContractProto(block.getInstance().getTransactionsList());
     }
   }
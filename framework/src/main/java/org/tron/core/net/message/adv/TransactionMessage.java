@@ -14,9 +14,10 @@ public class TransactionMessage extends TronMessage {
   public TransactionMessage(byte[] data) throws Exception {
     super(data);
     this.transactionCapsule = new TransactionCapsule(getCodedInputStream(data));
+    this.transactionCapsule.keepEncoding(data, 0, data.length);
     this.type = MessageTypes.TRX.asByte();
     if (Message.isFilter()) {
-      compareBytes(data, transactionCapsule.getInstance().toByteArray());
+      compareBytes(data, transactionCapsule.getInstance());
       transactionCapsule
           .validContractProto(transactionCapsule.getInstance().getRawData().getContract(0));
     }
@@ -242,6 +242,8 @@ public class FullNodeHttpApiService extends HttpService {
   @Autowired
   private MetricsServlet metricsServlet;
   @Autowired
+  private GetBlockProfileServlet getBlockProfileServlet;
+  @Autowired
   private MarketSellAssetServlet marketSellAssetServlet;
   @Autowired
   private MarketCancelOrderServlet marketCancelOrderServlet;
@@ -477,6 +479,8 @@ public class FullNodeHttpApiService extends HttpService {
       context.addServlet(new ServletHolder(listNodesServlet), "/net/listnodes");
 
       context.addServlet(new ServletHolder(metricsServlet), "/monitor/getstatsinfo");
+      context.addServlet(new ServletHolder(getBlockProfileServlet),
+          "/monitor/getblockprofile");
       context.addServlet(new ServletHolder(getNodeInfoServlet), "/monitor/getnodeinfo");
       context.addServlet(new ServletHolder(marketSellAssetServlet), "/wallet/marketsellasset");
       context.addServlet(new ServletHolder(marketCancelOrderServlet), "/wallet/marketcancelorder");
@@ -48,7 +48,7 @@ public class GetBlockByNumServlet extends RateLimiterServlet {
       throws IOException {
     Block reply = wallet.getBlockByNum(num);
     if (reply != null) {
-      response.getWriter().println(Util.printBlock(reply, visible));
+      Util.printBlock(reply, visible, response.getWriter());
     } else {
       response.getWriter().println("{}");
     }
@@ -0,0 +1,41 @@
+package org.tron.core.services.http;
+
+import com.alibaba.fastjson.JSON;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+import org.tron.common.profiler.BlockProfile;
+import org.tron.common.profiler.BlockProfiler;
+
+/**
+ * The profile of the block "num" if it is kept, the kept blocks summed up otherwise, with the
+ * "top" slowest blocks, contracts and opcodes.
+ */
+@Component
+@Slf4j(topic = "API")
+public class GetBlockProfileServlet extends RateLimiterServlet {
+
+  private static final int DEFAULT_TOP = 10;
+
+  protected void doGet(HttpServletRequest request, HttpServletResponse response) {
+    try {
+      String num = request.getParameter("num");
+      if (StringUtils.isNotEmpty(num)) {
+        BlockProfile profile = BlockProfiler.get(Long.parseLong(num));
+        if (profile != null) {
+          response.getWriter().println(JSON.toJSONString(profile, true));
+        } else {
+          response.getWriter().println("{}");
+        }
+        return;
+      }
+      String top = request.getParameter("top");
+      response.getWriter().println(JSON.toJSONString(BlockProfiler.report(
+          StringUtils.isNotEmpty(top) ? Integer.parseInt(top) : DEFAULT_TOP), true));
+    } catch (Exception e) {
+      Util.processError(e, response);
+    }
+  }
+}
@@ -46,7 +46,7 @@ public class GetTransactionByIdServlet extends RateLimiterServlet {
       throws IOException {
     Transaction reply = wallet.getTransactionById(txId);
     if (reply != null) {
-      response.getWriter().println(Util.printTransaction(reply, visible));
+      Util.printTransaction(reply, visible, response.getWriter());
     } else {
       response.getWriter().println("{}");
     }
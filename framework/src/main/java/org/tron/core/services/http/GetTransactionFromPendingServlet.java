@@ -24,7 +24,7 @@ public class GetTransactionFromPendingServlet extends RateLimiterServlet {
       String input = request.getParameter("value");
       TransactionCapsule reply = manager.getTxFromPending(input);
       if (reply != null) {
-        response.getWriter().println(Util.printTransaction(reply.getInstance(), visible));
+        Util.printTransaction(reply.getInstance(), visible, response.getWriter());
       } else {
         response.getWriter().println("{}");
       }
@@ -41,8 +41,7 @@ public class GetTransactionFromPendingServlet extends RateLimiterServlet {
       TransactionCapsule reply = manager
           .getTxFromPending(ByteArray.toHexString(build.getValue().toByteArray()));
       if (reply != null) {
-        response.getWriter()
-            .println(Util.printTransaction(reply.getInstance(), params.isVisible()));
+        Util.printTransaction(reply.getInstance(), params.isVisible(), response.getWriter());
       } else {
         response.getWriter().println("{}");
       }
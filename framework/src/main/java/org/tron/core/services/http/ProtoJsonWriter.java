@@ -0,0 +1,277 @@
+package org.tron.core.services.http;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.serializer.SerializeWriter;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors.EnumValueDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.api.GrpcAPI.BlockList;
+import org.tron.api.GrpcAPI.TransactionList;
+import org.tron.common.parameter.CommonParameter;
+import org.tron.common.utils.ByteArray;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.actuator.TransactionFactory;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.protos.Protocol.Block;
+import org.tron.protos.Protocol.Transaction;
+import org.tron.protos.contract.SmartContractOuterClass.CreateSmartContract;
+
+/**
+ * Writes the JSON of blocks and transactions in a single pass, without printing the message
+ * with {@link JsonFormat}, parsing the text into a JSONObject and serializing it again.
+ *
+ * <p>The output is byte for byte the one of {@link Util#printBlock},
+ * {@link Util#printBlockList}, {@link Util#printTransaction} and
+ * {@link Util#printTransactionList}:
+ * <ul>
+ *   <li>values are written by the fastjson SerializeWriter, so strings are escaped as
+ *   JSONObject#toJSONString escapes them;</li>
+ *   <li>the keys of an object are written in the iteration order of a HashMap holding them,
+ *   which is the order of the HashMap behind a JSONObject. Parsing a JSONObject again does not
+ *   change this order.</li>
+ * </ul>
+ * Float and double fields, extensions and transactions without raw data are not supported,
+ * they throw {@link UnsupportedMessageException} before anything is written.
+ */
+@Slf4j(topic = "API")
+final class ProtoJsonWriter {
+
+  private final SerializeWriter out;
+  private final boolean selfType;
+
+  private ProtoJsonWriter(SerializeWriter out, boolean selfType) {
+    this.out = out;
+    this.selfType = selfType;
+  }
+
+  static void printBlock(Block block, boolean selfType, Writer writer) throws IOException {
+    print(writer, selfType, w -> w.writeBlock(block));
+  }
+
+  static void printBlockList(BlockList list, boolean selfType, Writer writer)
+      throws IOException {
+    print(writer, selfType, w -> {
+      Map<String, Value> fields = w.messageFields(list);
+      fields.put("block", () -> w.writeArray(list.getBlockList(), w::writeBlock));
+      w.writeObject(fields);
+    });
+  }
+
+  static void printTransaction(Transaction transaction, boolean selfType, Writer writer)
+      throws IOException {
+    print(writer, selfType, w -> w.writeTransaction(transaction));
+  }
+
+  static void printTransactionList(TransactionList list, boolean selfType, Writer writer)
+      throws IOException {
+    print(writer, selfType, w -> {
+      Map<String, Value> fields = w.messageFields(list);
+      fields.put(Util.TRANSACTION,
+          () -> w.writeArray(list.getTransactionList(), w::writeTransaction));
+      w.writeObject(fields);
+    });
+  }
+
+  private static void print(Writer writer, boolean selfType, Consumer<ProtoJsonWriter> body)
+      throws IOException {
+    // the whole document is buffered, so an unsupported message leaves the writer untouched
+    try (SerializeWriter out = new SerializeWriter()) {
+      body.accept(new ProtoJsonWriter(out, selfType));
+      out.writeTo(writer);
+    }
+  }
+
+  private void writeBlock(Block block) {
+    Map<String, Value> fields = messageFields(block);
+    String blockId = ByteArray.toHexString(new BlockCapsule(block).getBlockId().getBytes());
+    fields.put("blockID", () -> out.writeString(blockId));
+    if (block.getTransactionsCount() > 0) {
+      fields.put("transactions",
+          () -> writeArray(block.getTransactionsList(), this::writeTransaction));
+    }
+    writeObject(fields);
+  }
+
+  private void writeTransaction(Transaction transaction) {
+    if (!transaction.hasRawData()) {
+      throw new UnsupportedMessageException("transaction without raw data");
+    }
+    Map<String, Value> fields = messageFields(transaction);
+    List<Value> contracts = new ArrayList<>();
+    for (Transaction.Contract contract : transaction.getRawData().getContractList()) {
+      Message value;
+      try {
+        switch (contract.getType()) {
+          case CreateSmartContract:
+            CreateSmartContract deployContract = contract.getParameter()
+                .unpack(CreateSmartContract.class);
+            value = deployContract;
+            String contractAddress = ByteArray.toHexString(Util.generateContractAddress(
+                transaction, deployContract.getOwnerAddress().toByteArray()));
+            fields.put(Util.CONTRACT_ADDRESS, () -> out.writeString(contractAddress));
+            break;
+          default:
+            Class clazz = TransactionFactory.getContract(contract.getType());
+            value = clazz == null ? null : contract.getParameter().unpack(clazz);
+            break;
+        }
+      } catch (InvalidProtocolBufferException e) {
+        logger.debug("InvalidProtocolBufferException: {}", e.getMessage());
+        continue;
+      }
+
+      Message contractValue = value;
+      Map<String, Value> parameter = new HashMap<>();
+      parameter.put(Util.VALUE,
+          contractValue == null ? null : () -> writeObject(messageFields(contractValue)));
+      parameter.put("type_url",
+          () -> out.writeString(contract.getParameterOrBuilder().getTypeUrl()));
+      Map<String, Value> jsonContract = new HashMap<>();
+      jsonContract.put(Util.PARAMETER, () -> writeObject(parameter));
+      jsonContract.put("type", () -> out.writeString(contract.getType().name()));
+      if (contract.getPermissionId() > 0) {
+        jsonContract.put(Util.PERMISSION_ID, () -> out.writeInt(contract.getPermissionId()));
+      }
+      contracts.add(() -> writeObject(jsonContract));
+    }
+
+    Map<String, Value> rawData = messageFields(transaction.getRawData());
+    rawData.put("contract", () -> writeArray(contracts, Value::write));
+    fields.put("raw_data", () -> writeObject(rawData));
+    byte[] raw = transaction.getRawData().toByteArray();
+    fields.put("raw_data_hex", () -> out.writeString(ByteArray.toHexString(raw)));
+    fields.put("txID", () -> out.writeString(ByteArray.toHexString(Sha256Hash
+        .hash(CommonParameter.getInstance().isECKeyCryptoEngine(), raw))));
+    writeObject(fields);
+  }
+
+  /**
+   * The fields JsonFormat prints, in a HashMap filled in the printed order.
+   */
+  private Map<String, Value> messageFields(Message message) {
+    Map<String, Value> fields = new HashMap<>();
+    for (Map.Entry<FieldDescriptor, Object> e : JsonFormat.fieldsToPrint(message).entrySet()) {
+      FieldDescriptor field = e.getKey();
+      Object value = e.getValue();
+      if (field.isExtension() || field.getType() == FieldDescriptor.Type.GROUP) {
+        throw new UnsupportedMessageException(field.getFullName());
+      }
+      fields.put(field.getName(), () -> writeField(field, value));
+    }
+    return fields;
+  }
+
+  private void writeObject(Map<String, Value> fields) {
+    out.write('{');
+    boolean first = true;
+    for (Map.Entry<String, Value> e : fields.entrySet()) {
+      // null values are left out, as by JSONObject#toJSONString
+      if (e.getValue() == null) {
+        continue;
+      }
+      if (!first) {
+        out.write(',');
+      }
+      first = false;
+      out.writeFieldName(e.getKey());
+      e.getValue().write();
+    }
+    out.write('}');
+  }
+
+  private <T> void writeArray(List<T> values, Consumer<T> writer) {
+    out.write('[');
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) {
+        out.write(',');
+      }
+      writer.accept(values.get(i));
+    }
+    out.write(']');
+  }
+
+  private void writeField(FieldDescriptor field, Object value) {
+    if (field.isRepeated()) {
+      writeArray((List<?>) value, v -> writeFieldValue(field, v));
+    } else {
+      writeFieldValue(field, value);
+    }
+  }
+
+  private void writeFieldValue(FieldDescriptor field, Object value) {
+    switch (field.getType()) {
+      case INT32:
+      case INT64:
+      case SINT32:
+      case SINT64:
+      case SFIXED32:
+      case SFIXED64:
+      case BOOL:
+        out.write(value.toString());
+        break;
+      case UINT32:
+      case FIXED32:
+        out.write(Integer.toUnsignedString((Integer) value));
+        break;
+      case UINT64:
+      case FIXED64:
+        out.write(Long.toUnsignedString((Long) value));
+        break;
+      case STRING:
+        String text = (String) value;
+        if (!text.isEmpty() && Character.isHighSurrogate(text.charAt(text.length() - 1))) {
+          // JsonFormat rejects it
+          throw new UnsupportedMessageException(field.getFullName());
+        }
+        out.writeString(text);
+        break;
+      case BYTES:
+        out.writeString(bytesValue(field, (ByteString) value));
+        break;
+      case ENUM:
+        out.writeString(((EnumValueDescriptor) value).getName());
+        break;
+      case MESSAGE:
+        writeObject(messageFields((Message) value));
+        break;
+      default:
+        // float and double are printed by Float/Double#toString, which fastjson does not
+        // read back to the same text
+        throw new UnsupportedMessageException(field.getFullName());
+    }
+  }
+
+  private String bytesValue(FieldDescriptor field, ByteString bytes) {
+    String name = field.getFullName();
+    String text = JsonFormat.escapeBytes(bytes, name, selfType);
+    if (selfType && !HttpSelfFormatFieldName.isAddressFormat(name)
+        && HttpSelfFormatFieldName.isNameStringFormat(name)) {
+      // printed as it is into the JSON text, the value is what fastjson reads back
+      return JSON.parseObject("{\"key\":\"" + text + "\"}").getString("key");
+    }
+    return text;
+  }
+
+  @FunctionalInterface
+  private interface Value {
+
+    void write();
+  }
+
+  static class UnsupportedMessageException extends RuntimeException {
+
+    UnsupportedMessageException(String message) {
+      super(message);
+    }
+  }
+}
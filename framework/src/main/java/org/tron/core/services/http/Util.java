@@ -16,6 +16,7 @@ import com.google.protobuf.Message;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.PrintWriter;
 import java.lang.reflect.Constructor;
 import java.math.BigDecimal;
 import java.nio.charset.Charset;
@@ -52,6 +53,7 @@ import org.tron.core.capsule.TransactionCapsule;
 import org.tron.core.config.args.Args;
 import org.tron.core.db.TransactionTrace;
 import org.tron.core.services.http.JsonFormat.ParseException;
+import org.tron.core.services.http.ProtoJsonWriter.UnsupportedMessageException;
 import org.tron.protos.Protocol.Account;
 import org.tron.protos.Protocol.Block;
 import org.tron.protos.Protocol.Transaction;
@@ -103,10 +105,36 @@ public class Util {
     return jsonObject.toJSONString();
   }
 
+  /**
+   * Prints the same line as {@code writer.println(printBlockList(list, selfType))}.
+   */
+  public static void printBlockList(BlockList list, boolean selfType, PrintWriter writer)
+      throws IOException {
+    try {
+      ProtoJsonWriter.printBlockList(list, selfType, writer);
+      writer.println();
+    } catch (UnsupportedMessageException e) {
+      writer.println(printBlockList(list, selfType));
+    }
+  }
+
   public static String printBlock(Block block, boolean selfType) {
     return printBlockToJSON(block, selfType).toJSONString();
   }
 
+  /**
+   * Prints the same line as {@code writer.println(printBlock(block, selfType))}.
+   */
+  public static void printBlock(Block block, boolean selfType, PrintWriter writer)
+      throws IOException {
+    try {
+      ProtoJsonWriter.printBlock(block, selfType, writer);
+      writer.println();
+    } catch (UnsupportedMessageException e) {
+      writer.println(printBlock(block, selfType));
+    }
+  }
+
   public static JSONObject printBlockToJSON(Block block, boolean selfType) {
     BlockCapsule blockCapsule = new BlockCapsule(block);
     String blockID = ByteArray.toHexString(blockCapsule.getBlockId().getBytes());
@@ -130,6 +158,19 @@ public class Util {
     return jsonObject.toJSONString();
   }
 
+  /**
+   * Prints the same line as {@code writer.println(printTransactionList(list, selfType))}.
+   */
+  public static void printTransactionList(TransactionList list, boolean selfType,
+      PrintWriter writer) throws IOException {
+    try {
+      ProtoJsonWriter.printTransactionList(list, selfType, writer);
+      writer.println();
+    } catch (UnsupportedMessageException e) {
+      writer.println(printTransactionList(list, selfType));
+    }
+  }
+
   public static String printTransactionIdList(TransactionIdList list, boolean selfType) {
     JSONObject jsonObject = JSONObject.parseObject(JsonFormat.printToString(list, selfType));
 
@@ -148,6 +189,19 @@ public class Util {
     return printTransactionToJSON(transaction, selfType).toJSONString();
   }
 
+  /**
+   * Prints the same line as {@code writer.println(printTransaction(transaction, selfType))}.
+   */
+  public static void printTransaction(Transaction transaction, boolean selfType,
+      PrintWriter writer) throws IOException {
+    try {
+      ProtoJsonWriter.printTransaction(transaction, selfType, writer);
+      writer.println();
+    } catch (UnsupportedMessageException e) {
+      writer.println(printTransaction(transaction, selfType));
+    }
+  }
+
   public static String printTransaction(Transaction transaction) {
     return printTransactionToJSON(transaction, true).toJSONString();
   }
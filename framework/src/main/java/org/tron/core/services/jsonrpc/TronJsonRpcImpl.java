@@ -150,10 +150,15 @@ public class TronJsonRpcImpl implements TronJsonRpc, Closeable {
    * thread pool of query section bloom store
    */
   private final ExecutorService sectionExecutor;
+  /**
+   * thread pool of loading and matching possible blocks
+   */
+  private final ExecutorService matchExecutor;
   private final NodeInfoService nodeInfoService;
   private final Wallet wallet;
   private final Manager manager;
   private final String esName = "query-section";
+  private final String matchEsName = "query-match";
 
   @Autowired
   public TronJsonRpcImpl(@Autowired NodeInfoService nodeInfoService, @Autowired Wallet wallet,
@@ -162,6 +167,7 @@ public class TronJsonRpcImpl implements TronJsonRpc, Closeable {
     this.wallet = wallet;
     this.manager = manager;
     this.sectionExecutor = ExecutorServiceManager.newFixedThreadPool(esName, 5);
+    this.matchExecutor = ExecutorServiceManager.newFixedThreadPool(matchEsName, 8);
   }
 
   public static void handleBLockFilter(BlockFilterCapsule blockFilterCapsule) {
@@ -1352,7 +1358,7 @@ public class TronJsonRpcImpl implements TronJsonRpc, Closeable {
 
     //match event from block one by one exactly
     LogMatch logMatch =
-        new LogMatch(logFilterWrapper, possibleBlockList, manager);
+        new LogMatch(logFilterWrapper, possibleBlockList, manager, matchExecutor);
     return logMatch.matchBlockOneByOne();
   }
 
@@ -1381,6 +1387,7 @@ public class TronJsonRpcImpl implements TronJsonRpc, Closeable {
   @Override
   public void close() throws IOException {
     ExecutorServiceManager.shutdownAndAwaitTermination(sectionExecutor, esName);
+    ExecutorServiceManager.shutdownAndAwaitTermination(matchExecutor, matchEsName);
   }
 
 }
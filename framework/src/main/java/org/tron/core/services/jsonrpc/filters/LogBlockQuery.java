@@ -1,7 +1,9 @@
 package org.tron.core.services.jsonrpc.filters;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -9,13 +11,21 @@ import java.util.concurrent.Future;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
 import org.tron.common.bloom.Bloom;
+import org.tron.common.bloom.SectionBitmap;
 import org.tron.common.crypto.Hash;
+import org.tron.common.prometheus.MetricKeys;
+import org.tron.common.prometheus.Metrics;
+import org.tron.core.exception.EventBloomException;
 import org.tron.core.exception.JsonRpcTooManyResultException;
 import org.tron.core.store.SectionBloomStore;
+import org.tron.core.store.SectionBloomStore.Reads;
 
 /**
  * query possible block list by logFilterWrapper
  * warning: must not use bitSet.set(0, bitSet.length()) !
+ * The sections are matched in parallel, on SectionBitmap, with the conditions in the order of
+ * {@link #plan}. The bits read per query are observed in
+ * {@link MetricKeys.Histogram#JSONRPC_BLOOM_BITS}.
  */
 @Slf4j(topic = "API")
 public class LogBlockQuery {
@@ -65,102 +75,111 @@ public class LogBlockQuery {
       return blockNumList;
     }
 
-    int[][][] allConditionsIndex = getConditions();
+    Reads reads = new Reads();
+    int[][][] allConditionsIndex = plan(getConditions(), reads);
 
-    int capacity = (maxSection - minSection + 1) * SectionBloomStore.BLOCK_PER_SECTION;
-    BitSet blockNumBitSet = new BitSet(capacity);
-    blockNumBitSet.set(0, capacity);
-
-    //works serial
-    for (int[][] conditionsIndex : allConditionsIndex) {
-      BitSet bitSet = subMatch(conditionsIndex);
-      blockNumBitSet.and(bitSet);
+    //works parallel, one task per section
+    List<Future<SectionBitmap>> futureList = new ArrayList<>();
+    for (int section = minSection; section <= maxSection; section++) {
+      final int s = section;
+      futureList.add(sectionExecutor.submit(() -> sectionMatch(allConditionsIndex, s, reads)));
     }
 
-    for (int i = blockNumBitSet.nextSetBit(0); i >= 0; i = blockNumBitSet.nextSetBit(i + 1)) {
-      // operate on index i here
-      if (i == Integer.MAX_VALUE) {
-        break; // or (i+1) would overflow
-      }
-      long blockNum = (long) minSection * SectionBloomStore.BLOCK_PER_SECTION + i;
-      if (minBlock <= blockNum && blockNum <= maxBlock) {
-        blockNumList.add(blockNum);
+    try {
+      for (int section = minSection; section <= maxSection; section++) {
+        long firstBlock = (long) section * SectionBloomStore.BLOCK_PER_SECTION;
+        futureList.get(section - minSection).get().forEach(i -> {
+          long blockNum = firstBlock + i;
+          if (minBlock <= blockNum && blockNum <= maxBlock) {
+            blockNumList.add(blockNum);
+          }
+        });
+        if (blockNumList.size() >= MAX_RESULT) {
+          throw new JsonRpcTooManyResultException(
+              "query returned more than " + MAX_RESULT + " results");
+        }
       }
-    }
-
-    if (blockNumList.size() >= MAX_RESULT) {
-      throw new JsonRpcTooManyResultException(
-          "query returned more than " + MAX_RESULT + " results");
+    } finally {
+      futureList.forEach(future -> future.cancel(false));
+      Metrics.histogramObserve(MetricKeys.Histogram.JSONRPC_BLOOM_BITS,
+          reads.getCached().get(), "cache");
+      Metrics.histogramObserve(MetricKeys.Histogram.JSONRPC_BLOOM_BITS,
+          reads.getLoaded().get(), "db");
     }
 
     return blockNumList;
   }
 
   /**
-   * address -> subMatch0,
-   * topic1 -> subMatch1, topic2 -> subMatch2, topic3 -> subMatch3, topic4 -> subMatch4
-   * works serial, return a BitSet with capacity of section num * blockPerSection
+   * Orders the conditions by the blocks they match in a sample section, fewest first, so that
+   * a section stops reading bits as soon as nothing is left.
    */
-  private BitSet subMatch(int[][] bitIndexes) throws ExecutionException, InterruptedException {
-
-    int capacity = (maxSection - minSection + 1) * SectionBloomStore.BLOCK_PER_SECTION;
-    BitSet subBitSet = new BitSet(capacity);
-
-    for (int section = minSection; section <= maxSection; section++) {
-      BitSet partialBitSet = partialMatch(bitIndexes, section);
-
-      for (int i = partialBitSet.nextSetBit(0); i >= 0; i = partialBitSet.nextSetBit(i + 1)) {
-        // operate on index i here
-        if (i == Integer.MAX_VALUE) {
-          break; // or (i+1) would overflow
+  private int[][][] plan(int[][][] allConditionsIndex, Reads reads)
+      throws ExecutionException {
+    if (allConditionsIndex.length < 2) {
+      return allConditionsIndex;
+    }
+    // the last section is likely still filling
+    int sample = maxSection > minSection ? maxSection - 1 : maxSection;
+    long[] estimates = new long[allConditionsIndex.length];
+    Integer[] order = new Integer[allConditionsIndex.length];
+    try {
+      for (int k = 0; k < allConditionsIndex.length; k++) {
+        order[k] = k;
+        for (int[] bitIndexes : allConditionsIndex[k]) {
+          int min = SectionBloomStore.BLOCK_PER_SECTION;
+          for (int bitIndex : bitIndexes) {
+            SectionBitmap bits = sectionBloomStore.getBitmap(sample, bitIndex, reads);
+            min = Math.min(min, bits == null ? 0 : bits.cardinality());
+          }
+          estimates[k] += min;
         }
-        int offset = (section - minSection) * SectionBloomStore.BLOCK_PER_SECTION + i;
-        subBitSet.set(offset);
       }
+    } catch (EventBloomException e) {
+      throw new ExecutionException(e);
     }
+    Arrays.sort(order, Comparator.comparingLong((Integer k) -> estimates[k])
+        .thenComparingInt(k -> allConditionsIndex[k].length));
 
-    return subBitSet;
+    int[][][] planned = new int[allConditionsIndex.length][][];
+    for (int k = 0; k < order.length; k++) {
+      planned[k] = allConditionsIndex[order[k]];
+    }
+    return planned;
   }
 
   /**
-   * every section has a compound query of sectionBloomStore, works parallel
-   * "and" condition in second dimension of query, "or" condition in first dimension
-   * return a BitSet whose capacity is blockPerSection
+   * "and" condition in first dimension, "or" condition in second dimension, "and" condition
+   * in third dimension. The bits of a condition are only read for the blocks the previous
+   * conditions left.
+   * return the matched offsets of the section
    */
-  private BitSet partialMatch(final int[][] bitIndexes, int section)
-      throws ExecutionException, InterruptedException {
-    List<List<Future<BitSet>>> bitSetList = new ArrayList<>();
-
-    for (int[] index : bitIndexes) {
-      List<Future<BitSet>> futureList = new ArrayList<>();
-      for (final int bitIndex : index) { //must be 3
-        Future<BitSet> bitSetFuture =
-            sectionExecutor.submit(() -> sectionBloomStore.get(section, bitIndex));
-        futureList.add(bitSetFuture);
-      }
-      bitSetList.add(futureList);
-    }
-
-    BitSet bitSet = new BitSet(SectionBloomStore.BLOCK_PER_SECTION);
-
-    for (List<Future<BitSet>> futureList : bitSetList) {
-      // initial a BitSet with all 1
-      BitSet subBitSet = new BitSet(SectionBloomStore.BLOCK_PER_SECTION);
-      subBitSet.set(0, SectionBloomStore.BLOCK_PER_SECTION);
-      // and condition in second dimension
-      for (Future<BitSet> future : futureList) {
-        BitSet one = future.get();
-        if (one == null) { //match nothing
-          subBitSet.clear();
+  private SectionBitmap sectionMatch(int[][][] allConditionsIndex, int section, Reads reads)
+      throws EventBloomException {
+    SectionBitmap result = SectionBitmap.FULL;
+    for (int[][] conditionsIndex : allConditionsIndex) {
+      SectionBitmap matched = SectionBitmap.EMPTY;
+      for (int[] bitIndexes : conditionsIndex) { //must be 3
+        SectionBitmap alternative = result;
+        for (int bitIndex : bitIndexes) {
+          SectionBitmap bits = sectionBloomStore.getBitmap(section, bitIndex, reads);
+          alternative = bits == null ? SectionBitmap.EMPTY : alternative.and(bits);
+          if (alternative.isEmpty()) {
+            break;
+          }
+        }
+        matched = matched.or(alternative);
+        if (matched.cardinality() == result.cardinality()) {
+          // nothing more to match
           break;
         }
-        // "and" condition in second dimension
-        subBitSet.and(one);
       }
-      // "or" condition in first dimension
-      bitSet.or(subBitSet);
+      result = matched;
+      if (result.isEmpty()) {
+        break;
+      }
     }
-    return bitSet;
+    return result;
   }
 
   /**
@@ -1,8 +1,16 @@
 package org.tron.core.services.jsonrpc.filters;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.ByteString;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 import org.tron.common.runtime.vm.DataWord;
 import org.tron.common.utils.ByteArray;
@@ -17,11 +25,18 @@ import org.tron.protos.Protocol.TransactionInfo.Log;
 import org.tron.protos.Protocol.TransactionRet;
 
 /**
- * match events from possible blocks one by one
+ * match events from possible blocks one by one. The blocks are loaded and matched on a thread
+ * pool, a bounded number of them ahead of the one being returned, and the results are returned
+ * in block order.
  */
 @Slf4j(topic = "API")
 public class LogMatch {
 
+  /**
+   * the most blocks loaded and matched ahead of the one being returned
+   */
+  static final int MAX_PREFETCH = 16;
+
   /**
    * query criteria
    */
@@ -31,11 +46,18 @@ public class LogMatch {
    */
   private final List<Long> blockNumList;
   private final Manager manager;
+  private final ExecutorService executor;
 
   public LogMatch(LogFilterWrapper logFilterWrapper, List<Long> blockNumList, Manager manager) {
+    this(logFilterWrapper, blockNumList, manager, MoreExecutors.newDirectExecutorService());
+  }
+
+  public LogMatch(LogFilterWrapper logFilterWrapper, List<Long> blockNumList, Manager manager,
+      ExecutorService executor) {
     this.logFilterWrapper = logFilterWrapper;
     this.blockNumList = blockNumList;
     this.manager = manager;
+    this.executor = executor;
   }
 
   public static List<LogFilterElement> matchBlock(LogFilter logFilter, long blockNum,
@@ -78,36 +100,87 @@ public class LogMatch {
     return matchedLog;
   }
 
-  public LogFilterElement[] matchBlockOneByOne()
-      throws BadItemException, ItemNotFoundException, JsonRpcTooManyResultException {
+  public LogFilterElement[] matchBlockOneByOne() throws BadItemException,
+      ItemNotFoundException, JsonRpcTooManyResultException, InterruptedException {
     List<LogFilterElement> logFilterElementList = new ArrayList<>();
+    matchBlocks(logFilterElementList::addAll);
+    return logFilterElementList.toArray(new LogFilterElement[0]);
+  }
 
-    for (long blockNum : blockNumList) {
-      TransactionRetCapsule transactionRetCapsule =
-          manager.getTransactionRetStore()
-              .getTransactionInfoByBlockNum(ByteArray.fromLong(blockNum));
-      if (transactionRetCapsule == null) {
-        //if query condition (address and topics) is empty, we will traversal every block,
-        //include empty block
-        continue;
-      }
-      TransactionRet transactionRet = transactionRetCapsule.getInstance();
-      List<TransactionInfo> transactionInfoList = transactionRet.getTransactioninfoList();
-
-      String blockHash = manager.getChainBaseManager().getBlockIdByNum(blockNum).toString();
-      List<LogFilterElement> matchedLog = matchBlock(logFilterWrapper.getLogFilter(), blockNum,
-          blockHash, transactionInfoList, false);
-      if (!matchedLog.isEmpty()) {
-        logFilterElementList.addAll(matchedLog);
-      }
+  /**
+   * Passes the matched logs of every block with any, in block order, to the consumer. It stops
+   * with JsonRpcTooManyResultException once more than MAX_RESULT logs are matched, the logs
+   * passed before are not taken back.
+   */
+  public void matchBlocks(Consumer<List<LogFilterElement>> consumer) throws BadItemException,
+      ItemNotFoundException, JsonRpcTooManyResultException, InterruptedException {
+    Deque<Future<List<LogFilterElement>>> pending = new ArrayDeque<>();
+    Iterator<Long> blockNums = blockNumList.iterator();
+    int resultCount = 0;
+    try {
+      while (true) {
+        while (blockNums.hasNext() && pending.size() < MAX_PREFETCH) {
+          long blockNum = blockNums.next();
+          pending.add(executor.submit(() -> loadAndMatch(blockNum)));
+        }
+        if (pending.isEmpty()) {
+          break;
+        }
 
-      if (logFilterElementList.size() > LogBlockQuery.MAX_RESULT) {
-        throw new JsonRpcTooManyResultException(
-            "query returned more than " + LogBlockQuery.MAX_RESULT + " results");
+        List<LogFilterElement> matchedLog = take(pending.poll());
+        if (!matchedLog.isEmpty()) {
+          resultCount += matchedLog.size();
+          consumer.accept(matchedLog);
+        }
+
+        if (resultCount > LogBlockQuery.MAX_RESULT) {
+          throw new JsonRpcTooManyResultException(
+              "query returned more than " + LogBlockQuery.MAX_RESULT + " results");
+        }
       }
+    } finally {
+      pending.forEach(future -> future.cancel(true));
     }
+  }
 
-    return logFilterElementList.toArray(new LogFilterElement[0]);
+  private List<LogFilterElement> loadAndMatch(long blockNum)
+      throws BadItemException, ItemNotFoundException {
+    TransactionRetCapsule transactionRetCapsule =
+        manager.getTransactionRetStore()
+            .getTransactionInfoByBlockNum(ByteArray.fromLong(blockNum));
+    if (transactionRetCapsule == null) {
+      //if query condition (address and topics) is empty, we will traversal every block,
+      //include empty block
+      return new ArrayList<>();
+    }
+    TransactionRet transactionRet = transactionRetCapsule.getInstance();
+    List<TransactionInfo> transactionInfoList = transactionRet.getTransactioninfoList();
+
+    String blockHash = manager.getChainBaseManager().getBlockIdByNum(blockNum).toString();
+    return matchBlock(logFilterWrapper.getLogFilter(), blockNum, blockHash,
+        transactionInfoList, false);
+  }
+
+  private static List<LogFilterElement> take(Future<List<LogFilterElement>> future)
+      throws BadItemException, ItemNotFoundException, InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof BadItemException) {
+        throw (BadItemException) cause;
+      }
+      if (cause instanceof ItemNotFoundException) {
+        throw (ItemNotFoundException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
   }
 
 }
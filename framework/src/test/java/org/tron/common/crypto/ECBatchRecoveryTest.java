@@ -0,0 +1,73 @@
+package org.tron.common.crypto;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+public class ECBatchRecoveryTest {
+
+  private final Random random = new Random(20230615L);
+
+  private byte[] randomHash() {
+    byte[] hash = new byte[32];
+    random.nextBytes(hash);
+    return hash;
+  }
+
+  @Test
+  public void testSameAsSingleRecovery() throws Exception {
+    int size = 64;
+    byte[][] hashes = new byte[size][];
+    byte[][] signatures = new byte[size][];
+    byte[][] expected = new byte[size][];
+    ECKey[] keys = {new ECKey(), new ECKey(), new ECKey()};
+    for (int i = 0; i < size; i++) {
+      ECKey key = keys[i % keys.length];
+      hashes[i] = randomHash();
+      ECKey.ECDSASignature sig = key.sign(hashes[i]);
+      signatures[i] = sig.toByteArray();
+      if (i % 2 == 0) {
+        // both header encodings are accepted
+        signatures[i][64] += 27;
+      }
+      expected[i] = ECKey.signatureToAddress(hashes[i], sig);
+      assertArrayEquals(key.getAddress(), expected[i]);
+    }
+
+    byte[][] addresses = ECBatchRecovery.recoverAddresses(hashes, signatures);
+    assertEquals(size, addresses.length);
+    for (int i = 0; i < size; i++) {
+      assertArrayEquals(expected[i], addresses[i]);
+    }
+  }
+
+  @Test
+  public void testInvalidSignatures() throws Exception {
+    ECKey key = new ECKey();
+    byte[] hash = randomHash();
+    byte[] valid = key.sign(hash).toByteArray();
+
+    byte[] badHeader = Arrays.copyOf(valid, 65);
+    badHeader[64] = 40;
+    byte[] zeroR = Arrays.copyOf(valid, 65);
+    Arrays.fill(zeroR, 0, 32, (byte) 0);
+    byte[] truncated = Arrays.copyOf(valid, 64);
+
+    byte[][] addresses = ECBatchRecovery.recoverAddresses(
+        new byte[][] {hash, hash, hash, hash, new byte[31]},
+        new byte[][] {badHeader, valid, zeroR, truncated, valid});
+    assertNull(addresses[0]);
+    assertArrayEquals(key.getAddress(), addresses[1]);
+    assertNull(addresses[2]);
+    assertNull(addresses[3]);
+    assertNull(addresses[4]);
+
+    addresses = ECBatchRecovery.recoverAddresses(new byte[][] {hash}, new byte[][] {badHeader});
+    assertNull(addresses[0]);
+    assertEquals(0, ECBatchRecovery.recoverAddresses(new byte[0][], new byte[0][]).length);
+  }
+}
@@ -0,0 +1,101 @@
+package org.tron.common.profiler;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tron.common.profiler.BlockProfile.TransactionProfile;
+import org.tron.common.profiler.BlockProfiler.Report;
+
+public class BlockProfilerTest {
+
+  private static final long MS = 1_000_000L;
+
+  @Before
+  public void init() {
+    BlockProfiler.clear();
+    BlockProfiler.setMaxBlocks(3);
+    BlockProfiler.setEnabled(true);
+  }
+
+  @After
+  public void destroy() {
+    BlockProfiler.setEnabled(false);
+    BlockProfiler.clear();
+  }
+
+  /**
+   * Profiles a block with one transaction calling the contract, which spends at least millis
+   * in the VM and exactly millis in PUSH1.
+   */
+  private static void profile(long num, String contract, long millis)
+      throws InterruptedException {
+    BlockProfile profile = BlockProfiler.begin(num, 1);
+    Assert.assertNotNull(profile);
+    // nested blocks are not profiled
+    Assert.assertNull(BlockProfiler.begin(num + 1, 0));
+    BlockProfiler.phase(BlockProfiler.SIGN, System.nanoTime() - MS);
+    BlockProfiler.beginTransaction("tx" + num, contract);
+    long start = BlockProfiler.time();
+    Thread.sleep(millis);
+    BlockProfiler.phase(BlockProfiler.VM, start);
+    BlockProfiler.current().opcode(0x60, "PUSH1", millis * MS);
+    BlockProfiler.endTransaction();
+    BlockProfiler.end(profile);
+    Assert.assertNull(BlockProfiler.current());
+  }
+
+  @Test
+  public void testProfile() throws InterruptedException {
+    profile(1, "A", 5);
+    BlockProfile profile = BlockProfiler.get(1);
+    Assert.assertNotNull(profile);
+    Assert.assertEquals(1, profile.getTransactionCount());
+    Assert.assertTrue(profile.getPhasesUs().get(BlockProfiler.SIGN) >= 1000);
+    // transaction phases are not block phases
+    Assert.assertNull(profile.getPhasesUs().get(BlockProfiler.VM));
+    Assert.assertEquals(1, profile.getTransactions().size());
+    TransactionProfile transaction = profile.getTransactions().get(0);
+    Assert.assertEquals("tx1", transaction.getId());
+    Assert.assertEquals("A", transaction.getContract());
+    Assert.assertTrue(transaction.getPhasesUs().get(BlockProfiler.VM) >= 5000);
+  }
+
+  @Test
+  public void testReport() throws InterruptedException {
+    profile(1, "A", 10);
+    profile(2, "B", 90);
+    profile(3, "A", 20);
+    profile(4, "C", 40);
+
+    Report report = BlockProfiler.report(2);
+    // block 1 left the window
+    Assert.assertEquals(3, report.getBlocks());
+    Assert.assertNull(BlockProfiler.get(1));
+    Assert.assertEquals(2, report.getSlowestBlocks().size());
+    Assert.assertEquals("2", report.getSlowestBlocks().get(0).getName());
+    Assert.assertEquals("4", report.getSlowestBlocks().get(1).getName());
+
+    Assert.assertEquals(2, report.getContracts().size());
+    Assert.assertEquals("B", report.getContracts().get(0).getName());
+    Assert.assertEquals("C", report.getContracts().get(1).getName());
+    Assert.assertEquals(1, BlockProfiler.report(3).getContracts().get(2).getCount());
+
+    Assert.assertEquals(1, report.getOpcodes().size());
+    Assert.assertEquals("PUSH1", report.getOpcodes().get(0).getName());
+    Assert.assertEquals(3, report.getOpcodes().get(0).getCount());
+    Assert.assertEquals(150_000, report.getOpcodes().get(0).getTotalUs());
+  }
+
+  @Test
+  public void testDisabled() {
+    BlockProfiler.setEnabled(false);
+    Assert.assertNull(BlockProfiler.begin(1, 0));
+    Assert.assertNull(BlockProfiler.current());
+    BlockProfiler.phase(BlockProfiler.SIGN, BlockProfiler.time());
+    BlockProfiler.beginTransaction("tx", "A");
+    BlockProfiler.endTransaction();
+    BlockProfiler.end(null);
+    Assert.assertEquals(0, BlockProfiler.report(10).getBlocks());
+  }
+}
@@ -0,0 +1,102 @@
+package org.tron.common.runtime.vm;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import org.junit.Test;
+import org.tron.core.vm.program.ContiguousMemory;
+import org.tron.core.vm.program.Memory;
+
+public class ContiguousMemoryTest {
+
+  private static void assertSameMemory(Memory expected, Memory actual) {
+    assertEquals(expected.size(), actual.size());
+    assertArrayEquals(expected.read(0, expected.size()), actual.read(0, actual.size()));
+  }
+
+  @Test
+  public void testExtend() {
+    Memory memory = new ContiguousMemory();
+    memory.extend(0, 1);
+    assertEquals(32, memory.size());
+    assertEquals(1024, memory.internalSize());
+
+    memory.extend(1000, 100);
+    assertEquals(1120, memory.size());
+    assertEquals(2048, memory.internalSize());
+
+    memory.extend(0, 0);
+    assertEquals(1120, memory.size());
+  }
+
+  @Test
+  public void testWordAccess() {
+    Memory memory = new ContiguousMemory();
+    DataWord value = new DataWord(
+        "0102030405060708091011121314151617181920212223242526272829303132");
+    memory.writeWord(1020, value);
+    assertEquals(1056, memory.size());
+    assertEquals(value, memory.readWord(1020));
+    assertEquals(DataWord.ZERO(), memory.readWord(2048));
+    assertEquals(2080, memory.size());
+  }
+
+  @Test
+  public void testLimitedWrite() {
+    Memory chunked = new Memory();
+    Memory contiguous = new ContiguousMemory();
+    byte[] data = new byte[100];
+    new Random(1).nextBytes(data);
+
+    chunked.extend(0, 64);
+    contiguous.extend(0, 64);
+    chunked.write(40, data, data.length, true);
+    contiguous.write(40, data, data.length, true);
+    assertSameMemory(chunked, contiguous);
+
+    chunked.write(128, data, data.length, true);
+    contiguous.write(128, data, data.length, true);
+    assertSameMemory(chunked, contiguous);
+  }
+
+  @Test
+  public void testEquivalentWithChunkedMemory() {
+    Random random = new Random(20230518L);
+    Memory chunked = new Memory();
+    Memory contiguous = new ContiguousMemory();
+
+    for (int i = 0; i < 10_000; i++) {
+      int address = random.nextInt(64 * 1024);
+      int size = random.nextInt(3 * 1024);
+      switch (random.nextInt(5)) {
+        case 0:
+          byte[] data = new byte[size];
+          random.nextBytes(data);
+          boolean limited = random.nextBoolean();
+          chunked.write(address, data, size, limited);
+          contiguous.write(address, data, size, limited);
+          break;
+        case 1:
+          byte[] word = new byte[DataWord.WORD_SIZE];
+          random.nextBytes(word);
+          chunked.writeWord(address, new DataWord(word));
+          contiguous.writeWord(address, new DataWord(word));
+          break;
+        case 2:
+          assertEquals(chunked.readWord(address), contiguous.readWord(address));
+          break;
+        case 3:
+          assertArrayEquals(chunked.read(address, size), contiguous.read(address, size));
+          break;
+        default:
+          chunked.extend(address, size);
+          contiguous.extend(address, size);
+          break;
+      }
+      assertEquals(chunked.size(), contiguous.size());
+    }
+    assertSameMemory(chunked, contiguous);
+    assertEquals(chunked.toString(), contiguous.toString());
+  }
+}
@@ -0,0 +1,53 @@
+package org.tron.common.runtime.vm;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.core.vm.JumpTable;
+import org.tron.core.vm.Op;
+import org.tron.core.vm.Operation;
+import org.tron.core.vm.OperationRegistry;
+import org.tron.core.vm.OperationRegistry.Version;
+import org.tron.core.vm.config.VMConfig;
+
+public class OperationRegistryTest {
+
+  @After
+  public void destroy() {
+    VMConfig.initAllowHigherLimitForMaxCpuTimeOfOneTx(0);
+  }
+
+  @Test
+  public void testResolvedOperations() {
+    for (Version version : Version.values()) {
+      JumpTable table = OperationRegistry.getTable(version);
+      for (int i = 0; i < 256; i++) {
+        Operation op = table.get(i);
+        if (op.getOpcode() < 0) {
+          Assert.assertNull(op.getName());
+          Assert.assertFalse(op.isCall());
+          continue;
+        }
+        Assert.assertEquals(i, op.getOpcode());
+        Assert.assertEquals(Op.getNameOf(i), op.getName());
+        boolean call = i == Op.CALL || i == Op.STATICCALL || i == Op.DELEGATECALL
+            || i == Op.CALLCODE || i == Op.CALLTOKEN;
+        Assert.assertEquals(call, op.isCall());
+      }
+    }
+  }
+
+  @Test
+  public void testAdjustedMemTable() {
+    VMConfig.initAllowHigherLimitForMaxCpuTimeOfOneTx(0);
+    JumpTable table = OperationRegistry.getTable();
+    Assert.assertSame(OperationRegistry.getTable(Version.TRON_V1_3), table);
+    Assert.assertSame(table, OperationRegistry.getTable());
+
+    VMConfig.initAllowHigherLimitForMaxCpuTimeOfOneTx(1);
+    JumpTable adjusted = OperationRegistry.getTable();
+    Assert.assertNotSame(table, adjusted);
+    Assert.assertSame(adjusted, OperationRegistry.getTable());
+    Assert.assertNotSame(table.get(Op.MLOAD), adjusted.get(Op.MLOAD));
+  }
+}
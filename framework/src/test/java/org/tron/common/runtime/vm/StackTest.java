@@ -0,0 +1,86 @@
+package org.tron.common.runtime.vm;
+
+import java.util.EmptyStackException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.core.vm.program.Stack;
+import org.tron.core.vm.program.listener.ProgramListenerAdaptor;
+
+public class StackTest {
+
+  @Test
+  public void testPushPop() {
+    Stack stack = new Stack();
+    Assert.assertTrue(stack.isEmpty());
+    for (int i = 0; i < Stack.MAX_SIZE; i++) {
+      stack.push(new DataWord(i));
+    }
+    Assert.assertEquals(Stack.MAX_SIZE, stack.size());
+    Assert.assertEquals(new DataWord(Stack.MAX_SIZE - 1), stack.peek());
+    Assert.assertEquals(new DataWord(0), stack.get(0));
+    for (int i = Stack.MAX_SIZE - 1; i >= 0; i--) {
+      Assert.assertEquals(new DataWord(i), stack.pop());
+    }
+    Assert.assertTrue(stack.isEmpty());
+  }
+
+  @Test(expected = EmptyStackException.class)
+  public void testPopEmpty() {
+    new Stack().pop();
+  }
+
+  @Test(expected = ArrayIndexOutOfBoundsException.class)
+  public void testGetOutOfRange() {
+    Stack stack = new Stack();
+    stack.push(DataWord.ONE());
+    stack.get(1);
+  }
+
+  @Test
+  public void testDupAndSwap() {
+    Stack stack = new Stack();
+    stack.push(new DataWord(1));
+    stack.push(new DataWord(2));
+    stack.push(new DataWord(3));
+
+    stack.dup(3);
+    Assert.assertEquals(4, stack.size());
+    Assert.assertEquals(new DataWord(1), stack.peek());
+    Assert.assertNotSame(stack.get(0), stack.get(3));
+
+    stack.swap(3, 1);
+    Assert.assertEquals(new DataWord(2), stack.get(3));
+    Assert.assertEquals(new DataWord(1), stack.get(1));
+
+    // out of range swaps are ignored
+    stack.swap(3, 4);
+    Assert.assertEquals(new DataWord(2), stack.peek());
+  }
+
+  @Test
+  public void testListener() {
+    int[] counter = new int[3];
+    Stack stack = new Stack();
+    stack.setProgramListener(new ProgramListenerAdaptor() {
+      @Override
+      public void onStackPop() {
+        counter[0]++;
+      }
+
+      @Override
+      public void onStackPush(DataWord value) {
+        counter[1]++;
+      }
+
+      @Override
+      public void onStackSwap(int from, int to) {
+        counter[2]++;
+      }
+    });
+    stack.push(DataWord.ONE());
+    stack.dup(1);
+    stack.swap(0, 1);
+    stack.pop();
+    Assert.assertArrayEquals(new int[] {1, 2, 1}, counter);
+  }
+}
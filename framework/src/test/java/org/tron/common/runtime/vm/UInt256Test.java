@@ -0,0 +1,143 @@
+package org.tron.common.runtime.vm;
+
+import java.util.Random;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Differential test of the limb based arithmetic against the BigInteger methods of DataWord.
+ */
+public class UInt256Test {
+
+  private static final int ROUNDS = 200_000;
+
+  private final Random random = new Random(20230601L);
+
+  private DataWord randomWord() {
+    byte[] data = new byte[DataWord.WORD_SIZE];
+    int kind = random.nextInt(6);
+    if (kind == 0) {
+      return new DataWord(data);
+    }
+    int len = kind == 1 ? 1 : kind == 2 ? 8 : kind == 3 ? 16 : DataWord.WORD_SIZE;
+    byte[] tail = new byte[len];
+    random.nextBytes(tail);
+    System.arraycopy(tail, 0, data, DataWord.WORD_SIZE - len, len);
+    if (random.nextInt(5) == 0) {
+      // negative values with a short magnitude
+      for (int i = 0; i < DataWord.WORD_SIZE - len; i++) {
+        data[i] = (byte) 0xff;
+      }
+    }
+    return new DataWord(data);
+  }
+
+  private DataWord randomShift() {
+    int shift = random.nextInt(4) == 0 ? random.nextInt(70_000) : random.nextInt(300);
+    DataWord word = new DataWord(shift);
+    if (random.nextInt(50) == 0) {
+      word.getData()[3] = 1;
+    }
+    return word;
+  }
+
+  private void check(String op, BiConsumer<DataWord, DataWord> expected,
+      BiConsumer<DataWord, DataWord> actual, DataWord a, DataWord b) {
+    DataWord want = a.clone();
+    expected.accept(want, b.clone());
+    DataWord got = a.clone();
+    actual.accept(got, b.clone());
+    Assert.assertEquals(op + "(" + a + ", " + b + ")", want, got);
+  }
+
+  private void checkShift(String op, BiFunction<DataWord, DataWord, DataWord> expected,
+      BiFunction<DataWord, DataWord, DataWord> actual, DataWord a, DataWord b) {
+    DataWord want = expected.apply(a.clone(), b.clone());
+    DataWord got = actual.apply(a.clone(), b.clone());
+    Assert.assertEquals(op + "(" + a + ", " + b + ")", want, got);
+  }
+
+  @Test
+  public void testArithmetic() {
+    for (int i = 0; i < ROUNDS; i++) {
+      DataWord a = randomWord();
+      DataWord b = randomWord();
+      check("add", DataWord::add, UInt256::add, a, b);
+      check("sub", DataWord::sub, UInt256::sub, a, b);
+      check("mul", DataWord::mul, UInt256::mul, a, b);
+      check("div", DataWord::div, UInt256::div, a, b);
+      check("mod", DataWord::mod, UInt256::mod, a, b);
+      check("sdiv", DataWord::sDiv, UInt256::sDiv, a, b);
+      check("smod", DataWord::sMod, UInt256::sMod, a, b);
+      if (i % 10 == 0) {
+        check("exp", DataWord::exp, UInt256::exp, a, b);
+      }
+    }
+  }
+
+  @Test
+  public void testSquare() {
+    for (int i = 0; i < ROUNDS; i++) {
+      DataWord a = randomWord();
+      DataWord want = a.clone();
+      want.mul(a.clone());
+      DataWord got = a.clone();
+      UInt256.mul(got, got);
+      Assert.assertEquals(want, got);
+    }
+  }
+
+  @Test
+  public void testShift() {
+    for (int i = 0; i < ROUNDS; i++) {
+      DataWord a = randomWord();
+      DataWord n = randomShift();
+      checkShift("shl", DataWord::shiftLeft, UInt256::shiftLeft, a, n);
+      checkShift("shr", DataWord::shiftRight, UInt256::shiftRight, a, n);
+      checkShift("sar", DataWord::shiftRightSigned, UInt256::shiftRightSigned, a, n);
+    }
+  }
+
+  @Test
+  public void testCompare() {
+    for (int i = 0; i < ROUNDS; i++) {
+      DataWord a = randomWord();
+      DataWord b = random.nextInt(10) == 0 ? a.clone() : randomWord();
+      Assert.assertEquals(Integer.signum(a.value().compareTo(b.value())),
+          UInt256.compare(a, b));
+      Assert.assertEquals(Integer.signum(a.sValue().compareTo(b.sValue())),
+          UInt256.signedCompare(a, b));
+    }
+  }
+
+  @Test
+  public void testEdgeCases() {
+    DataWord max = DataWord.ZERO();
+    max.bnot();
+    DataWord min = DataWord.ONE();
+    UInt256.shiftLeft(min, new DataWord(255));
+    DataWord minusOne = max.clone();
+
+    DataWord word = min.clone();
+    UInt256.sDiv(word, minusOne);
+    Assert.assertEquals(min, word);
+
+    word = max.clone();
+    UInt256.add(word, DataWord.ONE());
+    Assert.assertTrue(word.isZero());
+
+    word = DataWord.ZERO();
+    UInt256.sub(word, DataWord.ONE());
+    Assert.assertEquals(max, word);
+
+    word = DataWord.ZERO();
+    UInt256.exp(word, DataWord.ZERO());
+    Assert.assertEquals(DataWord.ONE(), word);
+
+    word = max.clone();
+    UInt256.div(word, DataWord.ZERO());
+    Assert.assertTrue(word.isZero());
+  }
+}
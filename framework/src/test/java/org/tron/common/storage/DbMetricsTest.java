@@ -0,0 +1,92 @@
+package org.tron.common.storage;
+
+import io.prometheus.client.CollectorRegistry;
+import java.util.Iterator;
+import java.util.Map;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.BaseTest;
+import org.tron.common.storage.metric.DbMetrics;
+import org.tron.common.utils.ByteArray;
+import org.tron.core.Constant;
+import org.tron.core.capsule.BytesCapsule;
+import org.tron.core.config.args.Args;
+import org.tron.core.db.BlockIndexStore;
+
+public class DbMetricsTest extends BaseTest {
+
+  private static final String DB = "block-index";
+
+  static {
+    Args.setParam(new String[] {"--output-directory", dbPath()}, Constant.TEST_CONF);
+    Args.getInstance().setMetricsPrometheusEnable(true);
+  }
+
+  @AfterClass
+  public static void disable() {
+    DbMetrics.setEnabled(false);
+    Args.getInstance().setMetricsPrometheusEnable(false);
+  }
+
+  private static double count(String name, String op) {
+    Double value = CollectorRegistry.defaultRegistry.getSampleValue(name + "_count",
+        new String[] {"db", "layer", "op"}, new String[] {DB, DbMetrics.CHAINBASE, op});
+    return value == null ? 0 : value;
+  }
+
+  private static double depthCount() {
+    Double value = CollectorRegistry.defaultRegistry.getSampleValue(
+        "tron:db_snapshot_depth_count", new String[] {"db"}, new String[] {DB});
+    return value == null ? 0 : value;
+  }
+
+  @Test
+  public void testToggle() {
+    BlockIndexStore store = chainBaseManager.getBlockIndexStore();
+    BytesCapsule value = new BytesCapsule(new byte[32]);
+    byte[] key = ByteArray.fromLong(-1);
+
+    DbMetrics.setEnabled(false);
+    double gets = count("tron:db_latency_seconds", DbMetrics.GET);
+    double puts = count("tron:db_latency_seconds", DbMetrics.PUT);
+    store.put(key, value);
+    store.getUnchecked(key);
+    Assert.assertEquals(gets, count("tron:db_latency_seconds", DbMetrics.GET), 0);
+    Assert.assertEquals(puts, count("tron:db_latency_seconds", DbMetrics.PUT), 0);
+
+    DbMetrics.setEnabled(true);
+    double depths = depthCount();
+    double sizes = count("tron:db_value_bytes", DbMetrics.GET);
+    store.put(key, value);
+    store.getUnchecked(key);
+    store.getUnchecked(ByteArray.fromLong(-2));
+    Assert.assertEquals(gets + 2, count("tron:db_latency_seconds", DbMetrics.GET), 0);
+    Assert.assertEquals(puts + 1, count("tron:db_latency_seconds", DbMetrics.PUT), 0);
+    Assert.assertEquals(depths + 2, depthCount(), 0);
+    // a missing value has no size
+    Assert.assertEquals(sizes + 1, count("tron:db_value_bytes", DbMetrics.GET), 0);
+
+    DbMetrics.setEnabled(false);
+    store.getUnchecked(key);
+    Assert.assertEquals(gets + 2, count("tron:db_latency_seconds", DbMetrics.GET), 0);
+  }
+
+  @Test
+  public void testIterator() {
+    BlockIndexStore store = chainBaseManager.getBlockIndexStore();
+    store.put(ByteArray.fromLong(-3), new BytesCapsule(new byte[32]));
+
+    DbMetrics.setEnabled(true);
+    double iterators = count("tron:db_latency_seconds", DbMetrics.ITERATOR);
+    Iterator<Map.Entry<byte[], BytesCapsule>> iterator = store.iterator();
+    Assert.assertTrue(iterator.hasNext());
+    // observed once the iteration is over, not when the iterator is created
+    Assert.assertEquals(iterators, count("tron:db_latency_seconds", DbMetrics.ITERATOR), 0);
+    iterator.forEachRemaining(entry -> { });
+    Assert.assertEquals(iterators + 1, count("tron:db_latency_seconds", DbMetrics.ITERATOR), 0);
+    Assert.assertFalse(iterator.hasNext());
+    Assert.assertEquals(iterators + 1, count("tron:db_latency_seconds", DbMetrics.ITERATOR), 0);
+    DbMetrics.setEnabled(false);
+  }
+}
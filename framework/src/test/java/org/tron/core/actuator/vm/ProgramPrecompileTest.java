@@ -0,0 +1,46 @@
+package org.tron.core.actuator.vm;
+
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.crypto.Hash;
+import org.tron.core.vm.program.ProgramPrecompile;
+
+public class ProgramPrecompileTest {
+
+  // PUSH1 0x5b, JUMPDEST, PUSH1 0x01, JUMPI, STOP, JUMPDEST, STOP
+  private static final byte[] CODE = Hex.decode("605b5b600157005b00");
+
+  @Test
+  public void testCompile() {
+    ProgramPrecompile precompile = ProgramPrecompile.compile(CODE);
+
+    // 0x5b as push data is not a jump destination
+    Assert.assertFalse(precompile.hasJumpDest(1));
+    Assert.assertTrue(precompile.hasJumpDest(2));
+    Assert.assertTrue(precompile.hasJumpDest(7));
+    Assert.assertFalse(precompile.hasJumpDest(-1));
+    Assert.assertFalse(precompile.hasJumpDest(100));
+  }
+
+  @Test
+  public void testTruncatedPush() {
+    ProgramPrecompile precompile = ProgramPrecompile.compile(Hex.decode("5b615b"));
+    Assert.assertTrue(precompile.hasJumpDest(0));
+    Assert.assertFalse(precompile.hasJumpDest(2));
+  }
+
+  @Test
+  public void testCache() {
+    byte[] codeHash = Hash.sha3(CODE);
+    ProgramPrecompile first = ProgramPrecompile.getCached(codeHash, CODE);
+    Assert.assertSame(first, ProgramPrecompile.getCached(codeHash, CODE.clone()));
+
+    // a forged code hash must not return the analysis of other code
+    byte[] other = Hex.decode("5b5b00");
+    ProgramPrecompile forged = ProgramPrecompile.getCached(codeHash, other);
+    Assert.assertNotSame(first, forged);
+    Assert.assertTrue(forged.hasJumpDest(1));
+    Assert.assertSame(first, ProgramPrecompile.getCached(codeHash, CODE));
+  }
+}
@@ -20,6 +20,7 @@ import org.tron.core.Constant;
 import org.tron.core.Wallet;
 import org.tron.core.config.args.Args;
 import org.tron.core.exception.BadItemException;
+import org.tron.protos.Protocol.Transaction;
 import org.tron.protos.Protocol.Transaction.Contract.ContractType;
 import org.tron.protos.contract.BalanceContract.TransferContract;
 
@@ -164,4 +165,44 @@ public class BlockCapsuleTest {
     Assert.assertTrue(true);
   }
 
+  @Test
+  public void testKeepEncoding() throws Exception {
+    BlockCapsule block = new BlockCapsule(2, Sha256Hash.ZERO_HASH, 3000,
+        ByteString.copyFrom("1234567".getBytes()));
+    for (long amount = 1; amount <= 3; amount++) {
+      TransactionCapsule trx = new TransactionCapsule(TransferContract.newBuilder()
+          .setAmount(amount)
+          .setOwnerAddress(ByteString.copyFrom("0x0000000000000000000".getBytes()))
+          .setToAddress(ByteString.copyFrom(ByteArray.fromHexString(
+              (Wallet.getAddressPreFixString() + "A389132D6639FBDA4FBC8B659264E6B7C90DB086"))))
+          .build(), ContractType.TransferContract);
+      trx.setExpiration(60_000);
+      trx.sign(ByteArray.fromHexString(privateKey));
+      block.addTransaction(trx);
+    }
+    block.setMerkleRoot();
+    block.sign(ByteArray.fromHexString(privateKey));
+    byte[] data = block.getData();
+
+    BlockCapsule kept = new BlockCapsule(data);
+    BlockCapsule built = new BlockCapsule(kept.getInstance());
+    Assert.assertArrayEquals(data, kept.getData());
+    Assert.assertEquals(built.getBlockId(), kept.getBlockId());
+    Assert.assertEquals(built.calcMerkleRoot(), kept.calcMerkleRoot());
+    Assert.assertEquals(block.getMerkleRoot(), kept.calcMerkleRoot());
+    for (int i = 0; i < 3; i++) {
+      Assert.assertEquals(built.getTransactions().get(i).getTransactionId(),
+          kept.getTransactions().get(i).getTransactionId());
+      Assert.assertArrayEquals(built.getTransactions().get(i).getData(),
+          kept.getTransactions().get(i).getData());
+    }
+
+    // a changed transaction or block is serialized again
+    TransactionCapsule trx = kept.getTransactions().get(0);
+    trx.setResultCode(Transaction.Result.contractResult.SUCCESS);
+    Assert.assertArrayEquals(trx.getInstance().toByteArray(), trx.getData());
+    Assert.assertEquals(block.getMerkleRoot(), kept.calcMerkleRoot());
+    kept.setMerkleRoot();
+    Assert.assertArrayEquals(kept.getInstance().toByteArray(), kept.getData());
+  }
 }
@@ -1,20 +1,27 @@
 package org.tron.core.capsule;
 
 import com.google.protobuf.ByteString;
+import java.util.Collections;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.tron.common.BaseTest;
+import org.tron.common.cache.CacheManager;
+import org.tron.common.cache.CacheType;
+import org.tron.common.crypto.ECKey;
 import org.tron.common.utils.StringUtil;
 import org.tron.core.Constant;
 import org.tron.core.Wallet;
 import org.tron.core.config.args.Args;
+import org.tron.core.exception.ValidateSignatureException;
 import org.tron.protos.Protocol.AccountType;
 import org.tron.protos.Protocol.Transaction;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
 import org.tron.protos.Protocol.Transaction.Result;
 import org.tron.protos.Protocol.Transaction.Result.contractResult;
+import org.tron.protos.contract.BalanceContract.TransferContract;
 
 @Slf4j
 public class TransactionCapsuleTest extends BaseTest {
@@ -1064,4 +1071,54 @@ public class TransactionCapsuleTest extends BaseTest {
     Assert.assertEquals(trxCap.getInstance()
         .getRet(0).getContractRet(), Result.contractResult.OUT_OF_TIME);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void signerCacheTest() throws Exception {
+    ECKey key = new ECKey();
+    ECKey other = new ECKey();
+    ByteString owner = ByteString.copyFrom(key.getAddress());
+    AccountCapsule account = new AccountCapsule(ByteString.copyFromUtf8("signer"), owner,
+        AccountType.Normal, 10_000_000L);
+    dbManager.getAccountStore().put(account.createDbKey(), account);
+
+    TransferContract contract = TransferContract.newBuilder().setOwnerAddress(owner)
+        .setToAddress(ByteString.copyFrom(other.getAddress())).setAmount(1).build();
+    TransactionCapsule trx = new TransactionCapsule(contract, ContractType.TransferContract);
+    trx.sign(key.getPrivKeyBytes());
+    Transaction signed = trx.getInstance();
+
+    long hits = CacheManager.stats().get(CacheType.recoveredSigner.toString()).hitCount();
+    Assert.assertTrue(new TransactionCapsule(signed).validateSignature(
+        dbManager.getAccountStore(), dbManager.getDynamicPropertiesStore()));
+    // the same transaction seen again, e.g. in a block, uses the cached check
+    Assert.assertTrue(new TransactionCapsule(signed).validateSignature(
+        dbManager.getAccountStore(), dbManager.getDynamicPropertiesStore()));
+    Assert.assertEquals(hits + 1,
+        CacheManager.stats().get(CacheType.recoveredSigner.toString()).hitCount());
+
+    // the cached result must not survive a permission change
+    account.updatePermissions(AccountCapsule.createDefaultOwnerPermission(
+        ByteString.copyFrom(other.getAddress())), null, Collections.singletonList(
+        AccountCapsule.createDefaultActivePermission(ByteString.copyFrom(other.getAddress()),
+            dbManager.getDynamicPropertiesStore())));
+    dbManager.getAccountStore().put(account.createDbKey(), account);
+    try {
+      new TransactionCapsule(signed).validateSignature(
+          dbManager.getAccountStore(), dbManager.getDynamicPropertiesStore());
+      Assert.fail();
+    } catch (ValidateSignatureException e) {
+      Assert.assertTrue(e.getMessage().contains("but it is not contained of permission"));
+    }
+
+    TransactionCapsule.invalidateSigners(owner.toByteArray());
+    hits = CacheManager.stats().get(CacheType.recoveredSigner.toString()).hitCount();
+    try {
+      new TransactionCapsule(signed).validateSignature(
+          dbManager.getAccountStore(), dbManager.getDynamicPropertiesStore());
+      Assert.fail();
+    } catch (ValidateSignatureException e) {
+      Assert.assertEquals(hits,
+          CacheManager.stats().get(CacheType.recoveredSigner.toString()).hitCount());
+    }
+  }
+}
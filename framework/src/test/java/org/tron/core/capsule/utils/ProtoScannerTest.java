@@ -0,0 +1,200 @@
+package org.tron.core.capsule.utils;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.util.ReflectionUtils;
+import org.tron.common.overlay.message.Message;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.exception.P2pException;
+import org.tron.protos.Protocol.Transaction;
+import org.tron.protos.Protocol.Transaction.Contract;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+import org.tron.protos.contract.ProposalContract.ProposalCreateContract;
+import org.tron.protos.contract.SmartContractOuterClass.CreateSmartContract;
+import org.tron.protos.contract.SmartContractOuterClass.SmartContract;
+
+public class ProtoScannerTest {
+
+  private static final ByteString ADDRESS = ByteString.copyFrom(new byte[21]);
+
+  private interface Writer {
+
+    void write(CodedOutputStream out) throws IOException;
+  }
+
+  private static ByteString encode(Writer writer) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+    writer.write(out);
+    out.flush();
+    return ByteString.copyFrom(bytes.toByteArray());
+  }
+
+  private static ByteString transfer() {
+    return TransferContract.newBuilder().setOwnerAddress(ADDRESS).setToAddress(ADDRESS)
+        .setAmount(1_000_000L).build().toByteString();
+  }
+
+  private static Contract contract(ContractType type, String typeUrl, ByteString value) {
+    return Contract.newBuilder().setType(type)
+        .setParameter(Any.newBuilder().setTypeUrl(typeUrl).setValue(value)).build();
+  }
+
+  @Test
+  public void testKnownFields() throws IOException {
+    Assert.assertFalse(ProtoScanner.hasUnknownFields(TransferContract.getDescriptor(),
+        transfer()));
+    SmartContract smartContract = SmartContract.newBuilder().setName("name")
+        .setAbi(SmartContract.ABI.newBuilder().addEntrys(SmartContract.ABI.Entry.newBuilder()
+            .setName("transfer").setType(SmartContract.ABI.Entry.EntryType.Function)))
+        .build();
+    Assert.assertFalse(ProtoScanner.hasUnknownFields(CreateSmartContract.getDescriptor(),
+        CreateSmartContract.newBuilder().setOwnerAddress(ADDRESS)
+            .setNewContract(smartContract).build().toByteString()));
+    // a field repeated, not canonical but known
+    Assert.assertFalse(ProtoScanner.hasUnknownFields(TransferContract.getDescriptor(),
+        transfer().concat(encode(out -> out.writeInt64(3, 1)))));
+  }
+
+  @Test
+  public void testUnknownFields() throws IOException {
+    // an unknown field number
+    Assert.assertTrue(ProtoScanner.hasUnknownFields(TransferContract.getDescriptor(),
+        transfer().concat(encode(out -> out.writeInt64(99, 1)))));
+    // a known field in another wire type
+    Assert.assertTrue(ProtoScanner.hasUnknownFields(TransferContract.getDescriptor(),
+        transfer().concat(encode(out -> out.writeBytes(3, ADDRESS)))));
+    // an unknown field in a held message
+    ByteString smartContract = SmartContract.newBuilder().setName("name").build().toByteString()
+        .concat(encode(out -> out.writeInt64(99, 1)));
+    Assert.assertTrue(ProtoScanner.hasUnknownFields(CreateSmartContract.getDescriptor(),
+        encode(out -> {
+          out.writeBytes(1, ADDRESS);
+          out.writeBytes(2, smartContract);
+        })));
+  }
+
+  @Test
+  public void testInvalid() throws IOException {
+    ByteString truncated = transfer().substring(0, transfer().size() - 1);
+    Assert.assertThrows(InvalidProtocolBufferException.class,
+        () -> ProtoScanner.hasUnknownFields(TransferContract.getDescriptor(), truncated));
+    ByteString notUtf8 = encode(out -> out.writeByteArray(7, new byte[] {(byte) 0xff}));
+    Assert.assertThrows(InvalidProtocolBufferException.class,
+        () -> ProtoScanner.hasUnknownFields(SmartContract.getDescriptor(), notUtf8));
+  }
+
+  private static boolean isCanonical(ByteString data) {
+    byte[] bytes = data.toByteArray();
+    return ProtoScanner.isCanonical(TransferContract.getDescriptor(), bytes, 0, bytes.length);
+  }
+
+  @Test
+  public void testIsCanonical() throws IOException {
+    Assert.assertTrue(isCanonical(transfer()));
+    Assert.assertTrue(isCanonical(ByteString.EMPTY));
+    byte[] transaction = Transaction.newBuilder().setRawData(Transaction.raw.newBuilder()
+        .addContract(contract(ContractType.TransferContract,
+            "type.googleapis.com/protocol.TransferContract", transfer()))
+        .setExpiration(60_000).setTimestamp(1))
+        .addSignature(ByteString.copyFrom(new byte[65])).build().toByteArray();
+    Assert.assertTrue(ProtoScanner.isCanonical(Transaction.getDescriptor(), transaction, 0,
+        transaction.length));
+
+    // the fields out of order
+    Assert.assertFalse(isCanonical(encode(out -> {
+      out.writeBytes(2, ADDRESS);
+      out.writeBytes(1, ADDRESS);
+    })));
+    // a field of the default value
+    Assert.assertFalse(isCanonical(encode(out -> {
+      out.writeBytes(1, ADDRESS);
+      out.writeInt64(3, 0);
+    })));
+    Assert.assertFalse(isCanonical(encode(out -> out.writeBytes(1, ByteString.EMPTY))));
+    // a singular field twice
+    Assert.assertFalse(isCanonical(transfer().concat(encode(out -> out.writeInt64(3, 1)))));
+    // an unknown field
+    Assert.assertFalse(isCanonical(transfer().concat(encode(out -> out.writeInt64(99, 1)))));
+    // a varint not in the fewest bytes
+    Assert.assertFalse(isCanonical(encode(out -> {
+      out.writeTag(3, WireFormat.WIRETYPE_VARINT);
+      out.writeRawBytes(new byte[] {(byte) 0x81, 0x00});
+    })));
+    // a truncated message
+    Assert.assertFalse(isCanonical(transfer().substring(0, transfer().size() - 1)));
+  }
+
+  @Test
+  public void testValidContractProto() throws Exception {
+    String typeUrl = "type.googleapis.com/protocol.TransferContract";
+    TransactionCapsule.validContractProto(
+        contract(ContractType.TransferContract, typeUrl, transfer()));
+
+    Assert.assertThrows(P2pException.class, () -> TransactionCapsule.validContractProto(
+        contract(ContractType.TransferContract, typeUrl,
+            transfer().concat(encode(out -> out.writeInt64(99, 1))))));
+    Assert.assertThrows(InvalidProtocolBufferException.class,
+        () -> TransactionCapsule.validContractProto(contract(ContractType.TransferContract,
+            "type.googleapis.com/protocol.TransferAssetContract", transfer())));
+  }
+
+  // the check before ProtoScanner, with the proto filter on: unpacked, serialized, parsed again
+  // dropping unknown fields and serialized again
+  private static boolean oldCheckPasses(ByteString value) {
+    try {
+      ProposalCreateContract src = Any.newBuilder()
+          .setTypeUrl("type.googleapis.com/protocol.ProposalCreateContract").setValue(value)
+          .build().unpack(ProposalCreateContract.class);
+      CodedInputStream input = CodedInputStream.newInstance(src.toByteArray());
+      Field discard = ReflectionUtils.findField(CodedInputStream.class,
+          "shouldDiscardUnknownFields");
+      ReflectionUtils.makeAccessible(discard);
+      ReflectionUtils.setField(discard, input, true);
+      ProposalCreateContract parsed = ProposalCreateContract.parseFrom(input);
+      Message.compareBytes(src.toByteArray(), parsed.toByteArray());
+      return true;
+    } catch (InvalidProtocolBufferException | P2pException e) {
+      return false;
+    }
+  }
+
+  @Test
+  public void testMapEntry() throws IOException {
+    ByteString entry = encode(out -> {
+      out.writeInt64(1, 6);
+      out.writeInt64(2, 1_000_000L);
+      // dropped by the map entry parser
+      out.writeInt64(99, 1);
+      out.writeBytes(1, ADDRESS);
+    });
+    ByteString proposal = encode(out -> {
+      out.writeBytes(1, ADDRESS);
+      out.writeBytes(2, entry);
+    });
+    Assert.assertTrue(oldCheckPasses(proposal));
+    Assert.assertFalse(ProtoScanner.hasUnknownFields(ProposalCreateContract.getDescriptor(),
+        proposal));
+    TransactionCapsule.validContractProto(contract(ContractType.ProposalCreateContract,
+        "type.googleapis.com/protocol.ProposalCreateContract", proposal));
+
+    // the map field itself in another wire type is kept unknown
+    ByteString unknown = encode(out -> {
+      out.writeBytes(1, ADDRESS);
+      out.writeInt64(2, 1);
+    });
+    Assert.assertFalse(oldCheckPasses(unknown));
+    Assert.assertTrue(ProtoScanner.hasUnknownFields(ProposalCreateContract.getDescriptor(),
+        unknown));
+  }
+}
@@ -0,0 +1,67 @@
+package org.tron.core.capsule.utils;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.protos.Protocol.Transaction;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+
+public class TransactionMerkleRootTest {
+
+  private static List<TransactionCapsule> transactions(int count) {
+    List<TransactionCapsule> transactions = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      transactions.add(new TransactionCapsule(TransferContract.newBuilder()
+          .setOwnerAddress(ByteString.copyFrom(new byte[21]))
+          .setToAddress(ByteString.copyFrom(new byte[21]))
+          .setAmount(i + 1).build(), ContractType.TransferContract));
+    }
+    return transactions;
+  }
+
+  private static Sha256Hash tree(List<TransactionCapsule> transactions) {
+    return MerkleTree.getInstance().createTree(transactions.stream()
+        .map(TransactionCapsule::getMerkleHash).collect(Collectors.toList()))
+        .getRoot().getHash();
+  }
+
+  @Test
+  public void testSameRootAsTree() {
+    Assert.assertEquals(Sha256Hash.ZERO_HASH, TransactionMerkleRoot.of(new ArrayList<>()));
+    Assert.assertEquals(Sha256Hash.ZERO_HASH, new TransactionMerkleRoot.Appender().root());
+    List<TransactionCapsule> all = transactions(2100);
+    TransactionMerkleRoot.Appender appender = new TransactionMerkleRoot.Appender();
+    for (int count = 1; count <= all.size(); count++) {
+      List<TransactionCapsule> transactions = all.subList(0, count);
+      appender.append(transactions.get(count - 1));
+      if (count <= 130 || count % 97 == 0 || Integer.bitCount(count) == 1
+          || count == all.size()) {
+        Sha256Hash root = tree(transactions);
+        Assert.assertEquals("count = " + count, root, TransactionMerkleRoot.of(transactions));
+        Assert.assertEquals("count = " + count, root, appender.root());
+      }
+    }
+  }
+
+  @Test
+  public void testIsRootOf() {
+    List<TransactionCapsule> transactions = transactions(3);
+    TransactionMerkleRoot.Appender appender = new TransactionMerkleRoot.Appender();
+    transactions.forEach(appender::append);
+    List<Transaction> instances = transactions.stream().map(TransactionCapsule::getInstance)
+        .collect(Collectors.toList());
+    Assert.assertTrue(appender.isRootOf(instances));
+    Assert.assertFalse(appender.isRootOf(instances.subList(0, 2)));
+
+    // a transaction changed after it was appended
+    transactions.get(1).setResultCode(Transaction.Result.contractResult.SUCCESS);
+    Assert.assertFalse(appender.isRootOf(transactions.stream()
+        .map(TransactionCapsule::getInstance).collect(Collectors.toList())));
+  }
+}
@@ -0,0 +1,130 @@
+package org.tron.core.db;
+
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tron.common.application.TronApplicationContext;
+import org.tron.common.crypto.ECKey;
+import org.tron.common.parameter.CommonParameter;
+import org.tron.common.utils.ByteArray;
+import org.tron.common.utils.PublicMethod;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.Constant;
+import org.tron.core.capsule.AccountCapsule;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.config.DefaultConfig;
+import org.tron.core.config.args.Args;
+import org.tron.protos.Protocol;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+
+public class PendingManagerTest {
+
+  @ClassRule
+  public static final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private TronApplicationContext context;
+  private Manager dbManager;
+  private BlockCapsule blockCapsule;
+
+  @Before
+  public void init() throws IOException {
+    Args.setParam(new String[] {"--output-directory",
+        temporaryFolder.newFolder().toString()}, Constant.TEST_CONF);
+    CommonParameter.PARAMETER.setOpenTransactionSort(true);
+    CommonParameter.PARAMETER.setMaxTransactionPendingSize(2);
+
+    context = new TronApplicationContext(DefaultConfig.class);
+    dbManager = context.getBean(Manager.class);
+    // the transactions are re-pushed by the test only
+    dbManager.stopRePushThread();
+
+    blockCapsule = new BlockCapsule(1, Sha256Hash.wrap(ByteString.copyFrom(
+        ByteArray.fromHexString(
+            "0304f784e4e7bae517bcab94c3e0c9214fb4ac7ff9d7d5a937d1f40031f87b81"))),
+        1, ByteString.copyFromUtf8("testAddress"));
+    dbManager.getDynamicPropertiesStore().saveLatestBlockHeaderNumber(blockCapsule.getNum());
+    dbManager.getDynamicPropertiesStore()
+        .saveLatestBlockHeaderTimestamp(blockCapsule.getTimeStamp());
+    dbManager.updateRecentBlock(blockCapsule);
+  }
+
+  @After
+  public void removeDb() {
+    Args.clearParam();
+    context.destroy();
+  }
+
+  private byte[] account(long balance) {
+    byte[] address = new ECKey().getAddress();
+    AccountCapsule account = new AccountCapsule(Protocol.Account.newBuilder()
+        .setAddress(ByteString.copyFrom(address)).build());
+    account.setBalance(balance);
+    dbManager.getAccountStore().put(address, account);
+    return address;
+  }
+
+  private TransactionCapsule transfer(String key, byte[] to) {
+    byte[] privateKey = ByteArray.fromHexString(key);
+    TransactionCapsule trx = new TransactionCapsule(TransferContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom(ECKey.fromPrivate(privateKey).getAddress()))
+        .setToAddress(ByteString.copyFrom(to))
+        .setAmount(1_000_000L).build(), ContractType.TransferContract);
+    trx.setReference(blockCapsule.getNum(), blockCapsule.getBlockId().getBytes());
+    trx.setExpiration(blockCapsule.getTimeStamp() + 60_000);
+    trx.sign(privateKey);
+    trx.setTime(System.currentTimeMillis());
+    return trx;
+  }
+
+  private String owner() {
+    String key = PublicMethod.getRandomPrivateKey();
+    byte[] address = ECKey.fromPrivate(ByteArray.fromHexString(key)).getAddress();
+    AccountCapsule account = new AccountCapsule(Protocol.Account.newBuilder()
+        .setAddress(ByteString.copyFrom(address)).build());
+    account.setBalance(1_000_000_000L);
+    dbManager.getAccountStore().put(address, account);
+    return key;
+  }
+
+  @Test
+  public void testFullRePushPool() throws Exception {
+    byte[] recipient = account(0);
+    // paid by free bandwidth
+    TransactionCapsule free1 = transfer(owner(), recipient);
+    TransactionCapsule free2 = transfer(owner(), account(0));
+    // pays to create the account
+    TransactionCapsule paid = transfer(owner(), new ECKey().getAddress());
+
+    Assert.assertTrue(dbManager.pushTransaction(free1));
+    Assert.assertTrue(dbManager.pushTransaction(free2));
+    Assert.assertFalse(dbManager.isTooManyPending());
+    Assert.assertTrue(dbManager.pushTransaction(paid));
+    Assert.assertTrue(paid.getOrder() > 0);
+    Assert.assertEquals(0, free2.getOrder());
+    Assert.assertEquals(3, dbManager.getPendingTransactions().size());
+    Assert.assertTrue(dbManager.isTooManyPending());
+    Assert.assertEquals(1_000_000L, dbManager.getAccountStore().get(recipient).getBalance());
+
+    // the pending pool is moved to the re-push pool of two, which evicts the lowest paying
+    // transaction added last, free2
+    new PendingManager(dbManager).close();
+    TransactionPool rePush = dbManager.getRePushTransactions();
+    Assert.assertEquals(0, dbManager.getPendingTransactions().size());
+    Assert.assertEquals(2, rePush.size());
+    Assert.assertSame(paid, rePush.peek());
+    Assert.assertSame(free1, rePush.get(free1.getTransactionId()));
+    Assert.assertNull(rePush.get(free2.getTransactionId()));
+    Assert.assertFalse(dbManager.isTooManyPending());
+
+    // nothing of the pending transactions is left in the state, so free2 can be pushed again
+    Assert.assertEquals(0, dbManager.getAccountStore().get(recipient).getBalance());
+    Assert.assertTrue(dbManager.pushTransaction(free2));
+    Assert.assertSame(free2, dbManager.getPendingTransactions().peek());
+  }
+}
@@ -0,0 +1,125 @@
+package org.tron.core.db;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.prometheus.MetricLabels;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+
+public class TransactionPoolTest {
+
+  private static TransactionCapsule transaction(String owner, long amount, long fee) {
+    TransactionCapsule trx = new TransactionCapsule(TransferContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFromUtf8(owner))
+        .setToAddress(ByteString.copyFromUtf8("to"))
+        .setAmount(amount).build(), ContractType.TransferContract);
+    trx.setExpiration(amount * 1000);
+    trx.setOrder(fee);
+    return trx;
+  }
+
+  private static List<TransactionCapsule> drain(TransactionPool pool) {
+    List<TransactionCapsule> taken = new ArrayList<>();
+    pool.drainTo(taken);
+    return taken;
+  }
+
+  @Test
+  public void testLanes() {
+    TransactionCapsule a1 = transaction("a", 1, 10_000);
+    TransactionCapsule a2 = transaction("a", 2, 1_000_000);
+    TransactionCapsule b1 = transaction("b", 3, 100_000);
+    Assert.assertTrue(TransactionPool.feeRate(a1) < TransactionPool.feeRate(b1));
+    Assert.assertTrue(TransactionPool.feeRate(b1) < TransactionPool.feeRate(a2));
+
+    TransactionPool sorted = new TransactionPool(MetricLabels.Gauge.QUEUE_PENDING, 10, true);
+    sorted.add(a1);
+    sorted.add(a2);
+    sorted.add(b1);
+    Assert.assertSame(b1, sorted.peek());
+    // a2 pays the most but waits for a1, the first of its owner
+    List<TransactionCapsule> taken = drain(sorted);
+    Assert.assertEquals(3, taken.size());
+    Assert.assertSame(b1, taken.get(0));
+    Assert.assertSame(a1, taken.get(1));
+    Assert.assertSame(a2, taken.get(2));
+    Assert.assertNull(sorted.poll());
+
+    TransactionPool unsorted = new TransactionPool(MetricLabels.Gauge.QUEUE_PENDING, 10, false);
+    unsorted.add(a1);
+    unsorted.add(b1);
+    unsorted.add(a2);
+    taken = drain(unsorted);
+    Assert.assertSame(a1, taken.get(0));
+    Assert.assertSame(b1, taken.get(1));
+    Assert.assertSame(a2, taken.get(2));
+  }
+
+  @Test
+  public void testEvict() {
+    TransactionCapsule a1 = transaction("a", 1, 10_000);
+    TransactionCapsule a2 = transaction("a", 2, 1_000_000);
+    TransactionCapsule b1 = transaction("b", 3, 100_000);
+    TransactionCapsule c1 = transaction("c", 4, 0);
+
+    TransactionPool pool = new TransactionPool(MetricLabels.Gauge.QUEUE_PENDING, 2, true);
+    Assert.assertTrue(pool.offer(a1));
+    Assert.assertTrue(pool.offer(b1));
+    Assert.assertFalse(pool.offer(b1));
+    // the lowest paying is the one added
+    Assert.assertFalse(pool.offer(c1));
+    Assert.assertEquals(2, pool.size());
+    // a1 pays the least but is not the last of its lane once a2 is added, so b1 is evicted
+    Assert.assertTrue(pool.offer(a2));
+    Assert.assertEquals(2, pool.size());
+    Assert.assertNull(pool.get(b1.getTransactionId()));
+    Assert.assertSame(a1, pool.get(a1.getTransactionId()));
+    Assert.assertSame(a2, pool.get(a2.getTransactionId()));
+    Assert.assertEquals(0, pool.remainingCapacity());
+
+    TransactionPool unsorted = new TransactionPool(MetricLabels.Gauge.QUEUE_PENDING, 1, false);
+    Assert.assertTrue(unsorted.offer(a1));
+    Assert.assertFalse(unsorted.offer(a2));
+    Assert.assertSame(a1, unsorted.poll());
+  }
+
+  @Test
+  public void testRemove() {
+    TransactionCapsule a1 = transaction("a", 1, 0);
+    TransactionCapsule a2 = transaction("a", 2, 0);
+    TransactionCapsule a3 = transaction("a", 3, 0);
+    TransactionCapsule b1 = transaction("b", 4, 0);
+    TransactionPool pool = new TransactionPool(MetricLabels.Gauge.QUEUE_REPUSH,
+        Integer.MAX_VALUE, true);
+    pool.add(a1);
+    pool.add(a2);
+    pool.add(a3);
+    pool.add(b1);
+
+    Assert.assertTrue(pool.remove(a2));
+    Assert.assertFalse(pool.remove(a2));
+    Assert.assertFalse(pool.contains(a2));
+    Assert.assertTrue(pool.contains(a3));
+    Assert.assertTrue(pool.hasOwner(a1.getOwnerAddress()));
+    Assert.assertFalse(pool.hasOwner(transaction("c", 5, 0).getOwnerAddress()));
+
+    // expiring at or before 1s
+    Assert.assertEquals(1, pool.removeExpired(1000).size());
+    Assert.assertSame(a3, pool.peek());
+
+    Iterator<TransactionCapsule> iterator = pool.iterator();
+    Assert.assertSame(a3, iterator.next());
+    iterator.remove();
+    Assert.assertSame(b1, pool.peek());
+    Assert.assertEquals(1, pool.size());
+
+    pool.clear();
+    Assert.assertTrue(pool.isEmpty());
+    Assert.assertNull(pool.peek());
+  }
+}
@@ -0,0 +1,74 @@
+package org.tron.core.db;
+
+import javax.annotation.Resource;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.BaseTest;
+import org.tron.common.utils.ByteArray;
+import org.tron.core.Constant;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.capsule.TransactionInfoCapsule;
+import org.tron.core.capsule.TransactionRetCapsule;
+import org.tron.core.config.args.Args;
+import org.tron.core.exception.BadItemException;
+import org.tron.core.store.TransactionRetIndexStore;
+import org.tron.core.store.TransactionRetStore;
+import org.tron.protos.Protocol.Transaction;
+
+public class TransactionRetIndexStoreTest extends BaseTest {
+
+  @Resource
+  private TransactionRetStore transactionRetStore;
+  @Resource
+  private TransactionRetIndexStore transactionRetIndexStore;
+  @Resource
+  private TransactionStore transactionStore;
+
+  static {
+    Args.setParam(new String[]{"--output-directory", dbPath()}, Constant.TEST_CONF);
+    Args.getInstance().getStorage().setTransactionHistoryIndex(true);
+  }
+
+  private static TransactionRetCapsule result(byte[][] ids) {
+    TransactionRetCapsule ret = new TransactionRetCapsule();
+    for (int i = 0; i < ids.length; i++) {
+      TransactionInfoCapsule info = new TransactionInfoCapsule();
+      info.setId(ids[i]);
+      info.setFee(i);
+      ret.addTransactionInfo(info.getInstance());
+    }
+    return ret;
+  }
+
+  @Test
+  public void getIndexed() throws BadItemException {
+    byte[][] ids = new byte[5][];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = TransactionStoreTest.randomBytes(32);
+    }
+    transactionRetStore.put(ByteArray.fromLong(2), result(ids));
+
+    long[] position = transactionRetIndexStore.getPosition(ids[3]);
+    Assert.assertEquals(2, position[0]);
+    // found without the transaction store
+    TransactionInfoCapsule info = transactionRetStore.getTransactionInfo(ids[3]);
+    Assert.assertArrayEquals(ids[3], info.getId());
+    Assert.assertEquals(3, info.getFee());
+    Assert.assertNull(transactionRetStore.getTransactionInfo(
+        TransactionStoreTest.randomBytes(32)));
+  }
+
+  @Test
+  public void getScanned() throws BadItemException {
+    byte[][] ids = {TransactionStoreTest.randomBytes(32), TransactionStoreTest.randomBytes(32)};
+    TransactionRetCapsule ret = result(ids);
+    // stored before the index was built, found by the scan
+    transactionRetStore.getRevokingDB().put(ByteArray.fromLong(3), ret.getData());
+    TransactionCapsule trx = new TransactionCapsule(Transaction.newBuilder().build());
+    trx.setBlockNum(3);
+    transactionStore.put(ids[1], trx);
+
+    Assert.assertNull(transactionRetIndexStore.getPosition(ids[1]));
+    Assert.assertEquals(1, transactionRetStore.getTransactionInfo(ids[1]).getFee());
+  }
+}
@@ -5,6 +5,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.tron.common.BaseTest;
 import org.tron.common.utils.ByteArray;
 import org.tron.core.Constant;
@@ -13,6 +14,7 @@ import org.tron.core.capsule.TransactionInfoCapsule;
 import org.tron.core.capsule.TransactionRetCapsule;
 import org.tron.core.config.args.Args;
 import org.tron.core.exception.BadItemException;
+import org.tron.core.store.TransactionRetIndexStore;
 import org.tron.core.store.TransactionRetStore;
 import org.tron.protos.Protocol.Transaction;
 
@@ -27,6 +29,8 @@ public class TransactionRetStoreTest extends BaseTest {
   private static Transaction transaction;
   @Resource
   private TransactionStore transactionStore;
+  @Autowired(required = false)
+  private TransactionRetIndexStore transactionRetIndexStore;
 
   private static TransactionCapsule transactionCapsule;
   private static TransactionRetCapsule transactionRetCapsule;
@@ -83,4 +87,30 @@ public class TransactionRetStoreTest extends BaseTest {
     Assert.assertNotNull("get transaction info error",
         transactionRetStore.getUnchecked(transactionInfoCapsule.getId()));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void getWithoutIndex() throws BadItemException {
+    // storage.transHistory.index is off
+    Assert.assertNull(transactionRetIndexStore);
+    TransactionRetCapsule ret = new TransactionRetCapsule();
+    byte[][] ids = new byte[5][];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = TransactionStoreTest.randomBytes(32);
+      TransactionInfoCapsule info = new TransactionInfoCapsule();
+      info.setId(ids[i]);
+      info.setFee(i);
+      ret.addTransactionInfo(info.getInstance());
+    }
+    transactionRetStore.put(ByteArray.fromLong(3), ret);
+    TransactionCapsule trx = new TransactionCapsule(Transaction.newBuilder().build());
+    trx.setBlockNum(3);
+    transactionStore.put(ids[3], trx);
+
+    // found by the scan of the block result of the transaction store
+    TransactionInfoCapsule info = transactionRetStore.getTransactionInfo(ids[3]);
+    Assert.assertArrayEquals(ids[3], info.getId());
+    Assert.assertEquals(3, info.getFee());
+    // not in the transaction store
+    Assert.assertNull(transactionRetStore.getTransactionInfo(ids[4]));
+  }
+}
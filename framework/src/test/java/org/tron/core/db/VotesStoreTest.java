@@ -2,29 +2,76 @@ package org.tron.core.db;
 
 import com.google.protobuf.ByteString;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import javax.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 import org.tron.common.BaseTest;
+import org.tron.common.crypto.ECKey;
+import org.tron.common.parameter.CommonParameter;
+import org.tron.consensus.dpos.MaintenanceManager;
 import org.tron.core.Constant;
+import org.tron.core.capsule.AccountCapsule;
 import org.tron.core.capsule.VotesCapsule;
+import org.tron.core.capsule.WitnessCapsule;
 import org.tron.core.config.args.Args;
+import org.tron.core.consensus.ConsensusService;
+import org.tron.core.store.VotesDeltaStore;
 import org.tron.core.store.VotesStore;
+import org.tron.core.store.WitnessStore;
+import org.tron.protos.Protocol.AccountType;
 import org.tron.protos.Protocol.Vote;
 
 @Slf4j
 public class VotesStoreTest extends BaseTest {
 
 
+  private static final String URL = "https://tron.network";
+  private static final ByteString[] WITNESSES = new ByteString[8];
+
   static {
     Args.setParam(new String[]{"-d", dbPath()}, Constant.TEST_CONF);
+    for (int i = 0; i < WITNESSES.length; i++) {
+      WITNESSES[i] = ByteString.copyFrom(new ECKey().getAddress());
+    }
   }
 
   @Resource
   private VotesStore votesStore;
 
+  @Resource
+  private VotesDeltaStore votesDeltaStore;
+
+  @Resource
+  private WitnessStore witnessStore;
+
+  @Resource
+  private MaintenanceManager maintenanceManager;
+
+  @Resource
+  private ConsensusService consensusService;
+
+  private static boolean consensusStart;
+
+  @Before
+  public void init() {
+    for (ByteString witness : WITNESSES) {
+      chainBaseManager.getAccountStore().put(witness.toByteArray(), new AccountCapsule(
+          ByteString.copyFromUtf8("witness"), witness, AccountType.Normal, 0L));
+    }
+    if (consensusStart) {
+      return;
+    }
+    consensusService.start();
+    consensusStart = true;
+  }
+
   @Test
   public void putAndGetVotes() {
     List<Vote> oldVotes = new ArrayList<Vote>();
@@ -39,4 +86,123 @@ public class VotesStoreTest extends BaseTest {
     Assert.assertEquals(votesCapsule.getAddress(), votesSource.getAddress());
     Assert.assertEquals(ByteString.copyFromUtf8("100000000x"), votesSource.getAddress());
   }
-}
\ No newline at end of file
+
+  /**
+   * Replays the same recorded periods with the full scan of the maintenance, and with the
+   * incremental tally turned on after the first period.
+   */
+  @Test
+  public void incrementalTallySameAsScan() {
+    List<List<Vote[]>> periods = recordPeriods();
+    List<Map<ByteString, Long>> scanned = replay(periods, false, false, false, false);
+    List<Map<ByteString, Long>> tallied = replay(periods, true, true, true, true);
+    Assert.assertEquals(scanned, tallied);
+    Assert.assertNotEquals(scanned.get(0), scanned.get(1));
+  }
+
+  /**
+   * Turns the incremental tally on and off between maintenances: turning it on or off counts
+   * one more period by the full scan and clears the tally.
+   */
+  @Test
+  public void switchTallySameAsScan() {
+    List<List<Vote[]>> periods = recordPeriods();
+    List<Map<ByteString, Long>> scanned = replay(periods, false, false, false, false);
+    List<Map<ByteString, Long>> switched = replay(periods, true, false, true, false);
+    Assert.assertEquals(scanned, switched);
+  }
+
+  /**
+   * Every element is the new votes of one voter, voters 0..99 in round robin, an empty array
+   * cancels the votes.
+   */
+  private static List<List<Vote[]>> recordPeriods() {
+    Random random = new Random(20240315L);
+    List<List<Vote[]>> periods = new ArrayList<>();
+    for (int period = 0; period < 4; period++) {
+      List<Vote[]> changes = new ArrayList<>();
+      for (int i = 0; i < 300; i++) {
+        Vote[] votes = new Vote[random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(3)];
+        for (int v = 0; v < votes.length; v++) {
+          votes[v] = Vote.newBuilder()
+              .setVoteAddress(WITNESSES[random.nextInt(WITNESSES.length)])
+              .setVoteCount(1 + random.nextInt(1000)).build();
+        }
+        changes.add(votes);
+      }
+      periods.add(changes);
+    }
+    return periods;
+  }
+
+  /**
+   * Runs the maintenance after every period, with storage.votes.incremental set as given for
+   * it.
+   *
+   * @return the vote counts of the witnesses after every maintenance
+   */
+  private List<Map<ByteString, Long>> replay(List<List<Vote[]>> periods,
+      boolean... incremental) {
+    clear();
+    Map<ByteString, List<Vote>> accountVotes = new HashMap<>();
+    List<Map<ByteString, Long>> counts = new ArrayList<>();
+    try {
+      for (int period = 0; period < periods.size(); period++) {
+        List<Vote[]> changes = periods.get(period);
+        for (int i = 0; i < changes.size(); i++) {
+          ByteString voter = ByteString.copyFromUtf8("voter" + i % 100);
+          List<Vote> votes = new ArrayList<>();
+          Collections.addAll(votes, changes.get(i));
+          // as the vote and unfreeze actuators do
+          VotesCapsule votesCapsule = votesStore.has(voter.toByteArray())
+              ? votesStore.get(voter.toByteArray())
+              : new VotesCapsule(voter, accountVotes.getOrDefault(voter, new ArrayList<>()));
+          votesCapsule.clearNewVotes();
+          votesCapsule.addAllNewVotes(votes);
+          votesStore.put(voter.toByteArray(), votesCapsule);
+          accountVotes.put(voter, votes);
+        }
+
+        long epoch = votesDeltaStore.getEpoch();
+        CommonParameter.getInstance().getStorage().setVotesIncremental(incremental[period]);
+        maintenanceManager.doMaintenance();
+        if (!incremental[period]) {
+          Assert.assertEquals(0, votesDeltaStore.getEpoch());
+        } else {
+          // the first period is counted by the full scan
+          Assert.assertEquals(epoch + 1, votesDeltaStore.getEpoch());
+        }
+        Assert.assertEquals(votesDeltaStore.getEpoch(), votesDeltaStore.loadEpoch());
+        // the period is counted, and the votes store left empty, either way
+        Assert.assertFalse(votesStore.iterator().hasNext());
+        List<byte[]> voters = new ArrayList<>();
+        Assert.assertTrue(votesDeltaStore.drain(voters).isEmpty());
+        Assert.assertTrue(voters.isEmpty());
+        counts.add(voteCounts());
+      }
+    } finally {
+      CommonParameter.getInstance().getStorage().setVotesIncremental(false);
+    }
+    clear();
+    return counts;
+  }
+
+  private Map<ByteString, Long> voteCounts() {
+    Map<ByteString, Long> counts = new HashMap<>();
+    for (ByteString witness : WITNESSES) {
+      counts.put(witness, witnessStore.get(witness.toByteArray()).getVoteCount());
+    }
+    return counts;
+  }
+
+  private void clear() {
+    votesDeltaStore.setEpoch(0);
+    votesDeltaStore.drain(new ArrayList<>());
+    List<byte[]> keys = new ArrayList<>();
+    votesStore.iterator().forEachRemaining(entry -> keys.add(entry.getKey()));
+    keys.forEach(votesStore::delete);
+    for (ByteString witness : WITNESSES) {
+      witnessStore.put(witness.toByteArray(), new WitnessCapsule(witness, 0, URL));
+    }
+  }
+}
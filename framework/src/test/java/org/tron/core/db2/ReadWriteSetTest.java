@@ -0,0 +1,118 @@
+package org.tron.core.db2;
+
+import java.io.File;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tron.common.application.TronApplicationContext;
+import org.tron.common.utils.FileUtil;
+import org.tron.core.Constant;
+import org.tron.core.config.DefaultConfig;
+import org.tron.core.config.args.Args;
+import org.tron.core.db2.RevokingDbWithCacheNewValueTest.TestRevokingTronStore;
+import org.tron.core.db2.core.Chainbase;
+import org.tron.core.db2.core.ReadWriteSet;
+import org.tron.core.db2.core.SnapshotManager;
+
+public class ReadWriteSetTest {
+
+  private SnapshotManager revokingDatabase;
+  private TronApplicationContext context;
+  private TestRevokingTronStore store;
+  private Chainbase db;
+
+  @Before
+  public void init() {
+    Args.setParam(new String[]{"-d", "output_ReadWriteSet_test"}, Constant.TEST_CONF);
+    context = new TronApplicationContext(DefaultConfig.class);
+    revokingDatabase = context.getBean(SnapshotManager.class);
+    revokingDatabase.enable();
+    store = new TestRevokingTronStore("testReadWriteSet");
+    revokingDatabase.add(store.getRevokingDB());
+    db = (Chainbase) store.getRevokingDB();
+  }
+
+  @After
+  public void removeDb() {
+    ReadWriteSet.stop();
+    Args.clearParam();
+    context.destroy();
+    store.close();
+    FileUtil.deleteDir(new File("output_ReadWriteSet_test"));
+    revokingDatabase.getCheckTmpStore().close();
+  }
+
+  private static byte[] bytes(String s) {
+    return s.getBytes();
+  }
+
+  // reads a and b, writes c and deletes b, as the transaction run in a session
+  private ReadWriteSet run() {
+    try (ISession session = revokingDatabase.buildSession()) {
+      ReadWriteSet set = ReadWriteSet.record();
+      try {
+        byte[] a = db.getUnchecked(bytes("a"));
+        Assert.assertFalse(db.has(bytes("b")));
+        db.put(bytes("c"), a == null ? bytes("none") : a);
+        db.delete(bytes("b"));
+        // a read of its own write is not recorded
+        db.getUnchecked(bytes("c"));
+      } finally {
+        ReadWriteSet.stop();
+      }
+      return set;
+    }
+  }
+
+  @Test
+  public void testApply() {
+    db.put(bytes("a"), bytes("1"));
+    db.put(bytes("c"), bytes("0"));
+    ReadWriteSet set = run();
+    Assert.assertTrue(set.isReplayable());
+    // the session is revoked, as a produced block drops the pending state
+    Assert.assertArrayEquals(bytes("0"), db.getUnchecked(bytes("c")));
+
+    Assert.assertTrue(set.isUnchanged());
+    try (ISession session = revokingDatabase.buildSession()) {
+      set.apply();
+      Assert.assertArrayEquals(bytes("1"), db.getUnchecked(bytes("c")));
+      Assert.assertNull(db.getUnchecked(bytes("b")));
+    }
+    // applying records nothing
+    Assert.assertTrue(set.isUnchanged());
+  }
+
+  @Test
+  public void testChanged() {
+    db.put(bytes("a"), bytes("1"));
+    ReadWriteSet set = run();
+    db.put(bytes("c"), bytes("2"));
+    // not read, only written
+    Assert.assertTrue(set.isUnchanged());
+    db.put(bytes("a"), bytes("2"));
+    Assert.assertFalse(set.isUnchanged());
+    db.put(bytes("a"), bytes("1"));
+    db.put(bytes("b"), bytes("1"));
+    Assert.assertFalse(set.isUnchanged());
+  }
+
+  @Test
+  public void testNotReplayable() {
+    db.put(bytes("a"), bytes("1"));
+    ReadWriteSet set = ReadWriteSet.record();
+    db.getUnchecked(bytes("a"));
+    db.prefixQuery(bytes("a"));
+    ReadWriteSet.stop();
+    Assert.assertFalse(set.isReplayable());
+    Assert.assertFalse(set.isUnchanged());
+
+    set = ReadWriteSet.record();
+    db.setCursor(Chainbase.Cursor.SOLIDITY);
+    db.getUnchecked(bytes("a"));
+    db.setCursor(Chainbase.Cursor.HEAD);
+    ReadWriteSet.stop();
+    Assert.assertFalse(set.isReplayable());
+  }
+}
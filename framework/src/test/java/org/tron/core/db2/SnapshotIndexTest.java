@@ -0,0 +1,116 @@
+package org.tron.core.db2;
+
+import java.io.File;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tron.common.application.TronApplicationContext;
+import org.tron.common.utils.FileUtil;
+import org.tron.core.Constant;
+import org.tron.core.config.DefaultConfig;
+import org.tron.core.config.args.Args;
+import org.tron.core.db2.RevokingDbWithCacheNewValueTest.TestRevokingTronStore;
+import org.tron.core.db2.core.Chainbase;
+import org.tron.core.db2.core.SnapshotManager;
+
+public class SnapshotIndexTest {
+
+  private static final int KEYS = 64;
+
+  private SnapshotManager revokingDatabase;
+  private TronApplicationContext context;
+  private TestRevokingTronStore indexedStore;
+  private TestRevokingTronStore plainStore;
+  private Chainbase indexed;
+  private Chainbase plain;
+  private final Random random = new Random(20230607L);
+
+  @Before
+  public void init() {
+    Args.setParam(new String[]{"-d", "output_SnapshotIndex_test"}, Constant.TEST_CONF);
+    context = new TronApplicationContext(DefaultConfig.class);
+    revokingDatabase = context.getBean(SnapshotManager.class);
+    revokingDatabase.enable();
+
+    revokingDatabase.setSnapshotIndex(true);
+    indexedStore = new TestRevokingTronStore("testSnapshotIndex-indexed");
+    revokingDatabase.add(indexedStore.getRevokingDB());
+    revokingDatabase.setSnapshotIndex(false);
+    plainStore = new TestRevokingTronStore("testSnapshotIndex-plain");
+    revokingDatabase.add(plainStore.getRevokingDB());
+
+    indexed = (Chainbase) indexedStore.getRevokingDB();
+    plain = (Chainbase) plainStore.getRevokingDB();
+  }
+
+  @After
+  public void removeDb() {
+    Args.clearParam();
+    context.destroy();
+    indexedStore.close();
+    plainStore.close();
+    FileUtil.deleteDir(new File("output_SnapshotIndex_test"));
+    revokingDatabase.getCheckTmpStore().close();
+  }
+
+  private byte[] key(int i) {
+    return ("key" + i).getBytes();
+  }
+
+  private void write() {
+    byte[] key = key(random.nextInt(KEYS));
+    if (random.nextInt(4) == 0) {
+      indexed.delete(key);
+      plain.delete(key);
+    } else {
+      byte[] value = ("value" + random.nextInt()).getBytes();
+      indexed.put(key, value);
+      plain.put(key, value);
+    }
+  }
+
+  private void check() {
+    for (int i = 0; i < KEYS; i++) {
+      Assert.assertArrayEquals(plain.getUnchecked(key(i)), indexed.getUnchecked(key(i)));
+      Assert.assertArrayEquals(plain.getHead().getSolidity().get(key(i)),
+          indexed.getHead().getSolidity().get(key(i)));
+    }
+  }
+
+  @Test
+  public void testSameAsWalk() {
+    while (revokingDatabase.size() != 0) {
+      revokingDatabase.pop();
+    }
+    revokingDatabase.setMaxFlushCount(2);
+    revokingDatabase.setUnChecked(false);
+    revokingDatabase.setMaxSize(8);
+
+    for (int block = 0; block < 300; block++) {
+      try (ISession blockSession = revokingDatabase.buildSession()) {
+        for (int tx = random.nextInt(5); tx > 0; tx--) {
+          try (ISession txSession = revokingDatabase.buildSession()) {
+            for (int w = random.nextInt(6); w > 0; w--) {
+              write();
+            }
+            check();
+            if (random.nextInt(3) != 0) {
+              txSession.merge();
+            }
+          }
+          check();
+        }
+        if (random.nextInt(6) != 0) {
+          blockSession.commit();
+        }
+      }
+      check();
+      if (revokingDatabase.size() > 0 && random.nextInt(8) == 0) {
+        revokingDatabase.pop();
+        check();
+      }
+    }
+  }
+}
@@ -91,6 +91,39 @@ public class SnapshotManagerTest {
         tronDatabase.get(protoCapsule.getData()));
   }
 
+  @Test
+  public synchronized void testAsyncFlush()
+      throws BadItemException, ItemNotFoundException {
+    while (revokingDatabase.size() != 0) {
+      revokingDatabase.pop();
+    }
+
+    revokingDatabase.setAsyncFlush(true);
+    revokingDatabase.setMaxFlushCount(2);
+    revokingDatabase.setUnChecked(false);
+    revokingDatabase.setMaxSize(3);
+    ProtoCapsuleTest protoCapsule = new ProtoCapsuleTest("asyncFlush".getBytes());
+    for (int i = 1; i < 21; i++) {
+      ProtoCapsuleTest testProtoCapsule = new ProtoCapsuleTest(("asyncFlush" + i).getBytes());
+      try (ISession tmpSession = revokingDatabase.buildSession()) {
+        tronDatabase.put(protoCapsule.getData(), testProtoCapsule);
+        tronDatabase.put(testProtoCapsule.getData(), testProtoCapsule);
+        tmpSession.commit();
+      }
+      // the layers being committed in the background stay readable
+      Assert.assertEquals(testProtoCapsule, tronDatabase.get(protoCapsule.getData()));
+      Assert.assertTrue(revokingDatabase.size() <= 3);
+    }
+
+    // every flushed value reached the database once the last flush is done
+    revokingDatabase.shutdown();
+    for (int i = 1; i < 17; i++) {
+      ProtoCapsuleTest testProtoCapsule = new ProtoCapsuleTest(("asyncFlush" + i).getBytes());
+      Assert.assertArrayEquals(testProtoCapsule.getData(),
+          tronDatabase.getRevokingDB().getFromRoot(testProtoCapsule.getData()));
+    }
+  }
+
   @Test
   public synchronized void testClose() {
     while (revokingDatabase.size() != 0) {
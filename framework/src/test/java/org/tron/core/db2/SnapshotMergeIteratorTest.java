@@ -0,0 +1,136 @@
+package org.tron.core.db2;
+
+import com.google.common.primitives.UnsignedBytes;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tron.common.application.TronApplicationContext;
+import org.tron.common.utils.ByteArray;
+import org.tron.common.utils.FileUtil;
+import org.tron.core.Constant;
+import org.tron.core.config.DefaultConfig;
+import org.tron.core.config.args.Args;
+import org.tron.core.db2.RevokingDbWithCacheNewValueTest.TestRevokingTronStore;
+import org.tron.core.db2.core.Chainbase;
+import org.tron.core.db2.core.SnapshotManager;
+import org.tron.core.db2.core.SnapshotMergeIterator;
+
+public class SnapshotMergeIteratorTest {
+
+  private SnapshotManager revokingDatabase;
+  private TronApplicationContext context;
+  private TestRevokingTronStore store;
+  private Chainbase chainbase;
+  private final TreeMap<byte[], byte[]> expected =
+      new TreeMap<>(UnsignedBytes.lexicographicalComparator());
+  private final Random random = new Random(20230612L);
+
+  @Before
+  public void init() {
+    Args.setParam(new String[]{"-d", "output_SnapshotMergeIterator_test"}, Constant.TEST_CONF);
+    context = new TronApplicationContext(DefaultConfig.class);
+    revokingDatabase = context.getBean(SnapshotManager.class);
+    revokingDatabase.enable();
+    store = new TestRevokingTronStore("testSnapshotMergeIterator");
+    revokingDatabase.add(store.getRevokingDB());
+    chainbase = (Chainbase) store.getRevokingDB();
+  }
+
+  @After
+  public void removeDb() {
+    Args.clearParam();
+    context.destroy();
+    store.close();
+    FileUtil.deleteDir(new File("output_SnapshotMergeIterator_test"));
+  }
+
+  private byte[] randomKey() {
+    byte[] key = new byte[1 + random.nextInt(3)];
+    for (int i = 0; i < key.length; i++) {
+      key[i] = (byte) (random.nextBoolean() ? 0xff : random.nextInt(4));
+    }
+    return key;
+  }
+
+  private void write() {
+    byte[] key = randomKey();
+    if (random.nextInt(3) == 0) {
+      chainbase.delete(key);
+      expected.remove(key);
+    } else {
+      byte[] value = ByteArray.fromInt(random.nextInt());
+      chainbase.put(key, value);
+      expected.put(key, value);
+    }
+  }
+
+  private void assertSame(Map<byte[], byte[]> want, SnapshotMergeIterator iterator) {
+    List<Map.Entry<byte[], byte[]>> got = new ArrayList<>();
+    iterator.forEachRemaining(got::add);
+    Assert.assertEquals(want.size(), got.size());
+    int i = 0;
+    for (Map.Entry<byte[], byte[]> e : want.entrySet()) {
+      Assert.assertArrayEquals(e.getKey(), got.get(i).getKey());
+      Assert.assertArrayEquals(e.getValue(), got.get(i).getValue());
+      i++;
+    }
+  }
+
+  private void check() {
+    assertSame(expected, chainbase.rangeIterator(null, null));
+    byte[] prefix = randomKey();
+    byte[] end = SnapshotMergeIterator.prefixEnd(prefix);
+    Map<byte[], byte[]> withPrefix = end == null
+        ? expected.tailMap(prefix, true) : expected.subMap(prefix, end);
+    assertSame(withPrefix, chainbase.prefixIterator(prefix));
+    Assert.assertEquals(withPrefix.size(), chainbase.prefixQuery(prefix).size());
+  }
+
+  @Test
+  public void testMergeLayers() {
+    // the root database
+    for (int i = 0; i < 30; i++) {
+      write();
+    }
+    for (int block = 0; block < 20; block++) {
+      revokingDatabase.buildSession();
+      for (int i = 0; i < 10; i++) {
+        write();
+      }
+      check();
+    }
+  }
+
+  @Test
+  public void testPaging() {
+    for (int i = 0; i < 50; i++) {
+      chainbase.put(ByteArray.fromLong(i), ByteArray.fromLong(i));
+    }
+    revokingDatabase.buildSession();
+    chainbase.delete(ByteArray.fromLong(10));
+    chainbase.put(ByteArray.fromLong(11), ByteArray.fromLong(111));
+
+    Map<byte[], byte[]> page = chainbase.getNext(ByteArray.fromLong(9), 3);
+    List<byte[]> values = new ArrayList<>(page.values());
+    Assert.assertEquals(3, values.size());
+    Assert.assertArrayEquals(ByteArray.fromLong(9), values.get(0));
+    Assert.assertArrayEquals(ByteArray.fromLong(111), values.get(1));
+    Assert.assertArrayEquals(ByteArray.fromLong(12), values.get(2));
+
+    try (SnapshotMergeIterator iterator = chainbase.rangeIterator(ByteArray.fromLong(48), null)) {
+      Assert.assertArrayEquals(ByteArray.fromLong(48), iterator.next().getKey());
+      Assert.assertArrayEquals(ByteArray.fromLong(49), iterator.next().getKey());
+      Assert.assertFalse(iterator.hasNext());
+    }
+    Assert.assertNull(SnapshotMergeIterator.prefixEnd(new byte[] {(byte) 0xff, (byte) 0xff}));
+    Assert.assertArrayEquals(new byte[] {1},
+        SnapshotMergeIterator.prefixEnd(new byte[] {0, (byte) 0xff}));
+  }
+}
@@ -0,0 +1,111 @@
+package org.tron.core.db2;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tron.core.db2.common.TxIdSet;
+
+public class TxIdSetTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static byte[][] ids(int count) {
+    Random random = new Random(count);
+    byte[][] ids = new byte[count][32];
+    for (byte[] id : ids) {
+      random.nextBytes(id);
+    }
+    return ids;
+  }
+
+  private Path file() throws IOException {
+    return temporaryFolder.newFolder().toPath().resolve("txIds");
+  }
+
+  @Test
+  public void testExpiry() throws IOException {
+    byte[][] ids = ids(300);
+    try (TxIdSet set = TxIdSet.create(file(), 100)) {
+      for (int i = 0; i < ids.length; i++) {
+        set.put(ids[i], i);
+      }
+      // [0,199) are expired
+      for (int i = 0; i < ids.length; i++) {
+        Assert.assertEquals("index = " + i, i >= 199, set.contains(ids[i]));
+      }
+      Assert.assertFalse(set.contains(ids(1)[0]));
+
+      set.put(ids[0], 299);
+      Assert.assertTrue(set.contains(ids[0]));
+      Assert.assertEquals(300, set.size());
+    }
+  }
+
+  @Test
+  public void testGrow() throws IOException {
+    byte[][] ids = ids(800_000);
+    try (TxIdSet set = TxIdSet.create(file(), 100)) {
+      for (byte[] id : ids) {
+        set.put(id, 1);
+      }
+      Assert.assertEquals(ids.length, set.size());
+      for (byte[] id : ids) {
+        Assert.assertTrue(set.contains(id));
+      }
+    }
+  }
+
+  @Test
+  public void testRebuildDropsExpired() throws IOException {
+    byte[][] ids = ids(800_000);
+    try (TxIdSet set = TxIdSet.create(file(), 10)) {
+      for (int i = 0; i < ids.length; i++) {
+        set.put(ids[i], i / 1000);
+      }
+      Assert.assertTrue(set.size() < ids.length);
+      for (int i = 0; i < ids.length; i++) {
+        Assert.assertEquals("index = " + i, i / 1000 >= 789, set.contains(ids[i]));
+      }
+    }
+  }
+
+  @Test
+  public void testClosed() throws IOException {
+    byte[][] ids = ids(2);
+    TxIdSet set = TxIdSet.create(file(), 100);
+    set.put(ids[0], 1);
+    set.close(1);
+    // as a lookup racing the close of the node finds it
+    Assert.assertTrue(set.contains(ids[1]));
+    set.put(ids[1], 2);
+    Assert.assertEquals(0, set.size());
+  }
+
+  @Test
+  public void testReopen() throws IOException {
+    Path file = file();
+    byte[][] ids = ids(1000);
+    TxIdSet set = TxIdSet.create(file, 100);
+    for (int i = 0; i < ids.length; i++) {
+      set.put(ids[i], i);
+    }
+    set.close(7);
+
+    // closed at another head
+    Assert.assertNull(TxIdSet.open(file, 100, 8));
+    set = TxIdSet.open(file, 100, 7);
+    Assert.assertNotNull(set);
+    Assert.assertEquals(ids.length, set.size());
+    for (int i = 0; i < ids.length; i++) {
+      Assert.assertEquals("index = " + i, i >= 899, set.contains(ids[i]));
+    }
+    // not closed cleanly
+    set.close();
+    Assert.assertNull(TxIdSet.open(file, 100, 7));
+  }
+}
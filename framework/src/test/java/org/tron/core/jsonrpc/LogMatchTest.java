@@ -0,0 +1,141 @@
+package org.tron.core.jsonrpc;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.BaseTest;
+import org.tron.common.utils.ByteArray;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.Constant;
+import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.core.capsule.TransactionRetCapsule;
+import org.tron.core.config.args.Args;
+import org.tron.core.exception.ItemNotFoundException;
+import org.tron.core.exception.JsonRpcTooManyResultException;
+import org.tron.core.services.jsonrpc.TronJsonRpc.FilterRequest;
+import org.tron.core.services.jsonrpc.TronJsonRpc.LogFilterElement;
+import org.tron.core.services.jsonrpc.filters.LogBlockQuery;
+import org.tron.core.services.jsonrpc.filters.LogFilterWrapper;
+import org.tron.core.services.jsonrpc.filters.LogMatch;
+import org.tron.protos.Protocol.TransactionInfo;
+import org.tron.protos.Protocol.TransactionInfo.Log;
+
+public class LogMatchTest extends BaseTest {
+
+  private static final String ADDRESS = "d4048be096f969f51fd5642a9c744ec2a7eb89fe";
+  private static final String OTHER_ADDRESS = "98ff8c0e1effbc70b23de702f415ec1e5ed76d42";
+  private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  static {
+    Args.setParam(new String[] {"--output-directory", dbPath()}, Constant.TEST_CONF);
+  }
+
+  @AfterClass
+  public static void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private static Log log(String address, long data) {
+    return Log.newBuilder()
+        .setAddress(ByteString.copyFrom(ByteArray.fromHexString(address)))
+        .setData(ByteString.copyFrom(ByteArray.fromLong(data)))
+        .build();
+  }
+
+  private void putBlock(long blockNum, int matchedLogs) {
+    TransactionInfo.Builder transactionInfo = TransactionInfo.newBuilder()
+        .setId(ByteString.copyFrom(Sha256Hash.hash(true, ByteArray.fromLong(blockNum))))
+        .setBlockNumber(blockNum)
+        .addLog(log(OTHER_ADDRESS, blockNum));
+    for (int i = 0; i < matchedLogs; i++) {
+      transactionInfo.addLog(log(ADDRESS, blockNum * 100 + i));
+    }
+    TransactionRetCapsule transactionRetCapsule = new TransactionRetCapsule();
+    transactionRetCapsule.addTransactionInfo(transactionInfo.build());
+    chainBaseManager.getTransactionRetStore()
+        .put(ByteArray.fromLong(blockNum), transactionRetCapsule);
+    chainBaseManager.getBlockIndexStore().put(new BlockId(
+        Sha256Hash.hash(true, ByteArray.fromLong(-blockNum)), blockNum));
+  }
+
+  private LogMatch logMatch(List<Long> blockNumList, ExecutorService executor)
+      throws Exception {
+    LogFilterWrapper logFilterWrapper = new LogFilterWrapper(
+        new FilterRequest(null, null, ADDRESS, null, null), 10_000, null);
+    return executor == null ? new LogMatch(logFilterWrapper, blockNumList, dbManager)
+        : new LogMatch(logFilterWrapper, blockNumList, dbManager, executor);
+  }
+
+  @Test
+  public void testMatchInBlockOrder() throws Exception {
+    List<Long> blockNumList = new ArrayList<>();
+    int matchedBlocks = 0;
+    for (long blockNum = 1000; blockNum < 1100; blockNum++) {
+      // a block without transaction infos is skipped
+      if (blockNum % 3 != 0) {
+        putBlock(blockNum, (int) (blockNum % 4));
+        matchedBlocks += blockNum % 4 != 0 ? 1 : 0;
+      }
+      blockNumList.add(blockNum);
+    }
+
+    LogFilterElement[] expected = logMatch(blockNumList, null).matchBlockOneByOne();
+    LogFilterElement[] actual = logMatch(blockNumList, executor).matchBlockOneByOne();
+    Assert.assertEquals(expected.length, actual.length);
+    for (int i = 0; i < expected.length; i++) {
+      Assert.assertEquals(expected[i].getBlockNumber(), actual[i].getBlockNumber());
+      Assert.assertEquals(expected[i].getBlockHash(), actual[i].getBlockHash());
+      Assert.assertEquals(expected[i].getLogIndex(), actual[i].getLogIndex());
+      Assert.assertEquals(expected[i].getData(), actual[i].getData());
+    }
+    for (int i = 1; i < actual.length; i++) {
+      Assert.assertTrue(ByteArray.jsonHexToLong(actual[i - 1].getBlockNumber())
+          <= ByteArray.jsonHexToLong(actual[i].getBlockNumber()));
+    }
+
+    List<List<LogFilterElement>> blocks = new ArrayList<>();
+    logMatch(blockNumList, executor).matchBlocks(blocks::add);
+    Assert.assertEquals(matchedBlocks, blocks.size());
+  }
+
+  @Test
+  public void testTooManyResults() throws Exception {
+    List<Long> blockNumList = new ArrayList<>();
+    for (long blockNum = 2000; blockNum < 2100; blockNum++) {
+      putBlock(blockNum, 1);
+      blockNumList.add(blockNum);
+    }
+    putBlock(2100, LogBlockQuery.MAX_RESULT - 100);
+    blockNumList.add(2100L);
+    // exactly MAX_RESULT is still returned
+    Assert.assertEquals(LogBlockQuery.MAX_RESULT,
+        logMatch(blockNumList, executor).matchBlockOneByOne().length);
+
+    putBlock(2101, 1);
+    blockNumList.add(2101L);
+    List<List<LogFilterElement>> blocks = new ArrayList<>();
+    try {
+      logMatch(blockNumList, executor).matchBlocks(blocks::add);
+      Assert.fail();
+    } catch (JsonRpcTooManyResultException e) {
+      Assert.assertEquals(blockNumList.size(), blocks.size());
+    }
+  }
+
+  @Test(expected = ItemNotFoundException.class)
+  public void testMissingBlockId() throws Exception {
+    TransactionRetCapsule transactionRetCapsule = new TransactionRetCapsule();
+    transactionRetCapsule.addTransactionInfo(
+        TransactionInfo.newBuilder().addLog(log(ADDRESS, 0)).build());
+    chainBaseManager.getTransactionRetStore()
+        .put(ByteArray.fromLong(3000), transactionRetCapsule);
+    List<Long> blockNumList = new ArrayList<>();
+    blockNumList.add(3000L);
+    logMatch(blockNumList, executor).matchBlockOneByOne();
+  }
+}
@@ -0,0 +1,63 @@
+package org.tron.core.jsonrpc;
+
+import java.util.BitSet;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.bloom.SectionBitmap;
+
+public class SectionBitmapTest {
+
+  private final Random random = new Random(20240315L);
+
+  private BitSet randomBitSet() {
+    BitSet bitSet = new BitSet(SectionBitmap.SIZE);
+    // from empty to dense, across the array and the bitmap layouts
+    int count = random.nextInt(4) == 0 ? random.nextInt(SectionBitmap.SIZE)
+        : random.nextInt(200);
+    for (int i = 0; i < count; i++) {
+      bitSet.set(random.nextInt(SectionBitmap.SIZE));
+    }
+    return bitSet;
+  }
+
+  @Test
+  public void testSameAsBitSet() {
+    for (int i = 0; i < 2000; i++) {
+      BitSet a = randomBitSet();
+      BitSet b = randomBitSet();
+      SectionBitmap x = SectionBitmap.valueOf(a.toByteArray());
+      SectionBitmap y = SectionBitmap.valueOf(b);
+      Assert.assertEquals(a, x.toBitSet());
+      Assert.assertEquals(a.cardinality(), x.cardinality());
+
+      BitSet and = (BitSet) a.clone();
+      and.and(b);
+      Assert.assertEquals(and, x.and(y).toBitSet());
+      Assert.assertEquals(SectionBitmap.valueOf(and), x.and(y));
+      Assert.assertEquals(and.cardinality(), y.and(x).cardinality());
+
+      BitSet or = (BitSet) a.clone();
+      or.or(b);
+      Assert.assertEquals(or, x.or(y).toBitSet());
+      Assert.assertEquals(SectionBitmap.valueOf(or), y.or(x));
+
+      BitSet visited = new BitSet();
+      x.forEach(visited::set);
+      Assert.assertEquals(a, visited);
+      int offset = random.nextInt(SectionBitmap.SIZE);
+      Assert.assertEquals(a.get(offset), x.contains(offset));
+    }
+  }
+
+  @Test
+  public void testConstants() {
+    SectionBitmap bits = SectionBitmap.valueOf(BitSet.valueOf(new long[] {5L}));
+    Assert.assertSame(bits, SectionBitmap.FULL.and(bits));
+    Assert.assertTrue(SectionBitmap.EMPTY.and(bits).isEmpty());
+    Assert.assertSame(bits, SectionBitmap.EMPTY.or(bits));
+    Assert.assertEquals(SectionBitmap.FULL, bits.or(SectionBitmap.FULL));
+    Assert.assertEquals(SectionBitmap.SIZE, SectionBitmap.FULL.cardinality());
+    Assert.assertEquals(SectionBitmap.EMPTY, SectionBitmap.valueOf(new byte[0]));
+  }
+}
@@ -9,6 +9,7 @@ import javax.annotation.Resource;
 import org.junit.Assert;
 import org.junit.Test;
 import org.tron.common.BaseTest;
+import org.tron.common.bloom.SectionBitmap;
 import org.tron.common.runtime.vm.DataWord;
 import org.tron.common.runtime.vm.LogInfo;
 import org.tron.common.utils.ByteArray;
@@ -20,6 +21,7 @@ import org.tron.core.services.jsonrpc.TronJsonRpc.FilterRequest;
 import org.tron.core.services.jsonrpc.filters.LogBlockQuery;
 import org.tron.core.services.jsonrpc.filters.LogFilterWrapper;
 import org.tron.core.store.SectionBloomStore;
+import org.tron.core.store.SectionBloomStore.Reads;
 import org.tron.protos.Protocol.TransactionInfo;
 import org.tron.protos.Protocol.TransactionInfo.Log;
 
@@ -236,4 +238,33 @@ public class SectionBloomStoreTest extends BaseTest {
       Assert.fail();
     }
   }
+
+  @Test
+  public void testHotTier() throws Exception {
+    BitSet bitSet = new BitSet(SectionBloomStore.BLOCK_PER_SECTION);
+    bitSet.set(7);
+    bitSet.set(2000);
+    sectionBloomStore.put(3, 42, bitSet);
+
+    Reads reads = new Reads();
+    // section 3 is not solidified, every read goes to the db
+    Assert.assertEquals(SectionBitmap.valueOf(bitSet), sectionBloomStore.getBitmap(3, 42, reads));
+    Assert.assertEquals(SectionBitmap.valueOf(bitSet), sectionBloomStore.getBitmap(3, 42, reads));
+    Assert.assertEquals(2, reads.getLoaded().get());
+
+    long solidified = dbManager.getDynamicPropertiesStore().getLatestSolidifiedBlockNum();
+    dbManager.getDynamicPropertiesStore()
+        .saveLatestSolidifiedBlockNum(4L * SectionBloomStore.BLOCK_PER_SECTION);
+    try {
+      reads = new Reads();
+      for (int i = 0; i < 3; i++) {
+        Assert.assertEquals(bitSet, sectionBloomStore.getBitmap(3, 42, reads).toBitSet());
+        Assert.assertNull(sectionBloomStore.getBitmap(3, 43, reads));
+      }
+      Assert.assertEquals(2, reads.getLoaded().get());
+      Assert.assertEquals(4, reads.getCached().get());
+    } finally {
+      dbManager.getDynamicPropertiesStore().saveLatestSolidifiedBlockNum(solidified);
+    }
+  }
 }
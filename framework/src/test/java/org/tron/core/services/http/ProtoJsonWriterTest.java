@@ -0,0 +1,159 @@
+package org.tron.core.services.http;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Message;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.api.GrpcAPI.BlockList;
+import org.tron.api.GrpcAPI.TransactionList;
+import org.tron.common.utils.ByteArray;
+import org.tron.protos.Protocol.Block;
+import org.tron.protos.Protocol.BlockHeader;
+import org.tron.protos.Protocol.Transaction;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.Protocol.Transaction.Result;
+import org.tron.protos.contract.AssetIssueContractOuterClass.AssetIssueContract;
+import org.tron.protos.contract.AssetIssueContractOuterClass.TransferAssetContract;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+import org.tron.protos.contract.SmartContractOuterClass.CreateSmartContract;
+import org.tron.protos.contract.SmartContractOuterClass.SmartContract;
+import org.tron.protos.contract.SmartContractOuterClass.TriggerSmartContract;
+
+public class ProtoJsonWriterTest {
+
+  private static final ByteString OWNER = ByteString.copyFrom(
+      ByteArray.fromHexString("41c076305e35aea1fe45a772fcaaab8a36e87bdb55"));
+  private static final ByteString TO = ByteString.copyFrom(
+      ByteArray.fromHexString("415624c12e308b03a1a6b21d9b86e3942fac1ab92b"));
+
+  private static Transaction transaction(ContractType type, Message contract,
+      int permissionId, long timestamp) {
+    Transaction.raw.Builder raw = Transaction.raw.newBuilder()
+        .setRefBlockBytes(ByteString.copyFrom(ByteArray.fromHexString("d8ed")))
+        .setRefBlockHash(ByteString.copyFrom(ByteArray.fromHexString("2e066c3259e756f5")))
+        .setExpiration(timestamp + 60_000)
+        .setTimestamp(timestamp)
+        .setFeeLimit(1_000_000_000L)
+        .addContract(Transaction.Contract.newBuilder().setType(type)
+            .setParameter(Any.pack(contract)).setPermissionId(permissionId));
+    return Transaction.newBuilder().setRawData(raw)
+        .addSignature(ByteString.copyFrom(new byte[65]))
+        .addRet(Result.newBuilder().setContractRet(Result.contractResult.SUCCESS))
+        .build();
+  }
+
+  private static Transaction[] transactions() {
+    return new Transaction[] {
+        transaction(ContractType.TransferContract, TransferContract.newBuilder()
+            .setOwnerAddress(OWNER).setToAddress(TO).setAmount(10).build(), 0, 1651906586162L),
+        transaction(ContractType.TransferAssetContract, TransferAssetContract.newBuilder()
+            .setOwnerAddress(OWNER).setToAddress(TO).setAmount(Long.MAX_VALUE)
+            .setAssetName(ByteString.copyFromUtf8("token \"é中\t\\/  "))
+            .build(), 2, 1651906586163L),
+        transaction(ContractType.AssetIssueContract, AssetIssueContract.newBuilder()
+            .setOwnerAddress(OWNER).setName(ByteString.copyFromUtf8("a\\\"b\u0001"))
+            .setAbbr(ByteString.copyFrom(new byte[] {(byte) 0xff, 0x01}))
+            .setDescription(ByteString.copyFromUtf8("\\u0041\\n"))
+            .setTotalSupply(1_000_000L).build(), 0, 1651906586164L),
+        transaction(ContractType.TriggerSmartContract, TriggerSmartContract.newBuilder()
+            .setOwnerAddress(OWNER).setContractAddress(TO)
+            .setData(ByteString.copyFrom(ByteArray.fromHexString("a9059cbb"))).build(),
+            0, 1651906586165L),
+        transaction(ContractType.CreateSmartContract, CreateSmartContract.newBuilder()
+            .setOwnerAddress(OWNER).setNewContract(SmartContract.newBuilder()
+                .setName("contract \"é😀\u007f")
+                .setOriginAddress(OWNER).setConsumeUserResourcePercent(100)
+                .setBytecode(ByteString.copyFrom(ByteArray.fromHexString("6080604052")))
+                .setAbi(SmartContract.ABI.newBuilder().addEntrys(SmartContract.ABI.Entry
+                    .newBuilder().setName("transfer").setConstant(true)
+                    .setType(SmartContract.ABI.Entry.EntryType.Function))))
+            .build(), 0, 1651906586166L),
+    };
+  }
+
+  private static Block block(long number, Transaction... transactions) {
+    BlockHeader.raw raw = BlockHeader.raw.newBuilder().setNumber(number)
+        .setTimestamp(1651906587000L + number)
+        .setParentHash(ByteString.copyFrom(new byte[32]))
+        .setWitnessAddress(OWNER).setVersion(27).build();
+    Block.Builder builder = Block.newBuilder().setBlockHeader(BlockHeader.newBuilder()
+        .setRawData(raw).setWitnessSignature(ByteString.copyFrom(new byte[65])));
+    for (Transaction transaction : transactions) {
+      builder.addTransactions(transaction);
+    }
+    return builder.build();
+  }
+
+  private interface Printer {
+
+    void print(PrintWriter writer) throws IOException;
+  }
+
+  private static String print(Printer printer) throws IOException {
+    StringWriter out = new StringWriter();
+    try (PrintWriter writer = new PrintWriter(out)) {
+      printer.print(writer);
+    }
+    return out.toString();
+  }
+
+  private static String println(String line) {
+    StringWriter out = new StringWriter();
+    try (PrintWriter writer = new PrintWriter(out)) {
+      writer.println(line);
+    }
+    return out.toString();
+  }
+
+  @Test
+  public void testTransaction() throws IOException {
+    for (boolean visible : new boolean[] {true, false}) {
+      for (Transaction transaction : transactions()) {
+        Assert.assertEquals(println(Util.printTransaction(transaction, visible)),
+            print(w -> Util.printTransaction(transaction, visible, w)));
+      }
+      TransactionList list = TransactionList.newBuilder()
+          .addAllTransaction(Arrays.asList(transactions())).build();
+      Assert.assertEquals(println(Util.printTransactionList(list, visible)),
+          print(w -> Util.printTransactionList(list, visible, w)));
+      TransactionList empty = TransactionList.getDefaultInstance();
+      Assert.assertEquals(println(Util.printTransactionList(empty, visible)),
+          print(w -> Util.printTransactionList(empty, visible, w)));
+    }
+  }
+
+  @Test
+  public void testBlock() throws IOException {
+    for (boolean visible : new boolean[] {true, false}) {
+      Block empty = block(1);
+      Block full = block(2, transactions());
+      Assert.assertEquals(println(Util.printBlock(empty, visible)),
+          print(w -> Util.printBlock(empty, visible, w)));
+      Assert.assertEquals(println(Util.printBlock(full, visible)),
+          print(w -> Util.printBlock(full, visible, w)));
+
+      BlockList list = BlockList.newBuilder().addBlock(empty).addBlock(full).build();
+      Assert.assertEquals(println(Util.printBlockList(list, visible)),
+          print(w -> Util.printBlockList(list, visible, w)));
+    }
+  }
+
+  @Test
+  public void testUnsupportedWritesNothing() throws IOException {
+    // Util prints a transaction without raw data by the JSONObject path
+    Transaction transaction = Transaction.newBuilder()
+        .addSignature(ByteString.copyFrom(new byte[65])).build();
+    StringWriter out = new StringWriter();
+    try {
+      ProtoJsonWriter.printTransaction(transaction, true, out);
+      Assert.fail();
+    } catch (ProtoJsonWriter.UnsupportedMessageException e) {
+      Assert.assertEquals("", out.toString());
+    }
+  }
+}
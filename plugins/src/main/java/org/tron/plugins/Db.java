@@ -12,7 +12,9 @@ import picocli.CommandLine;
         DbConvert.class,
         DbLite.class,
         DbCopy.class,
-        DbRoot.class
+        DbRoot.class,
+        DbTransIndex.class,
+        DbReplay.class
     },
     commandListHeading = "%nCommands:%n%nThe most commonly used db commands are:%n"
 )
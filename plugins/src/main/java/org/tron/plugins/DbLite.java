@@ -55,6 +55,7 @@ public class DbLite implements Callable<Integer> {
   private static final String TRANS_DB_NAME = "trans";
   private static final String TRANSACTION_RET_DB_NAME = "transactionRetStore";
   private static final String TRANSACTION_HISTORY_DB_NAME = "transactionHistoryStore";
+  private static final String TRANSACTION_RET_INDEX_DB_NAME = "transactionRetIndex";
   private static final String PROPERTIES_DB_NAME = "properties";
   private static final String TRANS_CACHE_DB_NAME = "trans-cache";
 
@@ -63,7 +64,8 @@ public class DbLite implements Callable<Integer> {
       BLOCK_INDEX_DB_NAME,
       TRANS_DB_NAME,
       TRANSACTION_RET_DB_NAME,
-      TRANSACTION_HISTORY_DB_NAME);
+      TRANSACTION_HISTORY_DB_NAME,
+      TRANSACTION_RET_INDEX_DB_NAME);
 
   enum Operate { split, merge }
 
@@ -570,7 +572,9 @@ public class DbLite implements Callable<Integer> {
         DBInterface bakDb = DbTool.getDB(bakDir.toString(), dbName);
         DBInterface destDb = DbTool.getDB(liteDir, dbName);
         try (DBIterator iterator = bakDb.iterator()) {
-          if (TRANS_DB_NAME.equals(dbName) || TRANSACTION_HISTORY_DB_NAME.equals(dbName)) {
+          // keyed by transaction id, not by block number
+          if (TRANS_DB_NAME.equals(dbName) || TRANSACTION_HISTORY_DB_NAME.equals(dbName)
+              || TRANSACTION_RET_INDEX_DB_NAME.equals(dbName)) {
             iterator.seekToFirst();
           } else {
             iterator.seek(head);
@@ -0,0 +1,131 @@
+package org.tron.plugins;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+import lombok.extern.slf4j.Slf4j;
+import me.tongfei.progressbar.ProgressBar;
+import org.tron.plugins.utils.BlockReplay;
+import org.tron.plugins.utils.db.DBInterface;
+import org.tron.plugins.utils.db.DbTool;
+import picocli.CommandLine;
+
+@Slf4j(topic = "replay")
+@CommandLine.Command(name = "replay",
+    description = "Replay blocks on a node database to measure block processing. The blocks "
+        + "following the head of the database are read from another database and pushed as "
+        + "the node does when it syncs, with the network off. "
+        + "NOTE: the database is modified, replay a copy made by 'db cp' or 'db lite'. "
+        + "The full node jar must be on the classpath: "
+        + "java -cp FullNode.jar:Toolkit.jar org.tron.plugins.Toolkit db replay ...",
+    exitCodeListHeading = "Exit Codes:%n",
+    exitCodeList = {
+        "0:Successful",
+        "n:Internal error: exception occurred,please check toolkit.log"})
+public class DbReplay implements Callable<Integer> {
+
+  private static final String BLOCK_DB = "block";
+  private static final String BLOCK_INDEX_DB = "block-index";
+  private static final String MANAGER = "org.tron.core.db.Manager";
+
+  @CommandLine.Spec
+  CommandLine.Model.CommandSpec spec;
+
+  @CommandLine.Option(names = {"-d", "--output-directory"}, defaultValue = "output-directory",
+      description = "output directory of the node database to replay on, "
+          + "its head is the start of the replay. Default: ${DEFAULT-VALUE}")
+  private String outputDirectory;
+
+  @CommandLine.Option(names = {"-c", "--config"},
+      description = "config of the node database, the config.conf of the full node jar if "
+          + "not set")
+  private String config;
+
+  @CommandLine.Option(names = {"-b", "--blocks"}, required = true,
+      description = "database the replayed blocks are read from, "
+          + "e.g. output-directory/database of the node the copy was made from")
+  private Path blocks;
+
+  @CommandLine.Option(names = {"-n", "--count"}, defaultValue = "1000",
+      description = "number of replayed blocks. Default: ${DEFAULT-VALUE}")
+  private long count;
+
+  @CommandLine.Option(names = {"--warmup"}, defaultValue = "0",
+      description = "number of first replayed blocks left out of the report. "
+          + "Default: ${DEFAULT-VALUE}")
+  private long warmup;
+
+  @CommandLine.Option(names = {"--profile"},
+      description = "profile the replayed blocks and report the slowest phases, blocks, "
+          + "contracts and opcodes")
+  private boolean profile;
+
+  @CommandLine.Option(names = {"-h", "--help"}, help = true, description = "display a help message")
+  private boolean help;
+
+  @Override
+  public Integer call() throws Exception {
+    if (help) {
+      spec.commandLine().usage(System.out);
+      return 0;
+    }
+    if (count <= 0 || warmup < 0 || warmup >= count) {
+      spec.commandLine().getErr().println(spec.commandLine().getColorScheme()
+          .errorText(String.format("count %d must be positive and greater than warmup %d.",
+              count, warmup)));
+      return 400;
+    }
+    for (String db : new String[] {BLOCK_DB, BLOCK_INDEX_DB}) {
+      if (!Paths.get(blocks.toString(), db).toFile().exists()) {
+        logger.info(" {} does not exist.", Paths.get(blocks.toString(), db));
+        spec.commandLine().getErr().println(spec.commandLine().getColorScheme()
+            .errorText(String.format("%s does not exist.", Paths.get(blocks.toString(), db))));
+        return 404;
+      }
+    }
+    try {
+      Class.forName(MANAGER);
+    } catch (ClassNotFoundException e) {
+      spec.commandLine().getErr().println(spec.commandLine().getColorScheme()
+          .errorText("the full node jar is not on the classpath."));
+      return 1;
+    }
+
+    BlockReplay.Result result;
+    try (ProgressBar pb = new ProgressBar("replay", count)) {
+      DBInterface blockIndex = DbTool.getDB(blocks.toString(), BLOCK_INDEX_DB);
+      DBInterface blockStore = DbTool.getDB(blocks.toString(), BLOCK_DB);
+      result = new BlockReplay(blockIndex, blockStore)
+          .replay(outputDirectory, config, count, warmup, profile, num -> pb.step());
+    } catch (Exception e) {
+      logger.error("replay failed", e);
+      spec.commandLine().getErr().println(spec.commandLine().getColorScheme()
+          .errorText("replay failed, please check toolkit.log."));
+      return 1;
+    } finally {
+      DbTool.close();
+    }
+    report(result);
+    return 0;
+  }
+
+  private void report(BlockReplay.Result result) {
+    print(String.format("replayed %d blocks from %d, %d transactions in %.3f s.",
+        result.getBlocks(), result.getFirst() + warmup, result.getTransactions(),
+        result.getNanos() / 1e9));
+    print(String.format("%.1f blocks/s, %.1f transactions/s.",
+        result.blocksPerSecond(), result.transactionsPerSecond()));
+    print(String.format("block latency p50: %.3f ms, p99: %.3f ms, max: %.3f ms.",
+        result.latencyMs(0.5), result.latencyMs(0.99), result.latencyMs(1)));
+    result.getGc().forEach((name, gc) -> print(String.format(
+        "gc %s: %d collections, %d ms.", name, gc[0], gc[1])));
+    if (profile) {
+      print(result.getProfile());
+    }
+  }
+
+  private void print(String line) {
+    logger.info(line);
+    spec.commandLine().getOut().println(line);
+  }
+}
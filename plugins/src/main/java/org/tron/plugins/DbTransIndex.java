@@ -0,0 +1,157 @@
+package org.tron.plugins;
+
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import lombok.extern.slf4j.Slf4j;
+import me.tongfei.progressbar.ProgressBar;
+import org.tron.plugins.utils.ByteArray;
+import org.tron.plugins.utils.TransInfoIndexer;
+import org.tron.plugins.utils.db.DBInterface;
+import org.tron.plugins.utils.db.DBIterator;
+import org.tron.plugins.utils.db.DbTool;
+import org.tron.plugins.utils.db.RocksDBImpl;
+import org.tron.protos.Protocol.TransactionInfo;
+import org.tron.protos.Protocol.TransactionRet;
+import picocli.CommandLine;
+
+@Slf4j(topic = "trans-index")
+@CommandLine.Command(name = "trans-index",
+    description = "Build the transaction id to transaction info index of transactionRetStore. "
+        + "NOTE: the node must be stopped. The full node jar must be on the classpath: "
+        + "java -cp FullNode.jar:Toolkit.jar org.tron.plugins.Toolkit db trans-index ...",
+    exitCodeListHeading = "Exit Codes:%n",
+    exitCodeList = {
+        "0:Successful",
+        "n:Internal error: exception occurred,please check toolkit.log"})
+public class DbTransIndex implements Callable<Integer> {
+
+  private static final String RET_DB = "transactionRetStore";
+  private static final String INDEX_DB = "transactionRetIndex";
+  private static final String INDEX_STORE = "org.tron.core.store.TransactionRetIndexStore";
+
+  @CommandLine.Spec
+  CommandLine.Model.CommandSpec spec;
+  @CommandLine.Parameters(index = "0", defaultValue = "output-directory/database",
+      description = "Input path. Default: ${DEFAULT-VALUE}")
+  private Path db;
+
+  @CommandLine.Option(names = {"--benchmark"},
+      description = "number of indexed transactions to look up with and without the index "
+          + "after the build, 0 to skip. Default: ${DEFAULT-VALUE}", defaultValue = "0")
+  private int benchmark;
+
+  @CommandLine.Option(names = {"-h", "--help"}, help = true, description = "display a help message")
+  private boolean help;
+
+  @Override
+  public Integer call() throws Exception {
+    if (help) {
+      spec.commandLine().usage(System.out);
+      return 0;
+    }
+    if (!Paths.get(db.toString(), RET_DB).toFile().exists()) {
+      logger.info(" {} does not exist.", Paths.get(db.toString(), RET_DB));
+      spec.commandLine().getErr().println(spec.commandLine().getColorScheme()
+          .errorText(String.format("%s does not exist.", Paths.get(db.toString(), RET_DB))));
+      return 404;
+    }
+    try {
+      Class.forName(INDEX_STORE);
+    } catch (ClassNotFoundException e) {
+      spec.commandLine().getErr().println(spec.commandLine().getColorScheme()
+          .errorText("the full node jar is not on the classpath."));
+      return 1;
+    }
+
+    List<byte[]> samples = new ArrayList<>();
+    long blocks = 0;
+    long infos = 0;
+    try {
+      DBInterface ret = DbTool.getDB(db.toString(), RET_DB);
+      // the index keeps the engine of the block results
+      DBInterface index = DbTool.getDB(db.toString(), INDEX_DB, ret instanceof RocksDBImpl
+          ? DbTool.DbType.RocksDB : DbTool.DbType.LevelDB);
+      TransInfoIndexer indexer = new TransInfoIndexer(index, samples, benchmark);
+      try (DBIterator iterator = ret.iterator();
+           ProgressBar pb = new ProgressBar("trans-index", ret.size())) {
+        iterator.seekToFirst();
+        while (iterator.hasNext()) {
+          Map.Entry<byte[], byte[]> entry = iterator.next();
+          infos += indexer.index(ByteArray.toLong(entry.getKey()), entry.getValue());
+          blocks++;
+          pb.step();
+        }
+      }
+      String done = String.format("indexed %d transaction infos of %d blocks.", infos, blocks);
+      logger.info(done);
+      spec.commandLine().getOut().println(done);
+
+      if (!samples.isEmpty()) {
+        benchmark(ret, index, samples);
+      }
+    } catch (IOException e) {
+      logger.error("build transaction info index failed", e);
+      spec.commandLine().getErr().println(spec.commandLine().getColorScheme()
+          .errorText("build transaction info index failed, please check toolkit.log."));
+      return 1;
+    } finally {
+      DbTool.close();
+    }
+    return 0;
+  }
+
+  /**
+   * Looks the samples up by decoding the whole block result and scanning it, as the node does
+   * without the index, then by the index.
+   */
+  private void benchmark(DBInterface ret, DBInterface index, List<byte[]> samples)
+      throws IOException {
+    long[] blockNums = new long[samples.size()];
+    for (int i = 0; i < blockNums.length; i++) {
+      blockNums[i] = ByteBuffer.wrap(index.get(samples.get(i))).getLong();
+    }
+
+    long start = System.nanoTime();
+    for (int i = 0; i < blockNums.length; i++) {
+      ByteString id = ByteString.copyFrom(samples.get(i));
+      TransactionRet result = TransactionRet.parseFrom(ret.get(ByteArray.fromLong(blockNums[i])));
+      boolean found = false;
+      for (TransactionInfo info : result.getTransactioninfoList()) {
+        if (info.getId().equals(id)) {
+          found = true;
+          break;
+        }
+      }
+      check(found, id);
+    }
+    long scan = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    for (byte[] key : samples) {
+      ByteBuffer position = ByteBuffer.wrap(index.get(key));
+      byte[] value = ret.get(ByteArray.fromLong(position.getLong()));
+      TransactionInfo info = TransactionInfo.parser()
+          .parseFrom(value, position.getInt(), position.getInt());
+      check(info.getId().equals(ByteString.copyFrom(key)), info.getId());
+    }
+    long indexed = System.nanoTime() - start;
+
+    String result = String.format("%d lookups, decode and scan: %.1f us/op, index: %.1f us/op.",
+        samples.size(), scan / 1000.0 / samples.size(), indexed / 1000.0 / samples.size());
+    logger.info(result);
+    spec.commandLine().getOut().println(result);
+  }
+
+  private static void check(boolean found, ByteString id) throws IOException {
+    if (!found) {
+      throw new IOException("transaction info " + id + " not found");
+    }
+  }
+}
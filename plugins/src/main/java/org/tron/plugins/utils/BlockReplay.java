@@ -0,0 +1,205 @@
+package org.tron.plugins.utils;
+
+import com.alibaba.fastjson.JSON;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.common.application.TronApplicationContext;
+import org.tron.common.profiler.BlockProfiler;
+import org.tron.core.Constant;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.config.DefaultConfig;
+import org.tron.core.config.args.Args;
+import org.tron.core.consensus.ConsensusService;
+import org.tron.core.db.Manager;
+import org.tron.plugins.utils.db.DBInterface;
+
+/**
+ * Pushes blocks read from another database into a node database, as the node does when it
+ * syncs, with the network off. It needs the full node classes on the classpath.
+ */
+@Slf4j(topic = "replay")
+public class BlockReplay {
+
+  /**
+   * the most profiled blocks kept for the report
+   */
+  private static final int MAX_PROFILED_BLOCKS = 10_000;
+  private static final int PROFILE_TOP = 10;
+
+  private final DBInterface blockIndex;
+  private final DBInterface blockStore;
+
+  /**
+   * @param blockIndex the block-index db of the blocks to replay
+   * @param blockStore the block db of the blocks to replay
+   */
+  public BlockReplay(DBInterface blockIndex, DBInterface blockStore) {
+    this.blockIndex = blockIndex;
+    this.blockStore = blockStore;
+  }
+
+  /**
+   * Replays the blocks following the head of the node database.
+   *
+   * @param outputDirectory the output directory of the node database
+   * @param config the node config, the embedded config.conf if null
+   * @param count the number of blocks replayed
+   * @param warmup the first replayed blocks left out of the result
+   * @param profile profile the measured blocks
+   * @param progress called with each replayed block number
+   */
+  public Result replay(String outputDirectory, String config, long count, long warmup,
+      boolean profile, Consumer<Long> progress) throws Exception {
+    List<String> args = new ArrayList<>(Arrays.asList(
+        "--output-directory", outputDirectory, "--p2p-disable", "true"));
+    if (config != null) {
+      args.add("--config");
+      args.add(config);
+    }
+    Args.setParam(args.toArray(new String[0]), Constant.TESTNET_CONF);
+    BlockProfiler.setEnabled(profile);
+    BlockProfiler.setMaxBlocks((int) Math.min(count - warmup, MAX_PROFILED_BLOCKS));
+
+    TronApplicationContext context = new TronApplicationContext(DefaultConfig.class);
+    try {
+      Manager manager = context.getBean(Manager.class);
+      context.getBean(ConsensusService.class).start();
+      long head = manager.getDynamicPropertiesStore().getLatestBlockHeaderNumber();
+      logger.info("replay {} blocks from {}, warmup {}.", count, head + 1, warmup);
+
+      Result result = new Result(head + 1);
+      long[] latencies = new long[(int) Math.max(0, count - warmup)];
+      Map<String, long[]> gc = null;
+      long start = 0;
+      for (long i = 0; i < count; i++) {
+        long num = head + 1 + i;
+        BlockCapsule block = read(num);
+        if (block == null) {
+          logger.info("block {} is not in the blocks database, stop.", num);
+          break;
+        }
+        if (i == warmup) {
+          BlockProfiler.clear();
+          gc = gc();
+          start = System.nanoTime();
+        }
+
+        long begin = System.nanoTime();
+        manager.pushBlock(block);
+        long nanos = System.nanoTime() - begin;
+        if (manager.getDynamicPropertiesStore().getLatestBlockHeaderNumber() != num) {
+          throw new IllegalStateException(String.format(
+              "block %d is not applied, the blocks are not of the chain of the database", num));
+        }
+
+        if (i >= warmup) {
+          latencies[result.blocks++] = nanos;
+          result.transactions += block.getTransactions().size();
+        }
+        progress.accept(num);
+      }
+
+      if (gc != null) {
+        result.nanos = System.nanoTime() - start;
+        for (Map.Entry<String, long[]> end : gc().entrySet()) {
+          long[] before = gc.getOrDefault(end.getKey(), new long[2]);
+          result.gc.put(end.getKey(), new long[] {end.getValue()[0] - before[0],
+              end.getValue()[1] - before[1]});
+        }
+      }
+      result.latencies = Arrays.copyOf(latencies, result.blocks);
+      Arrays.sort(result.latencies);
+      if (profile) {
+        result.profile = JSON.toJSONString(BlockProfiler.report(PROFILE_TOP), true);
+      }
+      return result;
+    } finally {
+      BlockProfiler.setEnabled(false);
+      context.close();
+    }
+  }
+
+  private BlockCapsule read(long num) throws Exception {
+    byte[] id = blockIndex.get(ByteArray.fromLong(num));
+    if (id == null) {
+      return null;
+    }
+    byte[] data = blockStore.get(id);
+    if (data == null) {
+      throw new IOException(String.format("block %d is indexed but not stored", num));
+    }
+    return new BlockCapsule(data);
+  }
+
+  /**
+   * @return collector -> {collections, milliseconds}
+   */
+  private static Map<String, long[]> gc() {
+    Map<String, long[]> gc = new LinkedHashMap<>();
+    for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+      gc.put(bean.getName(), new long[] {bean.getCollectionCount(), bean.getCollectionTime()});
+    }
+    return gc;
+  }
+
+  /**
+   * The measured blocks, the warmup left out.
+   */
+  public static class Result {
+
+    /**
+     * the first replayed block
+     */
+    @Getter
+    private final long first;
+    @Getter
+    private int blocks;
+    @Getter
+    private long transactions;
+    @Getter
+    private long nanos;
+    // sorted
+    private long[] latencies = new long[0];
+    // collector -> {collections, milliseconds}
+    @Getter
+    private final Map<String, long[]> gc = new LinkedHashMap<>();
+    /**
+     * the slowest phases, blocks, contracts and opcodes as json, null if not profiled
+     */
+    @Getter
+    private String profile;
+
+    Result(long first) {
+      this.first = first;
+    }
+
+    public double blocksPerSecond() {
+      return nanos == 0 ? 0 : blocks * 1e9 / nanos;
+    }
+
+    public double transactionsPerSecond() {
+      return nanos == 0 ? 0 : transactions * 1e9 / nanos;
+    }
+
+    /**
+     * @param quantile in (0, 1]
+     * @return the block latency in milliseconds
+     */
+    public double latencyMs(double quantile) {
+      if (latencies.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.ceil(quantile * latencies.length) - 1;
+      return latencies[Math.max(0, Math.min(latencies.length - 1, index))] / 1e6;
+    }
+  }
+}
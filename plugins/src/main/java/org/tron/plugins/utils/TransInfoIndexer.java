@@ -0,0 +1,53 @@
+package org.tron.plugins.utils;
+
+import java.io.IOException;
+import java.util.List;
+import org.tron.core.capsule.TransactionRetCapsule;
+import org.tron.core.exception.BadItemException;
+import org.tron.core.store.TransactionRetIndexStore;
+import org.tron.plugins.utils.db.DBInterface;
+
+/**
+ * Writes the transaction info index of block results, with the layout TransactionRetIndexStore
+ * reads. It needs the full node classes on the classpath.
+ */
+public class TransInfoIndexer {
+
+  private final DBInterface index;
+  private final List<byte[]> samples;
+  private final int maxSamples;
+
+  /**
+   * @param index the transactionRetIndex db
+   * @param samples the indexed ids kept for the benchmark
+   * @param maxSamples the most ids kept in samples
+   */
+  public TransInfoIndexer(DBInterface index, List<byte[]> samples, int maxSamples) {
+    this.index = index;
+    this.samples = samples;
+    this.maxSamples = maxSamples;
+  }
+
+  /**
+   * Writes the position of every info of a block result.
+   *
+   * @return the number of infos indexed
+   */
+  public long index(long blockNum, byte[] data) throws IOException {
+    long[] count = new long[1];
+    try {
+      TransactionRetCapsule.forEachInfo(data, (id, offset, length) -> {
+        byte[] key = id.toByteArray();
+        index.put(key, TransactionRetIndexStore.position(blockNum, offset, length));
+        if (samples.size() < maxSamples) {
+          samples.add(key);
+        }
+        count[0]++;
+        return true;
+      });
+    } catch (BadItemException e) {
+      throw new IOException(String.format("block result %d is not valid", blockNum), e);
+    }
+    return count[0];
+  }
+}
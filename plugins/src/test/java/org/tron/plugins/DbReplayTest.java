@@ -0,0 +1,147 @@
+package org.tron.plugins;
+
+import com.google.protobuf.ByteString;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tron.common.application.TronApplicationContext;
+import org.tron.common.crypto.ECKey;
+import org.tron.common.utils.ByteArray;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.config.DefaultConfig;
+import org.tron.core.config.args.Args;
+import org.tron.core.consensus.ConsensusService;
+import org.tron.core.db.Manager;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+import org.tron.protos.contract.BalanceContract.TransferContract;
+import picocli.CommandLine;
+
+public class DbReplayTest {
+
+  private static final String CONFIG = "config-localtest.conf";
+  // the only genesis witness of the config
+  private static final String WITNESS_KEY =
+      "f4df789d3210ac881cb900464dd30409453044d2777060a0c391cbdf4c6a4f57";
+  // the Sun account of its genesis
+  private static final String SUN_KEY =
+      "cba92a516ea09f620a16ff7ee95ce0df1d56550a8babe9964981a7144c8a784a";
+  private static final int BLOCKS = 5;
+  private static final long AMOUNT = 1_000_000L;
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  CommandLine cli = new CommandLine(new Toolkit());
+
+  @After
+  public void clear() {
+    Args.clearParam();
+  }
+
+  @Test
+  public void testHelp() {
+    String[] args = new String[] {"db", "replay", "-h"};
+    Assert.assertEquals(0, cli.execute(args));
+  }
+
+  @Test
+  public void testNotExist() throws IOException {
+    File database = Paths.get(folder.newFolder().getPath(), "database").toFile();
+    String[] args = new String[] {"db", "replay", "-b", database.toString()};
+    Assert.assertEquals(404, cli.execute(args));
+  }
+
+  @Test
+  public void testWarmup() throws IOException {
+    File database = Paths.get(folder.newFolder().getPath(), "database").toFile();
+    String[] args = new String[] {"db", "replay", "-b", database.toString(),
+        "-n", "10", "--warmup", "10"};
+    Assert.assertEquals(400, cli.execute(args));
+  }
+
+  @Test
+  public void testReplay() throws Exception {
+    String source = folder.newFolder().toString();
+    List<byte[]> recipients = generate(source);
+
+    // an empty node database starts from the same genesis
+    String target = folder.newFolder().toString();
+    StringWriter out = new StringWriter();
+    cli.setOut(new PrintWriter(out));
+    String[] args = new String[] {"db", "replay", "-d", target, "-c", CONFIG,
+        "-b", Paths.get(source, "database").toString(), "-n", String.valueOf(BLOCKS + 1),
+        "--warmup", "1", "--profile"};
+    Assert.assertEquals(0, cli.execute(args));
+    Args.clearParam();
+    // the replay stops after the last block of the source
+    Assert.assertTrue(out.toString(), out.toString().contains(String.format(
+        "replayed %d blocks from 2, %d transactions", BLOCKS - 1, BLOCKS - 1)));
+    Assert.assertTrue(out.toString().contains(ContractType.TransferContract.name()));
+
+    Args.setParam(new String[] {"-d", target, "--p2p-disable", "true"}, CONFIG);
+    TronApplicationContext context = new TronApplicationContext(DefaultConfig.class);
+    try {
+      Manager manager = context.getBean(Manager.class);
+      Assert.assertEquals(BLOCKS,
+          manager.getDynamicPropertiesStore().getLatestBlockHeaderNumber());
+      for (byte[] recipient : recipients) {
+        Assert.assertEquals(AMOUNT, manager.getAccountStore().get(recipient).getBalance());
+      }
+    } finally {
+      context.close();
+    }
+  }
+
+  /**
+   * Produces blocks of one transfer each on a new node database.
+   *
+   * @return the receivers of the transfers
+   */
+  private static List<byte[]> generate(String outputDirectory) throws Exception {
+    Args.setParam(new String[] {"-d", outputDirectory, "--p2p-disable", "true"}, CONFIG);
+    TronApplicationContext context = new TronApplicationContext(DefaultConfig.class);
+    List<byte[]> recipients = new ArrayList<>();
+    try {
+      Manager manager = context.getBean(Manager.class);
+      context.getBean(ConsensusService.class).start();
+      byte[] witnessKey = ByteArray.fromHexString(WITNESS_KEY);
+      ByteString witness = ByteString.copyFrom(ECKey.fromPrivate(witnessKey).getAddress());
+      byte[] sunKey = ByteArray.fromHexString(SUN_KEY);
+      ByteString sun = ByteString.copyFrom(ECKey.fromPrivate(sunKey).getAddress());
+      for (int i = 0; i < BLOCKS; i++) {
+        BlockCapsule head = manager.getChainBaseManager().getHead();
+        byte[] recipient = new ECKey().getAddress();
+        TransactionCapsule trx = new TransactionCapsule(TransferContract.newBuilder()
+            .setOwnerAddress(sun).setToAddress(ByteString.copyFrom(recipient))
+            .setAmount(AMOUNT).build(), ContractType.TransferContract);
+        trx.setReference(head.getNum(), head.getBlockId().getBytes());
+        trx.setExpiration(head.getTimeStamp() + 60_000);
+        trx.sign(sunKey);
+
+        BlockCapsule block = new BlockCapsule(head.getNum() + 1, head.getBlockId(),
+            head.getTimeStamp() + 3000, witness);
+        block.addTransaction(trx);
+        block.setMerkleRoot();
+        block.sign(witnessKey);
+        manager.pushBlock(block);
+        recipients.add(recipient);
+      }
+      Assert.assertEquals(BLOCKS,
+          manager.getDynamicPropertiesStore().getLatestBlockHeaderNumber());
+    } finally {
+      context.close();
+      Args.clearParam();
+    }
+    return recipients;
+  }
+}
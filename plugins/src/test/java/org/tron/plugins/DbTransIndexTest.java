@@ -0,0 +1,80 @@
+package org.tron.plugins;
+
+import com.google.protobuf.ByteString;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tron.plugins.utils.ByteArray;
+import org.tron.plugins.utils.DBUtils;
+import org.tron.plugins.utils.db.DBInterface;
+import org.tron.plugins.utils.db.LevelDBImpl;
+import org.tron.protos.Protocol.TransactionInfo;
+import org.tron.protos.Protocol.TransactionRet;
+import picocli.CommandLine;
+
+public class DbTransIndexTest {
+
+  private static final String RET_DB = "transactionRetStore";
+  private static final String INDEX_DB = "transactionRetIndex";
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  CommandLine cli = new CommandLine(new Toolkit());
+
+  private static byte[] id(long block, int i) {
+    return ByteBuffer.allocate(32).putLong(block).putInt(i).array();
+  }
+
+  @Test
+  public void testIndex() throws IOException {
+    File database = Paths.get(folder.newFolder().getPath(), "database").toFile();
+    Assert.assertTrue(database.mkdirs());
+
+    try (DBInterface ret = new LevelDBImpl(
+        DBUtils.newLevelDb(Paths.get(database.toString(), RET_DB)), RET_DB)) {
+      for (long block = 1; block <= 5; block++) {
+        TransactionRet.Builder builder = TransactionRet.newBuilder()
+            .setBlockNumber(block).setBlockTimeStamp(block * 3000);
+        for (int i = 0; i < 10; i++) {
+          builder.addTransactioninfo(TransactionInfo.newBuilder()
+              .setId(ByteString.copyFrom(id(block, i))).setBlockNumber(block).setFee(i));
+        }
+        ret.put(ByteArray.fromLong(block), builder.build().toByteArray());
+      }
+    }
+
+    String[] args = new String[] {"db", "trans-index", database.toString(), "--benchmark", "20"};
+    Assert.assertEquals(0, cli.execute(args));
+
+    try (DBInterface ret = new LevelDBImpl(
+        DBUtils.newLevelDb(Paths.get(database.toString(), RET_DB)), RET_DB);
+         DBInterface index = new LevelDBImpl(
+             DBUtils.newLevelDb(Paths.get(database.toString(), INDEX_DB)), INDEX_DB)) {
+      ByteBuffer position = ByteBuffer.wrap(index.get(id(4, 7)));
+      Assert.assertEquals(4, position.getLong());
+      TransactionInfo info = TransactionInfo.parser().parseFrom(
+          ret.get(ByteArray.fromLong(4)), position.getInt(), position.getInt());
+      Assert.assertArrayEquals(id(4, 7), info.getId().toByteArray());
+      Assert.assertEquals(7, info.getFee());
+    }
+  }
+
+  @Test
+  public void testHelp() {
+    String[] args = new String[] {"db", "trans-index", "-h"};
+    Assert.assertEquals(0, cli.execute(args));
+  }
+
+  @Test
+  public void testNotExist() throws IOException {
+    File database = Paths.get(folder.newFolder().getPath(), "database").toFile();
+    String[] args = new String[] {"db", "trans-index", database.toString()};
+    Assert.assertEquals(404, cli.execute(args));
+  }
+}